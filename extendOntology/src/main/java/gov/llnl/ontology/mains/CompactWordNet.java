@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+
+import edu.ucla.sspace.common.ArgOptions;
+
+
+/**
+ * This runnable class folds a WordNet journal into a new dictionary.  The
+ * base dictionary is loaded, every modification in the journal is applied,
+ * and the result is saved as a complete dictionary along with a new, empty,
+ * journal that later jobs can record their modifications in.
+ *
+ * @author Keith Stevens
+ */
+public class CompactWordNet {
+
+    public static void main(String[] args) throws Exception {
+        ArgOptions options = new ArgOptions();
+        options.addOption('n', "newJournalFile",
+                          "Specifies the journal to create for the new " +
+                          "dictionary. (Default: <newDictPath>/journal)",
+                          true, "FILE", "Optional");
+        options.parseOptions(args);
+
+        if (options.numPositionalArgs() != 3) {
+            System.err.println(
+                    "usage: java CompactWordNet [options] " +
+                    "<dictPath> <journalFile> <newDictPath>\n" +
+                    options.prettyPrint());
+            System.exit(1);
+        }
+
+        String newDictPath = options.getPositionalArg(2);
+        String newJournalFile = (options.hasOption('n'))
+            ? options.getStringOption('n')
+            : newDictPath + "/journal";
+
+        long start = System.currentTimeMillis();
+        WordNetCorpusReader wordnet = WordNetCorpusReader.initialize(
+                options.getPositionalArg(0), options.getPositionalArg(1));
+        System.out.printf("Replayed journal in %d ms\n",
+                          System.currentTimeMillis() - start);
+
+        start = System.currentTimeMillis();
+        wordnet.compact(newDictPath, newJournalFile);
+        wordnet.closeJournal();
+        System.out.printf("Compacted dictionary in %d ms\n",
+                          System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.wordnet.InformationContentCounter;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+
+import edu.ucla.sspace.common.ArgOptions;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * This runnable class computes the information content counts of every
+ * {@link Synset} in a WordNet dictionary and saves them with {@link
+ * WordNetCorpusReader#saveInformationContent}.  By default each input file is
+ * treated as raw text with one document per line, each line is split into
+ * lower cased tokens, and every token is counted as a noun or verb lemma.
+ * Batches of lines are counted by a pool of threads.  Alternatively, the
+ * input files may hold the lemma counts written by {@link
+ * gov.llnl.ontology.mapreduce.stats.InformationContentCountMR}, with one
+ * lemma, part of speech, and count per line.
+ *
+ * @author Keith Stevens
+ */
+public class ComputeInformationContent {
+
+    /**
+     * The number of lines counted by each task.
+     */
+    private static final int BATCH_SIZE = 10000;
+
+    public static void main(String[] args) throws Exception {
+        ArgOptions options = new ArgOptions();
+        options.addOption('c', "countFiles",
+                          "If set, the input files hold lemma counts " +
+                          "rather than raw text",
+                          false, null, "Optional");
+        options.addOption('t', "numThreads",
+                          "Specifies the number of threads to use. " +
+                          "(Default: number of processors)",
+                          true, "INT", "Optional");
+        options.parseOptions(args);
+
+        if (options.numPositionalArgs() < 3) {
+            System.err.println(
+                    "usage: java ComputeInformationContent [options] " +
+                    "<dictPath> <icFile> <inputFile>+\n" +
+                    options.prettyPrint());
+            System.exit(1);
+        }
+
+        int numThreads = (options.hasOption('t'))
+            ? options.getIntOption('t')
+            : Runtime.getRuntime().availableProcessors();
+
+        WordNetCorpusReader wordnet = WordNetCorpusReader.initialize(
+                options.getPositionalArg(0));
+        InformationContentCounter counter =
+            new InformationContentCounter(wordnet);
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (int i = 2; i < options.numPositionalArgs(); ++i) {
+                String inputFile = options.getPositionalArg(i);
+                if (options.hasOption('c'))
+                    readCounts(inputFile, counter);
+                else
+                    countText(inputFile, counter, executor, numThreads);
+            }
+
+            Map<Synset, Long> synsetCounts =
+                counter.synsetCounts(executor, numThreads);
+            wordnet.saveInformationContent(
+                    synsetCounts, options.getPositionalArg(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Adds the lemma counts in {@code countFile} to {@code counter}.  Each
+     * line holds a lemma, an optional part of speech, and a count.
+     */
+    private static void readCounts(String countFile,
+                                   InformationContentCounter counter)
+            throws Exception {
+        BufferedReader br = new BufferedReader(new FileReader(countFile));
+        for (String line = null; (line = br.readLine()) != null; ) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length < 2)
+                continue;
+            PartsOfSpeech pos = (parts.length > 2)
+                ? PartsOfSpeech.fromId(parts[1])
+                : null;
+            counter.addCount(parts[0], pos,
+                             Long.parseLong(parts[parts.length - 1]));
+        }
+        br.close();
+    }
+
+    /**
+     * Counts the tokens in {@code textFile} in batches of lines and adds them
+     * to {@code counter}.  At most two batches per thread are queued at any
+     * time so that large files are not held in memory.
+     */
+    private static void countText(String textFile,
+                                  final InformationContentCounter counter,
+                                  ExecutorService executor,
+                                  int numThreads) throws Exception {
+        Queue<Future<?>> pending = new LinkedList<Future<?>>();
+        BufferedReader br = new BufferedReader(new FileReader(textFile));
+        List<String> batch = new ArrayList<String>(BATCH_SIZE);
+        for (String line = null; (line = br.readLine()) != null; ) {
+            batch.add(line);
+            if (batch.size() < BATCH_SIZE)
+                continue;
+
+            if (pending.size() >= 2 * numThreads)
+                pending.remove().get();
+            pending.add(executor.submit(new BatchCounter(batch, counter)));
+            batch = new ArrayList<String>(BATCH_SIZE);
+        }
+        br.close();
+
+        if (batch.size() > 0)
+            pending.add(executor.submit(new BatchCounter(batch, counter)));
+        while (!pending.isEmpty())
+            pending.remove().get();
+    }
+
+    /**
+     * Counts the tokens in a batch of lines locally and then adds the counts
+     * to the shared {@link InformationContentCounter}.
+     */
+    private static class BatchCounter implements Runnable {
+
+        private final List<String> lines;
+
+        private final InformationContentCounter counter;
+
+        public BatchCounter(List<String> lines,
+                            InformationContentCounter counter) {
+            this.lines = lines;
+            this.counter = counter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void run() {
+            Map<String, long[]> tokenCounts = new HashMap<String, long[]>();
+            for (String line : lines) {
+                for (String token : line.toLowerCase().split("[^\\w'-]+")) {
+                    if (token.length() == 0)
+                        continue;
+                    long[] count = tokenCounts.get(token);
+                    if (count == null) {
+                        count = new long[1];
+                        tokenCounts.put(token, count);
+                    }
+                    count[0]++;
+                }
+            }
+
+            for (Map.Entry<String, long[]> e : tokenCounts.entrySet())
+                counter.addCount(e.getKey(), null, e.getValue()[0]);
+        }
+    }
+}
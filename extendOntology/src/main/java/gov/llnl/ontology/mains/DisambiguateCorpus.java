@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.util.ExecutorUtil;
+import gov.llnl.ontology.wordnet.CompactOntologyReader;
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+import gov.llnl.ontology.wordnet.wsd.WordSenseDisambiguation;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import edu.ucla.sspace.common.ArgOptions;
+import edu.ucla.sspace.util.ReflectionUtil;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * This runnable class disambiguates every content word in a corpus of part of
+ * speech tagged documents using several threads.  The corpus is read from
+ * CoNLL formatted files, where each token is a line of tab separated fields
+ * with the word in the second field and the part of speech in the fifth
+ * field, sentences are separated by blank lines, and a line starting with
+ * {@code -DOCSTART-} begins a new document.
+ *
+ * </p>
+ *
+ * Documents are streamed from the corpus and disambiguated by a fixed pool of
+ * worker threads.  One {@link WordSenseDisambiguation} instance is created
+ * and set up for each worker before any document is read, since most
+ * implementations keep state while disambiguating, and every instance shares
+ * a single read only {@link CompactOntologyReader}.  Each document borrows an
+ * idle instance while it is disambiguated.  Only a few documents per worker
+ * are held in memory at any time.  Each token line is written back out, in
+ * the input order, with the name of the selected sense, or {@code _} if no
+ * sense was selected, appended as a new field.  The time spent setting up
+ * the instances is reported separately from the throughput, in sentences per
+ * second, of disambiguating the corpus.
+ *
+ * @author Keith Stevens
+ */
+public class DisambiguateCorpus {
+
+    /**
+     * The prefix of lines that begin a new document.
+     */
+    public static final String DOCUMENT_START = "-DOCSTART-";
+
+    /**
+     * The number of documents held in memory for each worker thread.
+     */
+    private static final int DOCUMENTS_PER_THREAD = 4;
+
+    public static void main(String[] args) throws Exception {
+        ArgOptions options = new ArgOptions();
+        options.addOption('w', "wsdAlgorithm",
+                          "Specifies the WordSenseDisambiguation class to " +
+                          "use. (Default: PersonalizedPageRankWSD)",
+                          true, "CLASSNAME", "Optional");
+        options.addOption('t', "threads",
+                          "Specifies the number of worker threads. " +
+                          "(Default: the number of processors)",
+                          true, "INT", "Optional");
+        options.addOption('o', "outputFile",
+                          "Specifies the file that will hold the tagged " +
+                          "corpus. (Default: standard out)",
+                          true, "FILE", "Optional");
+        options.parseOptions(args);
+
+        if (options.numPositionalArgs() < 2) {
+            System.err.println(
+                    "usage: java DisambiguateCorpus [options] " +
+                    "<dictPath> <corpusFile>+\n" +
+                    options.prettyPrint());
+            System.exit(1);
+        }
+
+        final String wsdClass = (options.hasOption('w'))
+            ? options.getStringOption('w')
+            : "gov.llnl.ontology.wordnet.wsd.PersonalizedPageRankWSD";
+        int numThreads = (options.hasOption('t'))
+            ? options.getIntOption('t')
+            : Runtime.getRuntime().availableProcessors();
+        PrintWriter writer = (options.hasOption('o'))
+            ? new PrintWriter(new FileWriter(options.getStringOption('o')))
+            : new PrintWriter(new OutputStreamWriter(System.out));
+
+        OntologyReader reader = new CompactOntologyReader(
+                WordNetCorpusReader.initialize(options.getPositionalArg(0)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            // Set up every worker's algorithm before timing the corpus, since
+            // setup can take far longer than disambiguating a document.
+            long setupStart = System.currentTimeMillis();
+            BlockingQueue<WordSenseDisambiguation> wsdAlgs =
+                setupAlgorithms(wsdClass, reader, numThreads, executor);
+            System.err.printf("Set up %d instances of %s in %.3f seconds\n",
+                              numThreads, wsdClass,
+                              (System.currentTimeMillis() - setupStart) /
+                              1000.0);
+
+            DocumentPipeline pipeline = new DocumentPipeline(
+                    executor, wsdAlgs, numThreads * DOCUMENTS_PER_THREAD,
+                    writer);
+            long start = System.currentTimeMillis();
+            for (int f = 1; f < options.numPositionalArgs(); ++f) {
+                ConllReader corpus = new ConllReader(
+                        options.getPositionalArg(f));
+                pipeline.disambiguate(corpus);
+                corpus.close();
+            }
+            pipeline.finish();
+
+            double seconds = Math.max(1, System.currentTimeMillis() - start) /
+                             1000.0;
+            System.err.printf("Disambiguated %d documents and %d sentences " +
+                              "in %.3f seconds: %.1f sentences per second\n",
+                              pipeline.numDocuments(),
+                              pipeline.numSentences(), seconds,
+                              pipeline.numSentences() / seconds);
+        } finally {
+            executor.shutdownNow();
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns {@code numInstances} instances of {@code wsdClass}, each set up
+     * with {@code reader}.  The instances are set up in parallel by {@code
+     * executor}.
+     */
+    private static BlockingQueue<WordSenseDisambiguation> setupAlgorithms(
+            final String wsdClass,
+            final OntologyReader reader,
+            int numInstances,
+            ExecutorService executor) throws ExecutionException {
+        List<Callable<WordSenseDisambiguation>> tasks =
+            new ArrayList<Callable<WordSenseDisambiguation>>();
+        for (int i = 0; i < numInstances; ++i)
+            tasks.add(new Callable<WordSenseDisambiguation>() {
+                public WordSenseDisambiguation call() {
+                    WordSenseDisambiguation wsdAlg =
+                        ReflectionUtil.getObjectInstance(wsdClass);
+                    wsdAlg.setup(reader);
+                    return wsdAlg;
+                }
+            });
+        return new ArrayBlockingQueue<WordSenseDisambiguation>(
+                numInstances, false, ExecutorUtil.runAll(executor, tasks));
+    }
+
+    /**
+     * Disambiguates documents in parallel and writes them out in the order
+     * they were given.  Each document borrows an idle {@link
+     * WordSenseDisambiguation} instance while it is disambiguated.  At most
+     * {@code maxPending} documents are held in memory, after which the
+     * oldest document must be written before another is read.
+     */
+    /* package private */ static class DocumentPipeline {
+
+        private final ExecutorService executor;
+
+        /**
+         * The {@link WordSenseDisambiguation} instances that are not being
+         * used.
+         */
+        private final BlockingQueue<WordSenseDisambiguation> wsdAlgs;
+
+        private final int maxPending;
+
+        private final PrintWriter writer;
+
+        /**
+         * The documents that have been submitted but not yet written, in the
+         * order they were read.
+         */
+        private final Queue<Future<ConllDocument>> pending;
+
+        private long numDocuments;
+
+        private long numSentences;
+
+        public DocumentPipeline(ExecutorService executor,
+                                BlockingQueue<WordSenseDisambiguation> wsdAlgs,
+                                int maxPending,
+                                PrintWriter writer) {
+            this.executor = executor;
+            this.wsdAlgs = wsdAlgs;
+            this.maxPending = maxPending;
+            this.writer = writer;
+            this.pending = new LinkedList<Future<ConllDocument>>();
+        }
+
+        /**
+         * Submits every document in {@code corpus}, writing the documents
+         * that finish along the way.
+         */
+        public void disambiguate(ConllReader corpus) {
+            for (ConllDocument doc = null; (doc = corpus.next()) != null; ) {
+                // Wait for the oldest document to finish before reading more
+                // of the corpus so that the output stays in order and memory
+                // use is bounded.
+                if (pending.size() >= maxPending)
+                    numSentences += write(pending.remove(), writer);
+
+                final ConllDocument document = doc;
+                pending.add(executor.submit(new Callable<ConllDocument>() {
+                    public ConllDocument call() throws InterruptedException {
+                        WordSenseDisambiguation wsdAlg = wsdAlgs.take();
+                        try {
+                            wsdAlg.disambiguate(document.sentences());
+                        } finally {
+                            wsdAlgs.add(wsdAlg);
+                        }
+                        return document;
+                    }
+                }));
+                numDocuments++;
+            }
+        }
+
+        /**
+         * Waits for every submitted document and writes it.
+         */
+        public void finish() {
+            while (!pending.isEmpty())
+                numSentences += write(pending.remove(), writer);
+        }
+
+        /**
+         * Returns the number of documents submitted.
+         */
+        public long numDocuments() {
+            return numDocuments;
+        }
+
+        /**
+         * Returns the number of sentences written.
+         */
+        public long numSentences() {
+            return numSentences;
+        }
+    }
+
+    /**
+     * Waits for {@code result} to be disambiguated, writes it to {@code
+     * writer}, and returns the number of sentences written.
+     */
+    private static int write(Future<ConllDocument> result,
+                             PrintWriter writer) {
+        ConllDocument document;
+        try {
+            document = result.get();
+        } catch (InterruptedException ie) {
+            throw new IllegalStateException(
+                    "Interrupted while disambiguating a document", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ee.getCause();
+            throw new IllegalStateException(ee.getCause());
+        }
+
+        if (document.header != null)
+            writer.println(document.header);
+        for (int s = 0; s < document.sentences.size(); ++s) {
+            String[] lines = document.lines.get(s);
+            int t = 0;
+            for (Annotation annot : document.sentences.get(s)) {
+                String sense = AnnotationUtil.wordSense(annot);
+                writer.println(lines[t++] + "\t" +
+                               ((sense == null) ? "_" : sense));
+            }
+            writer.println();
+        }
+        return document.sentences.size();
+    }
+
+    /**
+     * The sentences of a single document along with the token lines they were
+     * read from.
+     */
+    /* package private */ static class ConllDocument {
+
+        /**
+         * The line that began this document, if any.
+         */
+        private final String header;
+
+        /**
+         * The token lines of each sentence.
+         */
+        private final List<String[]> lines;
+
+        /**
+         * The {@link Sentence}s built from each set of token lines.
+         */
+        private final List<Sentence> sentences;
+
+        public ConllDocument(String header) {
+            this.header = header;
+            this.lines = new ArrayList<String[]>();
+            this.sentences = new ArrayList<Sentence>();
+        }
+
+        /**
+         * Adds a {@link Sentence} holding the word and part of speech of each
+         * token line in {@code tokenLines}.
+         */
+        public void addSentence(List<String> tokenLines) {
+            String[] sentenceLines = tokenLines.toArray(
+                    new String[tokenLines.size()]);
+            Sentence sentence = new Sentence(0, 1, sentenceLines.length);
+            for (int i = 0; i < sentenceLines.length; ++i) {
+                String[] toks = sentenceLines[i].split("\\t");
+                if (toks.length < 5)
+                    throw new IllegalArgumentException(
+                            "Malformed CoNLL line: " + sentenceLines[i]);
+                Annotation annot = new Annotation(toks[1]);
+                AnnotationUtil.setPos(annot, toks[4]);
+                sentence.addAnnotation(i, annot);
+            }
+            lines.add(sentenceLines);
+            sentences.add(sentence);
+        }
+
+        /**
+         * Returns the line that began this document, or {@code null} if it
+         * had none.
+         */
+        public String header() {
+            return header;
+        }
+
+        /**
+         * Returns the {@link Sentence}s of this document.
+         */
+        public List<Sentence> sentences() {
+            return sentences;
+        }
+
+        /**
+         * Returns the token lines of each {@link Sentence}.
+         */
+        public List<String[]> lines() {
+            return lines;
+        }
+    }
+
+    /**
+     * Reads {@link ConllDocument}s from a CoNLL formatted file one at a time.
+     * Documents begin at each line starting with {@link #DOCUMENT_START},
+     * and sentences end at each blank line, at the start of a new document,
+     * and at the end of the file.
+     */
+    /* package private */ static class ConllReader {
+
+        private final BufferedReader br;
+
+        /**
+         * The line that began the next document, if it has already been read.
+         */
+        private String nextHeader;
+
+        /**
+         * Set to true once the end of the file has been reached.
+         */
+        private boolean done;
+
+        public ConllReader(String conllFile) {
+            try {
+                br = new BufferedReader(new FileReader(conllFile));
+            } catch (IOException ioe) {
+                throw new IOError(ioe);
+            }
+        }
+
+        /**
+         * Returns the next document in the file, or {@code null} if there
+         * are no more documents.
+         */
+        public ConllDocument next() {
+            if (done)
+                return null;
+
+            ConllDocument document = new ConllDocument(nextHeader);
+            nextHeader = null;
+            List<String> tokenLines = new ArrayList<String>();
+            try {
+                for (String line = null; (line = br.readLine()) != null; ) {
+                    if (line.startsWith(DOCUMENT_START)) {
+                        addSentence(document, tokenLines);
+                        // Skip the empty document before the first header.
+                        if (document.header == null &&
+                            document.sentences.isEmpty()) {
+                            document = new ConllDocument(line);
+                            continue;
+                        }
+                        nextHeader = line;
+                        return document;
+                    }
+
+                    if (line.trim().length() == 0)
+                        addSentence(document, tokenLines);
+                    else
+                        tokenLines.add(line);
+                }
+            } catch (IOException ioe) {
+                throw new IOError(ioe);
+            }
+
+            done = true;
+            addSentence(document, tokenLines);
+            return (document.header == null && document.sentences.isEmpty())
+                ? null
+                : document;
+        }
+
+        /**
+         * Adds the sentence in {@code tokenLines}, if any, to {@code
+         * document} and clears {@code tokenLines}.
+         */
+        private static void addSentence(ConllDocument document,
+                                        List<String> tokenLines) {
+            if (tokenLines.isEmpty())
+                return;
+            document.addSentence(tokenLines);
+            tokenLines.clear();
+        }
+
+        public void close() {
+            try {
+                br.close();
+            } catch (IOException ioe) {
+                throw new IOError(ioe);
+            }
+        }
+    }
+}
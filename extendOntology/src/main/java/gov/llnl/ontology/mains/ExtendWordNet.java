@@ -27,6 +27,7 @@ import gov.llnl.ontology.util.MahoutSparseVector;
 
 import gov.llnl.ontology.wordnet.OntologyReader;
 import gov.llnl.ontology.wordnet.PathSimilarity;
+import gov.llnl.ontology.wordnet.SubsumptionIndex;
 import gov.llnl.ontology.wordnet.Synset;
 import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
 import gov.llnl.ontology.wordnet.SynsetRelations;
@@ -115,6 +116,8 @@ public class ExtendWordNet {
 
     private OnlineLogisticRegression cousinPredictor;
 
+    private SubsumptionIndex subsumptionIndex;
+
     public static void main(String[] args) throws Exception {
         ArgOptions options = new ArgOptions();
         options.addOption('w', "wordnetDir",
@@ -167,6 +170,7 @@ public class ExtendWordNet {
                 new ConjunctionTransform(),
                 wnBuilder,
                 options.numPositionalArgs());
+        builder.setSubsumptionIndex(new SubsumptionIndex(wordnet));
 
         // Iterate over each document in the corpus and gather evidence.
         Iterator<Document> corpusIter = new DependencyFileDocumentIterator(
@@ -313,6 +317,15 @@ public class ExtendWordNet {
 
     }
 
+    /**
+     * Sets the {@link SubsumptionIndex} used to label known hypernym and
+     * non-hypernym evidence.  If no index is set, each noun pair is labeled by
+     * walking the hypernym paths of both terms.
+     */
+    public void setSubsumptionIndex(SubsumptionIndex subsumptionIndex) {
+        this.subsumptionIndex = subsumptionIndex;
+    }
+
     /**
      * Applies similarity scores for each of the word pairs in the evidence
      * maps.
@@ -446,7 +459,8 @@ public class ExtendWordNet {
             // Otherwise determine the relationship between the two words and
             // then select the correct map.
             HypernymStatus hypernymEvidenceStatus = 
-                SynsetRelations.getHypernymStatus(firstTerm, secondTerm);
+                SynsetRelations.getHypernymStatus(
+                        firstTerm, secondTerm, subsumptionIndex);
             switch (hypernymEvidenceStatus) {
                 case KNOWN_HYPERNYM:
                     knownPositives.add(firstTerm, secondTerm, path);
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.wordnet.HirstStOngeSimilarity;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+import gov.llnl.ontology.wordnet.SynsetSimilarity;
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+
+import edu.ucla.sspace.common.ArgOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * This runnable class measures the cost of computing the {@link
+ * HirstStOngeSimilarity} between pairs of noun senses that share a lemma,
+ * which are the pairs compared by {@link
+ * gov.llnl.ontology.wordnet.feature.SnowEtAlFeatureMaker}.  It compares the
+ * exhaustive recursive search that {@link HirstStOngeSimilarity} used to do,
+ * which follows every valid path of up to five links, against the current
+ * breadth first search, and reports any pair for which the two scores
+ * differ.
+ *
+ * @author Keith Stevens
+ */
+public class HirstStOngeBenchmark {
+
+    /**
+    * The fixed value for C when computing the best score.
+    */
+    private static final double C = 8;
+
+    private static Relation[] UP_RELATION = {
+        Relation.HYPERNYM, Relation.MEMBER_MERONYM,
+        Relation.SUBSTANCE_MERONYM, Relation.PART_MERONYM
+    };
+
+    private static Relation[] DOWN_RELATION = {
+        Relation.HYPONYM, Relation.MEMBER_HOLONYM, Relation.SUBSTANCE_HOLONYM, 
+        Relation.PART_HOLONYM, Relation.CAUSE, Relation.ENTAILMENT
+    };
+
+    private static Relation[] SIDE_RELATION = {
+        Relation.ALSO_SEE, Relation.ATTRIBUTE, 
+        Relation.ANTONYM, Relation.SIMILAR_TO
+    };
+
+    public static void main(String[] args) {
+        ArgOptions options = new ArgOptions();
+        options.addOption('n', "numPairs",
+                          "Specifies the maximum number of sense pairs to " +
+                          "compare. (Default: 10000)",
+                          true, "INT", "Optional");
+        options.addOption('s', "seed",
+                          "Specifies the seed used to sample sense pairs. " +
+                          "(Default: 1)",
+                          true, "INT", "Optional");
+        options.parseOptions(args);
+
+        if (options.numPositionalArgs() != 1) {
+            System.err.println(
+                    "usage: java HirstStOngeBenchmark [options] <dictPath>\n" +
+                    options.prettyPrint());
+            System.exit(1);
+        }
+
+        int numPairs = (options.hasOption('n'))
+            ? options.getIntOption('n')
+            : 10000;
+        int seed = (options.hasOption('s')) ? options.getIntOption('s') : 1;
+
+        WordNetCorpusReader wordnet = WordNetCorpusReader.initialize(
+                options.getPositionalArg(0));
+
+        // Gather every pair of senses for each polysemous noun and sample
+        // the pairs to compare.
+        List<Synset[]> pairs = new ArrayList<Synset[]>();
+        for (String lemma : wordnet.wordnetTerms(PartsOfSpeech.NOUN)) {
+            Synset[] senses = wordnet.getSynsets(lemma, PartsOfSpeech.NOUN);
+            for (int i = 0; i < senses.length; ++i)
+                for (int j = i + 1; j < senses.length; ++j)
+                    pairs.add(new Synset[] {senses[i], senses[j]});
+        }
+        Collections.shuffle(pairs, new Random(seed));
+        if (pairs.size() > numPairs)
+            pairs = pairs.subList(0, numPairs);
+
+        // Time the original exhaustive search.
+        double[] recursiveScores = new double[pairs.size()];
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < pairs.size(); ++i)
+            recursiveScores[i] = recursiveSimilarity(
+                    pairs.get(i)[0], pairs.get(i)[1]);
+        report("Recursive search", pairs.size(), start);
+
+        // Time the breadth first search.
+        SynsetSimilarity similarity = new HirstStOngeSimilarity();
+        double[] scores = new double[pairs.size()];
+        start = System.currentTimeMillis();
+        for (int i = 0; i < pairs.size(); ++i)
+            scores[i] = similarity.similarity(
+                    pairs.get(i)[0], pairs.get(i)[1]);
+        report("Breadth first search", pairs.size(), start);
+
+        int numDifferent = 0;
+        for (int i = 0; i < scores.length; ++i)
+            if (scores[i] != recursiveScores[i]) {
+                numDifferent++;
+                System.out.printf("Scores differ for %s and %s: %f %f\n",
+                                  pairs.get(i)[0].getName(),
+                                  pairs.get(i)[1].getName(),
+                                  recursiveScores[i], scores[i]);
+            }
+        System.out.printf("%d of %d scores differ\n",
+                          numDifferent, scores.length);
+    }
+
+    /**
+     * Prints the number of pairs compared and the time since {@code start}.
+     */
+    private static void report(String label, int count, long start) {
+        System.out.printf("%s: %d pairs in %d ms\n",
+                          label, count, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Returns the {@link HirstStOngeSimilarity} of two {@link Synset}s by
+     * following every valid path from {@code synset1}.
+     */
+    private static double recursiveSimilarity(Synset synset1,
+                                              Synset synset2) {
+        double bestScore = 0;
+        for (Relation relation : UP_RELATION)
+            for (Synset related : synset1.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState1(1, 0, related, synset2));
+
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : synset1.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState3(1, 0, related, synset2));
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : synset1.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState2(1, 0, related, synset2));
+        return bestScore / C;
+    }
+
+    /**
+     * Follows paths that have only gone upward.
+     */
+    private static double hsoState1(int depth, int dirChange,
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : UP_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState1(depth, dirChange, related, dest));
+
+        dirChange++;
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState2(depth, dirChange, related, dest));
+
+        return bestScore;
+    }
+
+    /**
+     * Follows paths whose last link went sideways.
+     */
+    private static double hsoState2(int depth, int dirChange, 
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState2(depth, dirChange, related, dest));
+
+        dirChange++;
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+
+        return bestScore;
+    }
+
+    /**
+     * Follows paths that have only gone downward.
+     */
+    private static double hsoState3(int depth, int dirChange, 
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+
+        dirChange++;
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState5(depth, dirChange, related, dest));
+
+        return bestScore;
+    }
+
+    /**
+     * Follows paths that may only go downward.
+     */
+    private static double hsoState4(int depth, int dirChange, 
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+
+        return bestScore;
+    }
+
+    /**
+     * Follows paths that may only go sideways.
+     */
+    private static double hsoState5(int depth, int dirChange, 
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState5(depth, dirChange, related, dest));
+
+        return bestScore;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.wordnet.AncestorIndex;
+import gov.llnl.ontology.wordnet.BaseSynset;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import edu.ucla.sspace.common.ArgOptions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * This runnable class measures the cost of enumerating hypernym paths over a
+ * synthetic hierarchy in which every {@link Synset} has several parents, which
+ * is the worst case for path enumeration since the number of paths grows
+ * exponentially with the depth of the hierarchy.  It compares recomputing
+ * every path on each request, which is what {@link BaseSynset#getParentPaths}
+ * used to do, against the cached path prefixes now held by each {@link
+ * BaseSynset}, both when the cache is cold and when it is warm, and against
+ * the lazy {@link BaseSynset#parentPathIterator} when only a few paths are
+ * needed.
+ *
+ * @author Keith Stevens
+ */
+public class ParentPathBenchmark {
+
+    public static void main(String[] args) {
+        ArgOptions options = new ArgOptions();
+        options.addOption('d', "depth",
+                          "Specifies the number of levels in the hierarchy. " +
+                          "(Default: 12)",
+                          true, "INT", "Optional");
+        options.addOption('w', "width",
+                          "Specifies the number of synsets in each level. " +
+                          "(Default: 20)",
+                          true, "INT", "Optional");
+        options.addOption('p', "numParents",
+                          "Specifies the number of parents for each synset. " +
+                          "(Default: 2)",
+                          true, "INT", "Optional");
+        options.addOption('r', "numRepetitions",
+                          "Specifies the number of times the deepest level " +
+                          "is queried. (Default: 10)",
+                          true, "INT", "Optional");
+        options.addOption('k', "numPaths",
+                          "Specifies the number of paths read from the lazy " +
+                          "iterator. (Default: 5)",
+                          true, "INT", "Optional");
+        options.parseOptions(args);
+
+        int depth = (options.hasOption('d')) ? options.getIntOption('d') : 12;
+        int width = (options.hasOption('w')) ? options.getIntOption('w') : 20;
+        int numParents = (options.hasOption('p'))
+            ? options.getIntOption('p')
+            : 2;
+        int numRepetitions = (options.hasOption('r'))
+            ? options.getIntOption('r')
+            : 10;
+        int numPaths = (options.hasOption('k'))
+            ? options.getIntOption('k')
+            : 5;
+
+        List<BaseSynset> leaves = buildHierarchy(
+                depth, width, numParents, new Random(1));
+
+        // Time the original recursive enumeration.
+        long start = System.currentTimeMillis();
+        long count = 0;
+        for (int r = 0; r < numRepetitions; ++r)
+            for (Synset leaf : leaves)
+                count += enumeratePaths(leaf).size();
+        report("Uncached enumeration", count, start);
+
+        // Time the first request, which must build the cached prefixes.
+        AncestorIndex.hierarchyChanged();
+        start = System.currentTimeMillis();
+        count = 0;
+        for (Synset leaf : leaves)
+            count += leaf.getParentPaths().size();
+        report("Cached enumeration (cold)", count, start);
+
+        // Time repeated requests which should be served from the cache.
+        start = System.currentTimeMillis();
+        count = 0;
+        for (int r = 0; r < numRepetitions; ++r)
+            for (Synset leaf : leaves)
+                count += leaf.getParentPaths().size();
+        report("Cached enumeration (warm)", count, start);
+
+        // Time reading only a few paths from a cold cache.
+        AncestorIndex.hierarchyChanged();
+        start = System.currentTimeMillis();
+        count = 0;
+        for (BaseSynset leaf : leaves) {
+            Iterator<List<Synset>> paths = leaf.parentPathIterator();
+            for (int k = 0; k < numPaths && paths.hasNext(); ++k) {
+                paths.next();
+                count++;
+            }
+        }
+        report("Lazy iteration (cold)", count, start);
+    }
+
+    /**
+     * Returns the deepest level of a hierarchy where each {@link Synset}
+     * below the root level has {@code numParents} randomly selected parents
+     * in the level above it.
+     */
+    private static List<BaseSynset> buildHierarchy(int depth,
+                                                   int width,
+                                                   int numParents,
+                                                   Random random) {
+        List<BaseSynset> level = new ArrayList<BaseSynset>();
+        for (int w = 0; w < width; ++w)
+            level.add(new BaseSynset(PartsOfSpeech.NOUN));
+
+        for (int d = 1; d < depth; ++d) {
+            List<BaseSynset> nextLevel = new ArrayList<BaseSynset>();
+            for (int w = 0; w < width; ++w) {
+                BaseSynset child = new BaseSynset(PartsOfSpeech.NOUN);
+                for (int p = 0; p < numParents; ++p) {
+                    Synset parent = level.get(random.nextInt(width));
+                    if (child.getParents().contains(parent))
+                        continue;
+                    child.addRelation(Relation.HYPERNYM, parent);
+                    parent.addRelation(Relation.HYPONYM, child);
+                }
+                nextLevel.add(child);
+            }
+            level = nextLevel;
+        }
+        return level;
+    }
+
+    /**
+     * Returns every hypernym path for {@code synset} by recursively
+     * enumerating the paths of each parent without any caching.
+     */
+    private static List<List<Synset>> enumeratePaths(Synset synset) {
+        List<List<Synset>> parentPaths = new ArrayList<List<Synset>>();
+        if (synset.getParents().size() == 0) {
+            List<Synset> path = new ArrayList<Synset>();
+            path.add(synset);
+            parentPaths.add(path);
+        } else {
+            for (Synset parent : synset.getParents()) {
+                for (List<Synset> ancestorList : enumeratePaths(parent)) {
+                    ancestorList.add(synset);
+                    parentPaths.add(ancestorList);
+                }
+            }
+        }
+        return parentPaths;
+    }
+
+    /**
+     * Prints the number of paths found and the time since {@code start}.
+     */
+    private static void report(String label, long count, long start) {
+        System.out.printf("%s: %d paths in %d ms\n",
+                          label, count, System.currentTimeMillis() - start);
+    }
+}
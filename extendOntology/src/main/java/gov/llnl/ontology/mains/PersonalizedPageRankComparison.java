@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.LocalPushPageRank;
+import gov.llnl.ontology.wordnet.PageRank;
+import gov.llnl.ontology.wordnet.PageRankSolver;
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+import gov.llnl.ontology.wordnet.wsd.PersonalizedPageRankWSD;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import edu.ucla.sspace.common.ArgOptions;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * This runnable class compares the accuracy and speed of {@link
+ * PersonalizedPageRankWSD} when it computes exact page rank scores with a
+ * {@link PageRankSolver} and when it approximates them with a {@link
+ * LocalPushPageRank} for several tolerances.  The sample file holds one
+ * sentence per line, where each token is written as {@code word/POS} or, if
+ * it is sense tagged, as {@code word/POS/sense} with the name of the correct
+ * {@link gov.llnl.ontology.wordnet.Synset}.  For each method, this reports
+ * the time spent disambiguating the sample, the fraction of sense tagged
+ * tokens that were given the correct sense, and the fraction of tokens given
+ * the same sense as the exact method.
+ *
+ * @author Keith Stevens
+ */
+public class PersonalizedPageRankComparison {
+
+    public static void main(String[] args) throws Exception {
+        ArgOptions options = new ArgOptions();
+        options.addOption('e', "epsilons",
+                          "Specifies a comma separated list of tolerances " +
+                          "for the approximate method. " +
+                          "(Default: 1e-4,1e-5,1e-6)",
+                          true, "DOUBLE[,DOUBLE]*", "Optional");
+        options.parseOptions(args);
+
+        if (options.numPositionalArgs() != 2) {
+            System.err.println(
+                    "usage: java PersonalizedPageRankComparison [options] " +
+                    "<dictPath> <sampleFile>\n" +
+                    options.prettyPrint());
+            System.exit(1);
+        }
+
+        String[] epsilons = (options.hasOption('e'))
+            ? options.getStringOption('e').split(",")
+            : new String[] {"1e-4", "1e-5", "1e-6"};
+
+        WordNetCorpusReader wordnet = WordNetCorpusReader.initialize(
+                options.getPositionalArg(0));
+        List<String[]> sample = readSample(options.getPositionalArg(1));
+
+        String[] exactSenses = disambiguate(
+                "Exact", new PageRankSolver(), wordnet, sample, null);
+        for (String epsilon : epsilons)
+            disambiguate("Local push (epsilon=" + epsilon + ")",
+                         new LocalPushPageRank(Double.parseDouble(epsilon)),
+                         wordnet, sample, exactSenses);
+    }
+
+    /**
+     * Returns the tokens of each sentence in {@code sampleFile}.
+     */
+    private static List<String[]> readSample(String sampleFile)
+            throws Exception {
+        List<String[]> sample = new ArrayList<String[]>();
+        BufferedReader br = new BufferedReader(new FileReader(sampleFile));
+        for (String line = null; (line = br.readLine()) != null; ) {
+            line = line.trim();
+            if (line.length() > 0)
+                sample.add(line.split("\\s+"));
+        }
+        br.close();
+        return sample;
+    }
+
+    /**
+     * Disambiguates every sentence in {@code sample} with {@code pageRank},
+     * prints the time taken and the accuracy of the selected senses, and
+     * returns the sense selected for each token.  If {@code exactSenses} is
+     * not {@code null}, the agreement with those senses is also printed.
+     */
+    private static String[] disambiguate(String label,
+                                         PageRank pageRank,
+                                         WordNetCorpusReader wordnet,
+                                         List<String[]> sample,
+                                         String[] exactSenses) {
+        // Build fresh sentences, since each run stores it's senses in the
+        // token annotations, and remember the correct sense of each token.
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        List<String> correctSenses = new ArrayList<String>();
+        for (String[] tokens : sample) {
+            Sentence sentence = new Sentence(0, 1, tokens.length);
+            for (int i = 0; i < tokens.length; ++i) {
+                String[] parts = tokens[i].split("/");
+                Annotation annot = new Annotation(parts[0]);
+                if (parts.length > 1)
+                    AnnotationUtil.setPos(annot, parts[1]);
+                sentence.addAnnotation(i, annot);
+                correctSenses.add((parts.length > 2) ? parts[2] : null);
+            }
+            sentences.add(sentence);
+        }
+
+        PersonalizedPageRankWSD wsdAlg = new PersonalizedPageRankWSD(pageRank);
+        long start = System.currentTimeMillis();
+        wsdAlg.setup(wordnet);
+        long setupTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        wsdAlg.disambiguate(sentences);
+        long time = System.currentTimeMillis() - start;
+
+        String[] senses = new String[correctSenses.size()];
+        int t = 0;
+        for (Sentence sentence : sentences)
+            for (Annotation annot : sentence)
+                senses[t++] = AnnotationUtil.wordSense(annot);
+
+        int numTagged = 0;
+        int numCorrect = 0;
+        int numAgree = 0;
+        for (t = 0; t < senses.length; ++t) {
+            String correct = correctSenses.get(t);
+            if (correct != null) {
+                numTagged++;
+                if (correct.equals(senses[t]))
+                    numCorrect++;
+            }
+            if (exactSenses != null &&
+                (senses[t] == null
+                 ? exactSenses[t] == null
+                 : senses[t].equals(exactSenses[t])))
+                numAgree++;
+        }
+
+        System.out.printf("%s: setup %d ms, disambiguation %d ms, " +
+                          "accuracy %.4f (%d/%d)",
+                          label, setupTime, time,
+                          numCorrect / (double) Math.max(1, numTagged),
+                          numCorrect, numTagged);
+        if (exactSenses != null)
+            System.out.printf(", agreement with exact %.4f",
+                              numAgree / (double) Math.max(1, senses.length));
+        System.out.println();
+        return senses;
+    }
+}
@@ -1,5 +1,6 @@
 package gov.llnl.ontology.mains;
 
+import gov.llnl.ontology.wordnet.GlossIndex;
 import gov.llnl.ontology.wordnet.OntologyReader;
 import gov.llnl.ontology.wordnet.Synset;
 import gov.llnl.ontology.wordnet.WordNetCorpusReader;
@@ -8,19 +9,25 @@ import gov.llnl.text.util.FileUtils;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
-import edu.ucla.sspace.basis.StringBasisMapping;
 import edu.ucla.sspace.common.ArgOptions;
-import edu.ucla.sspace.common.Similarity;
-import edu.ucla.sspace.vector.CompactSparseVector;
-import edu.ucla.sspace.vector.SparseDoubleVector;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
+ * Links each tag to the {@link Synset} whose gloss is most similar to the
+ * words that co-occur with the tag.  Each tag is represented by the counts of
+ * it's co-occurring words, and each candidate {@link Synset} for the tag is
+ * scored by the cosine similarity between those counts and the counts of the
+ * gloss tokens that co-occur with any tag.  Candidates are scored with a
+ * {@link GlossIndex} built over the glosses of every candidate, and ties
+ * between the best candidates go to the last one.
+ *
  * @author Keith Stevens
  */
 public class TagToSynsetLinker {
@@ -36,49 +43,55 @@ public class TagToSynsetLinker {
         options.parseOptions(args);
 
         OntologyReader reader = WordNetCorpusReader.initialize(
-                options.getStringOption('w'));
+                options.getStringOption('d'));
 
-        StringBasisMapping basis = new StringBasisMapping();
-        Map<String, SparseDoubleVector> tagVectors = Maps.newHashMap();
+        Map<String, Map<String, Double>> tagVectors = Maps.newHashMap();
+        Set<String> vocabulary = Sets.newHashSet();
         String tagFile = options.getStringOption('t');
         for (String line : FileUtils.iterateFileLines(tagFile)) {
             String[] tagWordCount = line.split("\\s+");
-            SparseDoubleVector tagVector = tagVectors.get(tagWordCount[0]);
+            Map<String, Double> tagVector = tagVectors.get(tagWordCount[0]);
             if (tagVector == null) {
-                tagVector = new CompactSparseVector();
+                tagVector = Maps.newHashMap();
                 tagVectors.put(tagWordCount[0], tagVector);
             }
-            int wordIndex = basis.getDimension(tagWordCount[1]);
-            int count = Integer.parseInt(tagWordCount[2]);
-            tagVector.add(wordIndex, count);
+            Double count = tagVector.get(tagWordCount[1]);
+            tagVector.put(tagWordCount[1],
+                          ((count == null) ? 0 : count) +
+                          Integer.parseInt(tagWordCount[2]));
+            vocabulary.add(tagWordCount[1]);
         }
 
-        basis.setReadOnly(true);
-
-        for (Map.Entry<String, SparseDoubleVector> e : tagVectors.entrySet()) {
-            String tag = e.getKey();
-            SparseDoubleVector vector = e.getValue();
-
+        // Find the candidate synsets for each tag and index their glosses,
+        // ignoring any gloss token that never co-occurs with a tag.
+        Map<String, List<Synset>> tagSynsets = Maps.newHashMap();
+        Set<Synset> allSynsets = Sets.newLinkedHashSet();
+        for (String tag : tagVectors.keySet()) {
             List<Synset> possibleSynsets = Lists.newArrayList();
             for (String tagItem : tag.split("/"))
                 possibleSynsets.addAll(Arrays.asList(
                             reader.getSynsets(tagItem)));
+            tagSynsets.put(tag, possibleSynsets);
+            allSynsets.addAll(possibleSynsets);
+        }
+        GlossIndex glossIndex = new GlossIndex(allSynsets, vocabulary);
 
-            Synset bestSynset = null;
-            double bestScore = -1.0;
-            for (Synset synset : possibleSynsets) {
-                SparseDoubleVector glossVector = new CompactSparseVector();
-                for (String glossToken : synset.getGloss().split("\\s+")) {
-                    int index = basis.getDimension(glossToken);
-                    if (index >= 0)
-                        glossVector.add(index, 1);
-                }
-                double score = Similarity.cosineSimilarity(vector, glossVector);
-                if (score >= bestScore) {
-                    bestScore = score;
-                    bestSynset = synset;
-                }
-            }
+        for (Map.Entry<String, Map<String, Double>> e : tagVectors.entrySet()) {
+            String tag = e.getKey();
+            List<Synset> possibleSynsets = tagSynsets.get(tag);
+            if (possibleSynsets.isEmpty())
+                continue;
+
+            // Ties go to the last of the best candidates, so the candidates
+            // are scored in reverse since the index favors earlier ones.  If
+            // no gloss shares a word with the tag, every candidate is equally
+            // poor, so use the last one.
+            List<GlossIndex.ScoredSynset> best = glossIndex.topSynsets(
+                    e.getValue(), Lists.reverse(possibleSynsets), 1,
+                    GlossIndex.Measure.COSINE);
+            Synset bestSynset = (best.isEmpty())
+                ? possibleSynsets.get(possibleSynsets.size() - 1)
+                : best.get(0).synset();
             System.out.printf("%s -> %s\n", tag, bestSynset.getName());
         }
     }
@@ -65,7 +65,8 @@ import java.util.Set;
  * similarity between any two {@link Synset}s is the average simiarlity of the
  * created feature vectors for the two {@link Synset}s, along with any
  * additional features created by a {@link SynsetPairFeatureMaker}.  The
- * resulting WordNet hierarchy is then saved to disk.
+ * resulting WordNet hierarchy is then saved to disk, or, if a journal is
+ * given, only the merges are appended to the journal.
  *
  * @author Keith Stevens
  */
@@ -99,24 +100,34 @@ public class WordNetCondenser {
         options.addOption('f', "featureSetType",
                           "Specifies the type of data set to generate.",
                           true, "SNOW_EXTENDED|STANDARD", "Required");
+        options.addOption('j', "journalFile",
+                          "Specifies a journal that records the merges " +
+                          "instead of saving a new dictionary.  Any " +
+                          "modifications already in the journal are " +
+                          "applied before clustering.",
+                          true, "FILE", "Optional");
         options.parseOptions(args);
 
         // Check that the required arguments are given.
-        if (options.numPositionalArgs() != 2) {
+        int numDirs = (options.hasOption('j')) ? 1 : 2;
+        if (options.numPositionalArgs() != numDirs) {
             System.out.println(
                     "usage: java WordNetCondenser [options] " +
                     "<dictPath> <newWordNetDir>\n" +
+                    "       java WordNetCondenser [options] -j <journal> " +
+                    "<dictPath>\n" +
                     options.prettyPrint());
             System.exit(1);
         }
 
         // Get the directory information needed.
         String wordNetDir = options.getPositionalArg(0);
-        String newWordNetDir = options.getPositionalArg(1);
 
         // Create the word net reader and the root synset.
-        WordNetCorpusReader wordnet = WordNetCorpusReader.initialize(
-                wordNetDir);
+        WordNetCorpusReader wordnet = (options.hasOption('j'))
+            ? WordNetCorpusReader.initialize(
+                    wordNetDir, options.getStringOption('j'))
+            : WordNetCorpusReader.initialize(wordNetDir);
         Synset root = (options.hasOption('r'))
             ? wordnet.getSynsets(options.getStringOption('r'))[1]
             : wordnet.getSynset("entity", PartsOfSpeech.NOUN, 1);
@@ -157,9 +168,13 @@ public class WordNetCondenser {
                 featureMaker = null;
         }
 
-        // Condense the word net hierarchy and store it to disk.
+        // Condense the word net hierarchy and store it to disk.  Journaled
+        // merges have already been written as they were made.
         condense(root, featureMaker);
-        wordnet.saveWordNet(newWordNetDir);
+        if (options.hasOption('j'))
+            wordnet.closeJournal();
+        else
+            wordnet.saveWordNet(options.getPositionalArg(1));
     }
 
     /**
@@ -233,7 +248,7 @@ public class WordNetCondenser {
                     }
 
                     // Merge the most similar synsets.
-                    bestPair.x.merge(bestPair.y);
+                    wordnet.mergeSynsets(bestPair.x, bestPair.y);
 
                     // Update the synset list after the merge.
                     synsets = wordnet.getSynsets(lemma, pos);
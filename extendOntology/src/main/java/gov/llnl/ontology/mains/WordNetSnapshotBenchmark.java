@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.wordnet.MappedOntologyReader;
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+
+import edu.ucla.sspace.common.ArgOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * This runnable class compares the cost of loading WordNet from the standard
+ * dictionary files with the cost of memory mapping a binary snapshot.  For
+ * each loader it reports the time needed before the first query can be
+ * answered, the heap consumed by the loaded dictionary, and the time needed to
+ * answer a fixed set of lemma and hypernym queries.  Since a loaded dictionary
+ * stays in the page cache and the JIT warms up, each loader should be
+ * benchmarked in a fresh JVM to get true cold start numbers.
+ *
+ * @author Keith Stevens
+ */
+public class WordNetSnapshotBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        ArgOptions options = new ArgOptions();
+        options.addOption('c', "compileSnapshot",
+                          "If set, the dictionary files will be loaded and " +
+                          "saved as a snapshot before benchmarking",
+                          false, null, "Optional");
+        options.addOption('l', "loader",
+                          "Specifies which loader to benchmark. " +
+                          "(Default: snapshot)",
+                          true, "text|snapshot", "Optional");
+        options.addOption('q', "numQueries",
+                          "Specifies the number of lemma queries to time. " +
+                          "(Default: 10000)",
+                          true, "INT", "Optional");
+        options.parseOptions(args);
+
+        if (options.numPositionalArgs() != 2) {
+            System.err.println(
+                    "usage: java WordNetSnapshotBenchmark [options] " +
+                    "<dictPath> <snapshotFile>\n" +
+                    options.prettyPrint());
+            System.exit(1);
+        }
+
+        String dictPath = options.getPositionalArg(0);
+        String snapshotFile = options.getPositionalArg(1);
+        int numQueries = (options.hasOption('q'))
+            ? options.getIntOption('q')
+            : 10000;
+        String loader = (options.hasOption('l'))
+            ? options.getStringOption('l')
+            : "snapshot";
+
+        if (options.hasOption('c')) {
+            long start = System.currentTimeMillis();
+            WordNetCorpusReader.initialize(dictPath).saveSnapshot(
+                    snapshotFile);
+            System.out.printf("Compiled snapshot in %d ms\n",
+                              System.currentTimeMillis() - start);
+            return;
+        }
+
+        long heapBefore = usedHeap();
+        long start = System.currentTimeMillis();
+        OntologyReader reader = (loader.equals("text"))
+            ? WordNetCorpusReader.initialize(dictPath)
+            : new MappedOntologyReader(snapshotFile);
+        long loadTime = System.currentTimeMillis() - start;
+        long heapAfter = usedHeap();
+
+        System.out.printf("Loader: %s\n", loader);
+        System.out.printf("Load time: %d ms\n", loadTime);
+        System.out.printf("Heap used: %.2f MB\n",
+                          (heapAfter - heapBefore) / (1024.0 * 1024.0));
+
+        // Time a fixed, randomly ordered, set of lemma lookups and hypernym
+        // path computations.
+        List<String> lemmas = new ArrayList<String>(reader.wordnetTerms());
+        Collections.sort(lemmas);
+        Collections.shuffle(lemmas, new Random(1));
+        int numPaths = 0;
+        start = System.currentTimeMillis();
+        for (int i = 0; i < numQueries && lemmas.size() > 0; ++i) {
+            String lemma = lemmas.get(i % lemmas.size());
+            for (Synset synset : reader.getSynsets(lemma))
+                numPaths += synset.getParentPaths().size();
+        }
+        System.out.printf("Answered %d queries (%d parent paths) in %d ms\n",
+                          numQueries, numPaths,
+                          System.currentTimeMillis() - start);
+        System.out.printf("Heap used after queries: %.2f MB\n",
+                          (usedHeap() - heapBefore) / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Returns the number of bytes used in the heap after requesting garbage
+     * collection.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i)
+            runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -4,6 +4,7 @@ import gov.llnl.ontology.mapreduce.EvidenceTableMR;
 import gov.llnl.ontology.mapreduce.table.EvidenceTable;
 import gov.llnl.ontology.util.StringPair;
 import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.SubsumptionIndex;
 import gov.llnl.ontology.wordnet.SynsetRelations;
 import gov.llnl.ontology.wordnet.SynsetRelations.HypernymStatus;
 import gov.llnl.ontology.wordnet.WordNetCorpusReader;
@@ -83,6 +84,11 @@ public class LabelNounPairsMR extends EvidenceTableMR {
 
         private OntologyReader reader;
 
+        /**
+         * The ancestor bitmaps used to label each noun pair.
+         */
+        private SubsumptionIndex subsumptionIndex;
+
         /**
          * {@inheritDoc}
          */
@@ -92,6 +98,7 @@ public class LabelNounPairsMR extends EvidenceTableMR {
             table.table();
             reader = WordNetCorpusReader.initialize(
                     conf.get(WORD_NET_DIR), true);
+            subsumptionIndex = new SubsumptionIndex(reader);
         }
 
         /**
@@ -102,7 +109,7 @@ public class LabelNounPairsMR extends EvidenceTableMR {
                         Context context) {
             StringPair nounPair = table.nounPair(row);
             HypernymStatus status = SynsetRelations.getHypernymStatus(
-                    nounPair.x, nounPair.y);
+                    nounPair.x, nounPair.y, subsumptionIndex);
             table.putHypernymStatus(key, status);
         }
 
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2011, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.mapreduce.ingest;
+
+import gov.llnl.ontology.mapreduce.CorpusTableMR;
+import gov.llnl.ontology.mapreduce.table.CorpusTable;
+
+import gov.llnl.ontology.text.Sentence;
+
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.util.MRArgOptions;
+
+import gov.llnl.ontology.wordnet.WordNetCorpusReader;
+import gov.llnl.ontology.wordnet.wsd.WordSenseDisambiguation;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import edu.ucla.sspace.util.ReflectionUtil;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.mapreduce.TableMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * This Map Reduce job iterates over rows in a {@link CorpusTable} and selects
+ * a word sense for each content word in each document.  The senses are stored
+ * as a {@link
+ * edu.stanford.nlp.ling.CoreAnnotations.WordSenseAnnotation} on each token
+ * and the sentences are then written back to the {@link CorpusTable}.
+ * Sentences with any token that already carries a word sense, such as a gold
+ * standard sense or one assigned by an earlier run, are left unchanged, so the
+ * job can be rerun after a failure without repeating finished work or
+ * overwriting existing senses.
+ *
+ * </p> 
+ *
+ * This class requires that the following types of objects be specified by the
+ * command line:
+ * <ul>
+ *   <li>{@link CorpusTable}: Controls access to the document table.</li>
+ *   <li>{@link WordSenseDisambiguation}: Selects the word senses for each
+ *   sentence.</li>
+ *   <li>The path to the WordNet dictionary files used by the {@link
+ *   WordSenseDisambiguation} algorithm.</li>
+ * </ul>
+ *
+ * @author Keith Stevens
+ */
+public class WordSenseMR extends CorpusTableMR {
+
+    /**
+     * Acquire the logger for this class.
+     */
+    private static final Log LOG = LogFactory.getLog(WordSenseMR.class);
+
+    /**
+     * The configuration key for setting the {@link WordSenseDisambiguation}.
+     */
+    public static String WSD_ALGORITHM =
+        CONF_PREFIX + ".wsdAlgorithm";
+
+    /**
+     * The configuration key for setting the WordNet dictionary path.
+     */
+    public static String WORD_NET_DIR =
+        CONF_PREFIX + ".wordnetDir";
+
+    /**
+     * Runs the {@link WordSenseMR}.
+     */
+    public static void main(String[] args) throws Exception {
+        ToolRunner.run(HBaseConfiguration.create(), new WordSenseMR(), args);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void addOptions(MRArgOptions options) {
+        options.addOption('a', "wsdAlgorithm",
+                          "Specifies the WordSenseDisambiguation algorithm " +
+                          "to use for selecting word senses.",
+                          true, "CLASSNAME", "Required");
+        options.addOption('w', "wordnetDir",
+                          "Specifies the path of the wordnet dict files.",
+                          true, "PATH", "Required");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void validateOptions(MRArgOptions options) {
+        options.validate("", "", WordSenseMR.class, 0, 'a', 'w');
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void setupConfiguration(MRArgOptions options, 
+                                      Configuration conf) {
+        conf.set(WSD_ALGORITHM, options.getStringOption('a'));
+        conf.set(WORD_NET_DIR, options.getStringOption('w'));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected Class mapperClass() {
+        return WordSenseMapper.class;
+    }
+
+    /**
+     * This {@link TableMapper} does all of the work.
+     */
+    public static class WordSenseMapper 
+            extends TableMapper<ImmutableBytesWritable, Put> {
+
+        /**
+         * The {@link CorpusTable} that dictates the structure of the table
+         * containing a corpus.
+         */
+        private CorpusTable table;
+
+        /**
+         * The {@link WordSenseDisambiguation} algorithm responsible for
+         * selecting word senses.
+         */
+        private WordSenseDisambiguation wsdAlg;
+
+        /**
+         * The number of sentences disambiguated by this mapper.
+         */
+        private long numSentences;
+
+        /**
+         * The number of nanoseconds spent disambiguating sentences.  This is
+         * also reported, without rounding, by the {@code Disambiguation Time
+         * (ns)} counter.
+         */
+        private long disambiguationTime;
+
+        /**
+         * {@inheritDoc}
+         */
+        public void setup(Context context) {
+            Configuration conf = context.getConfiguration();
+            table = ReflectionUtil.getObjectInstance(conf.get(TABLE));
+            table.table();
+            wsdAlg = ReflectionUtil.getObjectInstance(
+                    conf.get(WSD_ALGORITHM));
+            wsdAlg.setup(WordNetCorpusReader.initialize(
+                        conf.get(WORD_NET_DIR), true));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void map(ImmutableBytesWritable key,
+                        Result row, 
+                        Context context) {
+            // Reject any rows that should not be processed.
+            if (!table.shouldProcessRow(row))
+                return;
+
+            // Skip any documents without sentences.
+            List<Sentence> sentences = table.sentences(row);
+            if (sentences == null)
+                return;
+
+            // Skip any sentences which already have word senses, either from
+            // an earlier run or from a gold standard annotation.
+            List<Sentence> unlabeled = new ArrayList<Sentence>();
+            for (Sentence sentence : sentences)
+                if (!hasSense(sentence))
+                    unlabeled.add(sentence);
+            context.getCounter("WordSenseMR", "Skipped Sentence")
+                   .increment(sentences.size() - unlabeled.size());
+
+            // Skip any documents whose sentences all have word senses.
+            if (unlabeled.isEmpty()) {
+                context.getCounter("WordSenseMR", "Skipped Document")
+                       .increment(1);
+                return;
+            }
+
+            long start = System.nanoTime();
+            wsdAlg.disambiguate(unlabeled);
+            long time = System.nanoTime() - start;
+            numSentences += unlabeled.size();
+            disambiguationTime += time;
+
+            context.getCounter("WordSenseMR", "Sentence")
+                   .increment(unlabeled.size());
+            context.getCounter("WordSenseMR", "Sense Assigned")
+                   .increment(countSenses(unlabeled));
+            context.getCounter("WordSenseMR", "Disambiguation Time (ns)")
+                   .increment(time);
+
+            // Store the sentences along with their word senses.
+            table.put(key, sentences);
+            table.markRowAsProcessed(key, row);
+            context.getCounter("WordSenseMR", "Annotation").increment(1);
+        }
+
+        /**
+         * Returns true if any token in {@code sentence} has a word sense.
+         */
+        private static boolean hasSense(Sentence sentence) {
+            for (Annotation annot : sentence)
+                if (AnnotationUtil.wordSense(annot) != null)
+                    return true;
+            return false;
+        }
+
+        /**
+         * Returns the number of tokens in {@code sentences} that have a word
+         * sense.
+         */
+        private static int countSenses(List<Sentence> sentences) {
+            int numSenses = 0;
+            for (Sentence sentence : sentences)
+                for (Annotation annot : sentence)
+                    if (AnnotationUtil.wordSense(annot) != null)
+                        numSenses++;
+            return numSenses;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        protected void cleanup(Context context) {
+            LOG.info(String.format(
+                        "Disambiguated %d sentences, %.3f ms per sentence",
+                        numSentences,
+                        disambiguationTime / 1000000.0 /
+                        Math.max(1, numSentences)));
+            table.close();
+        }
+    }
+}
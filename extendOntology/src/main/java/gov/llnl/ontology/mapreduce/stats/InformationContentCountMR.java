@@ -0,0 +1,124 @@
+package gov.llnl.ontology.mapreduce.stats;
+
+import gov.llnl.ontology.mapreduce.CorpusTableMR;
+import gov.llnl.ontology.mapreduce.table.CorpusTable;
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.MRArgOptions;
+import gov.llnl.ontology.util.StringPair;
+
+import edu.ucla.sspace.util.ReflectionUtil;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.mapreduce.TableMapper;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.mapreduce.lib.reduce.IntSumReducer;
+
+import java.io.IOException;
+
+
+/**
+ * Counts the number of times each noun and verb lemma occurs in a {@link
+ * CorpusTable}.  Each output line holds a lower cased token, it's WordNet
+ * part of speech, and it's count, which is the format read by {@link
+ * gov.llnl.ontology.mains.ComputeInformationContent} when computing the
+ * information content of each WordNet {@link
+ * gov.llnl.ontology.wordnet.Synset}.
+ *
+ * @author Keith Stevens
+ */
+public class InformationContentCountMR extends CorpusTableMR {
+
+    /**
+     * Runs the {@link InformationContentCountMR}.
+     */
+    public static void main(String[] args) throws Exception {
+        ToolRunner.run(HBaseConfiguration.create(),
+                       new InformationContentCountMR(), args);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected Class mapperClass() {
+        return InformationContentCountMapper.class;
+    }
+
+    /**
+     * Returns the {@link Class} object for the Mapper Key of this task.
+     */
+    protected Class mapperKeyClass() {
+        return Text.class;
+    }
+
+    /**
+     * Returns the {@link Class} object for the Mapper Value of this task.
+     */
+    protected Class mapperValueClass() {
+        return IntWritable.class;
+    }
+
+    /**
+     * Sets up the Reducer for this job.  
+     */
+    protected void setupReducer(String tableName,
+                                Job job,
+                                MRArgOptions options) {
+        job.setCombinerClass(IntSumReducer.class);
+        job.setReducerClass(IntSumReducer.class);
+        job.setOutputFormatClass(TextOutputFormat.class);
+        TextOutputFormat.setOutputPath(
+                job, new Path(options.getPositionalArg(0)));
+        job.setNumReduceTasks(24);
+    }
+
+    public static class InformationContentCountMapper
+            extends TableMapper<Text, IntWritable> {
+
+        private static final IntWritable ONE = new IntWritable(1);
+
+        private CorpusTable table;
+
+        /**
+         * {@inheritDoc}
+         */
+        public void setup(Context context)
+                throws IOException, InterruptedException {
+            Configuration conf = context.getConfiguration();
+            table = ReflectionUtil.getObjectInstance(conf.get(TABLE));
+            table.table();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void map(ImmutableBytesWritable key,
+                        Result row, 
+                        Context context)
+                throws IOException, InterruptedException {
+            for (Sentence sentence : table.sentences(row))
+                for (StringPair tokenPos : sentence.taggedTokens()) {
+                    if (tokenPos.x == null || tokenPos.y == null)
+                        continue;
+                    // Only nouns and verbs have a hypernym hierarchy.
+                    String pos;
+                    if (tokenPos.y.startsWith("N"))
+                        pos = "n";
+                    else if (tokenPos.y.startsWith("V"))
+                        pos = "v";
+                    else
+                        continue;
+                    context.write(new Text(tokenPos.x.toLowerCase() + " " +
+                                           pos),
+                                  ONE);
+                }
+        }
+    }
+}
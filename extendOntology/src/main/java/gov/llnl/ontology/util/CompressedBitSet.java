@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.util;
+
+import java.util.Arrays;
+
+
+/**
+ * An immutable set of non-negative integers stored as a bitmap.  Only the
+ * 64-bit words of the bitmap that have at least one bit set are stored, along
+ * with a sorted array of their word offsets.  This keeps sets of clustered
+ * integers, such as the ancestors of a node when nodes are numbered in
+ * topological order, small even when the universe of integers is large.
+ * Membership tests use a binary search over the word offsets and
+ * intersection tests use a single merge over the words of both sets.
+ *
+ * @author Keith Stevens
+ */
+public class CompressedBitSet {
+
+    /**
+     * The empty set.
+     */
+    public static final CompressedBitSet EMPTY =
+        new CompressedBitSet(new int[0], new long[0]);
+
+    /**
+     * The sorted offsets of each non-empty word.
+     */
+    private final int[] offsets;
+
+    /**
+     * The non-empty words.
+     */
+    private final long[] words;
+
+    /**
+     * Creates a new {@link CompressedBitSet} from the given words.
+     */
+    private CompressedBitSet(int[] offsets, long[] words) {
+        this.offsets = offsets;
+        this.words = words;
+    }
+
+    /**
+     * Returns a {@link CompressedBitSet} containing each of {@code bits}.
+     *
+     * @throws IllegalArgumentException if any bit is negative
+     */
+    public static CompressedBitSet of(int... bits) {
+        int[] sorted = Arrays.copyOf(bits, bits.length);
+        Arrays.sort(sorted);
+        if (sorted.length > 0 && sorted[0] < 0)
+            throw new IllegalArgumentException(
+                    "Cannot store negative bits: " + sorted[0]);
+
+        // Count the number of distinct words.
+        int numWords = 0;
+        for (int i = 0; i < sorted.length; ++i)
+            if (i == 0 || (sorted[i] >>> 6) != (sorted[i-1] >>> 6))
+                numWords++;
+
+        int[] offsets = new int[numWords];
+        long[] words = new long[numWords];
+        int w = -1;
+        for (int i = 0; i < sorted.length; ++i) {
+            if (i == 0 || (sorted[i] >>> 6) != (sorted[i-1] >>> 6))
+                offsets[++w] = sorted[i] >>> 6;
+            words[w] |= 1L << (sorted[i] & 63);
+        }
+        return new CompressedBitSet(offsets, words);
+    }
+
+    /**
+     * Returns true if {@code bit} is in this set.
+     */
+    public boolean contains(int bit) {
+        if (bit < 0)
+            return false;
+        int w = Arrays.binarySearch(offsets, bit >>> 6);
+        return w >= 0 && (words[w] & (1L << (bit & 63))) != 0;
+    }
+
+    /**
+     * Returns true if this set and {@code other} share at least one bit.
+     */
+    public boolean intersects(CompressedBitSet other) {
+        for (int i = 0, j = 0; i < offsets.length && j < other.offsets.length;){
+            if (offsets[i] < other.offsets[j])
+                i++;
+            else if (offsets[i] > other.offsets[j])
+                j++;
+            else if ((words[i++] & other.words[j++]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a new {@link CompressedBitSet} containing the bits of this set
+     * and {@code other}.
+     */
+    public CompressedBitSet union(CompressedBitSet other) {
+        if (other.offsets.length == 0)
+            return this;
+        if (offsets.length == 0)
+            return other;
+
+        // Count the number of distinct words.
+        int numWords = offsets.length + other.offsets.length;
+        for (int i = 0, j = 0; i < offsets.length && j < other.offsets.length;){
+            if (offsets[i] < other.offsets[j])
+                i++;
+            else if (offsets[i] > other.offsets[j])
+                j++;
+            else {
+                numWords--;
+                i++;
+                j++;
+            }
+        }
+
+        int[] newOffsets = new int[numWords];
+        long[] newWords = new long[numWords];
+        int i = 0;
+        int j = 0;
+        for (int w = 0; w < numWords; ++w) {
+            if (j == other.offsets.length ||
+                (i < offsets.length && offsets[i] < other.offsets[j])) {
+                newOffsets[w] = offsets[i];
+                newWords[w] = words[i++];
+            } else if (i == offsets.length || offsets[i] > other.offsets[j]) {
+                newOffsets[w] = other.offsets[j];
+                newWords[w] = other.words[j++];
+            } else {
+                newOffsets[w] = offsets[i];
+                newWords[w] = words[i++] | other.words[j++];
+            }
+        }
+        return new CompressedBitSet(newOffsets, newWords);
+    }
+
+    /**
+     * Returns the number of bits in this set.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Returns the number of 64-bit words stored by this set.
+     */
+    public int numWords() {
+        return words.length;
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A bounded cache that evicts the least recently used entries.  The cache is
+ * split into several segments, each of which is a small LRU map guarded by
+ * it's own lock, so that threads using different keys rarely contend with
+ * each other.  Each segment holds at most it's share of the maximum size, so
+ * eviction is only approximately LRU over the whole cache.
+ *
+ * </p>
+ *
+ * The cache records the number of hits, misses, and evictions along with the
+ * total time spent loading missing values, which can be used to pick a
+ * suitable maximum size for a given workload.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class ConcurrentLruCache<K, V> {
+
+    /**
+     * The default number of segments.
+     */
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The minimum number of entries held by each segment.  Smaller caches use
+     * fewer segments so that a few keys that happen to share a segment do not
+     * evict each other.
+     */
+    private static final int MIN_SEGMENT_SIZE = 16;
+
+    /**
+     * Computes the value for a key that is not in the cache.
+     */
+    public interface Loader<K, V> {
+
+        /**
+         * Returns the value for {@code key}.
+         */
+        V load(K key);
+    }
+
+    /**
+     * The segments holding the cached values.
+     */
+    private final List<Segment<K, V>> segments;
+
+    /**
+     * The number of requests that found a cached value.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * The number of requests that did not find a cached value.
+     */
+    private final AtomicLong misses;
+
+    /**
+     * The number of entries removed to make room for new entries.
+     */
+    private final AtomicLong evictions;
+
+    /**
+     * The total number of nanoseconds spent loading values.
+     */
+    private final AtomicLong loadTime;
+
+    /**
+     * Creates a new {@link ConcurrentLruCache} that holds at most {@code
+     * maxSize} entries.
+     */
+    public ConcurrentLruCache(int maxSize) {
+        this(maxSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a new {@link ConcurrentLruCache} that holds at most {@code
+     * maxSize} entries split between at most {@code concurrencyLevel}
+     * segments.
+     *
+     * @throws IllegalArgumentException if either value is not positive
+     */
+    public ConcurrentLruCache(int maxSize, int concurrencyLevel) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException(
+                    "The maximum size must be positive");
+        if (concurrencyLevel <= 0)
+            throw new IllegalArgumentException(
+                    "The concurrency level must be positive");
+
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        evictions = new AtomicLong();
+        loadTime = new AtomicLong();
+
+        int numSegments = Math.max(1, Math.min(
+                    concurrencyLevel, maxSize / MIN_SEGMENT_SIZE));
+        segments = new ArrayList<Segment<K, V>>(numSegments);
+        for (int s = 0; s < numSegments; ++s) {
+            // Spread the remainder over the first few segments so that the
+            // segment sizes add up to exactly maxSize.
+            int segmentSize = maxSize / numSegments +
+                              ((s < maxSize % numSegments) ? 1 : 0);
+            segments.add(new Segment<K, V>(segmentSize, evictions));
+        }
+    }
+
+    /**
+     * Returns the segment responsible for {@code key}.
+     */
+    private Segment<K, V> segmentFor(Object key) {
+        int h = (key == null) ? 0 : key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return segments.get((h & 0x7fffffff) % segments.size());
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or {@code null} if it is not
+     * cached.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value == null)
+            misses.incrementAndGet();
+        else
+            hits.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Returns the cached value for {@code key}, using {@code loader} to
+     * compute and cache the value if it is not cached.  The value is computed
+     * without holding any locks, so several threads requesting the same
+     * missing key may each compute it.
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null)
+            return value;
+
+        long start = System.nanoTime();
+        value = loader.load(key);
+        loadTime.addAndGet(System.nanoTime() - start);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Stores {@code value} for {@code key}, evicting the least recently used
+     * entry in the key's segment if it is full.
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Removes every cached value.  The statistics are not reset.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments)
+            synchronized (segment) {
+                segment.clear();
+            }
+    }
+
+    /**
+     * Returns the number of cached values.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments)
+            synchronized (segment) {
+                size += segment.size();
+            }
+        return size;
+    }
+
+    /**
+     * Returns the number of requests that found a cached value.
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests that did not find a cached value.
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of requests that found a cached value, or 0 if no
+     * requests have been made.
+     */
+    public double hitRate() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        return (requests == 0) ? 0 : hitCount / (double) requests;
+    }
+
+    /**
+     * Returns the number of entries removed to make room for new entries.
+     */
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the total number of nanoseconds spent loading missing values.
+     */
+    public long totalLoadTime() {
+        return loadTime.get();
+    }
+
+    /**
+     * Returns a summary of the cache statistics.
+     */
+    public String toString() {
+        return String.format(
+                "ConcurrentLruCache[size=%d, hits=%d, misses=%d, " +
+                "hitRate=%.3f, evictions=%d, loadTime=%.3fms]",
+                size(), hitCount(), missCount(), hitRate(), evictionCount(),
+                totalLoadTime() / 1000000.0);
+    }
+
+    /**
+     * A single LRU segment of the cache.
+     */
+    private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximum number of entries in this segment.
+         */
+        private final int maxSize;
+
+        /**
+         * The eviction counter shared by every segment.
+         */
+        private final AtomicLong evictions;
+
+        public Segment(int maxSize, AtomicLong evictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictions = evictions;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() <= maxSize)
+                return false;
+            evictions.incrementAndGet();
+            return true;
+        }
+    }
+}
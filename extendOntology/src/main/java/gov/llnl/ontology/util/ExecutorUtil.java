@@ -0,0 +1,77 @@
+package gov.llnl.ontology.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * A collection of methods for running groups of tasks that may optionally be
+ * run in parallel.
+ *
+ * @author Keith Stevens
+ */
+public class ExecutorUtil {
+
+    /**
+     * Returns the result of each task in {@code tasks}, in order.  The tasks
+     * are run by {@code executor}, or by the calling thread if {@code
+     * executor} is {@code null}.  If any task throws an unchecked exception or
+     * an {@link Error}, it is rethrown as is and any tasks still running are
+     * cancelled.
+     *
+     * @throws ExecutionException if a task throws a checked exception, which
+     *         will be the cause
+     * @throws IllegalStateException if the calling thread is interrupted while
+     *         waiting for the tasks
+     */
+    public static <T> List<T> runAll(ExecutorService executor,
+                                     List<? extends Callable<T>> tasks)
+            throws ExecutionException {
+        List<T> results = new ArrayList<T>(tasks.size());
+        if (executor == null) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (RuntimeException re) {
+                    throw re;
+                } catch (Exception e) {
+                    throw new ExecutionException(e);
+                }
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+        try {
+            for (Callable<T> task : tasks)
+                futures.add(executor.submit(task));
+            for (Future<T> future : futures)
+                results.add(future.get());
+            return results;
+        } catch (InterruptedException ie) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while waiting for tasks to finish", ie);
+        } catch (ExecutionException ee) {
+            cancel(futures);
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ee.getCause();
+            if (ee.getCause() instanceof Error)
+                throw (Error) ee.getCause();
+            throw ee;
+        }
+    }
+
+    /**
+     * Cancels every {@link Future} in {@code futures}.
+     */
+    private static void cancel(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures)
+            future.cancel(true);
+    }
+}
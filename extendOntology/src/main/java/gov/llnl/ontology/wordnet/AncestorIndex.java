@@ -0,0 +1,562 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import edu.ucla.sspace.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * An index over the hypernym hierarchy that stores, for each {@link Synset},
+ * every ancestor along with the minimum and maximum number of hypernym links
+ * separating the two.  Ancestors are kept in primitive arrays sorted by an
+ * integer id, so the common ancestors of two {@link Synset}s can be found with
+ * a single merge over two sorted arrays instead of enumerating every hypernym
+ * path and intersecting hash sets.  The entry for a {@link Synset} is built
+ * from the entries of it's parents the first time it is needed, so the cost of
+ * building the index is spread over the queries that use it.
+ *
+ * </p>
+ *
+ * An entry is only used while none of the ancestors it holds have had their
+ * hypernyms modified since it was built, which {@link BaseSynset} records
+ * whenever hypernyms are added or removed or synsets are merged.  Out of date
+ * entries are rebuilt on demand, so modifying one part of the hierarchy, or
+ * the hierarchy of a different {@link OntologyReader}, does not discard the
+ * entries of unrelated {@link Synset}s.  The index holds at most a fixed
+ * number of entries and starts over with an empty index once it is full, so
+ * {@link Synset}s from readers that are no longer used are eventually
+ * released.  Hypernym cycles, which
+ * never occur in WordNet but can be created by extending it, are handled by
+ * falling back on {@link SynsetRelations#parentDistances} for the {@link
+ * Synset}s that reach the cycle.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class AncestorIndex {
+
+    /**
+     * The current version of the hypernym hierarchy.  This is shared by all
+     * indices since {@link Synset}s do not know which {@link OntologyReader}
+     * holds them.
+     */
+    private static final AtomicLong HIERARCHY_VERSION = new AtomicLong();
+
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 18;
+
+    /**
+     * The maximum number of entries held before the index starts over.
+     */
+    private final int maxEntries;
+
+    /**
+     * The entries and ids currently in use.  This is replaced with an empty
+     * {@link Generation} once it holds {@link #maxEntries} entries.
+     */
+    private volatile Generation generation;
+
+    /**
+     * Creates a new empty {@link AncestorIndex} that holds at most {@link
+     * #DEFAULT_MAX_ENTRIES} entries.
+     */
+    public AncestorIndex() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a new empty {@link AncestorIndex} that holds at most {@code
+     * maxEntries} entries.
+     *
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public AncestorIndex(int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException(
+                    "The maximum number of entries must be positive");
+        this.maxEntries = maxEntries;
+        this.generation = new Generation();
+    }
+
+    /**
+     * Records that the hypernym hierarchy has been modified and returns the
+     * new hierarchy version.  {@link Synset}s whose hypernyms were modified
+     * should remember the returned version so that the entries built from
+     * their old hypernyms are no longer used.
+     */
+    public static long hierarchyChanged() {
+        return HIERARCHY_VERSION.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of entries currently held by this index.
+     */
+    public int size() {
+        return generation.entries.size();
+    }
+
+    /**
+     * Returns the version of the hypernym hierarchy, which is incremented by
+     * each call to {@link #hierarchyChanged}.
+     */
+    public static long hierarchyVersion() {
+        return HIERARCHY_VERSION.get();
+    }
+
+    /**
+     * Returns the length of the shortest (or longest) path connecting {@code
+     * synset1} and {@code synset2} through a common ancestor.  If the two
+     * {@link Synset}s share no ancestor, the shortest path distance is -1 and
+     * the longest path distance is 0.
+     *
+     * @param computeMax If true, the longest path distance is returned,
+     *        otherwise the shortest path distance is returned
+     */
+    public int pathDistance(Synset synset1,
+                            Synset synset2,
+                            boolean computeMax) {
+        if (synset1 == null || synset2 == null)
+            return -1;
+
+        Entry[] pair = entries(synset1, synset2);
+        int[] distances1 = (computeMax)
+            ? pair[0].maxDistances
+            : pair[0].minDistances;
+        int[] distances2 = (computeMax)
+            ? pair[1].maxDistances
+            : pair[1].minDistances;
+        int[] ids1 = pair[0].ids;
+        int[] ids2 = pair[1].ids;
+
+        int bestDepth = (computeMax) ? 0 : Integer.MAX_VALUE;
+        for (int i = 0, j = 0; i < ids1.length && j < ids2.length; ) {
+            if (ids1[i] < ids2[j])
+                i++;
+            else if (ids1[i] > ids2[j])
+                j++;
+            else {
+                int depth = distances1[i++] + distances2[j++];
+                bestDepth = (computeMax)
+                    ? Math.max(bestDepth, depth)
+                    : Math.min(bestDepth, depth);
+            }
+        }
+        return (bestDepth == Integer.MAX_VALUE) ? -1 : bestDepth;
+    }
+
+    /**
+     * Returns the minimum distances from {@code synset1} and {@code synset2}
+     * to the common ancestor that lies on the shortest path connecting them,
+     * or {@code null} if they share no ancestors.
+     */
+    public Pair<Integer> closestCommonAncestorDistances(Synset synset1,
+                                                        Synset synset2) {
+        Entry[] pair = entries(synset1, synset2);
+        int[] ids1 = pair[0].ids;
+        int[] ids2 = pair[1].ids;
+        int best1 = -1;
+        int best2 = -1;
+        for (int i = 0, j = 0; i < ids1.length && j < ids2.length; ) {
+            if (ids1[i] < ids2[j])
+                i++;
+            else if (ids1[i] > ids2[j])
+                j++;
+            else {
+                int depth1 = pair[0].minDistances[i++];
+                int depth2 = pair[1].minDistances[j++];
+                if (best1 < 0 || depth1 + depth2 < best1 + best2) {
+                    best1 = depth1;
+                    best2 = depth2;
+                }
+            }
+        }
+        return (best1 < 0) ? null : new Pair<Integer>(best1, best2);
+    }
+
+    /**
+     * Returns the deepest {@link Synset}s that subsume both {@code synset1}
+     * and {@code synset2}, where the depth of a {@link Synset} is the length
+     * of the longest hypernym path from it to a root.  Each returned {@link
+     * Synset} has the same depth.
+     */
+    public List<Synset> lowestCommonHypernyms(Synset synset1, Synset synset2) {
+        Entry[] pair = entries(synset1, synset2);
+        int[] ids1 = pair[0].ids;
+        int[] ids2 = pair[1].ids;
+        List<Synset> subsumers = new ArrayList<Synset>();
+
+        // Find the depth of the deepest common ancestor.
+        int bestDepth = -1;
+        for (int i = 0, j = 0; i < ids1.length && j < ids2.length; ) {
+            if (ids1[i] < ids2[j])
+                i++;
+            else if (ids1[i] > ids2[j])
+                j++;
+            else
+                bestDepth = Math.max(bestDepth, pair[0].depths[i++]);
+        }
+        if (bestDepth < 0)
+            return subsumers;
+
+        // Collect every common ancestor with that depth.
+        for (int i = 0, j = 0; i < ids1.length && j < ids2.length; ) {
+            if (ids1[i] < ids2[j])
+                i++;
+            else if (ids1[i] > ids2[j])
+                j++;
+            else {
+                if (pair[0].depths[i] == bestDepth)
+                    subsumers.add(pair[0].ancestors[i]);
+                i++;
+                j++;
+            }
+        }
+        return subsumers;
+    }
+
+    /**
+     * Returns the entries for both {@link Synset}s.  Both entries come from
+     * the same {@link Generation}, so their ancestor ids can be compared.
+     */
+    private Entry[] entries(Synset synset1, Synset synset2) {
+        Generation current = generation;
+        Entry[] pair = new Entry[] {entry(current, synset1),
+                                    entry(current, synset2)};
+        if (current.entries.size() > maxEntries)
+            generation = new Generation();
+        return pair;
+    }
+
+    /**
+     * Returns the up to date {@link Entry} for {@code synset} in {@code
+     * current}, building it if needed.
+     */
+    private static Entry entry(Generation current, Synset synset) {
+        Entry entry = current.entries.get(synset);
+        if (entry != null && entry.isValid())
+            return entry;
+
+        long version = HIERARCHY_VERSION.get();
+        entry = build(current, synset, version, new HashSet<Synset>());
+        if (entry == null) {
+            entry = fromDistances(current, synset, version);
+            current.entries.put(synset, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the hierarchy version at which the hypernyms of {@code synset}
+     * were last modified.  Only {@link BaseSynset}s can be modified.
+     */
+    private static long parentsVersion(Synset synset) {
+        return (synset instanceof BaseSynset)
+            ? ((BaseSynset) synset).parentsVersion()
+            : 0;
+    }
+
+    /**
+     * Builds and stores the {@link Entry} for {@code synset} by merging the
+     * entries of it's parents.  Returns {@code null} if {@code synset} can
+     * reach a hypernym cycle.
+     *
+     * @param inProgress The {@link Synset}s whose entries are currently being
+     *        built, used to detect cycles
+     */
+    private static Entry build(Generation current,
+                               Synset synset,
+                               long version,
+                               Set<Synset> inProgress) {
+        if (!inProgress.add(synset))
+            return null;
+
+        List<Entry> parentEntries = new ArrayList<Entry>();
+        int depth = 0;
+        for (Synset parent : synset.getParents()) {
+            if (parent == null)
+                continue;
+            Entry parentEntry = current.entries.get(parent);
+            if (parentEntry == null || !parentEntry.isValid())
+                parentEntry = build(current, parent, version, inProgress);
+
+            // Distances through a cycle must be computed from the acyclic
+            // paths of this synset, not those of it's parents.
+            if (parentEntry == null || parentEntry.cyclic)
+                return null;
+            parentEntries.add(parentEntry);
+            depth = Math.max(depth, parentEntry.depth + 1);
+        }
+        inProgress.remove(synset);
+
+        Entry entry = new Entry(version, false, depth,
+                                new int[] {current.id(synset)},
+                                new Synset[] {synset},
+                                new int[] {0}, new int[] {0},
+                                new int[] {depth});
+        for (Entry parentEntry : parentEntries)
+            entry = merge(entry, parentEntry);
+        current.entries.put(synset, entry);
+        return entry;
+    }
+
+    /**
+     * Returns an {@link Entry} holding the ancestors of both {@code entry} and
+     * {@code parent}, where {@code parent} is the entry of a direct hypernym
+     * of the {@link Synset} described by {@code entry}.
+     */
+    private static Entry merge(Entry entry, Entry parent) {
+        int[] ids1 = entry.ids;
+        int[] ids2 = parent.ids;
+
+        // Count the number of distinct ancestors.
+        int size = ids1.length + ids2.length;
+        for (int i = 0, j = 0; i < ids1.length && j < ids2.length; ) {
+            if (ids1[i] < ids2[j])
+                i++;
+            else if (ids1[i] > ids2[j])
+                j++;
+            else {
+                size--;
+                i++;
+                j++;
+            }
+        }
+
+        int[] ids = new int[size];
+        Synset[] ancestors = new Synset[size];
+        int[] minDistances = new int[size];
+        int[] maxDistances = new int[size];
+        int[] depths = new int[size];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; ++k) {
+            if (j == ids2.length || (i < ids1.length && ids1[i] < ids2[j])) {
+                ids[k] = ids1[i];
+                ancestors[k] = entry.ancestors[i];
+                minDistances[k] = entry.minDistances[i];
+                maxDistances[k] = entry.maxDistances[i];
+                depths[k] = entry.depths[i];
+                i++;
+            } else if (i == ids1.length || ids1[i] > ids2[j]) {
+                ids[k] = ids2[j];
+                ancestors[k] = parent.ancestors[j];
+                minDistances[k] = parent.minDistances[j] + 1;
+                maxDistances[k] = parent.maxDistances[j] + 1;
+                depths[k] = parent.depths[j];
+                j++;
+            } else {
+                ids[k] = ids1[i];
+                ancestors[k] = entry.ancestors[i];
+                minDistances[k] = Math.min(entry.minDistances[i],
+                                           parent.minDistances[j] + 1);
+                maxDistances[k] = Math.max(entry.maxDistances[i],
+                                           parent.maxDistances[j] + 1);
+                depths[k] = entry.depths[i];
+                i++;
+                j++;
+            }
+        }
+        return new Entry(entry.version, false, entry.depth, ids, ancestors,
+                         minDistances, maxDistances, depths);
+    }
+
+    /**
+     * Returns an {@link Entry} for {@code synset} computed by enumerating
+     * every acyclic hypernym path.  This is only used when {@code synset} can
+     * reach a hypernym cycle.
+     */
+    private static Entry fromDistances(Generation current,
+                                       Synset synset,
+                                       long version) {
+        Map<Synset, Integer> minMap =
+            SynsetRelations.parentDistances(synset, false);
+        Map<Synset, Integer> maxMap =
+            SynsetRelations.parentDistances(synset, true);
+
+        int size = minMap.size();
+        Synset[] ancestors = minMap.keySet().toArray(new Synset[size]);
+        final int[] unsortedIds = new int[size];
+        Integer[] order = new Integer[size];
+        for (int k = 0; k < size; ++k) {
+            unsortedIds[k] = current.id(ancestors[k]);
+            order[k] = k;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return (unsortedIds[a] < unsortedIds[b])
+                    ? -1
+                    : (unsortedIds[a] > unsortedIds[b]) ? 1 : 0;
+            }
+        });
+
+        int[] ids = new int[size];
+        Synset[] sortedAncestors = new Synset[size];
+        int[] minDistances = new int[size];
+        int[] maxDistances = new int[size];
+        int[] depths = new int[size];
+        int depth = 0;
+        for (int k = 0; k < size; ++k) {
+            Synset ancestor = ancestors[order[k]];
+            ids[k] = unsortedIds[order[k]];
+            sortedAncestors[k] = ancestor;
+            minDistances[k] = minMap.get(ancestor);
+            maxDistances[k] = maxMap.get(ancestor);
+            depth = Math.max(depth, maxDistances[k]);
+            for (int distance :
+                    SynsetRelations.parentDistances(ancestor, true).values())
+                depths[k] = Math.max(depths[k], distance);
+        }
+        return new Entry(version, true, depth, ids, sortedAncestors,
+                         minDistances, maxDistances, depths);
+    }
+
+    /**
+     * The entries built by an {@link AncestorIndex} along with the ids used to
+     * sort their ancestors.
+     */
+    private static class Generation {
+
+        /**
+         * The ancestor entry for each indexed {@link Synset}.
+         */
+        final ConcurrentMap<Synset, Entry> entries =
+            new ConcurrentHashMap<Synset, Entry>();
+
+        /**
+         * The integer id assigned to each indexed {@link Synset}.  Ancestors
+         * are sorted by these ids.
+         */
+        final ConcurrentMap<Synset, Integer> synsetIds =
+            new ConcurrentHashMap<Synset, Integer>();
+
+        /**
+         * The next id to assign.
+         */
+        final AtomicInteger nextId = new AtomicInteger();
+
+        /**
+         * Returns the id for {@code synset}, assigning a new one if needed.
+         */
+        int id(Synset synset) {
+            Integer id = synsetIds.get(synset);
+            if (id == null) {
+                Integer newId = nextId.getAndIncrement();
+                id = synsetIds.putIfAbsent(synset, newId);
+                if (id == null)
+                    id = newId;
+            }
+            return id;
+        }
+    }
+
+    /**
+     * The ancestors of a single {@link Synset}, including the {@link Synset}
+     * itself, sorted by id.
+     */
+    private static class Entry {
+
+        /**
+         * The hierarchy version used to build this entry.
+         */
+        final long version;
+
+        /**
+         * True if this entry was computed by enumerating paths because the
+         * {@link Synset} can reach a hypernym cycle.
+         */
+        final boolean cyclic;
+
+        /**
+         * The length of the longest hypernym path from the {@link Synset} to a
+         * root.
+         */
+        final int depth;
+
+        /**
+         * The sorted ids of each ancestor.
+         */
+        final int[] ids;
+
+        /**
+         * The ancestor {@link Synset} for each id.
+         */
+        final Synset[] ancestors;
+
+        /**
+         * The minimum number of hypernym links to each ancestor.
+         */
+        final int[] minDistances;
+
+        /**
+         * The maximum number of hypernym links to each ancestor.
+         */
+        final int[] maxDistances;
+
+        /**
+         * The depth of each ancestor.
+         */
+        final int[] depths;
+
+        /**
+         * Returns true if none of the ancestors have had their hypernyms
+         * modified since this entry was built.
+         */
+        boolean isValid() {
+            for (Synset ancestor : ancestors)
+                if (parentsVersion(ancestor) > version)
+                    return false;
+            return true;
+        }
+
+        Entry(long version, boolean cyclic, int depth, int[] ids,
+              Synset[] ancestors, int[] minDistances, int[] maxDistances,
+              int[] depths) {
+            this.version = version;
+            this.cyclic = cyclic;
+            this.depth = depth;
+            this.ids = ids;
+            this.ancestors = ancestors;
+            this.minDistances = minDistances;
+            this.maxDistances = maxDistances;
+            this.depths = depths;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOError;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * An {@link InformationContent} that stores the content counts and the
+ * information content of each {@link Synset} in primitive arrays.  For each
+ * part of speech, the offsets of the known {@link Synset}s are kept in a
+ * sorted {@code int} array, with the raw counts and the already logged
+ * information content in parallel {@code double} arrays, so a lookup is a
+ * binary search over the offsets with no boxing, hashing, or logarithms.
+ * Since {@link Synset}s are found by their offset, this can be used with any
+ * {@link OntologyReader} whose {@link Synset} ids are the offsets of the
+ * dictionary the counts were made for, including the {@link
+ * MappedOntologyReader} and the {@link CompactOntologyReader}.
+ *
+ * </p>
+ *
+ * Satellite adjectives share the offsets of the adjectives, so both are
+ * found in the same arrays.  As with the {@link FileBasedInformationContent},
+ * the total content of each part of speech only includes the counts tagged
+ * with that part of speech, and the information content of a {@link Synset}
+ * is computed from the total for it's own part of speech.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class ArrayInformationContent implements InformationContent {
+
+    /**
+     * The sorted offsets of the known {@link Synset}s for each part of
+     * speech.  Satellite adjectives use the arrays of the adjectives.
+     */
+    private final int[][] offsets;
+
+    /**
+     * The content count for each offset.
+     */
+    private final double[][] contents;
+
+    /**
+     * The information content for each offset, with respect to the total
+     * content of each part of speech.
+     */
+    private final double[][] informationContents;
+
+    /**
+     * The total content for each part of speech.
+     */
+    private final double[] posContent;
+
+    /**
+     * Creates a new {@link ArrayInformationContent} from a content file in
+     * the format read by {@link FileBasedInformationContent}: a header line
+     * followed by lines holding an offset joined with a part of speech tag
+     * and a count.
+     */
+    public ArrayInformationContent(String icFilename) {
+        List<List<double[]>> entries = newEntryLists();
+        offsets = new int[entries.size()][];
+        contents = new double[entries.size()][];
+        informationContents = new double[entries.size()][];
+        posContent = new double[entries.size()];
+        try {
+            BufferedReader br = new BufferedReader(new FileReader(icFilename));
+            // Skip the header line.
+            br.readLine();
+            for (String line = null; (line = br.readLine()) != null; ) {
+                String[] tokens = line.split("\\s+");
+                int offset = Integer.parseInt(
+                        tokens[0].substring(0, tokens[0].length() - 1));
+                PartsOfSpeech pos = WordNetCorpusReader.POS_MAP.get(
+                        tokens[0].substring(tokens[0].length() - 1));
+                double content = Double.parseDouble(tokens[1]);
+                entries.get(basePos(pos)).add(new double[] {offset, content});
+                posContent[pos.ordinal()] += content;
+            }
+            br.close();
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        }
+        fill(entries);
+    }
+
+    /**
+     * Creates a new {@link ArrayInformationContent} holding the content count
+     * of each {@link Synset} in {@code synsetCounts}.
+     */
+    public ArrayInformationContent(
+            Map<Synset, ? extends Number> synsetCounts) {
+        List<List<double[]>> entries = newEntryLists();
+        offsets = new int[entries.size()][];
+        contents = new double[entries.size()][];
+        informationContents = new double[entries.size()][];
+        posContent = new double[entries.size()];
+        for (Map.Entry<Synset, ? extends Number> e : synsetCounts.entrySet()) {
+            PartsOfSpeech pos = e.getKey().getPartOfSpeech();
+            double content = e.getValue().doubleValue();
+            entries.get(basePos(pos)).add(
+                    new double[] {e.getKey().getId(), content});
+            posContent[pos.ordinal()] += content;
+        }
+        fill(entries);
+    }
+
+    /**
+     * Returns an empty list of offset and count pairs for each part of
+     * speech.
+     */
+    private static List<List<double[]>> newEntryLists() {
+        List<List<double[]>> entries = new ArrayList<List<double[]>>();
+        for (int pos = 0; pos < PartsOfSpeech.values().length; ++pos)
+            entries.add(new ArrayList<double[]>());
+        return entries;
+    }
+
+    /**
+     * Sorts the offset and count pairs for each part of speech and fills in
+     * the offset, content, and information content arrays.  The total content
+     * of each part of speech must already be known.
+     */
+    private void fill(List<List<double[]>> entries) {
+        for (int pos = 0; pos < entries.size(); ++pos) {
+            List<double[]> posEntries = entries.get(pos);
+            Collections.sort(posEntries, new Comparator<double[]>() {
+                public int compare(double[] entry1, double[] entry2) {
+                    return Double.compare(entry1[0], entry2[0]);
+                }
+            });
+
+            int[] posOffsets = new int[posEntries.size()];
+            double[] posContents = new double[posEntries.size()];
+            for (int i = 0; i < posOffsets.length; ++i) {
+                posOffsets[i] = (int) posEntries.get(i)[0];
+                posContents[i] = posEntries.get(i)[1];
+            }
+            offsets[pos] = posOffsets;
+            contents[pos] = posContents;
+        }
+
+        // Satellite adjectives share the adjective arrays, but their
+        // information content is relative to their own total content.
+        for (int pos = 0; pos < entries.size(); ++pos) {
+            PartsOfSpeech partOfSpeech = PartsOfSpeech.values()[pos];
+            double[] posContents = contents[basePos(partOfSpeech)];
+            double[] posInformationContents = new double[posContents.length];
+            for (int i = 0; i < posContents.length; ++i)
+                posInformationContents[i] =
+                    -Math.log(posContents[i] / posContent[pos]);
+            informationContents[pos] = posInformationContents;
+        }
+    }
+
+    /**
+     * Returns the part of speech whose offsets include {@code pos}.
+     */
+    private static int basePos(PartsOfSpeech pos) {
+        return (pos == PartsOfSpeech.ADJECTIVE_SAT)
+            ? PartsOfSpeech.ADJECTIVE.ordinal()
+            : pos.ordinal();
+    }
+
+    /**
+     * Returns the position of {@code synset} in the arrays for it's part of
+     * speech, or a negative value if it has no content.
+     */
+    private int indexOf(Synset synset, int pos) {
+        return Arrays.binarySearch(offsets[pos], synset.getId());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double contentForSynset(Synset synset) {
+        int pos = basePos(synset.getPartOfSpeech());
+        int index = indexOf(synset, pos);
+        return (index < 0) ? -1 : contents[pos][index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double contentForPartOfSpeech(PartsOfSpeech pos) {
+        return posContent[pos.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double informationContent(Synset synset) {
+        PartsOfSpeech pos = synset.getPartOfSpeech();
+        int index = indexOf(synset, basePos(pos));
+        return (index < 0) ? -1 : informationContents[pos.ordinal()][index];
+    }
+}
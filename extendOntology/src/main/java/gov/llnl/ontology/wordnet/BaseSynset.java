@@ -28,10 +28,14 @@ import edu.ucla.sspace.util.HashMultiMap;
 import edu.ucla.sspace.util.MultiMap;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -46,6 +50,48 @@ import java.util.HashSet;
  */
 public class BaseSynset implements Synset {
 
+    /**
+     * Receives every change to the relations of a {@link BaseSynset}, such as
+     * a {@link WordNetJournal} recording the changes.  Each change is
+     * announced before it is made and is followed by a call to {@link
+     * #changed} once it has either been made or failed, on the same thread.
+     * Since the listener hears about changes to every {@link BaseSynset}, made
+     * on any thread, it must be thread safe.
+     */
+    /* package private */ interface ChangeListener {
+
+        /**
+         * Called before a {@code relation} link from {@code synset} to {@code
+         * related} is added.
+         */
+        void addingRelation(BaseSynset synset, String relation, Synset related);
+
+        /**
+         * Called before the {@code relation} link from {@code synset} to
+         * {@code related} is removed.
+         */
+        void removingRelation(BaseSynset synset,
+                              String relation,
+                              Synset related);
+
+        /**
+         * Called before {@code other} is merged into {@code synset}.
+         */
+        void merging(BaseSynset synset, Synset other);
+
+        /**
+         * Called after the most recently announced change, with {@code
+         * applied} set to false if the change failed.
+         */
+        void changed(boolean applied);
+    }
+
+    /**
+     * The {@link ChangeListener} notified of every change to a {@link
+     * BaseSynset}, or {@code null} if changes are not being recorded.
+     */
+    private static volatile ChangeListener changeListener;
+
     /**
      * The {@link Relation}s associated with this {@link Synset}.
      */
@@ -130,6 +176,19 @@ public class BaseSynset implements Synset {
      */
     private int minDepth;
 
+    /**
+     * The cached hypernym paths for this {@link Synset}.  These are only valid
+     * if they were computed for the current version of the hypernym
+     * hierarchy.
+     */
+    private volatile ParentPaths parentPaths;
+
+    /**
+     * The hierarchy version at which the hypernyms of this {@link Synset} were
+     * last modified, or 0 if they have never been modified.
+     */
+    private volatile long parentsVersion;
+
     /**
      * Creates a {@link BaseSynset} with a byte offset value.
      */
@@ -298,21 +357,85 @@ public class BaseSynset implements Synset {
      * {@inheritDoc}
      */
     public List<List<Synset>> getParentPaths() {
-        List<List<Synset>> parentPaths = new ArrayList<List<Synset>>();
+        ParentPaths paths = parentPaths();
+        List<List<Synset>> pathLists = paths.pathLists;
+        if (pathLists == null) {
+            List<List<Synset>> lists =
+                new ArrayList<List<Synset>>(paths.ends.length);
+            for (PathNode end : paths.ends)
+                lists.add(end.toList());
+            pathLists = Collections.unmodifiableList(lists);
+            paths.pathLists = pathLists;
+        }
+        return pathLists;
+    }
+
+    /**
+     * Returns an {@link Iterator} over the same hypernym paths returned by
+     * {@link #getParentPaths}.  Each path is only converted into a {@link
+     * List} when it is reached, so callers that stop early, or only need a few
+     * paths, avoid materializing every path.
+     */
+    public Iterator<List<Synset>> parentPathIterator() {
+        final PathNode[] ends = parentPaths().ends;
+        return new Iterator<List<Synset>>() {
+            int next = 0;
+
+            public boolean hasNext() {
+                return next < ends.length;
+            }
+
+            public List<Synset> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return ends[next++].toList();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException(
+                        "Cannot remove hypernym paths");
+            }
+        };
+    }
+
+    /**
+     * Returns the hypernym paths for this {@link Synset}, computing them from
+     * the cached paths of each parent if the hierarchy has changed since they
+     * were last computed.  Each path shares the nodes of it's parent's path,
+     * so the paths of every {@link Synset} form a single graph of path
+     * prefixes.
+     */
+    private ParentPaths parentPaths() {
+        long version = AncestorIndex.hierarchyVersion();
+        ParentPaths paths = parentPaths;
+        if (paths != null && paths.version == version)
+            return paths;
+
+        List<PathNode> ends = new ArrayList<PathNode>();
         Set<Synset> parents = getParents();
         if (parents == null || parents.size() == 0) {
-            List<Synset> path = new ArrayList<Synset>();
-            path.add(this);
-            parentPaths.add(path);
+            ends.add(new PathNode(this, null));
         } else {
             for (Synset parent : parents) {
-                for (List<Synset> ancestorList : parent.getParentPaths()) {
-                    ancestorList.add(this);
-                    parentPaths.add(ancestorList);
+                if (parent instanceof BaseSynset) {
+                    BaseSynset baseParent = (BaseSynset) parent;
+                    for (PathNode prefix : baseParent.parentPaths().ends)
+                        ends.add(new PathNode(this, prefix));
+                } else {
+                    for (List<Synset> path : parent.getParentPaths()) {
+                        PathNode prefix = null;
+                        for (Synset ancestor : path)
+                            prefix = new PathNode(ancestor, prefix);
+                        ends.add(new PathNode(this, prefix));
+                    }
                 }
             }
         }
-        return parentPaths;
+
+        paths = new ParentPaths(version,
+                                ends.toArray(new PathNode[ends.size()]));
+        parentPaths = paths;
+        return paths;
     }
 
     /**
@@ -404,8 +527,20 @@ public class BaseSynset implements Synset {
      * {@inheritDoc}
      */
     public void addRelation(String relation, Synset synset) {
-        relations.put(relation, synset);
-        numRelations++;
+        ChangeListener listener = changeListener;
+        if (listener != null)
+            listener.addingRelation(this, relation, synset);
+        boolean applied = false;
+        try {
+            relations.put(relation, synset);
+            numRelations++;
+            if (relation.equals(Relation.HYPERNYM.toString()))
+                parentsVersion = AncestorIndex.hierarchyChanged();
+            applied = true;
+        } finally {
+            if (listener != null)
+                listener.changed(applied);
+        }
     }
 
     /**
@@ -419,8 +554,20 @@ public class BaseSynset implements Synset {
      * {@inheritDoc}
      */
     public void removeRelation(String relation, Synset synset) {
-        relations.remove(relation, synset);
-        numRelations--;
+        ChangeListener listener = changeListener;
+        if (listener != null)
+            listener.removingRelation(this, relation, synset);
+        boolean applied = false;
+        try {
+            relations.remove(relation, synset);
+            numRelations--;
+            if (relation.equals(Relation.HYPERNYM.toString()))
+                parentsVersion = AncestorIndex.hierarchyChanged();
+            applied = true;
+        } finally {
+            if (listener != null)
+                listener.changed(applied);
+        }
     }
 
     /**
@@ -503,6 +650,24 @@ public class BaseSynset implements Synset {
             throw new IllegalArgumentException(
                     "Cannot merge synsets with different parts of speech.");
 
+        ChangeListener listener = changeListener;
+        if (listener != null)
+            listener.merging(this, synset);
+        boolean applied = false;
+        try {
+            absorb(synset);
+            applied = true;
+        } finally {
+            if (listener != null)
+                listener.changed(applied);
+        }
+    }
+
+    /**
+     * Merges the relations, glosses, lemmas, and attributes of {@code synset}
+     * into this {@link Synset}.
+     */
+    private void absorb(Synset synset) {
         Set<Duple<String, Synset>> toRemove =
             new HashSet<Duple<String, Synset>>();
         for (String relation : getKnownRelationTypes()) {
@@ -574,6 +739,27 @@ public class BaseSynset implements Synset {
         // of synset parents.
         this.minDepth = -1;
         this.maxDepth = -1;
+        parentsVersion = AncestorIndex.hierarchyChanged();
+    }
+
+    /**
+     * Sets the {@link ChangeListener} notified of every change to a {@link
+     * BaseSynset} and returns the previous listener.  A {@code null} listener
+     * stops the notifications.
+     */
+    /* package private */ static ChangeListener setChangeListener(
+            ChangeListener listener) {
+        ChangeListener previous = changeListener;
+        changeListener = listener;
+        return previous;
+    }
+
+    /**
+     * Returns the hierarchy version at which the hypernyms of this {@link
+     * Synset} were last modified, or 0 if they have never been modified.
+     */
+    public long parentsVersion() {
+        return parentsVersion;
     }
 
     /**
@@ -582,4 +768,74 @@ public class BaseSynset implements Synset {
     public String toString() {
         return String.format("%s: %s\n", getName(), getDefinition());
     }
+
+    /**
+     * A single node in a hypernym path.  Each node links to the path of the
+     * parent it was reached from, which is shared by every path that passes
+     * through that parent.
+     */
+    private static class PathNode {
+
+        /**
+         * The last {@link Synset} in this path.
+         */
+        private final Synset synset;
+
+        /**
+         * The path leading to {@code synset}, or {@code null} if {@code
+         * synset} is a root.
+         */
+        private final PathNode prefix;
+
+        /**
+         * The number of {@link Synset}s in this path.
+         */
+        private final int length;
+
+        public PathNode(Synset synset, PathNode prefix) {
+            this.synset = synset;
+            this.prefix = prefix;
+            this.length = (prefix == null) ? 1 : prefix.length + 1;
+        }
+
+        /**
+         * Returns an unmodifiable {@link List} of the {@link Synset}s in this
+         * path, starting from the root.
+         */
+        public List<Synset> toList() {
+            Synset[] path = new Synset[length];
+            PathNode node = this;
+            for (int i = length - 1; i >= 0; --i, node = node.prefix)
+                path[i] = node.synset;
+            return Collections.unmodifiableList(Arrays.asList(path));
+        }
+    }
+
+    /**
+     * The hypernym paths of a {@link Synset} for a single version of the
+     * hierarchy.
+     */
+    private static class ParentPaths {
+
+        /**
+         * The hierarchy version these paths were computed for.
+         */
+        private final long version;
+
+        /**
+         * The last node of each path.
+         */
+        private final PathNode[] ends;
+
+        /**
+         * The materialized paths, which are created the first time they are
+         * requested.
+         */
+        private volatile List<List<Synset>> pathLists;
+
+        public ParentPaths(long version, PathNode[] ends) {
+            this.version = version;
+            this.ends = ends;
+        }
+    }
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * Computes many {@link SynsetSimilarity} scores at once: one {@link Synset}
+ * against an array of {@link Synset}s, every pairing of two arrays of {@link
+ * Synset}s, or every pairing of the senses of a single lemma.  Each row of
+ * scores is computed from a single {@link PreparedSynsetSimilarity.Row} when
+ * the {@link SynsetSimilarity} supports it, so that any state for the row
+ * {@link Synset} is computed once rather than once per pair.  Similarly, each
+ * column of a matrix is computed from a single {@link
+ * PreparedSynsetSimilarity.Column}, which is prepared once and shared by
+ * every row.
+ *
+ * </p>
+ *
+ * When an {@link ExecutorService} is given, the rows of a matrix are scored in
+ * parallel.  The {@link ExecutorService} is owned by the caller and is never
+ * shut down by this class.  Otherwise every score is computed in the calling
+ * thread.
+ *
+ * </p>
+ *
+ * This class is thread safe if the wrapped {@link SynsetSimilarity} is.
+ *
+ * @author Keith Stevens
+ */
+public class BatchSynsetSimilarity {
+
+    /**
+     * The number of rows scored by a single task.  Tasks are kept somewhat
+     * larger than a single row since most rows are very cheap to score.
+     */
+    private static final int ROWS_PER_TASK = 16;
+
+    /**
+     * The {@link SynsetSimilarity} used to score each pair.
+     */
+    private final SynsetSimilarity similarity;
+
+    /**
+     * The {@link ExecutorService} that scores rows in parallel, or {@code
+     * null} if rows are scored in the calling thread.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new {@link BatchSynsetSimilarity} that computes every score in
+     * the calling thread.
+     */
+    public BatchSynsetSimilarity(SynsetSimilarity similarity) {
+        this(similarity, null);
+    }
+
+    /**
+     * Creates a new {@link BatchSynsetSimilarity} that scores the rows of a
+     * matrix in parallel using {@code executor}.
+     */
+    public BatchSynsetSimilarity(SynsetSimilarity similarity,
+                                 ExecutorService executor) {
+        this.similarity = similarity;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a {@link PreparedSynsetSimilarity.Row} that scores {@code
+     * synset} against other {@link Synset}s using {@code similarity}.  If
+     * {@code similarity} is not a {@link PreparedSynsetSimilarity}, the row
+     * simply scores each pair independently.
+     */
+    public static PreparedSynsetSimilarity.Row prepare(
+            final SynsetSimilarity similarity, final Synset synset) {
+        if (similarity instanceof PreparedSynsetSimilarity)
+            return ((PreparedSynsetSimilarity) similarity).prepare(synset);
+        return new PreparedSynsetSimilarity.Row() {
+            public double similarity(Synset other) {
+                return similarity.similarity(synset, other);
+            }
+
+            public double similarity(PreparedSynsetSimilarity.Column other) {
+                return similarity.similarity(synset, other.synset());
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link PreparedSynsetSimilarity.Column} that holds the state
+     * needed to score other {@link Synset}s against {@code synset} using
+     * {@code similarity}.  If {@code similarity} is not a {@link
+     * PreparedSynsetSimilarity}, the column holds only {@code synset}.
+     */
+    public static PreparedSynsetSimilarity.Column prepareColumn(
+            SynsetSimilarity similarity, Synset synset) {
+        if (similarity instanceof PreparedSynsetSimilarity)
+            return ((PreparedSynsetSimilarity) similarity).prepareColumn(
+                    synset);
+        return new PreparedSynsetSimilarity.SynsetColumn(synset);
+    }
+
+    /**
+     * Returns the similarity between {@code synset} and each {@link Synset}
+     * in {@code others}.
+     */
+    public double[] similarities(Synset synset, Synset[] others) {
+        PreparedSynsetSimilarity.Row row = prepare(similarity, synset);
+        double[] scores = new double[others.length];
+        for (int i = 0; i < others.length; ++i)
+            scores[i] = row.similarity(others[i]);
+        return scores;
+    }
+
+    /**
+     * Returns a matrix where entry {@code (i, j)} is the similarity between
+     * {@code rows[i]} and {@code columns[j]}.
+     */
+    public double[][] similarityMatrix(Synset[] rows, Synset[] columns) {
+        double[][] scores = new double[rows.length][];
+        scoreRows(rows, prepareColumns(columns), scores, false);
+        return scores;
+    }
+
+    /**
+     * Returns a matrix where entry {@code (i, j)} is the similarity between
+     * {@code synsets[i]} and {@code synsets[j]}.
+     */
+    public double[][] allPairs(Synset[] synsets) {
+        return allPairs(synsets, false);
+    }
+
+    /**
+     * Returns a matrix where entry {@code (i, j)} is the similarity between
+     * {@code synsets[i]} and {@code synsets[j]}.
+     *
+     * @param symmetric If true, only the scores where {@code i <= j} are
+     *        computed and the remaining scores are copied from them
+     */
+    public double[][] allPairs(Synset[] synsets, boolean symmetric) {
+        double[][] scores = new double[synsets.length][];
+        scoreRows(synsets, prepareColumns(synsets), scores, symmetric);
+        if (symmetric)
+            for (int i = 0; i < synsets.length; ++i)
+                for (int j = 0; j < i; ++j)
+                    scores[i][j] = scores[j][i];
+        return scores;
+    }
+
+    /**
+     * Returns a matrix holding the similarity between every pair of senses
+     * for {@code lemma} with the part of speech {@code pos}, in the order
+     * returned by {@link OntologyReader#getSynsets(String, PartsOfSpeech)}.
+     */
+    public double[][] allPairs(OntologyReader reader,
+                               String lemma,
+                               PartsOfSpeech pos) {
+        return allPairs(reader.getSynsets(lemma, pos), false);
+    }
+
+    /**
+     * Returns a {@link PreparedSynsetSimilarity.Column} for each {@link
+     * Synset} in {@code columns}.
+     */
+    private PreparedSynsetSimilarity.Column[] prepareColumns(Synset[] columns) {
+        PreparedSynsetSimilarity.Column[] prepared =
+            new PreparedSynsetSimilarity.Column[columns.length];
+        for (int j = 0; j < columns.length; ++j)
+            prepared[j] = prepareColumn(similarity, columns[j]);
+        return prepared;
+    }
+
+    /**
+     * Fills in each row of {@code scores}.  If {@code upperOnly} is true, only
+     * the entries on or above the diagonal are computed.
+     */
+    private void scoreRows(final Synset[] rows,
+                           final PreparedSynsetSimilarity.Column[] columns,
+                           final double[][] scores,
+                           final boolean upperOnly) {
+        if (executor == null || rows.length <= ROWS_PER_TASK) {
+            scoreRows(rows, columns, scores, upperOnly, 0, rows.length);
+            return;
+        }
+
+        List<Future<Object>> tasks = new ArrayList<Future<Object>>();
+        for (int start = 0; start < rows.length; start += ROWS_PER_TASK) {
+            final int first = start;
+            final int last = Math.min(rows.length, start + ROWS_PER_TASK);
+            tasks.add(executor.submit(new Callable<Object>() {
+                public Object call() {
+                    scoreRows(rows, columns, scores, upperOnly, first, last);
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (Future<Object> task : tasks)
+                task.get();
+        } catch (InterruptedException ie) {
+            for (Future<Object> task : tasks)
+                task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while computing similarities", ie);
+        } catch (ExecutionException ee) {
+            for (Future<Object> task : tasks)
+                task.cancel(true);
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ee.getCause();
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+
+    /**
+     * Fills in rows {@code first} through {@code last - 1} of {@code scores}.
+     */
+    private void scoreRows(Synset[] rows,
+                           PreparedSynsetSimilarity.Column[] columns,
+                           double[][] scores,
+                           boolean upperOnly,
+                           int first,
+                           int last) {
+        for (int i = first; i < last; ++i) {
+            PreparedSynsetSimilarity.Row row = prepare(similarity, rows[i]);
+            scores[i] = new double[columns.length];
+            for (int j = (upperOnly) ? i : 0; j < columns.length; ++j)
+                scores[i][j] = row.similarity(columns[j]);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.util.ConcurrentLruCache;
+
+
+/**
+ * A {@link SynsetSimilarity} decorator that remembers the scores computed by
+ * another {@link SynsetSimilarity}.  Scores are stored in a bounded {@link
+ * ConcurrentLruCache} keyed by the identity of both {@link Synset}s.  If the
+ * wrapped measure is known to be symmetric, a score computed for one ordering
+ * of a pair can also be reused for the other ordering.  Since the scores of
+ * path based measures depend on the hypernym hierarchy, every cached score is
+ * discarded whenever the hierarchy is modified.
+ *
+ * </p>
+ *
+ * The cache statistics, such as the hit rate, number of evictions, and time
+ * spent computing scores, can be used to select a cache size for a given job.
+ *
+ * </p>
+ *
+ * This class is thread safe if the wrapped {@link SynsetSimilarity} is.
+ *
+ * @author Keith Stevens
+ */
+public class CachedSynsetSimilarity implements SynsetSimilarity {
+
+    /**
+     * The {@link SynsetSimilarity} whose scores are cached.
+     */
+    private final SynsetSimilarity similarity;
+
+    /**
+     * Set to true if the score for a pair does not depend on the order of the
+     * two {@link Synset}s.
+     */
+    private final boolean symmetric;
+
+    /**
+     * The cached scores.
+     */
+    private final ConcurrentLruCache<SynsetPair, Double> cache;
+
+    /**
+     * Computes missing scores with the wrapped {@link SynsetSimilarity}.
+     */
+    private final ConcurrentLruCache.Loader<SynsetPair, Double> loader;
+
+    /**
+     * The hierarchy version for which the cached scores are valid.
+     */
+    private volatile long version;
+
+    /**
+     * Creates a new {@link CachedSynsetSimilarity} that caches at most {@code
+     * maxSize} scores from {@code similarity}.  The order of each pair is
+     * significant, since measures such as {@link LeskSimilarity} are not
+     * symmetric.
+     */
+    public CachedSynsetSimilarity(SynsetSimilarity similarity, int maxSize) {
+        this(similarity, maxSize, false);
+    }
+
+    /**
+     * Creates a new {@link CachedSynsetSimilarity} that caches at most {@code
+     * maxSize} scores from {@code similarity}.
+     *
+     * @param symmetric If true, the score for {@code (a, b)} will be used as
+     *        the score for {@code (b, a)}
+     */
+    public CachedSynsetSimilarity(SynsetSimilarity similarity,
+                                  int maxSize,
+                                  boolean symmetric) {
+        this.similarity = similarity;
+        this.symmetric = symmetric;
+        this.cache = new ConcurrentLruCache<SynsetPair, Double>(maxSize);
+        this.version = AncestorIndex.hierarchyVersion();
+        this.loader = new ConcurrentLruCache.Loader<SynsetPair, Double>() {
+            public Double load(SynsetPair pair) {
+                return CachedSynsetSimilarity.this.similarity.similarity(
+                        pair.synset1, pair.synset2);
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double similarity(Synset synset1, Synset synset2) {
+        long current = AncestorIndex.hierarchyVersion();
+        if (current != version) {
+            cache.clear();
+            version = current;
+        }
+        return cache.get(new SynsetPair(synset1, synset2, symmetric), loader);
+    }
+
+    /**
+     * Returns the number of cached scores.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of scores served from the cache.
+     */
+    public long hitCount() {
+        return cache.hitCount();
+    }
+
+    /**
+     * Returns the number of scores that had to be computed.
+     */
+    public long missCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * Returns the fraction of scores served from the cache.
+     */
+    public double hitRate() {
+        return cache.hitRate();
+    }
+
+    /**
+     * Returns the number of scores evicted to make room for new scores.
+     */
+    public long evictionCount() {
+        return cache.evictionCount();
+    }
+
+    /**
+     * Returns the total number of nanoseconds spent computing scores.
+     */
+    public long totalLoadTime() {
+        return cache.totalLoadTime();
+    }
+
+    /**
+     * Returns the wrapped {@link SynsetSimilarity} and the cache statistics.
+     */
+    public String toString() {
+        return "CachedSynsetSimilarity[" + similarity + ", " + cache + "]";
+    }
+
+    /**
+     * A pair of {@link Synset}s compared by identity.
+     */
+    private static class SynsetPair {
+
+        private final Synset synset1;
+
+        private final Synset synset2;
+
+        private final boolean symmetric;
+
+        private final int hash;
+
+        public SynsetPair(Synset synset1, Synset synset2, boolean symmetric) {
+            this.synset1 = synset1;
+            this.synset2 = synset2;
+            this.symmetric = symmetric;
+            int hash1 = System.identityHashCode(synset1);
+            int hash2 = System.identityHashCode(synset2);
+            this.hash = (symmetric)
+                ? (hash1 ^ hash2) + 31 * (hash1 + hash2)
+                : 31 * hash1 + hash2;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean equals(Object o) {
+            if (!(o instanceof SynsetPair))
+                return false;
+            SynsetPair other = (SynsetPair) o;
+            if (synset1 == other.synset1 && synset2 == other.synset2)
+                return true;
+            return symmetric &&
+                   synset1 == other.synset2 && synset2 == other.synset1;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,996 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import edu.ucla.sspace.util.CombinedIterator;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * A read only {@link OntologyReader} that stores the entire WordNet graph in a
+ * small number of primitive arrays.  Every {@link Synset} is identified by a
+ * dense integer id and all of it's values, such as the sense number, lemmas,
+ * and examples, are stored in parallel arrays indexed by that id.  Relations
+ * are stored separately for each relation type in compressed sparse row form:
+ * the targets of every link of a single type are held in one {@code int} array,
+ * ordered by source {@link Synset}, along with an array of row offsets.  This
+ * avoids the per {@link Synset} maps, sets, and lists used by a {@link
+ * BaseSynset}, which drastically reduces the heap used to hold WordNet and
+ * keeps related {@link Synset}s close together in memory.
+ *
+ * </p>
+ *
+ * The {@link Synset}s returned by this reader are flyweights that hold only
+ * their id.  Exactly one flyweight exists for each id, so {@link Synset}s can
+ * be compared by identity and used as map keys.  As with the {@link
+ * MappedOntologyReader}, the graph can not be modified after it has been
+ * created, but {@link Attribute}s can be stored on each {@link Synset}.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class CompactOntologyReader implements OntologyReader {
+
+    /**
+     * The {@link PartsOfSpeech} ordinal for each {@link Synset}.
+     */
+    private final byte[] partsOfSpeech;
+
+    /**
+     * The original offset for each {@link Synset}.
+     */
+    private final int[] offsets;
+
+    /**
+     * The sense number for each {@link Synset}.
+     */
+    private final int[] senseNumbers;
+
+    /**
+     * The sense key for each {@link Synset}.
+     */
+    private final String[] senseKeys;
+
+    /**
+     * The definition for each {@link Synset}.
+     */
+    private final String[] definitions;
+
+    /**
+     * The first example for each {@link Synset}, followed by the total number
+     * of examples.
+     */
+    private final int[] exampleStarts;
+
+    /**
+     * The example sentences for every {@link Synset}.
+     */
+    private final String[] examples;
+
+    /**
+     * The first lemma for each {@link Synset}, followed by the total number of
+     * lemmas.
+     */
+    private final int[] lemmaStarts;
+
+    /**
+     * The name of every {@link Lemma}.
+     */
+    private final String[] lemmaNames;
+
+    /**
+     * The lexicographer file name of every {@link Lemma}.
+     */
+    private final String[] lexNames;
+
+    /**
+     * The lexicographer file index of every {@link Lemma}.
+     */
+    private final int[] lexNameIndices;
+
+    /**
+     * The lexical id of every {@link Lemma}.
+     */
+    private final int[] lexicalIds;
+
+    /**
+     * The key of every {@link Lemma}.
+     */
+    private final String[] lemmaKeys;
+
+    /**
+     * The first verb frame for each {@link Synset}, followed by the total
+     * number of verb frames.
+     */
+    private final int[] frameStarts;
+
+    /**
+     * The frame id of every verb frame.
+     */
+    private final int[] frameIds;
+
+    /**
+     * The lemma id of every verb frame.
+     */
+    private final int[] frameLemmaIds;
+
+    /**
+     * The label for each relation type.
+     */
+    private final String[] relationLabels;
+
+    /**
+     * A mapping from relation labels to their relation type ids.
+     */
+    private final Map<String, Integer> relationIds;
+
+    /**
+     * The row offsets for each relation type.  The links of type {@code t}
+     * from {@link Synset} {@code s} are stored in {@code relationTargets[t]}
+     * from {@code relationStarts[t][s]} to {@code relationStarts[t][s+1]}.
+     */
+    private final int[][] relationStarts;
+
+    /**
+     * The target {@link Synset} ids for each relation type.
+     */
+    private final int[][] relationTargets;
+
+    /**
+     * The packed derivationally related form for each link, or {@code null}
+     * for relation types that have no related forms.
+     */
+    private final int[][] relationForms;
+
+    /**
+     * The minimum depth of each {@link Synset}.
+     */
+    private final int[] minDepths;
+
+    /**
+     * The maximum depth of each {@link Synset}.
+     */
+    private final int[] maxDepths;
+
+    /**
+     * The maximum depth for each {@link PartsOfSpeech}.
+     */
+    private final int[] posMaxDepths;
+
+    /**
+     * A mapping from each lemma to the ordered {@link Synset} ids for each
+     * {@link PartsOfSpeech}.
+     */
+    private final Map<String, int[][]> lemmaIndex;
+
+    /**
+     * The morphological exceptions for each {@link PartsOfSpeech}.
+     */
+    private final List<Map<String, String>> exceptions;
+
+    /**
+     * The flyweight for each {@link Synset} id.
+     */
+    private final CompactSynset[] synsets;
+
+    /**
+     * Creates a new {@link CompactOntologyReader} holding a copy of every
+     * {@link Synset} known to {@code reader}, along with every {@link Synset}
+     * reachable from them.  Lemma mappings are copied from {@link
+     * OntologyReader#wordnetTerms} and morphological exceptions are copied when
+     * {@code reader} is a {@link WordNetCorpusReader}, {@link
+     * MappedOntologyReader}, or {@link CompactOntologyReader}.
+     */
+    public CompactOntologyReader(OntologyReader reader) {
+        // Assign a dense id to every synset.  Lemmas are visited in sorted
+        // order so that ids are stable for a given ontology.
+        List<String> lemmas = new ArrayList<String>(
+                new TreeSet<String>(reader.wordnetTerms()));
+        Map<Synset, Integer> ids = new HashMap<Synset, Integer>();
+        List<Synset> sources = new ArrayList<Synset>();
+        Queue<Synset> toVisit = new LinkedList<Synset>();
+        PartsOfSpeech[] posValues = PartsOfSpeech.values();
+        lemmaIndex = new HashMap<String, int[][]>();
+        List<int[][]> lemmaIds = new ArrayList<int[][]>();
+        for (String lemma : lemmas) {
+            int[][] posIds = new int[posValues.length][];
+            for (PartsOfSpeech pos : posValues) {
+                Synset[] lemmaSynsets = exactSynsets(reader, lemma, pos);
+                posIds[pos.ordinal()] = new int[lemmaSynsets.length];
+                for (Synset synset : lemmaSynsets)
+                    addSynset(synset, ids, sources, toVisit);
+            }
+            lemmaIndex.put(lemma, posIds);
+            lemmaIds.add(posIds);
+        }
+        while (!toVisit.isEmpty())
+            for (Synset related : toVisit.remove().allRelations())
+                addSynset(related, ids, sources, toVisit);
+
+        // Now that every synset has an id, fill in the lemma index.
+        for (int l = 0; l < lemmas.size(); ++l) {
+            int[][] posIds = lemmaIds.get(l);
+            for (PartsOfSpeech pos : posValues) {
+                Synset[] lemmaSynsets = exactSynsets(
+                        reader, lemmas.get(l), pos);
+                for (int s = 0; s < lemmaSynsets.length; ++s)
+                    posIds[pos.ordinal()][s] = ids.get(lemmaSynsets[s]);
+            }
+        }
+
+        // Copy the basic values for each synset.
+        int numSynsets = sources.size();
+        partsOfSpeech = new byte[numSynsets];
+        offsets = new int[numSynsets];
+        senseNumbers = new int[numSynsets];
+        senseKeys = new String[numSynsets];
+        definitions = new String[numSynsets];
+        exampleStarts = new int[numSynsets + 1];
+        lemmaStarts = new int[numSynsets + 1];
+        frameStarts = new int[numSynsets + 1];
+        List<String> allExamples = new ArrayList<String>();
+        List<Lemma> allLemmas = new ArrayList<Lemma>();
+        int numFrames = 0;
+        for (int i = 0; i < numSynsets; ++i) {
+            Synset synset = sources.get(i);
+            partsOfSpeech[i] = (byte) synset.getPartOfSpeech().ordinal();
+            offsets[i] = synset.getId();
+            senseNumbers[i] = synset.getSenseNumber();
+            senseKeys[i] = synset.getSenseKey();
+            definitions[i] = synset.getDefinition();
+            allExamples.addAll(synset.getExamples());
+            exampleStarts[i + 1] = allExamples.size();
+            allLemmas.addAll(synset.getLemmas());
+            lemmaStarts[i + 1] = allLemmas.size();
+            numFrames += numFrames(synset);
+            frameStarts[i + 1] = numFrames;
+        }
+        examples = allExamples.toArray(new String[allExamples.size()]);
+
+        // Copy the lemma values into parallel arrays.
+        int numLemmas = allLemmas.size();
+        lemmaNames = new String[numLemmas];
+        lexNames = new String[numLemmas];
+        lexNameIndices = new int[numLemmas];
+        lexicalIds = new int[numLemmas];
+        lemmaKeys = new String[numLemmas];
+        for (int l = 0; l < numLemmas; ++l) {
+            Lemma lemma = allLemmas.get(l);
+            lemmaNames[l] = lemma.getLemmaName();
+            lexNames[l] = lemma.getLexicographerName();
+            if (lexNames[l] != null)
+                lexNames[l] = lexNames[l].intern();
+            lexNameIndices[l] = lemma.getLexNameIndex();
+            lexicalIds[l] = lemma.getLexicalId();
+            lemmaKeys[l] = lemma.getKey();
+        }
+
+        // Copy the verb frames.
+        frameIds = new int[numFrames];
+        frameLemmaIds = new int[numFrames];
+        for (int i = 0; i < numSynsets; ++i) {
+            Synset synset = sources.get(i);
+            for (int f = 0; f < frameStarts[i+1] - frameStarts[i]; ++f) {
+                frameIds[frameStarts[i] + f] = synset.getFrameIds()[f];
+                frameLemmaIds[frameStarts[i] + f] = synset.getLemmaIds()[f];
+            }
+        }
+
+        // Collect the relation labels and count the number of links of each
+        // type leaving each synset.
+        TreeSet<String> labels = new TreeSet<String>();
+        for (Synset synset : sources)
+            labels.addAll(synset.getKnownRelationTypes());
+        relationLabels = labels.toArray(new String[labels.size()]);
+        relationIds = new HashMap<String, Integer>();
+        for (int t = 0; t < relationLabels.length; ++t) {
+            relationLabels[t] = relationLabels[t].intern();
+            relationIds.put(relationLabels[t], t);
+        }
+        relationStarts = new int[relationLabels.length][numSynsets + 1];
+        relationTargets = new int[relationLabels.length][];
+        relationForms = new int[relationLabels.length][];
+        boolean[] hasForms = new boolean[relationLabels.length];
+        for (int i = 0; i < numSynsets; ++i) {
+            Synset synset = sources.get(i);
+            for (String label : synset.getKnownRelationTypes()) {
+                int type = relationIds.get(label);
+                for (Synset related : synset.getRelations(label)) {
+                    if (related == null)
+                        continue;
+                    relationStarts[type][i + 1]++;
+                    if (synset.getDerivationallyRelatedForm(related) != null)
+                        hasForms[type] = true;
+                }
+            }
+        }
+
+        // Convert the counts into row offsets and then fill in the targets
+        // for each relation type.
+        for (int t = 0; t < relationLabels.length; ++t) {
+            for (int i = 0; i < numSynsets; ++i)
+                relationStarts[t][i + 1] += relationStarts[t][i];
+            relationTargets[t] = new int[relationStarts[t][numSynsets]];
+            if (hasForms[t]) {
+                relationForms[t] = new int[relationTargets[t].length];
+                Arrays.fill(relationForms[t], -1);
+            }
+        }
+        for (int i = 0; i < numSynsets; ++i) {
+            Synset synset = sources.get(i);
+            for (String label : synset.getKnownRelationTypes()) {
+                int type = relationIds.get(label);
+                int next = relationStarts[type][i];
+                for (Synset related : synset.getRelations(label)) {
+                    if (related == null)
+                        continue;
+                    if (relationForms[type] != null) {
+                        RelatedForm form =
+                            synset.getDerivationallyRelatedForm(related);
+                        if (form != null)
+                            relationForms[type][next] =
+                                (form.sourceIndex() << 16) | form.otherIndex();
+                    }
+                    relationTargets[type][next++] = ids.get(related);
+                }
+            }
+        }
+
+        // Precompute the depth of every synset and the deepest synset for
+        // each part of speech.
+        minDepths = new int[numSynsets];
+        maxDepths = new int[numSynsets];
+        Arrays.fill(minDepths, -1);
+        Arrays.fill(maxDepths, -1);
+        Integer hypernym = relationIds.get(Relation.HYPERNYM.toString());
+        for (int i = 0; i < numSynsets; ++i)
+            computeDepths(i, (hypernym == null) ? -1 : hypernym);
+        posMaxDepths = new int[posValues.length];
+        for (int[][] posIds : lemmaIndex.values())
+            for (int pos = 0; pos < posValues.length; ++pos)
+                for (int id : posIds[pos])
+                    posMaxDepths[pos] = Math.max(
+                            posMaxDepths[pos], maxDepths[id]);
+
+        exceptions = new ArrayList<Map<String, String>>();
+        for (PartsOfSpeech pos : posValues)
+            exceptions.add(exceptionsFor(reader, pos));
+
+        synsets = new CompactSynset[numSynsets];
+        for (int i = 0; i < numSynsets; ++i)
+            synsets[i] = new CompactSynset(i);
+    }
+
+    /**
+     * Returns a {@link CompactOntologyReader} holding the contents of the
+     * {@link WordNetSnapshot} stored in {@code snapshotFile}.
+     */
+    public static CompactOntologyReader fromSnapshot(String snapshotFile) {
+        return new CompactOntologyReader(
+                new MappedOntologyReader(snapshotFile));
+    }
+
+    /**
+     * Returns the {@link Synset}s mapped directly to {@code lemma} by {@code
+     * reader}.  {@link OntologyReader#getSynsets(String, PartsOfSpeech)} falls
+     * back on morphological variants when a lemma has no {@link Synset}s, so
+     * results that do not contain {@code lemma} itself are discarded.
+     */
+    /* package private */ static Synset[] exactSynsets(OntologyReader reader,
+                                                       String lemma,
+                                                       PartsOfSpeech pos) {
+        Synset[] lemmaSynsets = reader.getSynsets(lemma, pos);
+        for (Synset synset : lemmaSynsets)
+            for (Lemma l : synset.getLemmas())
+                if (l.getLemmaName().toLowerCase().equals(lemma))
+                    return lemmaSynsets;
+        return new Synset[0];
+    }
+
+    /**
+     * Returns the morphological exceptions known by {@code reader} for {@code
+     * pos}.
+     */
+    private static Map<String, String> exceptionsFor(OntologyReader reader,
+                                                     PartsOfSpeech pos) {
+        if (reader instanceof WordNetCorpusReader)
+            return new HashMap<String, String>(
+                    ((WordNetCorpusReader) reader).getExceptions(pos));
+        if (reader instanceof MappedOntologyReader)
+            return ((MappedOntologyReader) reader).getExceptions(pos);
+        if (reader instanceof CompactOntologyReader)
+            return ((CompactOntologyReader) reader).exceptions.get(
+                    pos.ordinal());
+        return new HashMap<String, String>();
+    }
+
+    /**
+     * Assigns an id to {@code synset} if it does not already have one and
+     * queues it so that it's related {@link Synset}s will also be assigned
+     * ids.
+     */
+    private static void addSynset(Synset synset,
+                                  Map<Synset, Integer> ids,
+                                  List<Synset> sources,
+                                  Queue<Synset> toVisit) {
+        if (synset == null || ids.containsKey(synset))
+            return;
+        ids.put(synset, sources.size());
+        sources.add(synset);
+        toVisit.offer(synset);
+    }
+
+    /**
+     * Returns the number of verb frames that can be copied from {@code
+     * synset}.
+     */
+    private static int numFrames(Synset synset) {
+        int[] frames = synset.getFrameIds();
+        int[] lemmas = synset.getLemmaIds();
+        return (frames == null || lemmas == null)
+            ? 0
+            : Math.min(frames.length, lemmas.length);
+    }
+
+    /**
+     * Computes the minimum and maximum depth of {@link Synset} {@code id} from
+     * the depths of it's parents, which are linked by relation type {@code
+     * hypernym}.  A {@link Synset} in a hypernym cycle is given the depths
+     * known when the cycle is found.
+     */
+    private void computeDepths(int id, int hypernym) {
+        if (maxDepths[id] > -1)
+            return;
+
+        // Mark this synset as visited so that cycles terminate.
+        maxDepths[id] = 0;
+        minDepths[id] = 0;
+        if (hypernym < 0)
+            return;
+
+        int bestMax = -1;
+        int bestMin = Integer.MAX_VALUE;
+        int[] starts = relationStarts[hypernym];
+        for (int r = starts[id]; r < starts[id + 1]; ++r) {
+            int parent = relationTargets[hypernym][r];
+            computeDepths(parent, hypernym);
+            bestMax = Math.max(bestMax, maxDepths[parent]);
+            bestMin = Math.min(bestMin, minDepths[parent]);
+        }
+        maxDepths[id] = 1 + bestMax;
+        minDepths[id] = (bestMin == Integer.MAX_VALUE) ? 0 : 1 + bestMin;
+    }
+
+    /**
+     * Returns the number of {@link Synset}s held by this reader.
+     */
+    public int numSynsets() {
+        return synsets.length;
+    }
+
+    /**
+     * Returns the {@link Synset} with id {@code id}.  Ids range from 0 to
+     * {@link #numSynsets}.
+     */
+    public Synset getSynset(int id) {
+        return synsets[id];
+    }
+
+    /**
+     * Returns the id of {@code synset}, or -1 if {@code synset} was not
+     * created by this reader.
+     */
+    public int indexOf(Synset synset) {
+        if (!(synset instanceof CompactSynset))
+            return -1;
+        CompactSynset compact = (CompactSynset) synset;
+        return (compact.reader() == this) ? compact.id : -1;
+    }
+
+    /**
+     * Returns the {@link Synset}s for {@code pos} in the given lemma mapping.
+     */
+    private Synset[] toSynsets(int[][] posIds, PartsOfSpeech pos) {
+        int[] ids = posIds[pos.ordinal()];
+        Synset[] result = new Synset[ids.length];
+        for (int s = 0; s < ids.length; ++s)
+            result[s] = synsets[ids[s]];
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form) {
+        List<Iterator<String>> formIters = new ArrayList<Iterator<String>>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            formIters.add(morphy(form, pos));
+        return new CombinedIterator<String>(formIters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form, PartsOfSpeech pos) {
+        String suffix = "";
+        if (pos == PartsOfSpeech.NOUN && form.endsWith("ful")) {
+            suffix = "ful";
+            form = form.substring(0, form.length() - suffix.length());
+        }
+
+        return new WordNetCorpusReader.FormIterator(
+                form, suffix,
+                WordNetCorpusReader.MORPHOLOGICAL_SUBSTITUTIONS[pos.ordinal()],
+                exceptions.get(pos.ordinal()).get(form));
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void removeSynset(Synset synset) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a compact ontology");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addSynset(Synset synset) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a compact ontology");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addSynset(Synset synset, int index) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a compact ontology");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void replaceSynset(Synset synset, Synset replacement) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a compact ontology");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms() {
+        return Collections.unmodifiableSet(lemmaIndex.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms(PartsOfSpeech pos) {
+        Set<String> posLemmas = new HashSet<String>();
+        for (Map.Entry<String, int[][]> entry : lemmaIndex.entrySet())
+            if (entry.getValue()[pos.ordinal()].length != 0)
+                posLemmas.add(entry.getKey());
+        return posLemmas;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma) {
+        List<Synset> allSynsets = new ArrayList<Synset>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            allSynsets.addAll(Arrays.asList(getSynsets(lemma, pos)));
+        return allSynsets.toArray(new Synset[allSynsets.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+        // Get the synsets for the original form.
+        int[][] posIds = lemmaIndex.get(lemma);
+        if (posIds != null && posIds[pos.ordinal()].length > 0)
+            return toSynsets(posIds, pos);
+
+        // Find the Synsets for each morphological variation.
+        List<Synset> allSynsets = new ArrayList<Synset>();
+        Iterator<String> formIter = morphy(lemma, pos);
+        while (formIter.hasNext()) {
+            posIds = lemmaIndex.get(formIter.next());
+            if (posIds != null)
+                allSynsets.addAll(Arrays.asList(toSynsets(posIds, pos)));
+        }
+        return allSynsets.toArray(new Synset[allSynsets.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String fullSynsetName) {
+        String[] parts = fullSynsetName.split("\\.");
+        String lemma = parts[0];
+        PartsOfSpeech pos = WordNetCorpusReader.POS_MAP.get(parts[1]);
+        int senseNum = Integer.parseInt(parts[2]);
+        return getSynset(lemma, pos, senseNum);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String lemma, PartsOfSpeech pos, int senseNum) {
+        int[][] posIds = lemmaIndex.get(lemma);
+        if (posIds == null)
+            return null;
+        int[] ids = posIds[pos.ordinal()];
+        if (senseNum < 1 || senseNum > ids.length)
+            return null;
+        return synsets[ids[senseNum-1]];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getMaxDepth(PartsOfSpeech pos) {
+        return posMaxDepths[pos.ordinal()];
+    }
+
+    /**
+     * A flyweight {@link Synset} whose values are stored in the arrays of the
+     * owning {@link CompactOntologyReader}.
+     */
+    private class CompactSynset extends ReadOnlySynset {
+
+        /**
+         * The dense id for this {@link Synset}.
+         */
+        private final int id;
+
+        public CompactSynset(int id) {
+            this.id = id;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getId() {
+            return offsets[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getName() {
+            return lemmaNames[lemmaStarts[id]].toLowerCase() + "." +
+                   getPartOfSpeech() + "." + senseNumbers[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getSenseKey() {
+            return senseKeys[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getSenseNumber() {
+            return senseNumbers[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public List<String> getExamples() {
+            return Collections.unmodifiableList(Arrays.asList(examples).subList(
+                        exampleStarts[id], exampleStarts[id + 1]));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getDefinition() {
+            return definitions[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public List<Lemma> getLemmas() {
+            final int start = lemmaStarts[id];
+            final int count = lemmaStarts[id + 1] - start;
+            return new AbstractList<Lemma>() {
+                public Lemma get(int index) {
+                    if (index < 0 || index >= count)
+                        throw new IndexOutOfBoundsException();
+                    return new CompactLemma(CompactSynset.this, start + index);
+                }
+
+                public int size() {
+                    return count;
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int[] getFrameIds() {
+            return Arrays.copyOfRange(
+                    frameIds, frameStarts[id], frameStarts[id + 1]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int[] getLemmaIds() {
+            return Arrays.copyOfRange(
+                    frameLemmaIds, frameStarts[id], frameStarts[id + 1]);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public PartsOfSpeech getPartOfSpeech() {
+            return PartsOfSpeech.values()[partsOfSpeech[id]];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Set<String> getKnownRelationTypes() {
+            Set<String> types = new HashSet<String>();
+            for (int t = 0; t < relationLabels.length; ++t)
+                if (relationStarts[t][id] != relationStarts[t][id + 1])
+                    types.add(relationLabels[t]);
+            return types;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Collection<Synset> allRelations() {
+            List<Synset> related = new ArrayList<Synset>();
+            for (int t = 0; t < relationLabels.length; ++t)
+                related.addAll(new RelationSet(t, id));
+            return related;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Set<Synset> getRelations(String relation) {
+            Integer type = relationIds.get(relation);
+            if (type == null)
+                return Collections.emptySet();
+            return new RelationSet(type, id);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getNumRelations() {
+            int numRelations = 0;
+            for (int t = 0; t < relationLabels.length; ++t)
+                numRelations += relationStarts[t][id + 1] -
+                                relationStarts[t][id];
+            return numRelations;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public RelatedForm getDerivationallyRelatedForm(Synset synset) {
+            int otherId = indexOf(synset);
+            if (otherId < 0)
+                return null;
+            for (int t = 0; t < relationLabels.length; ++t) {
+                if (relationForms[t] == null)
+                    continue;
+                for (int r = relationStarts[t][id];
+                        r < relationStarts[t][id + 1]; ++r) {
+                    int form = relationForms[t][r];
+                    if (form != -1 && relationTargets[t][r] == otherId)
+                        return new SimpleRelatedForm(
+                                form >>> 16, form & 0xffff);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getMaxDepth() {
+            return maxDepths[id];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getMinDepth() {
+            return minDepths[id];
+        }
+
+        /**
+         * Returns the {@link CompactOntologyReader} owning this {@link
+         * Synset}.
+         */
+        private CompactOntologyReader reader() {
+            return CompactOntologyReader.this;
+        }
+    }
+
+    /**
+     * An unmodifiable {@link Set} view over the links of a single relation
+     * type leaving a single {@link Synset}.
+     */
+    private class RelationSet extends AbstractSet<Synset> {
+
+        /**
+         * The targets for this relation type.
+         */
+        private final int[] targets;
+
+        /**
+         * The first link in this set.
+         */
+        private final int start;
+
+        /**
+         * One past the last link in this set.
+         */
+        private final int end;
+
+        public RelationSet(int type, int id) {
+            this.targets = relationTargets[type];
+            this.start = relationStarts[type][id];
+            this.end = relationStarts[type][id + 1];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean contains(Object o) {
+            if (!(o instanceof Synset))
+                return false;
+            int otherId = indexOf((Synset) o);
+            for (int r = start; r < end; ++r)
+                if (targets[r] == otherId)
+                    return true;
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Iterator<Synset> iterator() {
+            return new Iterator<Synset>() {
+                int next = start;
+
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                public Synset next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return synsets[targets[next++]];
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException(
+                            "Cannot modify a compact ontology");
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * A {@link Lemma} view over the lemma arrays.
+     */
+    private class CompactLemma implements Lemma {
+
+        private final Synset synset;
+
+        private final int index;
+
+        public CompactLemma(Synset synset, int index) {
+            this.synset = synset;
+            this.index = index;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getKey() {
+            return lemmaKeys[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Synset getSynset() {
+            return synset;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getLemmaName() {
+            return lemmaNames[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getLexicographerName() {
+            return lexNames[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getLexNameIndex() {
+            return lexNameIndices[index];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getLexicalId() {
+            return lexicalIds[index];
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * An {@link OntologyReader} that can be shared by many reading threads while
+ * the ontology is being extended.  Readers work on an immutable {@link
+ * CompactOntologyReader} snapshot of the ontology and never take a lock.
+ * Writers never modify the published snapshot.  Instead, they submit {@link
+ * Update}s which are applied, in batches, to a private mutable {@link
+ * OntologyReader}.  Once a batch has been applied, a new snapshot is built
+ * and published atomically, so readers see either every change in the batch
+ * or none of them.
+ *
+ * </p>
+ *
+ * Each snapshot is built from the entire ontology, which takes time linear
+ * in the size of the ontology no matter how small the batch is.  Changes
+ * should therefore be grouped into as few batches as possible: {@link
+ * #submit} queues an {@link Update} without publishing it, and a reader
+ * created with a batch size publishes automatically once that many {@link
+ * Update}s are queued.  When several threads call {@link #update} at once,
+ * the first to take the write lock applies every queued {@link Update} and
+ * the rest find nothing left to publish, so they share a single snapshot.
+ *
+ * </p>
+ *
+ * The mutable {@link OntologyReader} can not be rolled back, so an {@link
+ * Update} should check everything it depends on before making any change.
+ * If an {@link Update} throws an exception, the changes made by it, and by
+ * every other {@link Update} in the same batch, are never published.
+ * Instead, the reader keeps the last published snapshot forever and rejects
+ * every later {@link Update} with an {@link IllegalStateException}, since the
+ * mutable {@link OntologyReader} may hold a partial change.
+ *
+ * </p>
+ *
+ * Each call to a read method uses the latest published snapshot.  Code that
+ * makes several related calls and needs a consistent view of the ontology
+ * should use the reader returned by {@link #snapshot} for all of them.
+ *
+ * </p>
+ *
+ * The standard {@link OntologyReader} mutators are not supported, since the
+ * {@link Synset}s returned by this reader belong to a read only snapshot.  All
+ * changes must be made by an {@link Update} using the {@link Synset}s of the
+ * mutable {@link OntologyReader} it is given.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class ConcurrentOntologyReader implements OntologyReader {
+
+    /**
+     * A batched modification to the ontology.
+     */
+    public interface Update {
+
+        /**
+         * Applies this modification to {@code writer}.  The {@link
+         * OntologyReader} must not be used once this method returns.
+         */
+        void apply(OntologyReader writer);
+    }
+
+    /**
+     * The mutable {@link OntologyReader} to which every {@link Update} is
+     * applied.  It is only accessed while holding the write lock.
+     */
+    private final OntologyReader writer;
+
+    /**
+     * The {@link Update}s that have been submitted but not yet applied.
+     */
+    private final Queue<Update> pending;
+
+    /**
+     * The latest published snapshot.
+     */
+    private final AtomicReference<Version> current;
+
+    /**
+     * The number of queued {@link Update}s that triggers a {@link #publish}.
+     */
+    private final int batchSize;
+
+    /**
+     * The number of {@link Update}s that have been submitted but not yet
+     * applied.
+     */
+    private final AtomicInteger numPending;
+
+    /**
+     * The lock held while applying {@link Update}s and building snapshots.
+     */
+    private final Object writeLock;
+
+    /**
+     * The exception thrown by the first {@link Update} that failed, or {@code
+     * null} if every {@link Update} has succeeded.
+     */
+    private volatile RuntimeException failure;
+
+    /**
+     * Creates a new {@link ConcurrentOntologyReader} that publishes snapshots
+     * of {@code writer}.  {@code writer} should not be used directly after
+     * this call.  {@link Update}s are only published by {@link #publish} and
+     * {@link #update}.
+     */
+    public ConcurrentOntologyReader(OntologyReader writer) {
+        this(writer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new {@link ConcurrentOntologyReader} that publishes snapshots
+     * of {@code writer}.  {@code writer} should not be used directly after
+     * this call.  {@link Update}s are published by {@link #publish} and
+     * {@link #update}, and whenever {@code batchSize} {@link Update}s have been
+     * queued by {@link #submit}.
+     */
+    public ConcurrentOntologyReader(OntologyReader writer, int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException(
+                    "The batch size must be positive: " + batchSize);
+        this.writer = writer;
+        this.batchSize = batchSize;
+        this.pending = new ConcurrentLinkedQueue<Update>();
+        this.numPending = new AtomicInteger();
+        this.writeLock = new Object();
+        this.current = new AtomicReference<Version>(
+                new Version(new CompactOntologyReader(writer), 0));
+    }
+
+    /**
+     * Returns the latest published snapshot of the ontology.  The snapshot
+     * never changes, even when later versions are published.
+     */
+    public CompactOntologyReader snapshot() {
+        return current.get().reader;
+    }
+
+    /**
+     * Returns the number of times a new snapshot has been published.
+     */
+    public long version() {
+        return current.get().version;
+    }
+
+    /**
+     * Queues {@code update} to be applied by the next call to {@link
+     * #publish}.  Changes made by {@code update} are not visible to readers
+     * until then.  If the batch size has been reached, every queued {@link
+     * Update} is published.
+     *
+     * @throws IllegalStateException if an earlier {@link Update} failed
+     */
+    public void submit(Update update) {
+        checkFailure();
+        pending.offer(update);
+        if (numPending.incrementAndGet() >= batchSize)
+            publish();
+    }
+
+    /**
+     * Applies {@code update}, along with any other queued {@link Update}s,
+     * and publishes the result.
+     *
+     * @throws IllegalStateException if an earlier {@link Update} failed
+     */
+    public void update(Update update) {
+        checkFailure();
+        pending.offer(update);
+        numPending.incrementAndGet();
+        publish();
+    }
+
+    /**
+     * Applies every queued {@link Update} and publishes a new snapshot of the
+     * ontology if any were applied.  If an {@link Update} throws an
+     * exception, nothing is published, the exception is rethrown, and every
+     * later {@link Update} is rejected.
+     *
+     * @throws IllegalStateException if an earlier {@link Update} failed
+     */
+    public void publish() {
+        synchronized (writeLock) {
+            checkFailure();
+            boolean applied = false;
+            for (Update update; (update = pending.poll()) != null; ) {
+                numPending.decrementAndGet();
+                try {
+                    update.apply(writer);
+                } catch (RuntimeException re) {
+                    failure = re;
+                    pending.clear();
+                    numPending.set(0);
+                    throw re;
+                }
+                applied = true;
+            }
+            if (applied)
+                publishSnapshot();
+        }
+    }
+
+    /**
+     * Returns true if an {@link Update} has failed, in which case no further
+     * snapshots will be published.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Throws an {@link IllegalStateException} if an {@link Update} has failed.
+     */
+    private void checkFailure() {
+        if (failure != null)
+            throw new IllegalStateException(
+                    "An earlier update failed and may have been partially " +
+                    "applied", failure);
+    }
+
+    /**
+     * Builds and publishes a new snapshot of {@link #writer}.  The caller
+     * must hold the write lock.
+     */
+    private void publishSnapshot() {
+        Version previous = current.get();
+        current.set(new Version(new CompactOntologyReader(writer),
+                                previous.version + 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form) {
+        return snapshot().morphy(form);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form, PartsOfSpeech pos) {
+        return snapshot().morphy(form, pos);
+    }
+
+    /**
+     * Unsupported.
+     *
+     * @throws UnsupportedOperationException
+     */
+    public void removeSynset(Synset synset) {
+        throw new UnsupportedOperationException(
+                "Modify a concurrent ontology with an Update");
+    }
+
+    /**
+     * Unsupported.
+     *
+     * @throws UnsupportedOperationException
+     */
+    public void addSynset(Synset synset) {
+        throw new UnsupportedOperationException(
+                "Modify a concurrent ontology with an Update");
+    }
+
+    /**
+     * Unsupported.
+     *
+     * @throws UnsupportedOperationException
+     */
+    public void addSynset(Synset synset, int index) {
+        throw new UnsupportedOperationException(
+                "Modify a concurrent ontology with an Update");
+    }
+
+    /**
+     * Unsupported.
+     *
+     * @throws UnsupportedOperationException
+     */
+    public void replaceSynset(Synset synset, Synset replacement) {
+        throw new UnsupportedOperationException(
+                "Modify a concurrent ontology with an Update");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms() {
+        return snapshot().wordnetTerms();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms(PartsOfSpeech pos) {
+        return snapshot().wordnetTerms(pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma) {
+        return snapshot().getSynsets(lemma);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+        return snapshot().getSynsets(lemma, pos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String fullSynsetName) {
+        return snapshot().getSynset(fullSynsetName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String lemma, PartsOfSpeech pos, int senseNum) {
+        return snapshot().getSynset(lemma, pos, senseNum);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getMaxDepth(PartsOfSpeech pos) {
+        return snapshot().getMaxDepth(pos);
+    }
+
+    /**
+     * A published snapshot along with it's version number.
+     */
+    private static class Version {
+
+        private final CompactOntologyReader reader;
+
+        private final long version;
+
+        public Version(CompactOntologyReader reader, long version) {
+            this.reader = reader;
+            this.version = version;
+        }
+    }
+}
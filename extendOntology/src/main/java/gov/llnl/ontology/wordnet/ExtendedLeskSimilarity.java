@@ -1,40 +1,89 @@
 package gov.llnl.ontology.wordnet;
 
-import gov.llnl.ontology.util.StringUtils;
-
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 
 /**
  * @author Keith Stevens
  */
-public class ExtendedLeskSimilarity implements SynsetSimilarity {
+public class ExtendedLeskSimilarity implements PreparedSynsetSimilarity {
 
     /**
      * {@inheritDoc}
      */
     public double similarity(Synset synset1, Synset synset2) {
-        Set<Synset> synsets1 = new HashSet<Synset>();
-        synsets1.addAll(synset1.getParents());
-        synsets1.addAll(synset1.getChildren());
-        synsets1.add(synset1);
+        return prepare(synset1).similarity(synset2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Row prepare(Synset synset1) {
+        // Gather the glosses related to the first synset only once.
+        final List<GlossTokens> glosses1 = relatedGlosses(synset1);
+        return new Row() {
+            public double similarity(Synset synset2) {
+                return score(glosses1, relatedGlosses(synset2));
+            }
 
-        Set<Synset> synsets2 = new HashSet<Synset>();
-        synsets2.addAll(synset2.getParents());
-        synsets2.addAll(synset2.getChildren());
-        synsets2.add(synset2);
+            public double similarity(Column column2) {
+                return (column2 instanceof RelatedGlossColumn)
+                    ? score(glosses1, ((RelatedGlossColumn) column2).glosses)
+                    : similarity(column2.synset());
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Column prepareColumn(Synset synset2) {
+        return new RelatedGlossColumn(synset2);
+    }
 
+    /**
+     * Returns the sum of the overlap scores between each gloss in {@code
+     * glosses1} and each gloss in {@code glosses2}.
+     */
+    private static double score(List<GlossTokens> glosses1,
+                                List<GlossTokens> glosses2) {
         double score = 0;
-        for (Synset s1 : synsets1) 
-            for (Synset s2 : synsets2)
-                score += score(s1.getGloss(), s2.getGloss());
+        for (GlossTokens gTokens1 : glosses1)
+            for (GlossTokens gTokens2 : glosses2)
+                score += gTokens1.overlapExp(gTokens2);
         return score;
     }
 
-    private static double score(String gloss1, String gloss2) {
-        String[] gTokens1 = gloss1.split("\\s+");
-        String[] gTokens2 = gloss2.split("\\s+");
-        return StringUtils.tokenOverlapExp(gTokens1, gTokens2);
+    /**
+     * Returns the cached gloss tokens of {@code synset}, it's parents, and it's
+     * children.
+     */
+    private static List<GlossTokens> relatedGlosses(Synset synset) {
+        Set<Synset> synsets = new HashSet<Synset>();
+        synsets.addAll(synset.getParents());
+        synsets.addAll(synset.getChildren());
+        synsets.add(synset);
+
+        List<GlossTokens> glosses =
+            new ArrayList<GlossTokens>(synsets.size());
+        for (Synset s : synsets)
+            glosses.add(GlossTokens.forSynset(s));
+        return glosses;
+    }
+
+    /**
+     * A {@link Column} holding the glosses related to it's {@link Synset}.
+     */
+    private static class RelatedGlossColumn extends SynsetColumn {
+
+        private final List<GlossTokens> glosses;
+
+        public RelatedGlossColumn(Synset synset) {
+            super(synset);
+            glosses = relatedGlosses(synset);
+        }
     }
 }
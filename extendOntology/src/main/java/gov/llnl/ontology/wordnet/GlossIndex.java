@@ -0,0 +1,580 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+
+/**
+ * An inverted index from gloss tokens to the {@link Synset}s whose gloss
+ * contains them.  Each posting records how many times the token occurs in
+ * the gloss, and the norm of each gloss's token count vector is computed when
+ * the index is built.  A query is a weighted bag of words, and only the
+ * postings for the query's words are read when scoring, so {@link Synset}s
+ * that share no words with the query are never touched.  Queries may be
+ * restricted to a set of candidate {@link Synset}s, in which case only the
+ * postings of candidates are scored.
+ *
+ * </p>
+ *
+ * Glosses are tokenized with {@link GlossTokens}.  The index is a snapshot of
+ * the glosses when it was built, and candidates that were not indexed are
+ * scored directly from their current {@link GlossTokens}.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class GlossIndex {
+
+    /**
+     * The measures used to score a gloss against a bag of words.
+     */
+    public enum Measure {
+
+        /**
+         * The sum, over the words in the bag, of the word's weight times the
+         * number of times it occurs in the gloss.  When the bag holds each
+         * distinct token of another gloss with a weight of 1, this is the
+         * score given by {@link LeskSimilarity}.
+         */
+        OVERLAP,
+
+        /**
+         * The cosine similarity between the bag and the gloss's token counts.
+         */
+        COSINE,
+    }
+
+    /**
+     * A {@link Synset} and it's score for a query.
+     */
+    public static class ScoredSynset {
+
+        private final Synset synset;
+
+        private final double score;
+
+        public ScoredSynset(Synset synset, double score) {
+            this.synset = synset;
+            this.score = score;
+        }
+
+        /**
+         * Returns the scored {@link Synset}.
+         */
+        public Synset synset() {
+            return synset;
+        }
+
+        /**
+         * Returns the score of the {@link Synset}.
+         */
+        public double score() {
+            return score;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String toString() {
+            return synset.getName() + ":" + score;
+        }
+    }
+
+    /**
+     * The indexed {@link Synset}s.
+     */
+    private final Synset[] synsets;
+
+    /**
+     * The position of each indexed {@link Synset} in {@link #synsets}.
+     */
+    private final Map<Synset, Integer> synsetIndices;
+
+    /**
+     * The norm of each indexed gloss's token count vector.
+     */
+    private final double[] norms;
+
+    /**
+     * The indices of the {@link Synset}s whose gloss contains each token, in
+     * increasing order, or {@code null} if no gloss contains the token.
+     */
+    private final int[][] postings;
+
+    /**
+     * The number of times each token occurs in each gloss, parallel to
+     * {@link #postings}.
+     */
+    private final int[][] postingCounts;
+
+    /**
+     * The ids of the tokens that may be indexed, or {@code null} if every
+     * token is indexed.
+     */
+    private final Set<Integer> vocabulary;
+
+    /**
+     * Creates a {@link GlossIndex} over every {@link Synset} in {@code
+     * reader}.
+     */
+    public GlossIndex(OntologyReader reader) {
+        this(allSynsets(reader));
+    }
+
+    /**
+     * Creates a {@link GlossIndex} over the glosses of {@code synsets}.
+     */
+    public GlossIndex(Collection<? extends Synset> synsets) {
+        this(synsets, null);
+    }
+
+    /**
+     * Creates a {@link GlossIndex} over the glosses of {@code synsets} that
+     * only indexes the tokens in {@code vocabulary}.  Other tokens are
+     * ignored, as if they were not in any gloss, and do not count towards the
+     * norm of a gloss.  If {@code vocabulary} is {@code null}, every token is
+     * indexed.
+     */
+    public GlossIndex(Collection<? extends Synset> synsets,
+                      Set<String> vocabulary) {
+        Set<Synset> uniqueSynsets = new LinkedHashSet<Synset>(synsets);
+        this.synsets = uniqueSynsets.toArray(new Synset[0]);
+        synsetIndices = new HashMap<Synset, Integer>();
+        norms = new double[this.synsets.length];
+
+        // Tokenize every gloss before mapping the vocabulary to token ids,
+        // since only gloss tokens are interned.  A word in no gloss can
+        // simply be dropped from the vocabulary.
+        GlossTokens[] allTokens = new GlossTokens[this.synsets.length];
+        for (int i = 0; i < this.synsets.length; ++i)
+            allTokens[i] = GlossTokens.forSynset(this.synsets[i]);
+        if (vocabulary == null) {
+            this.vocabulary = null;
+        } else {
+            this.vocabulary = new HashSet<Integer>();
+            for (String word : vocabulary) {
+                int id = GlossTokens.findTokenId(word);
+                if (id >= 0)
+                    this.vocabulary.add(id);
+            }
+        }
+
+        // Count the tokens in each gloss and the number of glosses that
+        // contain each token.
+        int[][] glossTokens = new int[this.synsets.length][];
+        int[][] glossCounts = new int[this.synsets.length][];
+        int maxToken = -1;
+        for (int i = 0; i < this.synsets.length; ++i) {
+            synsetIndices.put(this.synsets[i], i);
+            GlossTokens tokens = allTokens[i];
+            glossTokens[i] = tokens.distinctTokens();
+            glossCounts[i] = countTokens(tokens);
+            norms[i] = norm(glossCounts[i]);
+            if (glossTokens[i].length > 0)
+                maxToken = Math.max(
+                        maxToken, glossTokens[i][glossTokens[i].length - 1]);
+        }
+
+        int[] numPostings = new int[maxToken + 1];
+        for (int i = 0; i < glossTokens.length; ++i)
+            for (int t = 0; t < glossTokens[i].length; ++t)
+                if (glossCounts[i][t] > 0)
+                    numPostings[glossTokens[i][t]]++;
+
+        // Fill in the postings.  Glosses are visited in order, so each
+        // posting list is sorted by synset index.
+        postings = new int[maxToken + 1][];
+        postingCounts = new int[maxToken + 1][];
+        for (int token = 0; token <= maxToken; ++token)
+            if (numPostings[token] > 0) {
+                postings[token] = new int[numPostings[token]];
+                postingCounts[token] = new int[numPostings[token]];
+                numPostings[token] = 0;
+            }
+        for (int i = 0; i < glossTokens.length; ++i)
+            for (int t = 0; t < glossTokens[i].length; ++t) {
+                int count = glossCounts[i][t];
+                if (count == 0)
+                    continue;
+                int token = glossTokens[i][t];
+                int pos = numPostings[token]++;
+                postings[token][pos] = i;
+                postingCounts[token][pos] = count;
+            }
+    }
+
+    /**
+     * Returns every {@link Synset} in {@code reader}.
+     */
+    private static Collection<Synset> allSynsets(OntologyReader reader) {
+        Set<Synset> synsets = new LinkedHashSet<Synset>();
+        for (String lemma : reader.wordnetTerms()) {
+            Synset[] lemmaSynsets = reader.getSynsets(lemma);
+            if (lemmaSynsets != null)
+                synsets.addAll(Arrays.asList(lemmaSynsets));
+        }
+        return synsets;
+    }
+
+    /**
+     * Returns the number of times each of the distinct tokens in {@code
+     * tokens} occurs in the gloss, or 0 for tokens outside of the vocabulary.
+     */
+    private int[] countTokens(GlossTokens tokens) {
+        int[] distinct = tokens.distinctTokens();
+        int[] counts = new int[distinct.length];
+        for (int token : tokens.tokens()) {
+            if (vocabulary != null && !vocabulary.contains(token))
+                continue;
+            counts[Arrays.binarySearch(distinct, token)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the euclidean norm of {@code counts}.
+     */
+    private static double norm(int[] counts) {
+        double sum = 0;
+        for (int count : counts)
+            sum += count * (double) count;
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Returns the number of indexed {@link Synset}s.
+     */
+    public int size() {
+        return synsets.length;
+    }
+
+    /**
+     * Returns true if {@code synset} is indexed.
+     */
+    public boolean contains(Synset synset) {
+        return synsetIndices.containsKey(synset);
+    }
+
+    /**
+     * Returns the at most {@code k} {@link Synset}s with the highest
+     * positive score for the bag of {@code words}, where each word is
+     * weighted by it's value.  If {@code candidates} is not {@code null}, only
+     * those {@link Synset}s are scored.  Synsets are returned in decreasing
+     * order of score, with ties broken by their order in {@code candidates},
+     * or their order in the index.
+     */
+    public List<ScoredSynset> topSynsets(
+            Map<String, ? extends Number> words,
+            Collection<? extends Synset> candidates,
+            int k,
+            Measure measure) {
+        int[] tokens = new int[words.size()];
+        double[] weights = new double[words.size()];
+        int w = 0;
+        for (Map.Entry<String, ? extends Number> e : words.entrySet()) {
+            // Unknown words match no gloss but still count towards the norm
+            // of the query.
+            tokens[w] = GlossTokens.findTokenId(e.getKey());
+            weights[w++] = e.getValue().doubleValue();
+        }
+        return topSynsets(tokens, weights, candidates, k, measure);
+    }
+
+    /**
+     * Returns the at most {@code k} {@link Synset}s with the highest
+     * positive score for the bag of token ids in {@code tokens}, where each
+     * token is weighted by the value at the same position in {@code weights}.
+     * Negative token ids match no gloss.  If {@code candidates} is not {@code
+     * null}, only those {@link Synset}s are scored.  Synsets are returned in
+     * decreasing order of score, with ties broken by their order in {@code
+     * candidates}, or their order in the index.
+     */
+    public List<ScoredSynset> topSynsets(
+            int[] tokens,
+            double[] weights,
+            Collection<? extends Synset> candidates,
+            int k,
+            Measure measure) {
+        if (tokens.length != weights.length)
+            throw new IllegalArgumentException(
+                    "Each token must have exactly one weight");
+        if (k <= 0)
+            throw new IllegalArgumentException(
+                    "The number of synsets must be positive");
+
+        // Merge repeated tokens so that the query norm is correct.
+        Map<Integer, double[]> query = new HashMap<Integer, double[]>();
+        List<Integer> unknown = new ArrayList<Integer>();
+        for (int i = 0; i < tokens.length; ++i) {
+            if (tokens[i] < 0) {
+                unknown.add(i);
+                continue;
+            }
+            double[] weight = query.get(tokens[i]);
+            if (weight == null) {
+                weight = new double[1];
+                query.put(tokens[i], weight);
+            }
+            weight[0] += weights[i];
+        }
+        double queryNorm = 0;
+        for (double[] weight : query.values())
+            queryNorm += weight[0] * weight[0];
+        for (int i : unknown)
+            queryNorm += weights[i] * weights[i];
+        queryNorm = Math.sqrt(queryNorm);
+
+        return (candidates == null)
+            ? scoreAll(query, queryNorm, k, measure)
+            : scoreCandidates(query, queryNorm, candidates, k, measure);
+    }
+
+    /**
+     * Scores every indexed {@link Synset} that shares a token with {@code
+     * query}.
+     */
+    private List<ScoredSynset> scoreAll(Map<Integer, double[]> query,
+                                        double queryNorm,
+                                        int k,
+                                        Measure measure) {
+        Map<Integer, double[]> scores = new HashMap<Integer, double[]>();
+        for (Map.Entry<Integer, double[]> e : query.entrySet()) {
+            int token = e.getKey();
+            if (token >= postings.length || postings[token] == null)
+                continue;
+            double weight = e.getValue()[0];
+            int[] tokenPostings = postings[token];
+            int[] counts = postingCounts[token];
+            for (int p = 0; p < tokenPostings.length; ++p) {
+                double[] score = scores.get(tokenPostings[p]);
+                if (score == null) {
+                    score = new double[1];
+                    scores.put(tokenPostings[p], score);
+                }
+                score[0] += weight * counts[p];
+            }
+        }
+
+        TopSynsets top = new TopSynsets(k);
+        for (Map.Entry<Integer, double[]> e : scores.entrySet()) {
+            int index = e.getKey();
+            top.offer(synsets[index], index, normalize(
+                        e.getValue()[0], queryNorm, norms[index], measure));
+        }
+        return top.toList();
+    }
+
+    /**
+     * Scores each {@link Synset} in {@code candidates}.  Indexed candidates
+     * are scored from the postings of the query tokens and other candidates
+     * are scored from their {@link GlossTokens}.
+     */
+    private List<ScoredSynset> scoreCandidates(
+            Map<Integer, double[]> query,
+            double queryNorm,
+            Collection<? extends Synset> candidates,
+            int k,
+            Measure measure) {
+        List<Synset> unique = new ArrayList<Synset>(
+                new LinkedHashSet<Synset>(candidates));
+        double[] scores = new double[unique.size()];
+        double[] candidateNorms = new double[unique.size()];
+
+        // Sort the indexed candidates by their index so that they can be
+        // matched against the sorted postings.
+        List<int[]> indexed = new ArrayList<int[]>();
+        for (int slot = 0; slot < unique.size(); ++slot) {
+            Integer index = synsetIndices.get(unique.get(slot));
+            if (index != null) {
+                indexed.add(new int[] {index, slot});
+                candidateNorms[slot] = norms[index];
+            } else {
+                candidateNorms[slot] = scoreGloss(
+                        query, unique.get(slot), scores, slot);
+            }
+        }
+        Collections.sort(indexed, new Comparator<int[]>() {
+            public int compare(int[] entry1, int[] entry2) {
+                return entry1[0] - entry2[0];
+            }
+        });
+
+        for (Map.Entry<Integer, double[]> e : query.entrySet()) {
+            int token = e.getKey();
+            if (token >= postings.length || postings[token] == null)
+                continue;
+            double weight = e.getValue()[0];
+            int[] tokenPostings = postings[token];
+            int[] counts = postingCounts[token];
+
+            if (indexed.size() * 8 < tokenPostings.length) {
+                // Few candidates share this token with many glosses, so
+                // search for each candidate.
+                for (int[] entry : indexed) {
+                    int p = Arrays.binarySearch(tokenPostings, entry[0]);
+                    if (p >= 0)
+                        scores[entry[1]] += weight * counts[p];
+                }
+            } else {
+                // Walk the sorted candidates and postings together.
+                int c = 0;
+                int p = 0;
+                while (c < indexed.size() && p < tokenPostings.length) {
+                    int index = indexed.get(c)[0];
+                    if (index < tokenPostings[p]) {
+                        c++;
+                    } else if (index > tokenPostings[p]) {
+                        p++;
+                    } else {
+                        scores[indexed.get(c)[1]] += weight * counts[p];
+                        c++;
+                        p++;
+                    }
+                }
+            }
+        }
+
+        TopSynsets top = new TopSynsets(k);
+        for (int slot = 0; slot < scores.length; ++slot)
+            top.offer(unique.get(slot), slot, normalize(
+                        scores[slot], queryNorm, candidateNorms[slot],
+                        measure));
+        return top.toList();
+    }
+
+    /**
+     * Adds the score of an unindexed {@link Synset}'s gloss to {@code
+     * scores[slot]} and returns the norm of the gloss.
+     */
+    private double scoreGloss(Map<Integer, double[]> query,
+                              Synset synset,
+                              double[] scores,
+                              int slot) {
+        GlossTokens tokens = GlossTokens.forSynset(synset);
+        int[] counts = countTokens(tokens);
+        int[] distinct = tokens.distinctTokens();
+        for (int t = 0; t < distinct.length; ++t) {
+            double[] weight = query.get(distinct[t]);
+            if (weight != null)
+                scores[slot] += weight[0] * counts[t];
+        }
+        return norm(counts);
+    }
+
+    /**
+     * Returns the score of a gloss under {@code measure} given the raw
+     * overlap {@code score}.
+     */
+    private static double normalize(double score,
+                                    double queryNorm,
+                                    double glossNorm,
+                                    Measure measure) {
+        if (measure == Measure.OVERLAP)
+            return score;
+        return (queryNorm == 0 || glossNorm == 0)
+            ? 0
+            : score / (queryNorm * glossNorm);
+    }
+
+    /**
+     * Keeps the {@code k} {@link Synset}s with the highest positive scores.
+     */
+    private static class TopSynsets {
+
+        private final int k;
+
+        private final PriorityQueue<Entry> queue;
+
+        public TopSynsets(int k) {
+            this.k = k;
+            // The head of the queue is the lowest scoring synset kept so
+            // far, with ties going to the latest position.
+            this.queue = new PriorityQueue<Entry>(
+                    k + 1, new Comparator<Entry>() {
+                public int compare(Entry entry1, Entry entry2) {
+                    int cmp = Double.compare(entry1.score, entry2.score);
+                    return (cmp != 0) ? cmp : entry2.position - entry1.position;
+                }
+            });
+        }
+
+        /**
+         * Keeps {@code synset} if it's one of the top scoring synsets seen so
+         * far.
+         */
+        public void offer(Synset synset, int position, double score) {
+            if (score <= 0)
+                return;
+            queue.offer(new Entry(synset, score, position));
+            if (queue.size() > k)
+                queue.poll();
+        }
+
+        /**
+         * Returns the kept synsets from highest to lowest score.
+         */
+        public List<ScoredSynset> toList() {
+            List<ScoredSynset> top = new ArrayList<ScoredSynset>();
+            while (!queue.isEmpty()) {
+                Entry entry = queue.poll();
+                top.add(new ScoredSynset(entry.synset, entry.score));
+            }
+            Collections.reverse(top);
+            return top;
+        }
+    }
+
+    /**
+     * A scored {@link Synset} and it's position in the index or candidates.
+     */
+    private static class Entry {
+
+        private final Synset synset;
+
+        private final double score;
+
+        private final int position;
+
+        public Entry(Synset synset, double score, int position) {
+            this.synset = synset;
+            this.score = score;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.util.ConcurrentLruCache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * The tokens of a {@link Synset}'s gloss, stored as interned integer ids.  A
+ * gloss is split on white space, exactly as {@code getGloss().split("\\s+")}
+ * would split it, and each token is mapped to an id that is shared by every
+ * gloss, so that comparing two glosses only compares integers.  The tokens of
+ * each {@link Synset} are computed once and kept in a bounded cache.  A
+ * cached entry is rebuilt if the {@link Synset}'s definition or number of
+ * examples has changed since it was tokenized, such as after a merge.
+ *
+ * </p>
+ *
+ * Only the tokens of glosses are ever interned, so the number of ids is
+ * bounded by the vocabulary of the glosses.  Other words, such as those in a
+ * document being disambiguated, can be looked up with {@link #findTokenId}
+ * but are never assigned an id.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class GlossTokens {
+
+    /**
+     * The default number of {@link Synset}s whose tokens are cached, which is
+     * enough to hold every {@link Synset} in WordNet.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 200000;
+
+    /**
+     * The id assigned to each gloss token seen so far.
+     */
+    private static final ConcurrentMap<String, Integer> TOKEN_IDS =
+        new ConcurrentHashMap<String, Integer>();
+
+    /**
+     * The id to assign to the next new token.
+     */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    /**
+     * The cached tokens for each {@link Synset}.
+     */
+    private static final ConcurrentLruCache<Synset, GlossTokens> CACHE =
+        new ConcurrentLruCache<Synset, GlossTokens>(DEFAULT_CACHE_SIZE);
+
+    /**
+     * The definition from which these tokens were built.
+     */
+    private final String definition;
+
+    /**
+     * The number of examples in the gloss from which these tokens were built.
+     */
+    private final int numExamples;
+
+    /**
+     * The token ids in the order they occur in the gloss.
+     */
+    private final int[] tokens;
+
+    /**
+     * The distinct token ids in the gloss, in increasing order.
+     */
+    private final int[] distinctTokens;
+
+    /**
+     * An open addressed hash table holding each distinct token id plus one,
+     * with zero marking an empty slot.
+     */
+    private final int[] tokenTable;
+
+    /**
+     * Creates the {@link GlossTokens} for {@code synset}.
+     */
+    private GlossTokens(Synset synset) {
+        definition = synset.getDefinition();
+        numExamples = numExamples(synset);
+        tokens = tokenize(synset.getGloss());
+
+        int[] sorted = Arrays.copyOf(tokens, tokens.length);
+        Arrays.sort(sorted);
+        int numDistinct = 0;
+        for (int i = 0; i < sorted.length; ++i)
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[numDistinct++] = sorted[i];
+        distinctTokens = Arrays.copyOf(sorted, numDistinct);
+
+        // Keep the table at most half full so that probes stay short.
+        int tableSize = 2;
+        while (tableSize < 2 * tokens.length)
+            tableSize <<= 1;
+        tokenTable = new int[tableSize];
+        for (int token : tokens) {
+            int slot = slot(token, tableSize);
+            while (tokenTable[slot] != 0 && tokenTable[slot] != token + 1)
+                slot = (slot + 1) & (tableSize - 1);
+            tokenTable[slot] = token + 1;
+        }
+    }
+
+    /**
+     * Returns the {@link GlossTokens} for {@code synset}, tokenizing it's
+     * gloss if it has not been cached or has changed.
+     */
+    public static GlossTokens forSynset(Synset synset) {
+        GlossTokens glossTokens = CACHE.get(synset);
+        if (glossTokens != null && glossTokens.matches(synset))
+            return glossTokens;
+
+        glossTokens = new GlossTokens(synset);
+        CACHE.put(synset, glossTokens);
+        return glossTokens;
+    }
+
+    /**
+     * Returns true if these tokens were built from the current definition and
+     * examples of {@code synset}.  Definitions are compared by value since
+     * some {@link Synset} implementations decode a new string on each call.
+     */
+    private boolean matches(Synset synset) {
+        String current = synset.getDefinition();
+        if (definition == null ? current != null : !definition.equals(current))
+            return false;
+        return numExamples == numExamples(synset);
+    }
+
+    /**
+     * Returns the interned id of {@code token}, assigning a new id if it has
+     * not been seen before.  This must only be called for gloss tokens.
+     */
+    private static int tokenId(String token) {
+        Integer id = TOKEN_IDS.get(token);
+        if (id != null)
+            return id;
+
+        Integer newId = NEXT_ID.getAndIncrement();
+        id = TOKEN_IDS.putIfAbsent(token, newId);
+        return (id == null) ? newId : id;
+    }
+
+    /**
+     * Returns the interned ids of the white space separated tokens in the
+     * gloss {@code text}.
+     */
+    private static int[] tokenize(String text) {
+        String[] words = text.split("\\s+");
+        int[] ids = new int[words.length];
+        for (int i = 0; i < words.length; ++i)
+            ids[i] = tokenId(words[i]);
+        return ids;
+    }
+
+    /**
+     * Returns the id of {@code token}, or -1 if no gloss tokenized so far
+     * contains it.  Unlike the gloss tokens, {@code token} is never interned.
+     */
+    public static int findTokenId(String token) {
+        Integer id = TOKEN_IDS.get(token);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Returns the number of distinct gloss tokens interned so far.
+     */
+    public static int numTokens() {
+        return TOKEN_IDS.size();
+    }
+
+    /**
+     * Returns the token ids of this gloss in the order they occur.  The
+     * returned array must not be modified.
+     */
+    public int[] tokens() {
+        return tokens;
+    }
+
+    /**
+     * Returns the distinct token ids of this gloss in increasing order.  The
+     * returned array must not be modified.
+     */
+    public int[] distinctTokens() {
+        return distinctTokens;
+    }
+
+    /**
+     * Returns true if {@code token} occurs in this gloss.
+     */
+    public boolean contains(int token) {
+        int slot = slot(token, tokenTable.length);
+        while (tokenTable[slot] != 0) {
+            if (tokenTable[slot] == token + 1)
+                return true;
+            slot = (slot + 1) & (tokenTable.length - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of tokens in this gloss, counting repeats, that also
+     * occur in {@code other}.  This is equivalent to {@link
+     * gov.llnl.ontology.util.StringUtils#tokenOverlap} over the string tokens.
+     */
+    public int overlap(GlossTokens other) {
+        int score = 0;
+        for (int token : tokens)
+            if (other.contains(token))
+                score++;
+        return score;
+    }
+
+    /**
+     * Returns the sum of the squared lengths of the common token runs
+     * starting at each pair of matching tokens in this gloss and {@code
+     * other}.  This is equivalent to {@link
+     * gov.llnl.ontology.util.StringUtils#tokenOverlapExp} over the string
+     * tokens.
+     */
+    public int overlapExp(GlossTokens other) {
+        return overlapExp(tokens, other.tokens);
+    }
+
+    /**
+     * Returns the sum of the squared lengths of the common runs starting at
+     * each pair of matching tokens in {@code tokens1} and {@code tokens2}.
+     */
+    public static int overlapExp(int[] tokens1, int[] tokens2) {
+        // runs[j] holds the length of the common run starting at tokens1[i]
+        // and tokens2[j].  The rows are filled from the end of tokens1, and
+        // each row is filled from the front of tokens2, so runs[j + 1] still
+        // holds the run starting at tokens1[i + 1] and tokens2[j + 1].
+        int[] runs = new int[tokens2.length + 1];
+        int score = 0;
+        for (int i = tokens1.length - 1; i >= 0; --i) {
+            int token = tokens1[i];
+            for (int j = 0; j < tokens2.length; ++j) {
+                if (tokens2[j] == token) {
+                    runs[j] = runs[j + 1] + 1;
+                    score += runs[j] * runs[j];
+                } else {
+                    runs[j] = 0;
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Returns the home slot for {@code token} in a table of {@code
+     * tableSize} slots.
+     */
+    private static int slot(int token, int tableSize) {
+        int h = token * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (tableSize - 1);
+    }
+
+    /**
+     * Returns the number of examples for {@code synset}.
+     */
+    private static int numExamples(Synset synset) {
+        List<String> examples = synset.getExamples();
+        return (examples == null) ? 0 : examples.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String toString() {
+        return "GlossTokens" + Arrays.toString(tokens);
+    }
+}
@@ -25,6 +25,12 @@ package gov.llnl.ontology.wordnet;
 
 import gov.llnl.ontology.wordnet.Synset.Relation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 
 /**
  * Implements a word net path similarity measure defined by Hirst and St-Onge.
@@ -45,6 +51,16 @@ import gov.llnl.ontology.wordnet.Synset.Relation;
  *   C - pathLength - k * |direction changes|
  * Since C and k are both constants, they are set to 1.
  *
+ * </p>
+ *
+ * Valid paths are found with a breadth first search over {@link Synset}s
+ * paired with the state of the path automaton used to reach them.  A path
+ * that reaches a {@link Synset} in the same state as an earlier path, with
+ * no fewer links and no fewer direction changes, can not lead to a better
+ * score and is not explored further, so each {@link Synset} is expanded at
+ * most a few times per state rather than once for every path reaching it.
+ * The search stops once no longer path could beat the best score found.
+ *
  * @author Keith Stevens
  */
 public class HirstStOngeSimilarity implements SynsetSimilarity {
@@ -54,6 +70,11 @@ public class HirstStOngeSimilarity implements SynsetSimilarity {
     */
     private static final double C = 8;
 
+    /**
+     * The maximum number of links in a valid path.
+     */
+    private static final int MAX_DEPTH = 5;
+
     /**
     * The set of relations with an upward direction.
     */
@@ -79,176 +100,123 @@ public class HirstStOngeSimilarity implements SynsetSimilarity {
     };
 
     /**
-     * {@inheritDoc}
+     * The relations for each direction, indexed by direction.
      */
-    public double similarity(Synset synset1, Synset synset2) {
-        double bestScore = 0;
-        for (Relation relation : UP_RELATION)
-            for (Synset related : synset1.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState1(1, 0, related, synset2));
-
-        for (Relation relation : DOWN_RELATION)
-            for (Synset related : synset1.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState3(1, 0, related, synset2));
-
-        for (Relation relation : SIDE_RELATION)
-            for (Synset related : synset1.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState2(1, 0, related, synset2));
-
-        // With k == 1 the minimum score possible is 0 and the maximum
-        // score is C.  Divide by C so that it's within a range of 0 to 1.
-        return bestScore / C;
-    }
+    private static final Relation[][] DIRECTION_RELATIONS = {
+        UP_RELATION, DOWN_RELATION, SIDE_RELATION
+    };
 
     /**
-    * Traverses valid outward links from {@code src} node.  If {@code src}
-    * equals {@code dest}, then a score is computed.  Of all possible paths from
-    * this state, the maximum score is returned.
-    *
-    * </p>
-    *
-    * From this state, all directions are valid.
-    */
-    private static double hsoState1(int depth, int dirChange,
-                                  Synset src, Synset dest) {
-        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
-        depth++;
-
-        if (depth > 5)
-            return Math.max(bestScore, 0);
-
-        for (Relation relation : UP_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState1(depth, dirChange, related, dest));
-
-        dirChange++;
-        for (Relation relation : DOWN_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState4(depth, dirChange, related, dest));
-
-        for (Relation relation : SIDE_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState2(depth, dirChange, related, dest));
-
-        return bestScore;
-    }
+     * The state of a path that has not yet taken any links.
+     */
+    private static final int START = 0;
 
     /**
-    * Traverses valid outward links from {@code src} node.  If {@code src}
-    * equals {@code dest}, then a score is computed.  Of all possible paths from
-    * this state, the maximum score is returned.
-    *
-    * </p>
-    *
-    * From this state, only side and downward directions are valid.
-    */
-    private static double hsoState2(int depth, int dirChange, 
-                                  Synset src, Synset dest) {
-        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
-        depth++;
-
-        if (depth > 5)
-            return Math.max(bestScore, 0);
-
-        for (Relation relation : SIDE_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState2(depth, dirChange, related, dest));
-
-        dirChange++;
-        for (Relation relation : DOWN_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState4(depth, dirChange, related, dest));
-
-
-        return bestScore;
-    }
+     * The number of path automaton states.
+     */
+    private static final int NUM_STATES = 6;
 
     /**
-    * Traverses valid outward links from {@code src} node.  If {@code src}
-    * equals {@code dest}, then a score is computed.  Of all possible paths from
-    * this state, the maximum score is returned.
-    *
-    * </p>
-    *
-    * From this state, only side and downward directions are valid.
-    */
-    private static double hsoState3(int depth, int dirChange, 
-                                  Synset src, Synset dest) {
-        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
-        depth++;
-
-        if (depth > 5)
-            return Math.max(bestScore, 0);
-
-        for (Relation relation : DOWN_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState4(depth, dirChange, related, dest));
-
-        dirChange++;
-        for (Relation relation : SIDE_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState5(depth, dirChange, related, dest));
-
-        return bestScore;
-    }
+     * The state reached by taking a link in each direction from each state,
+     * indexed by state and then direction, or -1 if the link would make the
+     * path invalid.  State 1 is a path that has only gone upward, state 2 a
+     * path whose last link went sideways after any upward links, state 3 a
+     * path that has only gone downward, state 4 a path that may only go
+     * downward, and state 5 a path that may only go sideways.
+     */
+    private static final int[][] NEXT_STATE = {
+        {  1,  3,  2 },
+        {  1,  4,  2 },
+        { -1,  4,  2 },
+        { -1,  4,  5 },
+        { -1,  4, -1 },
+        { -1, -1,  5 },
+    };
 
     /**
-    * Traverses valid outward links from {@code src} node.  If {@code src}
-    * equals {@code dest}, then a score is computed.  Of all possible paths from
-    * this state, the maximum score is returned.
-    *
-    * </p>
-    *
-    * From this state, only downward directions are valid.
-    */
-    private static double hsoState4(int depth, int dirChange, 
-                                  Synset src, Synset dest) {
-        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
-        depth++;
+     * The number of direction changes made by taking a link in each
+     * direction from each state, indexed the same as {@link #NEXT_STATE}.
+     */
+    private static final int[][] CHANGES = {
+        { 0, 0, 0 },
+        { 0, 1, 1 },
+        { 0, 1, 0 },
+        { 0, 0, 1 },
+        { 0, 0, 0 },
+        { 0, 0, 0 },
+    };
 
-        if (depth > 5)
-            return Math.max(bestScore, 0);
+    /**
+     * {@inheritDoc}
+     */
+    public double similarity(Synset synset1, Synset synset2) {
+        // The fewest direction changes with which each synset has been
+        // reached in each state.  Since the search is breadth first, any
+        // earlier path also used no more links.
+        Map<Synset, int[]> fewestChanges = new IdentityHashMap<Synset, int[]>();
 
-        for (Relation relation : DOWN_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState4(depth, dirChange, related, dest));
+        List<PathState> frontier = new ArrayList<PathState>();
+        frontier.add(new PathState(synset1, START, 0));
+        double bestScore = 0;
+        for (int depth = 1; depth <= MAX_DEPTH; ++depth) {
+            // Every path of this length scores at most C - depth.
+            if (frontier.isEmpty() || bestScore >= C - depth)
+                break;
+
+            List<PathState> nextFrontier = new ArrayList<PathState>();
+            for (PathState path : frontier) {
+                for (int direction = 0; direction < 3; ++direction) {
+                    int nextState = NEXT_STATE[path.state][direction];
+                    if (nextState < 0)
+                        continue;
+                    int changes = path.changes + CHANGES[path.state][direction];
+
+                    for (Relation relation : DIRECTION_RELATIONS[direction])
+                        for (Synset related :
+                                path.synset.getRelations(relation)) {
+                            int[] fewest = fewestChanges.get(related);
+                            if (fewest == null) {
+                                fewest = new int[NUM_STATES];
+                                Arrays.fill(fewest, Integer.MAX_VALUE);
+                                fewestChanges.put(related, fewest);
+                            }
+                            if (fewest[nextState] <= changes)
+                                continue;
+                            fewest[nextState] = changes;
+
+                            if (related.equals(synset2))
+                                bestScore = Math.max(
+                                        bestScore, C - depth - changes);
+                            if (depth < MAX_DEPTH)
+                                nextFrontier.add(new PathState(
+                                            related, nextState, changes));
+                        }
+                }
+            }
+            frontier = nextFrontier;
+        }
 
-        return bestScore;
+        // With k == 1 the minimum score possible is 0 and the maximum
+        // score is C.  Divide by C so that it's within a range of 0 to 1.
+        return bestScore / C;
     }
 
     /**
-    * Traverses valid outward links from {@code src} node.  If {@code src}
-    * equals {@code dest}, then a score is computed.  Of all possible paths from
-    * this state, the maximum score is returned.
-    *
-    * </p>
-    *
-    * From this state, only side directions are valid.
-    */
-    private static double hsoState5(int depth, int dirChange, 
-                                    Synset src, Synset dest) {
-        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
-        depth++;
+     * A {@link Synset} reached by a valid path, along with the state of the
+     * path automaton and the number of direction changes in the path.
+     */
+    private static class PathState {
+
+        private final Synset synset;
 
-        if (depth > 5)
-            return Math.max(bestScore, 0);
+        private final int state;
 
-        for (Relation relation : SIDE_RELATION)
-            for (Synset related : src.getRelations(relation))
-                bestScore = Math.max(
-                        bestScore, hsoState5(depth, dirChange, related, dest));
+        private final int changes;
 
-        return bestScore;
+        public PathState(Synset synset, int state, int changes) {
+            this.synset = synset;
+            this.state = state;
+            this.changes = changes;
+        }
     }
 }
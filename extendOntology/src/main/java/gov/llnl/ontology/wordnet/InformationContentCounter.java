@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.util.ExecutorUtil;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Computes the content count of each {@link Synset} from the number of times
+ * each lemma occurs in a corpus, following Resnik.  Each occurrence of a
+ * lemma is counted once for every sense of the lemma, and the count of every
+ * {@link Synset} is then added to each of it's distinct ancestors, so that
+ * the count of a {@link Synset} is the number of occurrences of any lemma
+ * that it subsumes.  The resulting counts can be saved with {@link
+ * WordNetCorpusReader#saveInformationContent} or used directly by {@link
+ * ArrayInformationContent}.
+ *
+ * </p>
+ *
+ * Lemma counts may be added from several threads at once.  The counts are
+ * propagated through the hierarchy in several independent tasks, each of
+ * which walks the ancestors of a share of the counted {@link Synset}s, and
+ * the partial counts are summed once every task completes.
+ *
+ * @author Keith Stevens
+ */
+public class InformationContentCounter {
+
+    /**
+     * The parts of speech counted for lemmas whose part of speech is unknown.
+     * Only nouns and verbs have a hypernym hierarchy.
+     */
+    private static final PartsOfSpeech[] HIERARCHY_POS = {
+        PartsOfSpeech.NOUN, PartsOfSpeech.VERB
+    };
+
+    /**
+     * The {@link OntologyReader} used to find the senses of each lemma.
+     */
+    private final OntologyReader reader;
+
+    /**
+     * The number of occurrences of each lemma and part of speech pair.
+     */
+    private final ConcurrentMap<LemmaPos, AtomicLong> lemmaCounts;
+
+    /**
+     * Creates a new {@link InformationContentCounter} using the senses in
+     * {@code reader}.
+     */
+    public InformationContentCounter(OntologyReader reader) {
+        this.reader = reader;
+        this.lemmaCounts = new ConcurrentHashMap<LemmaPos, AtomicLong>();
+    }
+
+    /**
+     * Adds {@code count} occurrences of {@code lemma} as a {@code pos}.  If
+     * {@code pos} is {@code null}, the occurrences are counted for both the
+     * noun and verb senses of {@code lemma}.
+     */
+    public void addCount(String lemma, PartsOfSpeech pos, long count) {
+        LemmaPos key = new LemmaPos(lemma, pos);
+        AtomicLong lemmaCount = lemmaCounts.get(key);
+        if (lemmaCount == null) {
+            lemmaCount = new AtomicLong();
+            AtomicLong existing = lemmaCounts.putIfAbsent(key, lemmaCount);
+            if (existing != null)
+                lemmaCount = existing;
+        }
+        lemmaCount.addAndGet(count);
+    }
+
+    /**
+     * Returns the number of distinct lemma and part of speech pairs counted.
+     */
+    public int numLemmas() {
+        return lemmaCounts.size();
+    }
+
+    /**
+     * Returns the content count of every {@link Synset} that subsumes at
+     * least one counted lemma.  The work is split into {@code numTasks} tasks
+     * which are run by {@code executor}, or by the calling thread if {@code
+     * executor} is {@code null}.
+     */
+    public Map<Synset, Long> synsetCounts(ExecutorService executor,
+                                          int numTasks) {
+        if (numTasks <= 0)
+            throw new IllegalArgumentException(
+                    "The number of tasks must be positive");
+
+        // Split the lemmas between the tasks and count the senses of each.
+        List<Map.Entry<LemmaPos, AtomicLong>> lemmas =
+            new ArrayList<Map.Entry<LemmaPos, AtomicLong>>(
+                    lemmaCounts.entrySet());
+        List<Callable<Map<Synset, long[]>>> senseTasks =
+            new ArrayList<Callable<Map<Synset, long[]>>>();
+        for (final List<Map.Entry<LemmaPos, AtomicLong>> share :
+                split(lemmas, numTasks))
+            senseTasks.add(new Callable<Map<Synset, long[]>>() {
+                public Map<Synset, long[]> call() {
+                    return countSenses(share);
+                }
+            });
+        Map<Synset, long[]> senseCounts = sum(runAll(executor, senseTasks));
+
+        // Split the senses between the tasks and add the count of each sense
+        // to every one of it's ancestors.
+        List<Map.Entry<Synset, long[]>> senses =
+            new ArrayList<Map.Entry<Synset, long[]>>(senseCounts.entrySet());
+        List<Callable<Map<Synset, long[]>>> ancestorTasks =
+            new ArrayList<Callable<Map<Synset, long[]>>>();
+        for (final List<Map.Entry<Synset, long[]>> share :
+                split(senses, numTasks))
+            ancestorTasks.add(new Callable<Map<Synset, long[]>>() {
+                public Map<Synset, long[]> call() {
+                    return propagate(share);
+                }
+            });
+        Map<Synset, long[]> totals = sum(runAll(executor, ancestorTasks));
+
+        Map<Synset, Long> synsetCounts = new HashMap<Synset, Long>();
+        for (Map.Entry<Synset, long[]> e : totals.entrySet())
+            synsetCounts.put(e.getKey(), e.getValue()[0]);
+        return synsetCounts;
+    }
+
+    /**
+     * Returns the number of occurrences of each sense of the lemmas in {@code
+     * lemmas}.
+     */
+    private Map<Synset, long[]> countSenses(
+            List<Map.Entry<LemmaPos, AtomicLong>> lemmas) {
+        Map<Synset, long[]> senseCounts = new IdentityHashMap<Synset, long[]>();
+        for (Map.Entry<LemmaPos, AtomicLong> e : lemmas) {
+            LemmaPos lemmaPos = e.getKey();
+            long count = e.getValue().get();
+            if (lemmaPos.pos == null)
+                for (PartsOfSpeech pos : HIERARCHY_POS)
+                    addAll(senseCounts,
+                           reader.getSynsets(lemmaPos.lemma, pos),
+                           count);
+            else
+                addAll(senseCounts,
+                       reader.getSynsets(lemmaPos.lemma, lemmaPos.pos),
+                       count);
+        }
+        return senseCounts;
+    }
+
+    /**
+     * Returns the count of each {@link Synset} that subsumes a sense in
+     * {@code senses}, including the senses themselves.  Each sense adds it's
+     * count to an ancestor only once, even if the ancestor can be reached by
+     * several paths.
+     */
+    private static Map<Synset, long[]> propagate(
+            List<Map.Entry<Synset, long[]>> senses) {
+        Map<Synset, long[]> totals = new IdentityHashMap<Synset, long[]>();
+        Set<Synset> visited = Collections.newSetFromMap(
+                new IdentityHashMap<Synset, Boolean>());
+        Queue<Synset> queue = new ArrayDeque<Synset>();
+        for (Map.Entry<Synset, long[]> e : senses) {
+            long count = e.getValue()[0];
+            visited.clear();
+            visited.add(e.getKey());
+            queue.add(e.getKey());
+            while (!queue.isEmpty()) {
+                Synset synset = queue.remove();
+                add(totals, synset, count);
+                for (Synset parent : synset.getParents())
+                    if (visited.add(parent))
+                        queue.add(parent);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Adds {@code count} to each {@link Synset} in {@code synsets}.
+     */
+    private static void addAll(Map<Synset, long[]> counts,
+                               Synset[] synsets,
+                               long count) {
+        if (synsets == null)
+            return;
+        for (Synset synset : synsets)
+            add(counts, synset, count);
+    }
+
+    /**
+     * Adds {@code count} to {@code synset}.
+     */
+    private static void add(Map<Synset, long[]> counts,
+                            Synset synset,
+                            long count) {
+        long[] synsetCount = counts.get(synset);
+        if (synsetCount == null) {
+            synsetCount = new long[1];
+            counts.put(synset, synsetCount);
+        }
+        synsetCount[0] += count;
+    }
+
+    /**
+     * Returns the sum of the partial counts in {@code partialCounts}.
+     */
+    private static Map<Synset, long[]> sum(
+            List<Map<Synset, long[]>> partialCounts) {
+        Map<Synset, long[]> counts = new IdentityHashMap<Synset, long[]>();
+        for (Map<Synset, long[]> partial : partialCounts)
+            for (Map.Entry<Synset, long[]> e : partial.entrySet())
+                add(counts, e.getKey(), e.getValue()[0]);
+        return counts;
+    }
+
+    /**
+     * Returns {@code items} split into at most {@code numShares} contiguous
+     * lists of nearly equal size.
+     */
+    private static <T> List<List<T>> split(List<T> items, int numShares) {
+        List<List<T>> shares = new ArrayList<List<T>>();
+        int shareSize = (items.size() + numShares - 1) / numShares;
+        for (int start = 0; start < items.size(); start += shareSize)
+            shares.add(items.subList(
+                        start, Math.min(items.size(), start + shareSize)));
+        return shares;
+    }
+
+    /**
+     * Returns the result of each task in {@code tasks}, in order.  The tasks
+     * are run by {@code executor}, or by the calling thread if {@code
+     * executor} is {@code null}.
+     */
+    private static <T> List<T> runAll(ExecutorService executor,
+                                      List<Callable<T>> tasks) {
+        try {
+            return ExecutorUtil.runAll(executor, tasks);
+        } catch (ExecutionException ee) {
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+
+    /**
+     * A lemma and it's part of speech, which may be {@code null}.
+     */
+    private static class LemmaPos {
+
+        private final String lemma;
+
+        private final PartsOfSpeech pos;
+
+        public LemmaPos(String lemma, PartsOfSpeech pos) {
+            this.lemma = lemma;
+            this.pos = pos;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean equals(Object o) {
+            if (!(o instanceof LemmaPos))
+                return false;
+            LemmaPos other = (LemmaPos) o;
+            return lemma.equals(other.lemma) && pos == other.pos;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int hashCode() {
+            return 31 * lemma.hashCode() + ((pos == null) ? 0 : pos.hashCode());
+        }
+    }
+}
@@ -33,7 +33,7 @@ package gov.llnl.ontology.wordnet;
  *
  * @author Keith Stevens
  */
-public class JiangConrathSimilarity implements SynsetSimilarity {
+public class JiangConrathSimilarity implements PreparedSynsetSimilarity {
 
     /**
      * The {@link InformationContent} responsible for reporting corpus
@@ -60,12 +60,76 @@ public class JiangConrathSimilarity implements SynsetSimilarity {
     public double similarity(Synset synset1, Synset synset2) {
         if (synset1.equals(synset2))
             return Double.MAX_VALUE;
-        double ic1 = ic.informationContent(synset1);
-        double ic2 = ic.informationContent(synset2);
+        return similarity(synset1, ic.informationContent(synset1),
+                          synset2, ic.informationContent(synset2));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Row prepare(final Synset synset1) {
+        final double ic1 = ic.informationContent(synset1);
+        return new Row() {
+            public double similarity(Synset synset2) {
+                if (synset1.equals(synset2))
+                    return Double.MAX_VALUE;
+                return JiangConrathSimilarity.this.similarity(
+                        synset1, ic1, synset2, ic.informationContent(synset2));
+            }
+
+            public double similarity(Column column2) {
+                if (synset1.equals(column2.synset()))
+                    return Double.MAX_VALUE;
+                return JiangConrathSimilarity.this.similarity(
+                        synset1, ic1, column2.synset(),
+                        informationContent(column2));
+            }
+        };
+    }
+
+    /**
+     * Returns the similarity between {@code synset1} and a different {@link
+     * Synset}, {@code synset2}, whose information contents are {@code ic1}
+     * and {@code ic2}.
+     */
+    private double similarity(Synset synset1, double ic1,
+                              Synset synset2, double ic2) {
         if (ic1 == -1 || ic2 == -1)
             return 0;
         double icSubsumer = resSim.similarity(synset1, synset2);
         double  difference = ic1 + ic2 - 2 * icSubsumer;
         return (difference == 0) ? Double.MAX_VALUE : 1d / difference;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Column prepareColumn(Synset synset2) {
+        return new InformationContentColumn(
+                synset2, ic.informationContent(synset2));
+    }
+
+    /**
+     * Returns the information content of the {@link Synset} in {@code
+     * column2}.
+     */
+    private double informationContent(Column column2) {
+        return (column2 instanceof InformationContentColumn)
+            ? ((InformationContentColumn) column2).ic
+            : ic.informationContent(column2.synset());
+    }
+
+    /**
+     * A {@link Column} holding the information content of it's {@link
+     * Synset}.
+     */
+    private static class InformationContentColumn extends SynsetColumn {
+
+        private final double ic;
+
+        public InformationContentColumn(Synset synset, double ic) {
+            super(synset);
+            this.ic = ic;
+        }
+    }
 }
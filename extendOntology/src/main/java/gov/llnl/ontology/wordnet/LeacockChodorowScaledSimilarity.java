@@ -36,26 +36,18 @@ package gov.llnl.ontology.wordnet;
  */
 public class LeacockChodorowScaledSimilarity extends LeacockChodorowSimilarity {
 
-    /**
-     * The {@link OntologyReader} responsible for accessing internal {@link
-     * Synset}s.
-     */
-    private final OntologyReader wordnet;
-
     /**
      * Creates an instance of {@link LeacockChodorowScaledSimilarity}.
      */
     public LeacockChodorowScaledSimilarity(OntologyReader reader) {
         super(reader);
-        this.wordnet = reader;
     }
 
     /**
      * {@inheritDoc}
      */
-    public double similarity(Synset synset1, Synset synset2) {
-        double lchSim = super.similarity(synset1, synset2);
-        int maxDepth = wordnet.getMaxDepth(synset1.getPartOfSpeech());
+    protected double similarity(Synset synset1, Synset synset2, int maxDepth) {
+        double lchSim = super.similarity(synset1, synset2, maxDepth);
         double maxSim = -1 * Math.log(1/(2d* maxDepth));
         return lchSim / maxSim;
     }
@@ -35,7 +35,7 @@ package gov.llnl.ontology.wordnet;
  *
  * @author Keith Stevens
  */
-public class LeacockChodorowSimilarity implements SynsetSimilarity {
+public class LeacockChodorowSimilarity implements PreparedSynsetSimilarity {
 
     /**
      * The {@link OntologyReader} responsible for accessing internal {@link
@@ -56,7 +56,41 @@ public class LeacockChodorowSimilarity implements SynsetSimilarity {
     public double similarity(Synset synset1, Synset synset2) {
         if (synset1.getPartOfSpeech() != synset2.getPartOfSpeech())
             return 0;
-        int maxDepth = wordnet.getMaxDepth(synset1.getPartOfSpeech());
+        return similarity(synset1, synset2,
+                          wordnet.getMaxDepth(synset1.getPartOfSpeech()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Row prepare(final Synset synset1) {
+        final int maxDepth = wordnet.getMaxDepth(synset1.getPartOfSpeech());
+        return new Row() {
+            public double similarity(Synset synset2) {
+                if (synset1.getPartOfSpeech() != synset2.getPartOfSpeech())
+                    return 0;
+                return LeacockChodorowSimilarity.this.similarity(
+                        synset1, synset2, maxDepth);
+            }
+
+            public double similarity(Column column2) {
+                return similarity(column2.synset());
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Column prepareColumn(Synset synset2) {
+        return new SynsetColumn(synset2);
+    }
+
+    /**
+     * Returns the similarity between two {@link Synset}s with the same part
+     * of speech, whose taxonomy has a maximum depth of {@code maxDepth}.
+     */
+    protected double similarity(Synset synset1, Synset synset2, int maxDepth) {
         int distance = SynsetRelations.shortestPathDistance(synset1, synset2);
         return (distance >= 0 && distance <= Integer.MAX_VALUE)
             ? -1 * Math.log((distance + 1) / (2d * maxDepth))
@@ -1,21 +1,59 @@
 package gov.llnl.ontology.wordnet;
 
-import gov.llnl.ontology.util.StringUtils;
-
 
 /**
+ * Scores two {@link Synset}s by the number of tokens in the first gloss that
+ * also occur in the second gloss.  Glosses are compared as cached {@link
+ * GlossTokens} so that each gloss is only built and tokenized once.
+ *
  * @author Keith Stevens
  */
-public class LeskSimilarity implements SynsetSimilarity {
+public class LeskSimilarity implements PreparedSynsetSimilarity {
 
     /**
      * {@inheritDoc}
      */
     public double similarity(Synset synset1, Synset synset2) {
-        // Get the glosses for both sysnets and tokenize them.  Then store the
-        // second gloss in a hashset for easy lookup of words.
-        String[] gloss1 = synset1.getGloss().split("\\s+");
-        String[] gloss2 = synset2.getGloss().split("\\s+");
-        return StringUtils.tokenOverlap(gloss1, gloss2);
+        return GlossTokens.forSynset(synset1).overlap(
+                GlossTokens.forSynset(synset2));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Row prepare(Synset synset1) {
+        // Look up the first gloss only once.
+        final GlossTokens gloss1 = GlossTokens.forSynset(synset1);
+        return new Row() {
+            public double similarity(Synset synset2) {
+                return gloss1.overlap(GlossTokens.forSynset(synset2));
+            }
+
+            public double similarity(Column column2) {
+                return (column2 instanceof GlossColumn)
+                    ? gloss1.overlap(((GlossColumn) column2).gloss)
+                    : similarity(column2.synset());
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Column prepareColumn(Synset synset2) {
+        return new GlossColumn(synset2);
+    }
+
+    /**
+     * A {@link Column} holding the gloss tokens of it's {@link Synset}.
+     */
+    private static class GlossColumn extends SynsetColumn {
+
+        private final GlossTokens gloss;
+
+        public GlossColumn(Synset synset) {
+            super(synset);
+            gloss = GlossTokens.forSynset(synset);
+        }
     }
 }
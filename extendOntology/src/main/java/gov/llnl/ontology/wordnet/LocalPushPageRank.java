@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import edu.ucla.sspace.vector.SparseDoubleVector;
+import edu.ucla.sspace.vector.SparseHashDoubleVector;
+
+
+/**
+ * This class approximates personalized PageRank scores by pushing residual
+ * probability mass outward from the random surfer's source nodes, as
+ * described in the following paper:
+ *
+ * <ul>
+ *
+ *  <li style="font-family:Garamond, Georgia, serif">R. Andersen, F. Chung,
+ *  and K. Lang.  "Local graph partitioning using PageRank vectors", in
+ *  <i>Proceedings of the 47th Annual IEEE Symposium on Foundations of
+ *  Computer Science</i> 2006.
+ * </ul>
+ *
+ * </p>
+ *
+ * Each node holds an approximate score and a residual that has yet to be
+ * spread, and initially the residuals are the random surfer probabilities.
+ * Pushing a node moves one minus {@code weight} of it's residual into it's
+ * score and spreads the rest over it's outgoing links, where any mass that can
+ * not follow a link is returned to the source nodes.  Nodes are pushed until
+ * every residual is at most {@code epsilon} times the node's out degree, so
+ * the work done depends on the part of the graph that is reached from the
+ * source nodes and not on the size of the graph.  Every score is at most the
+ * exact score computed by {@link PageRankSolver}, and the scores fall short
+ * of the exact scores by at most the sum of the remaining residuals.
+ *
+ * </p>
+ *
+ * The scores and residuals are kept in arrays that each thread reuses for
+ * every call, and only the entries for the nodes that were reached are reset
+ * afterwards.  {@link #computePageRank(TransitionMatrix, SparseDoubleVector,
+ * double)} only visits the non zero source weights and returns only the non
+ * zero scores, so a call does no work proportional to the size of the graph.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class LocalPushPageRank implements PageRank {
+
+    /**
+     * The default residual tolerance.
+     */
+    public static final double DEFAULT_EPSILON = 1e-5;
+
+    /**
+     * The largest residual, per outgoing link, that is left unspread.
+     */
+    private final double epsilon;
+
+    /**
+     * The {@link Workspace} used by each thread.
+     */
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Creates a new {@link LocalPushPageRank} with the default tolerance.
+     */
+    public LocalPushPageRank() {
+        this(DEFAULT_EPSILON);
+    }
+
+    /**
+     * Creates a new {@link LocalPushPageRank} that leaves at most {@code
+     * epsilon} residual mass per outgoing link on each node.
+     *
+     * @throws IllegalArgumentException if {@code epsilon} is not positive
+     */
+    public LocalPushPageRank(double epsilon) {
+        if (epsilon <= 0)
+            throw new IllegalArgumentException(
+                    "The tolerance must be positive");
+        this.epsilon = epsilon;
+        this.workspaces = new ThreadLocal<Workspace>() {
+            protected Workspace initialValue() {
+                return new Workspace();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public double[] computePageRank(TransitionMatrix matrix,
+                                    double[] sourceWeights,
+                                    double weight) {
+        int numNodes = matrix.numNodes();
+        if (sourceWeights.length != numNodes)
+            throw new IllegalArgumentException(
+                    "The source weights do not match the number of nodes");
+
+        // Find the source nodes, which receive any mass that can not follow a
+        // link.
+        int numSources = 0;
+        for (int i = 0; i < numNodes; ++i)
+            if (sourceWeights[i] != 0)
+                numSources++;
+        int[] sources = new int[numSources];
+        double[] weights = new double[numSources];
+        for (int i = 0, s = 0; i < numNodes; ++i)
+            if (sourceWeights[i] != 0) {
+                sources[s] = i;
+                weights[s++] = sourceWeights[i];
+            }
+
+        Workspace workspace = workspaces.get();
+        try {
+            push(matrix, sources, weights, weight, workspace);
+            double[] ranks = new double[numNodes];
+            for (int t = 0; t < workspace.numTouched; ++t) {
+                int node = workspace.touched[t];
+                ranks[node] = workspace.ranks[node];
+            }
+            return ranks;
+        } finally {
+            workspace.reset();
+        }
+    }
+
+    /**
+     * Returns the page rank score of each node in {@code matrix} that has a
+     * non zero score, as described by {@link PageRank#computePageRank}.  Only
+     * the non zero entries of {@code sourceWeights} are read.
+     *
+     * @throws IllegalArgumentException if the length of {@code sourceWeights}
+     *         differs from the number of nodes in {@code matrix}
+     */
+    public SparseDoubleVector computePageRank(TransitionMatrix matrix,
+                                              SparseDoubleVector sourceWeights,
+                                              double weight) {
+        int numNodes = matrix.numNodes();
+        if (sourceWeights.length() != numNodes)
+            throw new IllegalArgumentException(
+                    "The source weights do not match the number of nodes");
+
+        int[] sources = sourceWeights.getNonZeroIndices();
+        double[] weights = new double[sources.length];
+        for (int s = 0; s < sources.length; ++s)
+            weights[s] = sourceWeights.get(sources[s]);
+
+        Workspace workspace = workspaces.get();
+        try {
+            push(matrix, sources, weights, weight, workspace);
+            SparseDoubleVector ranks = new SparseHashDoubleVector(numNodes);
+            for (int t = 0; t < workspace.numTouched; ++t) {
+                int node = workspace.touched[t];
+                if (workspace.ranks[node] != 0)
+                    ranks.set(node, workspace.ranks[node]);
+            }
+            return ranks;
+        } finally {
+            workspace.reset();
+        }
+    }
+
+    /**
+     * Pushes residual mass from the {@code sources}, which have the random
+     * surfer probabilities in {@code sourceWeights}, until every residual is
+     * small enough, leaving the scores in {@code workspace}.
+     */
+    private void push(TransitionMatrix matrix,
+                      int[] sources,
+                      double[] sourceWeights,
+                      double weight,
+                      Workspace workspace) {
+        workspace.ensureCapacity(matrix.numNodes());
+        double[] ranks = workspace.ranks;
+        double[] residuals = workspace.residuals;
+        for (int s = 0; s < sources.length; ++s) {
+            int source = sources[s];
+            workspace.touch(source);
+            residuals[source] += sourceWeights[s];
+            enqueue(matrix, source, workspace);
+        }
+
+        NodeQueue queue = workspace.queue;
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+            workspace.queued[node] = false;
+            double residual = residuals[node];
+            residuals[node] = 0;
+            ranks[node] += (1 - weight) * residual;
+
+            // Spread the rest of the residual along each outgoing link.
+            int degree = matrix.outDegree(node);
+            double probability = (degree == 0)
+                ? 0
+                : matrix.outProbability(node);
+            double linkMass = weight * residual * probability;
+            for (int i = 0; i < degree; ++i) {
+                int target = matrix.outTarget(node, i);
+                workspace.touch(target);
+                residuals[target] += linkMass;
+                enqueue(matrix, target, workspace);
+            }
+
+            // Return any mass that could not follow a link to the sources.
+            double lostMass = weight * residual - degree * linkMass;
+            if (lostMass <= 0)
+                continue;
+            for (int s = 0; s < sources.length; ++s) {
+                int source = sources[s];
+                residuals[source] += lostMass * sourceWeights[s];
+                enqueue(matrix, source, workspace);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code node} to the queue of {@code workspace} if it's residual is
+     * large enough to be pushed and it is not already queued.
+     */
+    private void enqueue(TransitionMatrix matrix,
+                         int node,
+                         Workspace workspace) {
+        if (workspace.queued[node] ||
+            workspace.residuals[node] <=
+                epsilon * Math.max(1, matrix.outDegree(node)))
+            return;
+        workspace.queued[node] = true;
+        workspace.queue.add(node);
+    }
+
+    /**
+     * The scores, residuals, and queue used by a single thread.  Every entry
+     * is zero, or false, between calls, so only the entries of the nodes
+     * that were touched by a call need to be reset.
+     */
+    private static class Workspace {
+
+        private double[] ranks = new double[0];
+
+        private double[] residuals = new double[0];
+
+        private boolean[] queued = new boolean[0];
+
+        /**
+         * Set to true for each node in {@link #touched}.
+         */
+        private boolean[] isTouched = new boolean[0];
+
+        /**
+         * The nodes that have been given any residual mass.
+         */
+        private int[] touched = new int[16];
+
+        private int numTouched;
+
+        private final NodeQueue queue = new NodeQueue();
+
+        /**
+         * Makes sure that the arrays can hold {@code numNodes} nodes.  Some
+         * extra room is kept since graphs with a few extra nodes, such as
+         * those with an overlay, are often ranked one after another.
+         */
+        public void ensureCapacity(int numNodes) {
+            if (ranks.length >= numNodes)
+                return;
+            int capacity = numNodes + (numNodes >> 4);
+            ranks = new double[capacity];
+            residuals = new double[capacity];
+            queued = new boolean[capacity];
+            isTouched = new boolean[capacity];
+        }
+
+        /**
+         * Records that {@code node} has been given residual mass.
+         */
+        public void touch(int node) {
+            if (isTouched[node])
+                return;
+            isTouched[node] = true;
+            if (numTouched == touched.length) {
+                int[] grown = new int[2 * touched.length];
+                System.arraycopy(touched, 0, grown, 0, numTouched);
+                touched = grown;
+            }
+            touched[numTouched++] = node;
+        }
+
+        /**
+         * Clears the entries of every touched node and empties the queue.
+         */
+        public void reset() {
+            for (int t = 0; t < numTouched; ++t) {
+                int node = touched[t];
+                ranks[node] = 0;
+                residuals[node] = 0;
+                queued[node] = false;
+                isTouched[node] = false;
+            }
+            numTouched = 0;
+            queue.clear();
+        }
+    }
+
+    /**
+     * A first in first out queue of node indices.
+     */
+    private static class NodeQueue {
+
+        private int[] nodes = new int[16];
+
+        private int head;
+
+        private int size;
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public void add(int node) {
+            if (size == nodes.length) {
+                int[] grown = new int[2 * nodes.length];
+                for (int i = 0; i < size; ++i)
+                    grown[i] = nodes[(head + i) % nodes.length];
+                nodes = grown;
+                head = 0;
+            }
+            nodes[(head + size++) % nodes.length] = node;
+        }
+
+        public void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        public int remove() {
+            int node = nodes[head];
+            head = (head + 1) % nodes.length;
+            size--;
+            return node;
+        }
+    }
+}
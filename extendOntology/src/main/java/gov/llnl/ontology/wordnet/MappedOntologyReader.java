@@ -0,0 +1,865 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import edu.ucla.sspace.util.CombinedIterator;
+
+import java.io.IOError;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static gov.llnl.ontology.wordnet.WordNetSnapshot.*;
+
+
+/**
+ * A read only {@link OntologyReader} that answers every query directly from a
+ * memory mapped {@link WordNetSnapshot}.  Opening a snapshot only maps the file
+ * and reads the relation labels, so the reader is available almost
+ * immediately and the dictionary itself lives in the operating system's page
+ * cache, which is shared by every JVM on a machine that maps the same file.
+ *
+ * </p>
+ *
+ * {@link Synset}s returned by this reader are light weight views over the
+ * mapped tables.  A single view is created for each {@link Synset} the first
+ * time it is requested and reused afterwards, so {@link Synset}s can be
+ * compared by identity and used as keys in maps, as with the {@link
+ * WordNetCorpusReader}.  The graph can not be modified: {@link #addSynset},
+ * {@link #removeSynset}, {@link #replaceSynset}, and every {@link Synset}
+ * modifier throw an {@link UnsupportedOperationException}.  {@link Attribute}s
+ * can still be stored on each {@link Synset}.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class MappedOntologyReader implements OntologyReader {
+
+    /**
+     * The table of utf-8 strings.
+     */
+    private final ByteBuffer stringData;
+
+    /**
+     * The byte position of every string in {@code stringData}.
+     */
+    private final IntBuffer stringOffsets;
+
+    /**
+     * The fixed width records for each {@link Synset}.
+     */
+    private final IntBuffer synsetTable;
+
+    /**
+     * The string ids for every example sentence.
+     */
+    private final IntBuffer exampleTable;
+
+    /**
+     * The fixed width records for each {@link Lemma}.
+     */
+    private final IntBuffer lemmaTable;
+
+    /**
+     * The verb frame and lemma id pairs.
+     */
+    private final IntBuffer frameTable;
+
+    /**
+     * The fixed width records for each relational link.
+     */
+    private final IntBuffer relationTable;
+
+    /**
+     * The hash table over indexed lemmas.
+     */
+    private final IntBuffer indexSlots;
+
+    /**
+     * The fixed width records for each indexed lemma.
+     */
+    private final IntBuffer indexEntries;
+
+    /**
+     * The {@link Synset} ids for each indexed lemma.
+     */
+    private final IntBuffer indexPool;
+
+    /**
+     * The hash table over morphological exceptions.
+     */
+    private final IntBuffer exceptionSlots;
+
+    /**
+     * The fixed width records for each morphological exception.
+     */
+    private final IntBuffer exceptionEntries;
+
+    /**
+     * The label for each relation type.
+     */
+    private final String[] relationLabels;
+
+    /**
+     * A mapping from relation labels to their relation type ids.
+     */
+    private final Map<String, Integer> relationIds;
+
+    /**
+     * The maximum depth for each {@link PartsOfSpeech}.
+     */
+    private final int[] maxDepths;
+
+    /**
+     * The {@link Synset} views that have been created so far.
+     */
+    private final AtomicReferenceArray<MappedSynset> synsets;
+
+    /**
+     * The set of all indexed lemmas.  This is only created when requested.
+     */
+    private volatile Set<String> terms;
+
+    /**
+     * Creates a new {@link MappedOntologyReader} by memory mapping the {@link
+     * WordNetSnapshot} stored in {@code snapshotFile}.
+     */
+    public MappedOntologyReader(String snapshotFile) {
+        MappedByteBuffer buffer;
+        try {
+            RandomAccessFile file = new RandomAccessFile(snapshotFile, "r");
+            FileChannel channel = file.getChannel();
+            buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            file.close();
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        }
+
+        if (buffer.capacity() < HEADER_SIZE * 4 ||
+            buffer.getInt(HEADER_MAGIC * 4) != MAGIC)
+            throw new IllegalArgumentException(
+                    snapshotFile + " is not a WordNet snapshot");
+        if (buffer.getInt(HEADER_VERSION * 4) != VERSION)
+            throw new IllegalArgumentException(
+                    "Unsupported snapshot version: " +
+                    buffer.getInt(HEADER_VERSION * 4));
+
+        maxDepths = new int[PartsOfSpeech.values().length];
+        for (int pos = 0; pos < maxDepths.length; ++pos)
+            maxDepths[pos] = buffer.getInt((HEADER_MAX_DEPTHS + pos) * 4);
+
+        stringOffsets = intSection(buffer, STRING_OFFSETS);
+        stringData = section(buffer, STRING_DATA);
+        synsetTable = intSection(buffer, SYNSETS);
+        exampleTable = intSection(buffer, EXAMPLES);
+        lemmaTable = intSection(buffer, LEMMAS);
+        frameTable = intSection(buffer, FRAMES);
+        relationTable = intSection(buffer, RELATIONS);
+        indexSlots = intSection(buffer, INDEX_SLOTS);
+        indexEntries = intSection(buffer, INDEX_ENTRIES);
+        indexPool = intSection(buffer, INDEX_POOL);
+        exceptionSlots = intSection(buffer, EXCEPTION_SLOTS);
+        exceptionEntries = intSection(buffer, EXCEPTION_ENTRIES);
+
+        // Decode the relation labels, since these are needed for nearly every
+        // relation query.
+        IntBuffer relationTypes = intSection(buffer, RELATION_TYPES);
+        relationLabels = new String[relationTypes.limit()];
+        relationIds = new HashMap<String, Integer>();
+        for (int r = 0; r < relationLabels.length; ++r) {
+            relationLabels[r] = string(relationTypes.get(r)).intern();
+            relationIds.put(relationLabels[r], r);
+        }
+
+        synsets = new AtomicReferenceArray<MappedSynset>(
+                buffer.getInt(HEADER_NUM_SYNSETS * 4));
+    }
+
+    /**
+     * Returns the bytes for section {@code section} of {@code buffer}.
+     */
+    private static ByteBuffer section(ByteBuffer buffer, int section) {
+        int start = buffer.getInt((HEADER_SECTIONS + section) * 4);
+        int end = buffer.getInt((HEADER_SECTIONS + section + 1) * 4);
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.limit(end);
+        return view.slice();
+    }
+
+    /**
+     * Returns section {@code section} of {@code buffer} as integers.
+     */
+    private static IntBuffer intSection(ByteBuffer buffer, int section) {
+        return section(buffer, section).asIntBuffer();
+    }
+
+    /**
+     * Returns the string with id {@code id}.
+     */
+    private String string(int id) {
+        int start = stringOffsets.get(id);
+        int end = stringOffsets.get(id + 1);
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; ++i)
+            bytes[i] = stringData.get(start + i);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Returns {@code true} if the string with id {@code id} has the same utf-8
+     * encoding as {@code bytes}.
+     */
+    private boolean stringEquals(int id, byte[] bytes) {
+        int start = stringOffsets.get(id);
+        if (stringOffsets.get(id + 1) - start != bytes.length)
+            return false;
+        for (int i = 0; i < bytes.length; ++i)
+            if (stringData.get(start + i) != bytes[i])
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the index entry for {@code lemma}, or -1 if the lemma is not in
+     * the snapshot.
+     */
+    private int indexEntry(String lemma) {
+        byte[] bytes = lemma.getBytes(UTF8);
+        int mask = indexSlots.limit() - 1;
+        for (int slot = hash(bytes, 0) & mask; indexSlots.get(slot) != 0;
+                slot = (slot + 1) & mask) {
+            int entry = indexSlots.get(slot) - 1;
+            if (stringEquals(indexEntries.get(entry * INDEX_RECORD), bytes))
+                return entry;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the base form of the morphological exception {@code form} for
+     * {@code pos}, or {@code null} if there is no such exception.
+     */
+    private String exception(String form, PartsOfSpeech pos) {
+        byte[] bytes = form.getBytes(UTF8);
+        int mask = exceptionSlots.limit() - 1;
+        for (int slot = hash(bytes, pos.ordinal()) & mask;
+                exceptionSlots.get(slot) != 0; slot = (slot + 1) & mask) {
+            int base = (exceptionSlots.get(slot) - 1) * EXCEPTION_RECORD;
+            if (exceptionEntries.get(base) == pos.ordinal() &&
+                stringEquals(exceptionEntries.get(base + 1), bytes))
+                return string(exceptionEntries.get(base + 2));
+        }
+        return null;
+    }
+
+    /**
+     * Returns all of the morphological exceptions for {@code pos}.
+     */
+    /* package private */ Map<String, String> getExceptions(PartsOfSpeech pos) {
+        Map<String, String> exceptions = new HashMap<String, String>();
+        int numExceptions = exceptionEntries.limit() / EXCEPTION_RECORD;
+        for (int e = 0; e < numExceptions; ++e) {
+            int base = e * EXCEPTION_RECORD;
+            if (exceptionEntries.get(base) == pos.ordinal())
+                exceptions.put(string(exceptionEntries.get(base + 1)),
+                               string(exceptionEntries.get(base + 2)));
+        }
+        return exceptions;
+    }
+
+    /**
+     * Returns the number of {@link Synset}s in the snapshot.
+     */
+    public int numSynsets() {
+        return synsets.length();
+    }
+
+    /**
+     * Returns the {@link Synset} with the snapshot id {@code id}.  Ids range
+     * from 0 to {@link #numSynsets}.
+     */
+    public Synset getSynset(int id) {
+        MappedSynset synset = synsets.get(id);
+        if (synset == null) {
+            synsets.compareAndSet(id, null, new MappedSynset(id));
+            synset = synsets.get(id);
+        }
+        return synset;
+    }
+
+    /**
+     * Returns the {@link Synset}s for part of speech {@code pos} in the index
+     * entry {@code entry}.
+     */
+    private Synset[] indexedSynsets(int entry, PartsOfSpeech pos) {
+        int base = entry * INDEX_RECORD + 1 + 2 * pos.ordinal();
+        int start = indexEntries.get(base);
+        Synset[] result = new Synset[indexEntries.get(base + 1)];
+        for (int s = 0; s < result.length; ++s)
+            result[s] = getSynset(indexPool.get(start + s));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form) {
+        List<Iterator<String>> formIters = new ArrayList<Iterator<String>>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            formIters.add(morphy(form, pos));
+        return new CombinedIterator<String>(formIters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form, PartsOfSpeech pos) {
+        String suffix = "";
+        if (pos == PartsOfSpeech.NOUN && form.endsWith("ful")) {
+            suffix = "ful";
+            form = form.substring(0, form.length() - suffix.length());
+        }
+
+        return new WordNetCorpusReader.FormIterator(
+                form, suffix,
+                WordNetCorpusReader.MORPHOLOGICAL_SUBSTITUTIONS[pos.ordinal()],
+                exception(form, pos));
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void removeSynset(Synset synset) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a memory mapped ontology");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addSynset(Synset synset) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a memory mapped ontology");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addSynset(Synset synset, int index) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a memory mapped ontology");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void replaceSynset(Synset synset, Synset replacement) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a memory mapped ontology");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms() {
+        // Decoding every lemma is expensive, so only do it once.  Racing
+        // threads will simply create equivalent sets.
+        if (terms == null) {
+            Set<String> allTerms = new HashSet<String>();
+            int numEntries = indexEntries.limit() / INDEX_RECORD;
+            for (int e = 0; e < numEntries; ++e)
+                allTerms.add(string(indexEntries.get(e * INDEX_RECORD)));
+            terms = Collections.unmodifiableSet(allTerms);
+        }
+        return terms;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms(PartsOfSpeech pos) {
+        Set<String> posLemmas = new HashSet<String>();
+        int numEntries = indexEntries.limit() / INDEX_RECORD;
+        for (int e = 0; e < numEntries; ++e) {
+            int base = e * INDEX_RECORD;
+            if (indexEntries.get(base + 2 + 2 * pos.ordinal()) != 0)
+                posLemmas.add(string(indexEntries.get(base)));
+        }
+        return posLemmas;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma) {
+        List<Synset> allSynsets = new ArrayList<Synset>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            allSynsets.addAll(Arrays.asList(getSynsets(lemma, pos)));
+        return allSynsets.toArray(new Synset[allSynsets.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+        // Get the synsets for the original form.
+        int entry = indexEntry(lemma);
+        if (entry >= 0) {
+            Synset[] synsets = indexedSynsets(entry, pos);
+            if (synsets.length > 0)
+                return synsets;
+        }
+
+        // Find the Synsets for each morphological variation.
+        List<Synset> allSynsets = new ArrayList<Synset>();
+        Iterator<String> formIter = morphy(lemma, pos);
+        while (formIter.hasNext()) {
+            entry = indexEntry(formIter.next());
+            if (entry >= 0)
+                allSynsets.addAll(Arrays.asList(indexedSynsets(entry, pos)));
+        }
+        return allSynsets.toArray(new Synset[allSynsets.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String fullSynsetName) {
+        String[] parts = fullSynsetName.split("\\.");
+        String lemma = parts[0];
+        PartsOfSpeech pos = WordNetCorpusReader.POS_MAP.get(parts[1]);
+        int senseNum = Integer.parseInt(parts[2]);
+        return getSynset(lemma, pos, senseNum);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String lemma, PartsOfSpeech pos, int senseNum) {
+        int entry = indexEntry(lemma);
+        if (entry < 0)
+            return null;
+        int base = entry * INDEX_RECORD + 1 + 2 * pos.ordinal();
+        if (senseNum < 1 || senseNum > indexEntries.get(base + 1))
+            return null;
+        return getSynset(
+                indexPool.get(indexEntries.get(base) + senseNum - 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int getMaxDepth(PartsOfSpeech pos) {
+        return maxDepths[pos.ordinal()];
+    }
+
+    /**
+     * A {@link Synset} view over a single record in the mapped synset table.
+     */
+    private class MappedSynset extends ReadOnlySynset {
+
+        /**
+         * The snapshot id for this {@link Synset}.
+         */
+        private final int id;
+
+        /**
+         * The position of this {@link Synset}'s record in the synset table.
+         */
+        private final int base;
+
+        public MappedSynset(int id) {
+            this.id = id;
+            this.base = id * SYNSET_RECORD;
+        }
+
+        private int field(int field) {
+            return synsetTable.get(base + field);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getId() {
+            return field(SYNSET_ID);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getName() {
+            int lemma = field(SYNSET_LEMMA_START) * LEMMA_RECORD;
+            return string(lemmaTable.get(lemma + LEMMA_NAME)).toLowerCase() +
+                   "." + getPartOfSpeech() + "." + getSenseNumber();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getSenseKey() {
+            return string(field(SYNSET_SENSE_KEY));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getSenseNumber() {
+            return field(SYNSET_SENSE_NUMBER);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public List<String> getExamples() {
+            final int start = field(SYNSET_EXAMPLE_START);
+            final int count = field(SYNSET_EXAMPLE_COUNT);
+            return new AbstractList<String>() {
+                public String get(int index) {
+                    if (index < 0 || index >= count)
+                        throw new IndexOutOfBoundsException();
+                    return string(exampleTable.get(start + index));
+                }
+
+                public int size() {
+                    return count;
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getDefinition() {
+            return string(field(SYNSET_DEFINITION));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public List<Lemma> getLemmas() {
+            final int start = field(SYNSET_LEMMA_START);
+            final int count = field(SYNSET_LEMMA_COUNT);
+            return new AbstractList<Lemma>() {
+                public Lemma get(int index) {
+                    if (index < 0 || index >= count)
+                        throw new IndexOutOfBoundsException();
+                    return new MappedLemma(
+                            MappedSynset.this, start + index);
+                }
+
+                public int size() {
+                    return count;
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int[] getFrameIds() {
+            return frames(0);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int[] getLemmaIds() {
+            return frames(1);
+        }
+
+        /**
+         * Returns either the frame ids or the lemma ids for this {@link
+         * Synset}'s verb frames.
+         */
+        private int[] frames(int column) {
+            int start = field(SYNSET_FRAME_START);
+            int[] values = new int[field(SYNSET_FRAME_COUNT)];
+            for (int f = 0; f < values.length; ++f)
+                values[f] = frameTable.get(2 * (start + f) + column);
+            return values;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public PartsOfSpeech getPartOfSpeech() {
+            return PartsOfSpeech.values()[field(SYNSET_POS)];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Set<String> getKnownRelationTypes() {
+            Set<String> types = new HashSet<String>();
+            int start = field(SYNSET_RELATION_START);
+            int end = start + field(SYNSET_RELATION_COUNT);
+            for (int r = start; r < end; ++r)
+                types.add(relationLabels[relationTable.get(
+                            r * RELATION_RECORD + RELATION_TYPE)]);
+            return types;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Collection<Synset> allRelations() {
+            return new RelationSet(field(SYNSET_RELATION_START),
+                                   field(SYNSET_RELATION_COUNT), -1);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Set<Synset> getRelations(String relation) {
+            Integer type = relationIds.get(relation);
+            if (type == null)
+                return Collections.emptySet();
+
+            // Relations are grouped by type, so find the block of relations
+            // matching the requested type.
+            int start = field(SYNSET_RELATION_START);
+            int end = start + field(SYNSET_RELATION_COUNT);
+            while (start < end && relationType(start) != type)
+                start++;
+            int last = start;
+            while (last < end && relationType(last) == type)
+                last++;
+            return new RelationSet(start, last - start, type);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getNumRelations() {
+            return field(SYNSET_RELATION_COUNT);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public RelatedForm getDerivationallyRelatedForm(Synset synset) {
+            if (!(synset instanceof MappedSynset) ||
+                ((MappedSynset) synset).reader() != MappedOntologyReader.this)
+                return null;
+            int otherId = ((MappedSynset) synset).id;
+            int start = field(SYNSET_RELATION_START);
+            int end = start + field(SYNSET_RELATION_COUNT);
+            for (int r = start; r < end; ++r) {
+                int record = r * RELATION_RECORD;
+                int form = relationTable.get(record + RELATION_FORM);
+                if (form != -1 &&
+                    relationTable.get(record + RELATION_TARGET) == otherId)
+                    return new SimpleRelatedForm(form >>> 16, form & 0xffff);
+            }
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getMaxDepth() {
+            return field(SYNSET_MAX_DEPTH);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getMinDepth() {
+            return field(SYNSET_MIN_DEPTH);
+        }
+
+        /**
+         * Returns the {@link MappedOntologyReader} owning this {@link Synset}.
+         */
+        private MappedOntologyReader reader() {
+            return MappedOntologyReader.this;
+        }
+    }
+
+    /**
+     * Returns the relation type for the relation record {@code relation}.
+     */
+    private int relationType(int relation) {
+        return relationTable.get(relation * RELATION_RECORD + RELATION_TYPE);
+    }
+
+    /**
+     * An unmodifiable {@link Set} of the {@link Synset}s linked to by a block
+     * of relation records.
+     */
+    private class RelationSet extends AbstractSet<Synset> {
+
+        /**
+         * The first relation record in the block.
+         */
+        private final int start;
+
+        /**
+         * The number of relation records in the block.
+         */
+        private final int count;
+
+        /**
+         * The relation type for every record in the block, or -1 if the block
+         * contains several relation types.
+         */
+        private final int type;
+
+        public RelationSet(int start, int count, int type) {
+            this.start = start;
+            this.count = count;
+            this.type = type;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public boolean contains(Object o) {
+            if (!(o instanceof MappedSynset) ||
+                ((MappedSynset) o).reader() != MappedOntologyReader.this)
+                return false;
+            int otherId = ((MappedSynset) o).id;
+            for (int r = start; r < start + count; ++r)
+                if (relationTable.get(r * RELATION_RECORD + RELATION_TARGET)
+                        == otherId)
+                    return true;
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Iterator<Synset> iterator() {
+            return new Iterator<Synset>() {
+                int next = start;
+
+                public boolean hasNext() {
+                    return next < start + count;
+                }
+
+                public Synset next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return getSynset(relationTable.get(
+                                (next++) * RELATION_RECORD + RELATION_TARGET));
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException(
+                            "Cannot modify a memory mapped ontology");
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * A {@link Lemma} view over a single record in the mapped lemma table.
+     */
+    private class MappedLemma implements Lemma {
+
+        private final Synset synset;
+
+        private final int base;
+
+        public MappedLemma(Synset synset, int lemma) {
+            this.synset = synset;
+            this.base = lemma * LEMMA_RECORD;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getKey() {
+            return string(lemmaTable.get(base + LEMMA_KEY));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Synset getSynset() {
+            return synset;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getLemmaName() {
+            return string(lemmaTable.get(base + LEMMA_NAME));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public String getLexicographerName() {
+            return string(lemmaTable.get(base + LEMMA_LEX_NAME));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getLexNameIndex() {
+            return lemmaTable.get(base + LEMMA_LEX_NAME_INDEX);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public int getLexicalId() {
+            return lemmaTable.get(base + LEMMA_LEXICAL_ID);
+        }
+    }
+}
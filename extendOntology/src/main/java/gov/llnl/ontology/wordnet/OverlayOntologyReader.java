@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * A copy-on-write view of another {@link OntologyReader} that records added,
+ * removed, and replaced {@link Synset}s without modifying the underlying
+ * reader.  Only the lemma mappings of each modified lemma are stored, in small
+ * side tables, and every other request is answered by the underlying reader.
+ * This makes it cheap to speculatively extend an ontology, such as when a
+ * {@link gov.llnl.ontology.wordnet.builder.WordNetBuilder} explores several
+ * possible attachments for a new term.
+ *
+ * </p>
+ *
+ * {@link #fork} creates a new overlay that starts with every change made to
+ * this overlay so far.  Changes made to either overlay after the fork are not
+ * visible to the other.  Forking takes constant time since the changes made
+ * before the fork are frozen and shared by both overlays, and each lookup
+ * walks the chain of frozen changes before consulting the underlying reader.
+ * {@link #discard} drops every change made since an overlay was created, also
+ * in constant time.
+ *
+ * </p>
+ *
+ * Unlike the {@link WordNetCorpusReader}, an overlay never modifies a {@link
+ * Synset}: removing a {@link Synset} only removes it from the lemma mappings,
+ * it is not unlinked from the {@link Synset}s it is related to, and replacing
+ * a {@link Synset} does not renumber the senses of other {@link Synset}s.
+ * Morphological variants are found with the underlying reader, so lemmas that
+ * exist only in an overlay are matched exactly.
+ *
+ * </p>
+ *
+ * This class is <b>not</b> thread safe, but separate overlays may be used by
+ * separate threads as long as the underlying reader is not modified.
+ *
+ * @author Keith Stevens
+ */
+public class OverlayOntologyReader implements OntologyReader {
+
+    /**
+     * The {@link OntologyReader} being overlaid.
+     */
+    private final OntologyReader base;
+
+    /**
+     * The frozen changes this overlay was created with.
+     */
+    private final Layer origin;
+
+    /**
+     * The frozen changes made before the most recent fork of this overlay.
+     */
+    private Layer frozen;
+
+    /**
+     * The lemma mappings changed since the most recent fork of this overlay.
+     * Each value holds the complete {@link Synset} list of a lemma for every
+     * part of speech.
+     */
+    private Map<String, Synset[][]> changes;
+
+    /**
+     * Creates a new {@link OverlayOntologyReader} with no changes over {@code
+     * base}.
+     */
+    public OverlayOntologyReader(OntologyReader base) {
+        this(base, null);
+    }
+
+    /**
+     * Creates a new {@link OverlayOntologyReader} over {@code base} that
+     * starts with the changes in {@code frozen}.
+     */
+    private OverlayOntologyReader(OntologyReader base, Layer frozen) {
+        this.base = base;
+        this.origin = frozen;
+        this.frozen = frozen;
+        this.changes = new HashMap<String, Synset[][]>();
+    }
+
+    /**
+     * Returns the {@link OntologyReader} being overlaid.
+     */
+    public OntologyReader getBase() {
+        return base;
+    }
+
+    /**
+     * Returns a new overlay that starts with every change made to this
+     * overlay.
+     */
+    public OverlayOntologyReader fork() {
+        if (!changes.isEmpty()) {
+            frozen = new Layer(changes, frozen);
+            changes = new HashMap<String, Synset[][]>();
+        }
+        return new OverlayOntologyReader(base, frozen);
+    }
+
+    /**
+     * Drops every change made since this overlay was created.
+     */
+    public void discard() {
+        frozen = origin;
+        changes = new HashMap<String, Synset[][]>();
+    }
+
+    /**
+     * Returns true if no lemma mappings have been changed in this overlay,
+     * including changes inherited from the overlay it was forked from.
+     */
+    public boolean isEmpty() {
+        return frozen == null && changes.isEmpty();
+    }
+
+    /**
+     * Returns the changed mappings for {@code lemma}, or {@code null} if the
+     * lemma has not been changed.
+     */
+    private Synset[][] changed(String lemma) {
+        Synset[][] lemmaSynsets = changes.get(lemma);
+        for (Layer layer = frozen;
+             lemmaSynsets == null && layer != null;
+             layer = layer.previous)
+            lemmaSynsets = layer.changes.get(lemma);
+        return lemmaSynsets;
+    }
+
+    /**
+     * Returns the {@link Synset}s mapped directly to {@code lemma}, ignoring
+     * any morphological variants.
+     */
+    private Synset[] exactSynsets(String lemma, PartsOfSpeech pos) {
+        Synset[][] lemmaSynsets = changed(lemma);
+        return (lemmaSynsets != null)
+            ? lemmaSynsets[pos.ordinal()]
+            : CompactOntologyReader.exactSynsets(base, lemma, pos);
+    }
+
+    /**
+     * Returns a copy of the mappings for {@code lemma} that can be modified
+     * and stored in {@link #changes}.
+     */
+    private Synset[][] mutableSynsets(String lemma) {
+        Synset[][] lemmaSynsets = changes.get(lemma);
+        if (lemmaSynsets != null)
+            return lemmaSynsets;
+
+        PartsOfSpeech[] posValues = PartsOfSpeech.values();
+        Synset[][] previous = changed(lemma);
+        lemmaSynsets = new Synset[posValues.length][];
+        for (PartsOfSpeech pos : posValues)
+            lemmaSynsets[pos.ordinal()] = (previous != null)
+                ? previous[pos.ordinal()]
+                : CompactOntologyReader.exactSynsets(base, lemma, pos);
+        changes.put(lemma, lemmaSynsets);
+        return lemmaSynsets;
+    }
+
+    /**
+     * Returns the distinct lower cased lemma names of {@code synset}.
+     */
+    private static Set<String> lemmaNames(Synset synset) {
+        Set<String> lemmaNames = new HashSet<String>();
+        for (Lemma lemma : synset.getLemmas())
+            lemmaNames.add(lemma.getLemmaName().toLowerCase());
+        return lemmaNames;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form) {
+        return base.morphy(form);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Iterator<String> morphy(String form, PartsOfSpeech pos) {
+        return base.morphy(form, pos);
+    }
+
+    /**
+     * Removes {@code synset} from the lemma mappings of this overlay.  The
+     * relations of {@code synset} are not modified.
+     */
+    public void removeSynset(Synset synset) {
+        int pos = synset.getPartOfSpeech().ordinal();
+        for (String lemmaName : lemmaNames(synset)) {
+            if (changed(lemmaName) == null &&
+                !base.wordnetTerms().contains(lemmaName))
+                continue;
+
+            Synset[][] lemmaSynsets = mutableSynsets(lemmaName);
+            List<Synset> kept = new ArrayList<Synset>();
+            for (Synset other : lemmaSynsets[pos])
+                if (other != synset)
+                    kept.add(other);
+            lemmaSynsets[pos] = kept.toArray(new Synset[kept.size()]);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void addSynset(Synset synset) {
+        addSynset(synset, -1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void addSynset(Synset synset, int index) {
+        int pos = synset.getPartOfSpeech().ordinal();
+        for (String lemmaName : lemmaNames(synset)) {
+            Synset[] posSynsets = exactSynsets(
+                    lemmaName, synset.getPartOfSpeech());
+
+            // Check that the index is valid.
+            if (index > posSynsets.length || index < -1)
+                throw new IllegalArgumentException(
+                        "Cannot add " + synset.getName() + " to lemma " +
+                        lemmaName + " at position " + index +
+                        " .    The index is out of bounds.");
+            int insertAt = (index == -1) ? posSynsets.length : index;
+
+            Synset[] newPosSynsets = new Synset[posSynsets.length + 1];
+            System.arraycopy(posSynsets, 0, newPosSynsets, 0, insertAt);
+            newPosSynsets[insertAt] = synset;
+            System.arraycopy(posSynsets, insertAt, newPosSynsets, insertAt + 1,
+                             posSynsets.length - insertAt);
+            mutableSynsets(lemmaName)[pos] = newPosSynsets;
+        }
+    }
+
+    /**
+     * Replaces {@code synset} with {@code replacement} in every lemma mapping
+     * of {@code synset}.  If {@code replacement} is already mapped to a lemma,
+     * {@code synset} is simply removed from that lemma's mapping.  The sense
+     * numbers of other {@link Synset}s are not modified.
+     */
+    public void replaceSynset(Synset synset, Synset replacement) {
+        if (synset.getPartOfSpeech() != replacement.getPartOfSpeech())
+            throw new IllegalArgumentException(
+                    "Cannot replace a synset with another synset having a " +
+                    "different part of speech.");
+
+        int pos = synset.getPartOfSpeech().ordinal();
+        Set<String> replacementLemmas = lemmaNames(replacement);
+        for (String lemmaName : lemmaNames(synset)) {
+            Synset[] posSynsets = exactSynsets(
+                    lemmaName, synset.getPartOfSpeech());
+            List<Synset> replaced = new ArrayList<Synset>();
+            for (Synset other : posSynsets) {
+                if (other != synset)
+                    replaced.add(other);
+                else if (!replacementLemmas.contains(lemmaName))
+                    replaced.add(replacement);
+            }
+            mutableSynsets(lemmaName)[pos] =
+                replaced.toArray(new Synset[replaced.size()]);
+        }
+    }
+
+    /**
+     * Returns every lemma known to the underlying reader or changed in this
+     * overlay.  Unlike the underlying reader, the returned set is a copy.
+     */
+    public Set<String> wordnetTerms() {
+        Set<String> terms = new HashSet<String>(base.wordnetTerms());
+        for (Layer layer = frozen; layer != null; layer = layer.previous)
+            terms.addAll(layer.changes.keySet());
+        terms.addAll(changes.keySet());
+        return terms;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<String> wordnetTerms(PartsOfSpeech pos) {
+        Set<String> terms = new HashSet<String>(base.wordnetTerms(pos));
+        Set<String> changedLemmas = new HashSet<String>(changes.keySet());
+        for (Layer layer = frozen; layer != null; layer = layer.previous)
+            changedLemmas.addAll(layer.changes.keySet());
+        for (String lemma : changedLemmas) {
+            if (changed(lemma)[pos.ordinal()].length > 0)
+                terms.add(lemma);
+            else
+                terms.remove(lemma);
+        }
+        return terms;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma) {
+        List<Synset> allSynsets = new ArrayList<Synset>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            allSynsets.addAll(Arrays.asList(getSynsets(lemma, pos)));
+        return allSynsets.toArray(new Synset[allSynsets.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+        if (isEmpty())
+            return base.getSynsets(lemma, pos);
+
+        // Get the synsets for the original form.
+        Synset[] lemmaSynsets = exactSynsets(lemma, pos);
+        if (lemmaSynsets.length > 0)
+            return lemmaSynsets;
+
+        // Find the Synsets for each morphological variation.
+        List<Synset> allSynsets = new ArrayList<Synset>();
+        Iterator<String> formIter = morphy(lemma, pos);
+        while (formIter.hasNext())
+            allSynsets.addAll(Arrays.asList(
+                        exactSynsets(formIter.next(), pos)));
+        return allSynsets.toArray(new Synset[allSynsets.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String fullSynsetName) {
+        String[] parts = fullSynsetName.split("\\.");
+        if (changed(parts[0]) == null)
+            return base.getSynset(fullSynsetName);
+        PartsOfSpeech pos = WordNetCorpusReader.POS_MAP.get(parts[1]);
+        return getSynset(parts[0], pos, Integer.parseInt(parts[2]));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Synset getSynset(String lemma, PartsOfSpeech pos, int senseNum) {
+        Synset[][] lemmaSynsets = changed(lemma);
+        if (lemmaSynsets == null)
+            return base.getSynset(lemma, pos, senseNum);
+        if (senseNum < 1 || senseNum > lemmaSynsets[pos.ordinal()].length)
+            return null;
+        return lemmaSynsets[pos.ordinal()][senseNum-1];
+    }
+
+    /**
+     * Returns the maximum depth of the underlying reader or of any {@link
+     * Synset} added to this overlay, whichever is deeper.
+     */
+    public int getMaxDepth(PartsOfSpeech pos) {
+        int maxDepth = base.getMaxDepth(pos);
+        for (Synset synset : changedSynsets(changes, pos))
+            maxDepth = Math.max(maxDepth, synset.getMaxDepth());
+        for (Layer layer = frozen; layer != null; layer = layer.previous)
+            for (Synset synset : changedSynsets(layer.changes, pos))
+                maxDepth = Math.max(maxDepth, synset.getMaxDepth());
+        return maxDepth;
+    }
+
+    /**
+     * Returns every {@link Synset} with part of speech {@code pos} in {@code
+     * changes}.
+     */
+    private static List<Synset> changedSynsets(Map<String, Synset[][]> changes,
+                                               PartsOfSpeech pos) {
+        List<Synset> synsets = new ArrayList<Synset>();
+        for (Synset[][] lemmaSynsets : changes.values())
+            synsets.addAll(Arrays.asList(lemmaSynsets[pos.ordinal()]));
+        return synsets;
+    }
+
+    /**
+     * A frozen set of changes that may be shared by several overlays.
+     */
+    private static class Layer {
+
+        /**
+         * The lemma mappings changed in this layer.
+         */
+        private final Map<String, Synset[][]> changes;
+
+        /**
+         * The layer of changes made before this one, or {@code null}.
+         */
+        private final Layer previous;
+
+        public Layer(Map<String, Synset[][]> changes, Layer previous) {
+            this.changes = changes;
+            this.previous = previous;
+        }
+    }
+}
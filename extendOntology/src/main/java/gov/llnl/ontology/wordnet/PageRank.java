@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+
+/**
+ * An interface for computing PageRank scores over a {@link TransitionMatrix}.
+ * Implementations may compute the scores exactly, as {@link PageRankSolver}
+ * does, or approximately, as {@link LocalPushPageRank} does.
+ *
+ * @author Keith Stevens
+ */
+public interface PageRank {
+
+    /**
+     * Returns the page rank score of each node in {@code matrix}.  With
+     * probability {@code weight}, a random surfer follows an outgoing link of
+     * it's current node, and otherwise it jumps to a node selected according
+     * to {@code sourceWeights}.  Any probability mass that can not follow a
+     * link is also returned to the nodes according to {@code sourceWeights}.
+     *
+     * @param matrix The {@link TransitionMatrix} of the graph
+     * @param sourceWeights The probability that a random surfer lands at each
+     *        node given that a random jump was made
+     * @param weight The probability of following a link at any point in time
+     *
+     * @throws IllegalArgumentException if the length of {@code sourceWeights}
+     *         differs from the number of nodes in {@code matrix}
+     */
+    double[] computePageRank(TransitionMatrix matrix,
+                             double[] sourceWeights,
+                             double weight);
+}
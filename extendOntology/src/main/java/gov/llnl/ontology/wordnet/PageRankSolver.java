@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+
+/**
+ * This class performs PageRank over a {@link TransitionMatrix}.  Rank scores
+ * are kept in dense arrays indexed by node, and each iteration computes the
+ * new scores in the same way as {@link SynsetPagerank#computePageRank}: the
+ * probability mass that follows a link is {@code weight} times the rank of
+ * it's source times the link's transition probability, and every bit of mass
+ * that is not passed along a link is returned to the nodes in proportion to
+ * the random surfer probabilities.  Unlike {@link SynsetPagerank}, the
+ * returned mass is given to every node with a non zero random surfer
+ * probability, even if no link leads to that node.
+ *
+ * </p>
+ *
+ * Iterations stop once the L1 norm of the change in rank scores is at most
+ * the tolerance, or after the maximum number of iterations, whichever comes
+ * first.  A tolerance of 0 always runs the maximum number of iterations.  If
+ * an {@link ExecutorService} is given, the nodes are split into several
+ * ranges and the incoming mass for each range is computed as a separate task.
+ * Small graphs are always processed by the calling thread, as the cost of
+ * handing off the tasks would outweigh the gain.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe, and a single instance can compute the
+ * page rank of several graphs at once.
+ *
+ * @author Keith Stevens
+ */
+public class PageRankSolver implements PageRank {
+
+    /**
+     * The default maximum number of iterations, which is the fixed number of
+     * iterations used by {@link SynsetPagerank}.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 15;
+
+    /**
+     * The default tolerance on the change in rank scores.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+
+    /**
+     * The minimum number of nodes handled by a single task.
+     */
+    private static final int MIN_TASK_SIZE = 4096;
+
+    /**
+     * The maximum number of iterations.
+     */
+    private final int maxIterations;
+
+    /**
+     * The largest change in rank scores, measured by the L1 norm, at which
+     * the rank scores are considered to have converged.
+     */
+    private final double tolerance;
+
+    /**
+     * The {@link ExecutorService} used to run the tasks of each iteration, or
+     * {@code null} if the calling thread does all of the work.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The number of tasks each iteration is split into.
+     */
+    private final int numTasks;
+
+    /**
+     * Creates a new {@link PageRankSolver} with the default maximum number of
+     * iterations and tolerance.
+     */
+    public PageRankSolver() {
+        this(DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Creates a new {@link PageRankSolver} that runs at most {@code
+     * maxIterations} in the calling thread and stops early once the change in
+     * rank scores is at most {@code tolerance}.
+     */
+    public PageRankSolver(int maxIterations, double tolerance) {
+        this(maxIterations, tolerance, null, 1);
+    }
+
+    /**
+     * Creates a new {@link PageRankSolver} that runs at most {@code
+     * maxIterations} and stops early once the change in rank scores is at
+     * most {@code tolerance}.  Each iteration is split into {@code numTasks}
+     * tasks which are run by {@code executor}.
+     *
+     * @param executor The {@link ExecutorService} that runs the tasks of each
+     *        iteration, or {@code null} to run them in the calling thread
+     *
+     * @throws IllegalArgumentException if {@code maxIterations} or {@code
+     *         numTasks} is not positive, or {@code tolerance} is negative
+     */
+    public PageRankSolver(int maxIterations,
+                          double tolerance,
+                          ExecutorService executor,
+                          int numTasks) {
+        if (maxIterations <= 0)
+            throw new IllegalArgumentException(
+                    "The maximum number of iterations must be positive");
+        if (tolerance < 0)
+            throw new IllegalArgumentException(
+                    "The tolerance must not be negative");
+        if (numTasks <= 0)
+            throw new IllegalArgumentException(
+                    "The number of tasks must be positive");
+
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+        this.executor = executor;
+        this.numTasks = numTasks;
+    }
+
+    /**
+     * {@inheritDoc}  The random surfer probabilities also serve as the initial
+     * rank scores.
+     */
+    public double[] computePageRank(TransitionMatrix matrix,
+                                    double[] sourceWeights,
+                                    double weight) {
+        int numNodes = matrix.numNodes();
+        if (sourceWeights.length != numNodes)
+            throw new IllegalArgumentException(
+                    "The source weights do not match the number of nodes");
+
+        double[] ranks = Arrays.copyOf(sourceWeights, numNodes);
+        double[] newRanks = new double[numNodes];
+        double oldL1Norm = 0;
+        for (double rank : ranks)
+            oldL1Norm += Math.abs(rank);
+
+        for (int i = 0; i < maxIterations; ++i) {
+            // Compute the mass arriving at each node along the links and the
+            // total mass that was passed along.
+            double newL1Norm = weight * multiply(matrix, ranks, newRanks);
+            double gamma = oldL1Norm - newL1Norm;
+
+            // Add in the random surfer probabilities and compute the change
+            // in rank scores.
+            double delta = 0;
+            double l1Norm = 0;
+            for (int j = 0; j < numNodes; ++j) {
+                double rank = weight * newRanks[j] + gamma * sourceWeights[j];
+                delta += Math.abs(rank - ranks[j]);
+                l1Norm += Math.abs(rank);
+                newRanks[j] = rank;
+            }
+
+            double[] swap = ranks;
+            ranks = newRanks;
+            newRanks = swap;
+            oldL1Norm = l1Norm;
+
+            if (delta <= tolerance)
+                break;
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Stores the mass arriving at each node in {@code result} when each node
+     * sends it's rank in {@code ranks} along it's links, and returns the
+     * total mass that arrived.
+     */
+    private double multiply(final TransitionMatrix matrix,
+                            final double[] ranks,
+                            final double[] result) {
+        int numNodes = matrix.numNodes();
+        int taskCount = Math.min(numTasks, numNodes / MIN_TASK_SIZE);
+        if (executor == null || taskCount <= 1)
+            return matrix.multiply(ranks, result, 0, numNodes);
+
+        List<Callable<Double>> tasks = new ArrayList<Callable<Double>>();
+        int taskSize = (numNodes + taskCount - 1) / taskCount;
+        for (int start = 0; start < numNodes; start += taskSize) {
+            final int taskStart = start;
+            final int taskEnd = Math.min(numNodes, start + taskSize);
+            tasks.add(new Callable<Double>() {
+                public Double call() {
+                    return matrix.multiply(ranks, result, taskStart, taskEnd);
+                }
+            });
+        }
+
+        try {
+            double sum = 0;
+            for (Future<Double> future : executor.invokeAll(tasks))
+                sum += future.get();
+            return sum;
+        } catch (InterruptedException ie) {
+            throw new IllegalStateException(
+                    "Interrupted while computing page rank scores", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ee.getCause();
+            throw new IllegalStateException(ee.getCause());
+        }
+    }
+}
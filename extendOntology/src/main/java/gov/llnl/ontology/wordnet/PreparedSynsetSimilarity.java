@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+
+/**
+ * A {@link SynsetSimilarity} that can compare one {@link Synset} against many
+ * others more cheaply than by scoring each pair independently.  Any state that
+ * depends only on the first {@link Synset}, such as it's information content or
+ * it's tokenized gloss, is computed once by {@link #prepare} and reused for
+ * every {@link Synset} it is compared against.  Likewise, the state of a
+ * {@link Synset} that is compared against many others can be computed once by
+ * {@link #prepareColumn}.  {@link BatchSynsetSimilarity} uses both to score
+ * the rows and columns of a similarity matrix.
+ *
+ * @author Keith Stevens
+ */
+public interface PreparedSynsetSimilarity extends SynsetSimilarity {
+
+    /**
+     * Scores a single {@link Synset} against other {@link Synset}s.
+     */
+    public interface Row {
+
+        /**
+         * Returns the same score as {@link SynsetSimilarity#similarity} when
+         * the first {@link Synset} is the prepared {@link Synset}.
+         */
+        double similarity(Synset other);
+
+        /**
+         * Returns the same score as {@link #similarity(Synset)} for the
+         * {@link Synset} of {@code other}, using the state it holds.  {@code
+         * other} must have been prepared by the same {@link
+         * PreparedSynsetSimilarity} as this {@link Row}.
+         */
+        double similarity(Column other);
+    }
+
+    /**
+     * The state of a single {@link Synset} when it is the second {@link
+     * Synset} in a comparison.
+     */
+    public interface Column {
+
+        /**
+         * Returns the prepared {@link Synset}.
+         */
+        Synset synset();
+    }
+
+    /**
+     * A {@link Column} that holds no state other than it's {@link Synset}.
+     */
+    public static class SynsetColumn implements Column {
+
+        private final Synset synset;
+
+        public SynsetColumn(Synset synset) {
+            this.synset = synset;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public Synset synset() {
+            return synset;
+        }
+    }
+
+    /**
+     * Returns a {@link Row} that scores {@code synset} against other {@link
+     * Synset}s.
+     */
+    Row prepare(Synset synset);
+
+    /**
+     * Returns a {@link Column} that holds the state needed when other {@link
+     * Synset}s are scored against {@code synset}.
+     */
+    Column prepareColumn(Synset synset);
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * A base {@link Synset} implementation for {@link OntologyReader}s whose graph
+ * structure can not be modified after it has been loaded.  Subclasses only
+ * need to expose the stored values, such as the lemmas, gloss, and relations,
+ * while this class provides the derived operations, such as parent paths and
+ * depths, and rejects every structural modification with an {@link
+ * UnsupportedOperationException}.
+ *
+ * </p>
+ *
+ * {@link Attribute}s are not considered part of the graph structure, and so
+ * they can be set and retrieved as with any other {@link Synset}.  This allows
+ * algorithms such as {@link SynsetPagerank} to annotate read only {@link
+ * Synset}s.
+ *
+ * @author Keith Stevens
+ */
+public abstract class ReadOnlySynset implements Synset {
+
+    /**
+     * The {@link Attribute}s associated with this {@link Synset}.  This is only
+     * allocated when the first {@link Attribute} is set.
+     */
+    private Map<String, Attribute> attributes;
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getName() {
+        return getLemmas().get(0).getLemmaName().toLowerCase() + "." +
+               getPartOfSpeech() + "." + getSenseNumber();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getGloss() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getDefinition());
+        for (String example : getExamples())
+            sb.append(" ; ").append(" \"").append(example).append("\" ");
+        return sb.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<Synset> getRelations(Relation relation) {
+        return getRelations(relation.toString());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<Synset> getParents() {
+        return getRelations(Relation.HYPERNYM);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Set<Synset> getChildren() {
+        return getRelations(Relation.HYPONYM);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<List<Synset>> getParentPaths() {
+        List<List<Synset>> parentPaths = new ArrayList<List<Synset>>();
+        Set<Synset> parents = getParents();
+        if (parents.size() == 0) {
+            List<Synset> path = new ArrayList<Synset>();
+            path.add(this);
+            parentPaths.add(path);
+        } else {
+            for (Synset parent : parents) {
+                for (List<Synset> ancestorList : parent.getParentPaths()) {
+                    List<Synset> path = new ArrayList<Synset>(ancestorList);
+                    path.add(this);
+                    parentPaths.add(path);
+                }
+            }
+        }
+        return parentPaths;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void setAttribute(String attributeName,
+                                          Attribute attribute) {
+        if (attributes == null)
+            attributes = new HashMap<String, Attribute>();
+        attributes.put(attributeName, attribute);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Attribute getAttribute(String attributeName) {
+        return (attributes == null) ? null : attributes.get(attributeName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized Set<String> attributeLabels() {
+        if (attributes == null)
+            attributes = new HashMap<String, Attribute>();
+        return attributes.keySet();
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void setId(int id) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void setSenseKey(String senseKey) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void setSenseNumber(int senseNumber) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addExample(String example) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void setDefinition(String gloss) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addLemma(Lemma lemma) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void setFrameInfo(int[] frameIds, int[] lemmaIds) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addRelation(Relation relation, Synset related) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addRelation(String relation, Synset related) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void removeRelation(Relation relation, Synset related) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void removeRelation(String relation, Synset related) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void addDerivationallyRelatedForm(Synset related,
+                                             RelatedForm form) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * @throws UnsupportedOperationException
+     */
+    public void merge(Synset other) {
+        throw new UnsupportedOperationException(
+                "Cannot modify a read only synset");
+    }
+
+    /**
+     * Returns this {@link Synset}s name and gloss.
+     */
+    public String toString() {
+        return String.format("%s: %s\n", getName(), getDefinition());
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.util.CompressedBitSet;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+
+/**
+ * A precomputed index of the transitive closure of the hypernym hierarchy.
+ * Every {@link Synset} known to an {@link OntologyReader} is numbered in
+ * topological order, so that hypernyms always have smaller ids than their
+ * hyponyms, and the ids of all of it's ancestors are stored in a {@link
+ * CompressedBitSet}.  Since the ancestors of a {@link Synset} are numbered
+ * close to the roots, these bitmaps are very small.  Subsumption queries, such
+ * as whether one {@link Synset} is an ancestor of another or whether two {@link
+ * Synset}s share an ancestor, become bitmap probes rather than walks over every
+ * hypernym path.
+ *
+ * </p>
+ *
+ * The index is a snapshot of the hierarchy when it was created.  {@link
+ * #isCurrent} reports whether the hierarchy has been modified since then, in
+ * which case {@link SynsetRelations#getHypernymStatus(String, String,
+ * SubsumptionIndex)} falls back on walking hypernym paths.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.
+ *
+ * @author Keith Stevens
+ */
+public class SubsumptionIndex {
+
+    /**
+     * The {@link OntologyReader} that was indexed.
+     */
+    private final OntologyReader reader;
+
+    /**
+     * The topological id of each indexed {@link Synset}.
+     */
+    private final Map<Synset, Integer> synsetIds;
+
+    /**
+     * The ids of every ancestor of each {@link Synset}.
+     */
+    private final CompressedBitSet[] ancestors;
+
+    /**
+     * The hierarchy version when this index was created.
+     */
+    private final long version;
+
+    /**
+     * Creates a new {@link SubsumptionIndex} over every {@link Synset} in
+     * {@code reader} and all of their ancestors.
+     */
+    public SubsumptionIndex(OntologyReader reader) {
+        this.reader = reader;
+        this.version = AncestorIndex.hierarchyVersion();
+
+        // Collect every synset mapped to by a lemma along with all of their
+        // ancestors.
+        Map<Synset, Integer> visitOrder = new HashMap<Synset, Integer>();
+        List<Synset> synsets = new ArrayList<Synset>();
+        Queue<Synset> toVisit = new LinkedList<Synset>();
+        for (String lemma : reader.wordnetTerms())
+            for (PartsOfSpeech pos : PartsOfSpeech.values())
+                for (Synset synset : reader.getSynsets(lemma, pos))
+                    visit(synset, visitOrder, synsets, toVisit);
+        while (!toVisit.isEmpty())
+            for (Synset parent : toVisit.remove().getParents())
+                visit(parent, visitOrder, synsets, toVisit);
+
+        // Record the parents of each synset and count the number of parents
+        // and children for each synset.
+        int numSynsets = synsets.size();
+        int[][] parents = new int[numSynsets][];
+        int[] numParents = new int[numSynsets];
+        int[] numChildren = new int[numSynsets];
+        for (int s = 0; s < numSynsets; ++s) {
+            List<Integer> parentList = new ArrayList<Integer>();
+            for (Synset parent : synsets.get(s).getParents()) {
+                Integer p = (parent == null) ? null : visitOrder.get(parent);
+                if (p != null && !parentList.contains(p))
+                    parentList.add(p);
+            }
+            parents[s] = new int[parentList.size()];
+            for (int p = 0; p < parents[s].length; ++p) {
+                parents[s][p] = parentList.get(p);
+                numChildren[parents[s][p]]++;
+            }
+            numParents[s] = parents[s].length;
+        }
+        int[][] children = new int[numSynsets][];
+        for (int s = 0; s < numSynsets; ++s)
+            children[s] = new int[numChildren[s]];
+        for (int s = 0; s < numSynsets; ++s)
+            for (int p : parents[s])
+                children[p][--numChildren[p]] = s;
+
+        // Number the synsets in topological order, starting from the roots.
+        // Synsets that can reach a hypernym cycle are never reached and are
+        // numbered last.
+        int[] topologicalIds = new int[numSynsets];
+        int[] order = new int[numSynsets];
+        int numOrdered = 0;
+        for (int s = 0; s < numSynsets; ++s)
+            if (numParents[s] == 0)
+                order[numOrdered++] = s;
+        for (int next = 0; next < numOrdered; ++next)
+            for (int child : children[order[next]])
+                if (--numParents[child] == 0)
+                    order[numOrdered++] = child;
+        int numAcyclic = numOrdered;
+        for (int s = 0; s < numSynsets; ++s)
+            if (numParents[s] > 0)
+                order[numOrdered++] = s;
+        for (int i = 0; i < numSynsets; ++i)
+            topologicalIds[order[i]] = i;
+
+        // Compute the ancestors of each synset from the ancestors of it's
+        // parents, which have already been computed.
+        ancestors = new CompressedBitSet[numSynsets];
+        for (int i = 0; i < numAcyclic; ++i) {
+            CompressedBitSet closure = CompressedBitSet.EMPTY;
+            int[] parentIds = new int[parents[order[i]].length];
+            for (int p = 0; p < parentIds.length; ++p) {
+                parentIds[p] = topologicalIds[parents[order[i]][p]];
+                closure = closure.union(ancestors[parentIds[p]]);
+            }
+            ancestors[i] = closure.union(CompressedBitSet.of(parentIds));
+        }
+
+        // Find the ancestors of synsets affected by cycles with a traversal.
+        for (int i = numAcyclic; i < numSynsets; ++i) {
+            boolean[] reached = new boolean[numSynsets];
+            List<Integer> reachedIds = new ArrayList<Integer>();
+            Queue<Integer> queue = new LinkedList<Integer>();
+            queue.offer(order[i]);
+            while (!queue.isEmpty())
+                for (int p : parents[queue.remove()])
+                    if (!reached[p]) {
+                        reached[p] = true;
+                        reachedIds.add(topologicalIds[p]);
+                        queue.offer(p);
+                    }
+            int[] closure = new int[reachedIds.size()];
+            for (int r = 0; r < closure.length; ++r)
+                closure[r] = reachedIds.get(r);
+            ancestors[i] = CompressedBitSet.of(closure);
+        }
+
+        synsetIds = new HashMap<Synset, Integer>();
+        for (int s = 0; s < numSynsets; ++s)
+            synsetIds.put(synsets.get(s), topologicalIds[s]);
+    }
+
+    /**
+     * Adds {@code synset} to the list of synsets if it has not been seen yet.
+     */
+    private static void visit(Synset synset,
+                              Map<Synset, Integer> visitOrder,
+                              List<Synset> synsets,
+                              Queue<Synset> toVisit) {
+        if (synset == null || visitOrder.containsKey(synset))
+            return;
+        visitOrder.put(synset, synsets.size());
+        synsets.add(synset);
+        toVisit.offer(synset);
+    }
+
+    /**
+     * Returns the {@link OntologyReader} that was indexed.
+     */
+    public OntologyReader getReader() {
+        return reader;
+    }
+
+    /**
+     * Returns true if the hypernym hierarchy has not been modified since this
+     * index was created.
+     */
+    public boolean isCurrent() {
+        return version == AncestorIndex.hierarchyVersion();
+    }
+
+    /**
+     * Returns the number of indexed {@link Synset}s.
+     */
+    public int numSynsets() {
+        return ancestors.length;
+    }
+
+    /**
+     * Returns true if {@code ancestor} is a hypernym of {@code synset}, either
+     * directly or through a chain of hypernyms.
+     */
+    public boolean isAncestor(Synset ancestor, Synset synset) {
+        Integer ancestorId = synsetIds.get(ancestor);
+        Integer synsetId = synsetIds.get(synset);
+        return ancestorId != null && synsetId != null &&
+               ancestors[synsetId].contains(ancestorId);
+    }
+
+    /**
+     * Returns true if {@code synset1} and {@code synset2} have a common
+     * ancestor, where each {@link Synset} is considered to be an ancestor of
+     * itself.
+     */
+    public boolean shareAncestor(Synset synset1, Synset synset2) {
+        Integer id1 = synsetIds.get(synset1);
+        Integer id2 = synsetIds.get(synset2);
+        if (id1 == null || id2 == null)
+            return false;
+        return id1.equals(id2) ||
+               ancestors[id1].contains(id2) ||
+               ancestors[id2].contains(id1) ||
+               ancestors[id1].intersects(ancestors[id2]);
+    }
+
+    /**
+     * Returns true if some {@link Synset} in {@code ancestorSynsets}, which is
+     * not also in {@code childSynsets}, is an ancestor of some {@link Synset}
+     * in {@code childSynsets}.
+     */
+    public boolean hasKnownHypernym(Synset[] childSynsets,
+                                    Synset[] ancestorSynsets) {
+        for (Synset ancestorSynset : ancestorSynsets) {
+            Integer ancestorId = synsetIds.get(ancestorSynset);
+            if (ancestorId == null || contains(childSynsets, ancestorSynset))
+                continue;
+            for (Synset childSynset : childSynsets) {
+                Integer childId = synsetIds.get(childSynset);
+                if (childId != null && ancestors[childId].contains(ancestorId))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if {@code synset} is in {@code synsets}.
+     */
+    private static boolean contains(Synset[] synsets, Synset synset) {
+        for (Synset other : synsets)
+            if (other == synset)
+                return true;
+        return false;
+    }
+}
@@ -470,6 +470,8 @@ public interface Synset {
      * parents, there may be multiple paths that have several commond {@link
      * Synset}s.    The parent paths will begin a the {@link Synset} that is
      * furthest from this {@link Synset} and end with this {@link Synset}.
+     * Implementations may cache and share these paths, so the returned lists
+     * should be treated as read only.
      */
     List<List<Synset>> getParentPaths();
 
@@ -31,9 +31,7 @@ import edu.ucla.sspace.vector.SparseHashDoubleVector;
 import edu.ucla.sspace.vector.SparseDoubleVector;
 
 import java.util.List;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 
 /**
@@ -71,6 +69,11 @@ import java.util.Set;
  * link structure is held constant, there is no need to setup new transition
  * probabilities for the core graph.
  *
+ * </p>
+ * {@link PageRankSolver} computes page rank scores over a {@link
+ * TransitionMatrix} using dense arrays, and can stop once the scores
+ * converge, which is much faster for large graphs.
+ *
  * @author Keith Stevens
  */
 public class SynsetPagerank {
@@ -206,23 +209,6 @@ public class SynsetPagerank {
             for (int index : newRanks.getNonZeroIndices())
                 newRanks.add(index, gamma * sourceWeights.get(index));
 
-            // Compute the change in rank scores.  This is simply the l1 norm of
-            // the difference between the two page rank vectors.  We compute
-            // this by first computing the difference between indices in the old
-            // page rank scores and the new page rank scores.  We then simply
-            // add in the l1 norm of all the indices in the new page rank scores
-            // that were not in the old page rank scores.
-            double delta = 0;
-            Set<Integer> oldIndices = new HashSet<Integer>();
-            for (int index : pageRanks.getNonZeroIndices()) {
-                oldIndices.add(index);
-                delta += Math.abs(newRanks.get(index) - pageRanks.get(index));
-            }
-            for (int index : newRanks.getNonZeroIndices()) {
-                if (!oldIndices.contains(index))
-                    delta += Math.abs(newRanks.get(index));
-            }
-
             // Save the new page rank scores.
             pageRanks = newRanks;
         }
@@ -48,6 +48,13 @@ import java.util.Set;
  */
 public class SynsetRelations {
 
+    /**
+     * The shared index of ancestor distances used to answer path and common
+     * hypernym queries.  The index is bounded, so it does not hold on to the
+     * {@link Synset}s of every {@link OntologyReader} ever queried.
+     */
+    private static final AncestorIndex ANCESTOR_INDEX = new AncestorIndex();
+
     /**
      * The possible hypernym statuses.
      */
@@ -79,7 +86,49 @@ public class SynsetRelations {
      */
     public static HypernymStatus getHypernymStatus(String childTerm,
                                                    String ancestorTerm) {
-        OntologyReader wordnet = WordNetCorpusReader.getWordNet();
+        return getHypernymStatus(childTerm, ancestorTerm, null);
+    }
+
+    /**
+     * Returns the hypernym relationship between some {@link Synset} of {@code
+     * childTerm} and some {@link Synset} of {@code ancestorTerm}, as described
+     * in {@link #getHypernymStatus(String, String)}.  If {@code index} is not
+     * {@code null}, terms are looked up in the {@link OntologyReader} it
+     * indexes and, as long as the hierarchy has not changed since it was
+     * created, ancestors are found with bitmap probes rather than by walking
+     * every hypernym path.
+     *
+     * @param index An optional {@link SubsumptionIndex}, may be {@code null}
+     */
+    public static HypernymStatus getHypernymStatus(String childTerm,
+                                                   String ancestorTerm,
+                                                   SubsumptionIndex index) {
+        OntologyReader wordnet = (index == null)
+            ? WordNetCorpusReader.getWordNet()
+            : index.getReader();
+        return getHypernymStatus(wordnet, childTerm, ancestorTerm, index);
+    }
+
+    /**
+     * Returns the hypernym relationship between some {@link Synset} of {@code
+     * childTerm} and some {@link Synset} of {@code ancestorTerm} in {@code
+     * wordnet}, as described in {@link #getHypernymStatus(String, String)}.
+     */
+    public static HypernymStatus getHypernymStatus(OntologyReader wordnet,
+                                                   String childTerm,
+                                                   String ancestorTerm) {
+        return getHypernymStatus(wordnet, childTerm, ancestorTerm, null);
+    }
+
+    /**
+     * Returns the hypernym relationship between {@code childTerm} and {@code
+     * ancestorTerm} in {@code wordnet}, using {@code index} if it is not
+     * {@code null} and is up to date.
+     */
+    private static HypernymStatus getHypernymStatus(OntologyReader wordnet,
+                                                    String childTerm,
+                                                    String ancestorTerm,
+                                                    SubsumptionIndex index) {
         Synset[] childSynsets = wordnet.getSynsets(
                 childTerm, PartsOfSpeech.NOUN);
         Synset[] ancestorSynsets = wordnet.getSynsets(
@@ -100,6 +149,12 @@ public class SynsetRelations {
         if (ancestorSynsets == null || ancestorSynsets.length == 0)
             return HypernymStatus.NOVEL_HYPONYM;
 
+        // Probe the precomputed ancestor bitmaps when they are up to date.
+        if (index != null && index.isCurrent())
+            return (index.hasKnownHypernym(childSynsets, ancestorSynsets))
+                ? HypernymStatus.KNOWN_HYPERNYM
+                : HypernymStatus.KNOWN_NON_HYPERNYM;
+
         // Compute the set of known ancestors for all synsets of the child term.
         Set<Synset> knownParents = new HashSet<Synset>();
         for (Synset childSynset : childSynsets)
@@ -137,60 +192,7 @@ public class SynsetRelations {
      */
     public static List<Synset> lowestCommonHypernyms(Synset synset1,
                                                      Synset synset2) {
-        // Get the set of full parent paths for both synsets.
-        List<List<Synset>> synset1Parents = synset1.getParentPaths();
-        List<List<Synset>> synset2Parents = synset2.getParentPaths();
-
-        // Compute the best distance from each ancestor synset of synset 1 to
-        // the root synset.
-        Map<Synset, Integer> bestDepthMap = new HashMap<Synset, Integer>();
-        for (List<Synset> parents : synset1Parents) {
-            int currDepth = 0;
-            for (Synset parent : parents) {
-                // Save the longest distance.
-                Integer depth = bestDepthMap.get(parent);
-                bestDepthMap.put(parent, (depth == null)
-                        ? currDepth
-                        : Math.max(depth, currDepth));
-                currDepth++;
-            }
-        }
-
-
-        // Compute the set of synsets that occur as ancestors for both synset1
-        // and synset2 and update their best distances from the root of the
-        // hierarchy.
-        Set<Synset> candidates = new HashSet<Synset>();
-        for (List<Synset> parents : synset2Parents) {
-            int currDepth = -1;
-            for (Synset parent : parents) {
-                currDepth++;
-                Integer depth = bestDepthMap.get(parent);
-
-                // Ignore synsets that are not common ancestors.
-                if (depth == null)
-                    continue;
-
-                // Update the distance for the common ancestor.
-                candidates.add(parent);
-                bestDepthMap.put(parent, Math.max(depth, currDepth));
-            }
-        }
-
-
-        // Find the common ancestor which has the largest depth based on
-        // distance from the root of the hierarchy. 
-        int bestDepth = 0;
-        for (Synset parent : candidates) 
-            bestDepth = Math.max(bestDepth, bestDepthMap.get(parent));
-
-        List<Synset> subsumers = new ArrayList<Synset>();
-        for (Synset parent : candidates) {
-            Integer depth = bestDepthMap.get(parent);
-            if (depth == bestDepth)
-                subsumers.add(parent);
-        }
-        return subsumers;
+        return ANCESTOR_INDEX.lowestCommonHypernyms(synset1, synset2);
     }
 
     /**
@@ -236,13 +238,20 @@ public class SynsetRelations {
     public static Pair<Integer> getCousinDistance(String term1,
                                                   String term2,
                                                   int maxDepth) {
-        // Use a distance cache so that parent distances from the term2 synsets
-        // do not need to be computed multiple times.
-        Map<Synset, Map<Synset, Integer>> distanceCache =
-            new HashMap<Synset, Map<Synset, Integer>>();
+        return getCousinDistance(
+                WordNetCorpusReader.getWordNet(), term1, term2, maxDepth);
+    }
 
+    /**
+     * Returns the cousin distance between {@code term1} and {@code term2}, as
+     * described in {@link #getCousinDistance(String, String, int)}, using the
+     * {@link Synset}s found in {@code wordnet}.
+     */
+    public static Pair<Integer> getCousinDistance(OntologyReader wordnet,
+                                                  String term1,
+                                                  String term2,
+                                                  int maxDepth) {
         // Get the synsets for both terms.
-        OntologyReader wordnet = WordNetCorpusReader.getWordNet();
         Synset[] term1Synsets = wordnet.getSynsets(term1, PartsOfSpeech.NOUN);
         Synset[] term2Synsets = wordnet.getSynsets(term2, PartsOfSpeech.NOUN);
 
@@ -255,11 +264,7 @@ public class SynsetRelations {
         // For each pairing, find the hypernym that creates the shortest path
         // between the two synsets.
         for (Synset term1Synset : term1Synsets) {
-            Map<Synset, Integer> distanceMap1 = parentDistances(
-                    term1Synset, false);
-            bestPair = getCousinDistance(term1Synset, term2Synsets, 
-                                         distanceMap1, distanceCache,
-                                         bestDepth);
+            bestPair = getCousinDistance(term1Synset, term2Synsets, bestDepth);
             bestDepth = bestPair.x + bestPair.y;
         }
 
@@ -273,43 +278,28 @@ public class SynsetRelations {
         return bestPair;
     }
 
-    private static Pair<Integer> getCousinDistance(
-            Synset term1Synset,
-            Synset[] term2Synsets,
-            Map<Synset, Integer> distanceMap1,
-            Map<Synset, Map<Synset, Integer>> distanceCache,
-            int bestDepth) {
+    /**
+     * Returns the distances from {@code term1Synset} and some {@link Synset}
+     * in {@code term2Synsets} to the common ancestor that forms the shortest
+     * path between them, if that path is shorter than {@code bestDepth}.
+     * Otherwise a {@link Pair} of {@link Integer#MAX_VALUE} is returned.
+     */
+    private static Pair<Integer> getCousinDistance(Synset term1Synset,
+                                                   Synset[] term2Synsets,
+                                                   int bestDepth) {
         Pair<Integer> bestPair = new Pair<Integer>(
                 Integer.MAX_VALUE, Integer.MAX_VALUE);
 
-        // Iterate through the synsets for term 2.
+        // Iterate through the synsets for term 2 and find the common ancestor
+        // which produces the shortest path between the two selected term
+        // synsets.
         for (Synset term2Synset : term2Synsets) {
-            // Get the parent distances for term 2's synsets from the cache if
-            // available, otherwise compute it and store in the cache.
-            Map<Synset, Integer> distanceMap2 = distanceCache.get(term2Synset);
-            if (distanceMap2 == null) {
-                distanceMap2 = parentDistances(term2Synset, false);
-                distanceCache.put(term2Synset, distanceMap2);
-            }
-
-            // Find the synsets which occur in both paths.
-            Set<Synset> intersection = new HashSet<Synset>();
-            Set<Synset> parentSet1 = distanceMap1.keySet();
-            Set<Synset> parentSet2 = distanceMap2.keySet();
-            for (Synset parent1 : parentSet1)
-                if (parentSet2.contains(parent1))
-                    intersection.add(parent1);
-
-            // For the intersecting ancestors, find the ancestor which produces
-            // the shortest path between the two selected term synsets.
-            for (Synset shared : intersection) {
-                Integer depth1 = distanceMap1.get(shared);
-                Integer depth2 = distanceMap2.get(shared);
-
-                if (depth1 + depth2 < bestDepth) {
-                    bestDepth = depth1 + depth2;
-                    bestPair = new Pair<Integer>(depth1, depth2);
-                }
+            Pair<Integer> distances =
+                ANCESTOR_INDEX.closestCommonAncestorDistances(
+                        term1Synset, term2Synset);
+            if (distances != null && distances.x + distances.y < bestDepth) {
+                bestDepth = distances.x + distances.y;
+                bestPair = distances;
             }
         }
         return bestPair;
@@ -333,35 +323,7 @@ public class SynsetRelations {
         if (synset1 == null || synset2 == null)
             return -1;
 
-        // Compute the distance from each synset to all of it's ancestors.  The
-        // resulting maps will include only the largest (or smallest) distance
-        // from the synset to the ancestor.
-        Map<Synset, Integer> distanceMap1 = parentDistances(
-                synset1, computeMax);
-        Map<Synset, Integer> distanceMap2 = parentDistances(
-                synset2, computeMax);
-
-        // Compute the set of synsets that occur as ancestors for both synsets.
-        Set<Synset> intersection = new HashSet<Synset>();
-        Set<Synset> parentSet1 = distanceMap1.keySet();
-        Set<Synset> parentSet2 = distanceMap2.keySet();
-        for (Synset parent1 : parentSet1)
-            if (parentSet2.contains(parent1))
-                intersection.add(parent1);
-
-        // Find the synset which creates the largest (or shortest) path between
-        // the two synsets based on the ancestor intersection set.
-        int bestDepth = (computeMax) ? 0 : Integer.MAX_VALUE;
-        for (Synset shared : intersection) {
-            Integer depth1 = distanceMap1.get(shared);
-            Integer depth2 = distanceMap2.get(shared);
-
-            bestDepth = (computeMax)
-                ? Math.max(bestDepth, depth1 + depth2)
-                : Math.min(bestDepth, depth1 + depth2);
-        }
-
-        return (bestDepth == Integer.MAX_VALUE) ? -1 : bestDepth;
+        return ANCESTOR_INDEX.pathDistance(synset1, synset2, computeMax);
     }
 
     /**
@@ -444,8 +406,22 @@ public class SynsetRelations {
             double[] attachmentScores,
             Map<String, Double> cousinScores,
             double lambda) {
-        OntologyReader wordnet = WordNetCorpusReader.getWordNet();
+        return bestAttachmentPoint(WordNetCorpusReader.getWordNet(),
+                                   attachmentLocations, attachmentScores,
+                                   cousinScores, lambda);
+    }
 
+    /**
+     * Returns the best attachment point for a new term, as described in {@link
+     * #bestAttachmentPoint(String[], double[], Map, double)}, using the {@link
+     * Synset}s found in {@code wordnet}.
+     */
+    public static Duple<Synset, Double> bestAttachmentPoint(
+            OntologyReader wordnet,
+            String[] attachmentLocations,
+            double[] attachmentScores,
+            Map<String, Double> cousinScores,
+            double lambda) {
         // Create all of the synsets at which a given term may be attached.
         // Computing a mapping from those synsets to the evidence score for that
         // particular attachment.  Note that all synsets generated from the same
@@ -463,10 +439,6 @@ public class SynsetRelations {
             i++;
         }
 
-        // Create a cache of distance values for the cousin distances.
-        Map<Synset, Map<Synset, Integer>> distanceCache =
-            new HashMap<Synset, Map<Synset, Integer>>();
-
         // Create the default best values.
         double bestDelta = 0;
         Synset bestLocation = null;
@@ -518,9 +490,7 @@ public class SynsetRelations {
                     // Get the best distances found for the synset and the
                     // cousins.
                     Pair<Integer> bestCousinDistance = getCousinDistance(
-                            possibleParent, cousins,
-                            parentDistances(possibleParent, false), 
-                            distanceCache, Integer.MAX_VALUE);
+                            possibleParent, cousins, Integer.MAX_VALUE);
 
                     // Skip cousins that have no valid path.
                     if (bestCousinDistance == null)
@@ -559,8 +529,20 @@ public class SynsetRelations {
             String[] attachmentLocations,
             double[] attachmentScores,
             double lambda) {
-        OntologyReader wordnet = WordNetCorpusReader.getWordNet();
+        return bestAttachmentPointWithError(WordNetCorpusReader.getWordNet(),
+                                            attachmentLocations,
+                                            attachmentScores, lambda);
+    }
 
+    /**
+     * Returns the attachment point with the lowest error for a new term, using
+     * the {@link Synset}s found in {@code wordnet}.
+     */
+    public static Duple<Synset, Double> bestAttachmentPointWithError(
+            OntologyReader wordnet,
+            String[] attachmentLocations,
+            double[] attachmentScores,
+            double lambda) {
         // Create all of the synsets at which a given term may be attached.
         // Computing a mapping from those synsets to the evidence score for that
         // particular attachment.  Note that all synsets generated from the same
@@ -578,10 +560,6 @@ public class SynsetRelations {
             i++;
         }
 
-        // Create a cache of distance values for the cousin distances.
-        Map<Synset, Map<Synset, Integer>> distanceCache =
-            new HashMap<Synset, Map<Synset, Integer>>();
-
         // Create the default best values.
         double bestDelta = Integer.MAX_VALUE;
         Synset bestLocation = null;
@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The transition probabilities of a graph of {@link Synset}s, stored in
+ * compressed sparse rows.  Each outgoing link from a {@link Synset} has
+ * probability one over the number of relations of the {@link Synset}, which
+ * are the probabilities set by {@link
+ * SynsetPagerank#setTransitionAttribute}.  The row for each {@link Synset}
+ * holds it's incoming links, so that the probability mass arriving at
+ * disjoint ranges of {@link Synset}s can be computed independently, such as
+ * by several threads in {@link PageRankSolver}.  The outgoing links of each
+ * {@link Synset} are also kept, so that methods which only visit the
+ * neighborhood of a few nodes, such as {@link LocalPushPageRank}, can follow
+ * links forward.
+ *
+ * </p>
+ *
+ * A large graph that is shared by many PageRank runs, such as all of WordNet,
+ * can be extended with a few extra nodes through {@link #withOverlay}.  The
+ * extended matrix shares the rows of the original matrix and only stores the
+ * links of the extra nodes, so it can be built for each run at a cost
+ * proportional to the number of extra links.  The extra nodes may link to
+ * any node, but the original nodes never link to the extra nodes.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe, as it can not be modified once built.
+ *
+ * @author Keith Stevens
+ */
+public class TransitionMatrix {
+
+    /**
+     * The number of nodes in the graph.
+     */
+    private final int numNodes;
+
+    /**
+     * The number of nodes whose incoming links are stored in compressed rows.
+     */
+    private final int numBaseNodes;
+
+    /**
+     * The start of each base node's incoming links in {@link #sources} and
+     * {@link #probabilities}.  The last value is the total number of links.
+     */
+    private final int[] rowStarts;
+
+    /**
+     * The node at the other end of each incoming link.
+     */
+    private final int[] sources;
+
+    /**
+     * The probability of following each incoming link from it's source.
+     */
+    private final double[] probabilities;
+
+    /**
+     * The start of each base node's outgoing links in {@link #outTargets}.
+     */
+    private final int[] outStarts;
+
+    /**
+     * The node at the end of each outgoing link.
+     */
+    private final int[] outTargets;
+
+    /**
+     * The probability of following any one outgoing link of each base node.
+     */
+    private final double[] nodeProbabilities;
+
+    /**
+     * The start of each extra node's outgoing links in {@link
+     * #overlayOutTargets}.
+     */
+    private final int[] overlayOutStarts;
+
+    /**
+     * The node at the end of each outgoing link of an extra node.
+     */
+    private final int[] overlayOutTargets;
+
+    /**
+     * The probability of following any one outgoing link of each extra node.
+     */
+    private final double[] overlayNodeProbabilities;
+
+    /**
+     * The node that each link from an extra node leads to, in sorted order.
+     */
+    private final int[] overlayTargets;
+
+    /**
+     * The extra node at the start of each link in {@link #overlayTargets}.
+     */
+    private final int[] overlaySources;
+
+    /**
+     * The probability of following each link in {@link #overlayTargets}.
+     */
+    private final double[] overlayProbabilities;
+
+    /**
+     * Creates a {@link TransitionMatrix} for the {@link Synset}s in {@code
+     * synsets}, where the {@link Synset} at position {@code i} is node {@code
+     * i}.  {@code synsetMap} gives the node for each {@link Synset} that may
+     * be linked to, and must agree with the positions in {@code synsets}.
+     * Links to {@link Synset}s that have no node are ignored.
+     *
+     * @throws IllegalArgumentException if {@code synsetMap} gives a node that
+     *         is not in the graph
+     */
+    public TransitionMatrix(List<Synset> synsets,
+                            Map<Synset, Integer> synsetMap) {
+        this(synsetTargets(synsets, synsetMap), synsetProbabilities(synsets));
+    }
+
+    /**
+     * Creates a {@link TransitionMatrix} from an adjacency list in compressed
+     * rows, where node {@code i} links to the nodes in {@code linkTargets}
+     * from {@code linkStarts[i]} up to {@code linkStarts[i+1]}.  The links of
+     * each node must be distinct, and each is followed with probability one
+     * over the number of links of the node.
+     *
+     * @throws IllegalArgumentException if a link leads to a node that is not
+     *         in the graph
+     */
+    public TransitionMatrix(int[] linkStarts, int[] linkTargets) {
+        this(adjacencyTargets(linkStarts, linkTargets),
+             adjacencyProbabilities(linkStarts));
+    }
+
+    /**
+     * Creates a {@link TransitionMatrix} where node {@code i} links to each
+     * node in {@code targets[i]} with probability {@code
+     * outProbabilities[i]}.
+     */
+    private TransitionMatrix(int[][] targets, double[] outProbabilities) {
+        numNodes = targets.length;
+        numBaseNodes = numNodes;
+
+        int[] inDegrees = new int[numNodes];
+        for (int i = 0; i < numNodes; ++i)
+            for (int target : targets[i]) {
+                if (target < 0 || target >= numNodes)
+                    throw new IllegalArgumentException(
+                            "A link leads outside of the graph");
+                inDegrees[target]++;
+            }
+
+        // Keep the outgoing links in compressed rows.
+        outStarts = new int[numNodes + 1];
+        for (int i = 0; i < numNodes; ++i)
+            outStarts[i + 1] = outStarts[i] + targets[i].length;
+        outTargets = new int[outStarts[numNodes]];
+        for (int i = 0; i < numNodes; ++i)
+            System.arraycopy(targets[i], 0, outTargets, outStarts[i],
+                             targets[i].length);
+        nodeProbabilities = outProbabilities;
+
+        // Transpose the outgoing links into rows of incoming links.
+        rowStarts = new int[numNodes + 1];
+        for (int j = 0; j < numNodes; ++j)
+            rowStarts[j + 1] = rowStarts[j] + inDegrees[j];
+        sources = new int[rowStarts[numNodes]];
+        probabilities = new double[rowStarts[numNodes]];
+        int[] next = Arrays.copyOf(rowStarts, numNodes);
+        for (int i = 0; i < numNodes; ++i)
+            for (int target : targets[i]) {
+                sources[next[target]] = i;
+                probabilities[next[target]++] = outProbabilities[i];
+            }
+
+        overlayOutStarts = new int[1];
+        overlayOutTargets = new int[0];
+        overlayNodeProbabilities = new double[0];
+        overlayTargets = new int[0];
+        overlaySources = new int[0];
+        overlayProbabilities = new double[0];
+    }
+
+    /**
+     * Creates a {@link TransitionMatrix} that shares the compressed rows of
+     * {@code base} and has the given links from extra nodes.
+     */
+    private TransitionMatrix(TransitionMatrix base,
+                             int numNodes,
+                             int[] overlayOutStarts,
+                             int[] overlayOutTargets,
+                             double[] overlayNodeProbabilities,
+                             int[] overlayTargets,
+                             int[] overlaySources,
+                             double[] overlayProbabilities) {
+        this.numNodes = numNodes;
+        this.numBaseNodes = base.numBaseNodes;
+        this.rowStarts = base.rowStarts;
+        this.sources = base.sources;
+        this.probabilities = base.probabilities;
+        this.outStarts = base.outStarts;
+        this.outTargets = base.outTargets;
+        this.nodeProbabilities = base.nodeProbabilities;
+        this.overlayOutStarts = overlayOutStarts;
+        this.overlayOutTargets = overlayOutTargets;
+        this.overlayNodeProbabilities = overlayNodeProbabilities;
+        this.overlayTargets = overlayTargets;
+        this.overlaySources = overlaySources;
+        this.overlayProbabilities = overlayProbabilities;
+    }
+
+    /**
+     * Returns a new {@link TransitionMatrix} with every node in this matrix
+     * and one extra node for each {@link Synset} in {@code extraSynsets}.  The
+     * {@link Synset} at position {@code k} becomes node {@code numNodes() +
+     * k}.  Links from the extra {@link Synset}s to other extra {@link
+     * Synset}s are followed by identity, and all other links are resolved
+     * with {@code synsetMap}.  This matrix is not modified.
+     *
+     * @throws IllegalArgumentException if {@code synsetMap} gives a node that
+     *         is not in the extended graph
+     */
+    public TransitionMatrix withOverlay(List<Synset> extraSynsets,
+                                        Map<Synset, Integer> synsetMap) {
+        int newNumNodes = numNodes + extraSynsets.size();
+        Map<Synset, Integer> extraMap = new IdentityHashMap<Synset, Integer>();
+        for (int k = 0; k < extraSynsets.size(); ++k)
+            extraMap.put(extraSynsets.get(k), numNodes + k);
+
+        // Append the outgoing links of the new extra nodes to those of the
+        // existing extra nodes.
+        int numExtra = numNodes - numBaseNodes;
+        int newNumExtra = newNumNodes - numBaseNodes;
+        int[][] targets = new int[extraSynsets.size()][];
+        int numLinks = overlayOutTargets.length;
+        for (int k = 0; k < extraSynsets.size(); ++k) {
+            targets[k] = linkTargets(
+                    extraSynsets.get(k), synsetMap, extraMap, newNumNodes);
+            numLinks += targets[k].length;
+        }
+        int[] newOutStarts = Arrays.copyOf(overlayOutStarts, newNumExtra + 1);
+        int[] newOutTargets = Arrays.copyOf(overlayOutTargets, numLinks);
+        double[] newNodeProbabilities = Arrays.copyOf(
+                overlayNodeProbabilities, newNumExtra);
+        for (int k = 0; k < extraSynsets.size(); ++k) {
+            int e = numExtra + k;
+            newOutStarts[e + 1] = newOutStarts[e] + targets[k].length;
+            System.arraycopy(targets[k], 0, newOutTargets, newOutStarts[e],
+                             targets[k].length);
+            newNodeProbabilities[e] =
+                1d / extraSynsets.get(k).getNumRelations();
+        }
+
+        // Order the links by their target, breaking ties by source, by
+        // sorting each target and link position packed into a single long.
+        int[] linkSources = new int[numLinks];
+        for (int e = 0; e < newNumExtra; ++e)
+            for (int l = newOutStarts[e]; l < newOutStarts[e + 1]; ++l)
+                linkSources[l] = numBaseNodes + e;
+        long[] order = new long[numLinks];
+        for (int l = 0; l < numLinks; ++l)
+            order[l] = ((long) newOutTargets[l] << 32) | l;
+        Arrays.sort(order);
+
+        int[] sortedTargets = new int[numLinks];
+        int[] sortedSources = new int[numLinks];
+        double[] sortedProbabilities = new double[numLinks];
+        for (int l = 0; l < numLinks; ++l) {
+            int link = (int) order[l];
+            sortedTargets[l] = newOutTargets[link];
+            sortedSources[l] = linkSources[link];
+            sortedProbabilities[l] =
+                newNodeProbabilities[linkSources[link] - numBaseNodes];
+        }
+
+        return new TransitionMatrix(this, newNumNodes, newOutStarts,
+                                    newOutTargets, newNodeProbabilities,
+                                    sortedTargets, sortedSources,
+                                    sortedProbabilities);
+    }
+
+    /**
+     * Returns the distinct nodes that each {@link Synset} in {@code synsets}
+     * links to.
+     */
+    private static int[][] synsetTargets(List<Synset> synsets,
+                                         Map<Synset, Integer> synsetMap) {
+        int[][] targets = new int[synsets.size()][];
+        for (int i = 0; i < targets.length; ++i)
+            targets[i] = linkTargets(
+                    synsets.get(i), synsetMap, null, targets.length);
+        return targets;
+    }
+
+    /**
+     * Returns one over the number of relations of each {@link Synset} in
+     * {@code synsets}.
+     */
+    private static double[] synsetProbabilities(List<Synset> synsets) {
+        double[] outProbabilities = new double[synsets.size()];
+        for (int i = 0; i < outProbabilities.length; ++i)
+            outProbabilities[i] = 1d / synsets.get(i).getNumRelations();
+        return outProbabilities;
+    }
+
+    /**
+     * Returns the links of each node in a compressed adjacency list.
+     */
+    private static int[][] adjacencyTargets(int[] linkStarts,
+                                            int[] linkTargets) {
+        int[][] targets = new int[linkStarts.length - 1][];
+        for (int i = 0; i < targets.length; ++i)
+            targets[i] = Arrays.copyOfRange(
+                    linkTargets, linkStarts[i], linkStarts[i + 1]);
+        return targets;
+    }
+
+    /**
+     * Returns one over the number of links of each node in a compressed
+     * adjacency list.
+     */
+    private static double[] adjacencyProbabilities(int[] linkStarts) {
+        double[] outProbabilities = new double[linkStarts.length - 1];
+        for (int i = 0; i < outProbabilities.length; ++i)
+            outProbabilities[i] = 1d / (linkStarts[i + 1] - linkStarts[i]);
+        return outProbabilities;
+    }
+
+    /**
+     * Returns the distinct nodes that {@code synset} links to, in sorted
+     * order.  Each linked {@link Synset} is first looked up in {@code
+     * extraMap}, if it is not {@code null}, and then in {@code synsetMap}.
+     */
+    private static int[] linkTargets(Synset synset,
+                                     Map<Synset, Integer> synsetMap,
+                                     Map<Synset, Integer> extraMap,
+                                     int numNodes) {
+        int[] targets = new int[synset.getNumRelations()];
+        int numTargets = 0;
+        for (String relation : synset.getKnownRelationTypes())
+            for (Synset related : synset.getRelations(relation)) {
+                Integer target = (extraMap == null)
+                    ? null
+                    : extraMap.get(related);
+                if (target == null)
+                    target = synsetMap.get(related);
+                if (target == null)
+                    continue;
+                if (target < 0 || target >= numNodes)
+                    throw new IllegalArgumentException(
+                            "A synset index is outside of the graph");
+                if (numTargets == targets.length)
+                    targets = Arrays.copyOf(targets, 2 * numTargets + 1);
+                targets[numTargets++] = target;
+            }
+
+        // Repeated links to the same synset only count once.
+        Arrays.sort(targets, 0, numTargets);
+        int numDistinct = 0;
+        for (int t = 0; t < numTargets; ++t)
+            if (t == 0 || targets[t] != targets[t - 1])
+                targets[numDistinct++] = targets[t];
+        return Arrays.copyOf(targets, numDistinct);
+    }
+
+    /**
+     * Returns the number of nodes in the graph.
+     */
+    public int numNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Returns the number of links in the graph.
+     */
+    public int numLinks() {
+        return sources.length + overlayTargets.length;
+    }
+
+    /**
+     * Returns the number of distinct nodes that {@code node} links to.
+     */
+    public int outDegree(int node) {
+        if (node < numBaseNodes)
+            return outStarts[node + 1] - outStarts[node];
+        int e = node - numBaseNodes;
+        return overlayOutStarts[e + 1] - overlayOutStarts[e];
+    }
+
+    /**
+     * Returns the node at the end of the {@code i}th outgoing link of {@code
+     * node}, where links are ordered by the node they lead to.
+     */
+    public int outTarget(int node, int i) {
+        if (node < numBaseNodes)
+            return outTargets[outStarts[node] + i];
+        return overlayOutTargets[overlayOutStarts[node - numBaseNodes] + i];
+    }
+
+    /**
+     * Returns the probability of following any one outgoing link of {@code
+     * node}.  This times {@link #outDegree} may be less than one, such as
+     * when a {@link Synset} has several relations to the same {@link Synset}.
+     */
+    public double outProbability(int node) {
+        if (node < numBaseNodes)
+            return nodeProbabilities[node];
+        return overlayNodeProbabilities[node - numBaseNodes];
+    }
+
+    /**
+     * Stores, for each node from {@code start} up to {@code end}, the
+     * probability mass arriving at the node in {@code result} when each node
+     * {@code i} sends {@code ranks[i]} along it's outgoing links, and returns
+     * the sum of the stored values.
+     */
+    public double multiply(double[] ranks, double[] result,
+                           int start, int end) {
+        double sum = 0;
+        int baseEnd = Math.min(end, numBaseNodes);
+        for (int j = start; j < baseEnd; ++j) {
+            double mass = 0;
+            for (int l = rowStarts[j]; l < rowStarts[j + 1]; ++l)
+                mass += ranks[sources[l]] * probabilities[l];
+            result[j] = mass;
+            sum += mass;
+        }
+        for (int j = Math.max(start, numBaseNodes); j < end; ++j)
+            result[j] = 0;
+
+        // Add the mass sent from the extra nodes.
+        if (overlayTargets.length == 0)
+            return sum;
+        int l = Arrays.binarySearch(overlayTargets, start);
+        if (l < 0)
+            l = -l - 1;
+        while (l > 0 && overlayTargets[l - 1] == start)
+            l--;
+        for (; l < overlayTargets.length && overlayTargets[l] < end; ++l) {
+            double mass = ranks[overlaySources[l]] * overlayProbabilities[l];
+            result[overlayTargets[l]] += mass;
+            sum += mass;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * A writer that serializes {@link Synset}s and index lines in the format used
+ * by the original WordNet data and index files directly into a reusable byte
+ * buffer, which is drained into a {@link WritableByteChannel} whenever it
+ * fills up.  The output is byte for byte identical to what {@link
+ * WordNetSynsetWriter} produces once encoded in utf-8, but no {@link String}s
+ * are formatted or encoded for the fixed width numeric fields and strings that
+ * are pure ascii are copied without creating any intermediate byte arrays.
+ *
+ * </p>
+ *
+ * This class is <b>not</b> thread safe.  Concurrent writers should each use
+ * their own {@link WordNetByteWriter}.
+ *
+ * @author Keith Stevens
+ */
+public class WordNetByteWriter {
+
+    /**
+     * The default number of bytes buffered before writing to the channel.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] HEX_DIGITS = {
+        '0', '1', '2', '3', '4', '5', '6', '7',
+        '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private static final String UTF8 = "utf-8";
+
+    /**
+     * The channel receiving the serialized bytes.
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The number of digits used to represent each synset offset.
+     */
+    private final int offsetSize;
+
+    /**
+     * The number of buffered bytes that triggers a write to the channel.
+     */
+    private final int flushSize;
+
+    /**
+     * The buffered bytes.  This grows if a single line is longer than {@code
+     * flushSize}.
+     */
+    private byte[] buffer;
+
+    /**
+     * The number of bytes in {@code buffer}.
+     */
+    private int size;
+
+    /**
+     * The total number of bytes written through this writer.
+     */
+    private long position;
+
+    /**
+     * Creates a new {@link WordNetByteWriter} that writes offsets with {@code
+     * offsetSize} digits to {@code channel}.
+     */
+    public WordNetByteWriter(WritableByteChannel channel, int offsetSize) {
+        this(channel, offsetSize, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new {@link WordNetByteWriter} that writes offsets with {@code
+     * offsetSize} digits to {@code channel} once {@code flushSize} bytes have
+     * been buffered.
+     */
+    public WordNetByteWriter(WritableByteChannel channel,
+                             int offsetSize,
+                             int flushSize) {
+        this.channel = channel;
+        this.offsetSize = offsetSize;
+        this.flushSize = flushSize;
+        this.buffer = new byte[flushSize + 256];
+        this.size = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Writes the data line for {@code synset}, as returned by {@link
+     * WordNetSynsetWriter#serializeSynset}.  Each {@link Synset} related to
+     * {@code synset} must already have an offset.
+     */
+    public void writeSynset(Synset synset) throws IOException {
+        List<Lemma> lemmas = synset.getLemmas();
+        PartsOfSpeech pos = synset.getPartOfSpeech();
+
+        // Add the offest, lemma lexical file name index, and part of speech.
+        appendOffset(synset.getId());
+        appendDecimal(lemmas.get(0).getLexNameIndex(), 2);
+        append(' ');
+        appendAscii(WordNetCorpusReader.POS_TAGS[pos.ordinal()]);
+        append(' ');
+
+        // Add the lemmas for this synset.
+        appendHex(lemmas.size(), 2);
+        append(' ');
+        for (Lemma lemma : lemmas) {
+            appendString(lemma.getLemmaName());
+            append(' ');
+            appendHex(lemma.getLexicalId(), 1);
+            append(' ');
+        }
+
+        // Add the relations that this synset has with other synsets.
+        appendDecimal(synset.getNumRelations(), 3);
+        append(' ');
+        for (String relationTag : synset.getKnownRelationTypes()) {
+            for (Synset r : synset.getRelations(relationTag)) {
+                appendString(relationTag);
+                append(' ');
+                appendOffset(r.getId());
+                appendAscii(WordNetCorpusReader.POS_TAGS[
+                        r.getPartOfSpeech().ordinal()]);
+                append(' ');
+
+                // Add the related form indices if there are any.
+                RelatedForm form = synset.getDerivationallyRelatedForm(r);
+                if (form == null) {
+                    appendAscii("0000 ");
+                } else {
+                    appendHex(form.sourceIndex(), 2);
+                    appendHex(form.otherIndex(), 2);
+                    append(' ');
+                }
+            }
+        }
+
+        // Add the verb frame information if this synset is a verb.
+        if (pos == PartsOfSpeech.VERB) {
+            int frameIds[] = synset.getFrameIds();
+            int lemmaIds[] = synset.getLemmaIds();
+            if (frameIds == null || lemmaIds == null) {
+                appendAscii("00 ");
+            } else {
+                appendDecimal(frameIds.length, 2);
+                append(' ');
+                for (int i = 0; i < frameIds.length; ++i) {
+                    appendAscii("+ ");
+                    appendDecimal(frameIds[i], 2);
+                    append(' ');
+                    appendHex(lemmaIds[i], 2);
+                    append(' ');
+                }
+            }
+        }
+
+        // Add the gloss and end the line.
+        appendAscii("| ");
+        appendString(synset.getGloss());
+        append('\n');
+        lineDone();
+    }
+
+    /**
+     * Writes the index line for {@code lemma} with the part of speech tag
+     * {@code posTag}, listing the offsets of {@code synsets}.
+     */
+    public void writeIndexLine(String lemma, String posTag, Synset[] synsets)
+            throws IOException {
+        // Write out the lemma, pos tag, and number of senses.
+        appendString(lemma);
+        append(' ');
+        appendAscii(posTag);
+        append(' ');
+        appendDecimal(synsets.length, 0);
+        append(' ');
+
+        // Write out the number of pointers that all senses have and then each
+        // of the pointers.  The pointers are collected in a HashSet, just as
+        // in the original writer, so that they are listed in the same order.
+        Set<String> pointers = new HashSet<String>();
+        for (Synset synset : synsets)
+            pointers.addAll(synset.getKnownRelationTypes());
+        appendDecimal(pointers.size(), 0);
+        append(' ');
+        for (String pointerType : pointers) {
+            appendString(pointerType);
+            append(' ');
+        }
+
+        // Rewrite the number of senses and write a 0 for the number of
+        // ordered senses.
+        appendDecimal(synsets.length, 0);
+        appendAscii(" 0 ");
+
+        // Write out the offset for each synset.
+        for (Synset synset : synsets)
+            appendOffset(synset.getId());
+        append('\n');
+        lineDone();
+    }
+
+    /**
+     * Returns the sense key line for {@code synset}, as returned by {@link
+     * WordNetSynsetWriter#serializeSynsetKey}.
+     */
+    public String synsetKey(Synset synset) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(synset.getSenseKey()).append(' ');
+        int id = synset.getId();
+        if (id < 0)
+            sb.append('-');
+        String digits = Long.toString(Math.abs((long) id));
+        for (int i = digits.length() + ((id < 0) ? 1 : 0);
+                 i < offsetSize; ++i)
+            sb.append('0');
+        sb.append(digits).append(' ');
+        sb.append(synset.getSenseNumber()).append(' ');
+        sb.append("0 ");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the total number of bytes written through this writer,
+     * including any that are still buffered.
+     */
+    public long position() {
+        return position + size;
+    }
+
+    /**
+     * Writes any buffered bytes to the channel.  The channel is not closed.
+     */
+    public void flush() throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, size);
+        while (bytes.hasRemaining())
+            channel.write(bytes);
+        position += size;
+        size = 0;
+    }
+
+    /**
+     * Flushes the buffer once a complete line pushes it past the flush size.
+     */
+    private void lineDone() throws IOException {
+        if (size >= flushSize)
+            flush();
+    }
+
+    /**
+     * Ensures that {@code extra} more bytes fit in the buffer.
+     */
+    private void ensureCapacity(int extra) {
+        if (size + extra <= buffer.length)
+            return;
+        byte[] newBuffer = new byte[Math.max(buffer.length * 2, size + extra)];
+        System.arraycopy(buffer, 0, newBuffer, 0, size);
+        buffer = newBuffer;
+    }
+
+    /**
+     * Appends a single ascii character.
+     */
+    private void append(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+    }
+
+    /**
+     * Appends a string that is known to only contain ascii characters.
+     */
+    private void appendAscii(String s) {
+        int length = s.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; ++i)
+            buffer[size++] = (byte) s.charAt(i);
+    }
+
+    /**
+     * Appends the utf-8 encoding of {@code s}.  Ascii strings are copied
+     * directly, all others are encoded by {@link String#getBytes} so that
+     * malformed input is handled exactly as the original writer handled it.
+     */
+    private void appendString(String s) throws IOException {
+        int length = s.length();
+        for (int i = 0; i < length; ++i) {
+            if (s.charAt(i) >= 0x80) {
+                byte[] bytes = s.getBytes(UTF8);
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, buffer, size, bytes.length);
+                size += bytes.length;
+                return;
+            }
+        }
+        appendAscii(s);
+    }
+
+    /**
+     * Appends an offset followed by a space, as formatted by {@code
+     * "%0<offsetSize>d "}.
+     */
+    private void appendOffset(int offset) {
+        appendDecimal(offset, offsetSize);
+        append(' ');
+    }
+
+    /**
+     * Appends {@code value} in base 10, padded with zeros to {@code width}
+     * characters, as formatted by {@code "%0<width>d"}.  A width of 0 adds no
+     * padding.
+     */
+    private void appendDecimal(int value, int width) {
+        long v = value;
+        int length = (v < 0) ? 2 : 1;
+        if (v < 0)
+            v = -v;
+        for (long rest = v / 10; rest > 0; rest /= 10)
+            length++;
+        int total = Math.max(length, width);
+        ensureCapacity(total);
+
+        int end = size + total;
+        int start = size;
+        if (value < 0)
+            buffer[start++] = '-';
+        for (int i = end - 1; i >= start; --i) {
+            buffer[i] = (byte) ('0' + (v % 10));
+            v /= 10;
+        }
+        size = end;
+    }
+
+    /**
+     * Appends {@code value} in base 16 with lower case digits, padded with
+     * zeros to {@code width} characters, as formatted by {@code "%0<width>x"}.
+     * Negative values are written as their unsigned two's complement form.
+     */
+    private void appendHex(int value, int width) {
+        int length = Math.max(1, 8 - Integer.numberOfLeadingZeros(value) / 4);
+        int total = Math.max(length, width);
+        ensureCapacity(total);
+        for (int i = size + total - 1; i >= size; --i) {
+            buffer[i] = HEX_DIGITS[value & 0xf];
+            value >>>= 4;
+        }
+        size += total;
+    }
+}
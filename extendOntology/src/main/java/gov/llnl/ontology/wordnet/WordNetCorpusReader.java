@@ -23,6 +23,8 @@
 
 package gov.llnl.ontology.wordnet;
 
+import gov.llnl.ontology.util.ConcurrentLruCache;
+import gov.llnl.ontology.util.ExecutorUtil;
 import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
 import gov.llnl.ontology.wordnet.Synset.Relation;
 
@@ -32,7 +34,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.BufferedReader;
-import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOError;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -47,12 +49,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
@@ -133,7 +141,32 @@ public class WordNetCorpusReader implements OntologyReader {
     public static final String[] FILE_EXTENSIONS =
             {"noun", "verb", "adj", "adv", ""};
 
-    private static String UTF8 = "utf-8";
+    /**
+     * The maximum number of morphological lookups that are cached.
+     */
+    public static final int MORPHY_CACHE_SIZE = 100000;
+
+    /**
+     * The number of bytes reserved for each synset in a data file that do not
+     * depend on the lemmas, relations, or gloss: a space after the offset,
+     * the lexicographer file number and a space, the part of speech tag and a
+     * space, the number of lemmas and a space, the number of relations and a
+     * space, the gloss separator and a space, and a newline.
+     */
+    private static final int SIZE_PER_SYNSET = 1 + 3 + 2 + 3 + 3 + 2 + 1;
+
+    /**
+     * The number of bytes reserved for each relation that do not depend on
+     * the relation type or offset: a space, the part of speech tag and a
+     * space, and the 4 byte lemma index and a space.
+     */
+    private static final int SIZE_PER_RELATION = 1 + 2 + 5;
+
+    /**
+     * The number of bytes reserved for each verb frame: the + and a space, the
+     * two byte frame id and a space, and the two byte lemma id and a space.
+     */
+    private static final int SIZE_PER_VERB_FRAME = 2 + 3 + 3;
 
     /**
      * A singleton instance of a {@link WordNetCorpusReader}.
@@ -172,6 +205,14 @@ public class WordNetCorpusReader implements OntologyReader {
      */
     private List<Map<Integer, Synset>> posOffsetToSynsetMap;
 
+    /**
+     * The {@link Synset}s found by {@link #getSynsets(String, PartsOfSpeech)}
+     * for forms that are not lemmas, keyed by the part of speech tag and the
+     * form.  Forms with no {@link Synset}s are cached as empty arrays so that
+     * the morphological rules are not repeatedly applied to unknown words.
+     */
+    private ConcurrentLruCache<String, Synset[]> morphyCache;
+
     /**
      * The list of valid verb frames.
      */
@@ -188,6 +229,12 @@ public class WordNetCorpusReader implements OntologyReader {
      */
     private int finalOffsetSize;
 
+    /**
+     * The journal recording every modification made to this dictionary, or
+     * {@code null} if modifications are not being recorded.
+     */
+    private WordNetJournal journal;
+
     /**
      * {@inheritDoc}
      */
@@ -224,110 +271,41 @@ public class WordNetCorpusReader implements OntologyReader {
      * particular order and have no license information.  Users should not
      * modify these files after they have been created as that will more than
      * likely corrupt offset values which are used by other WordNet interfaces.
+     *
+     * </p>
+     *
+     * Offsets are assigned to every {@link Synset} in a single pass, after
+     * which the data and index file for each part of speech are written
+     * concurrently with a {@link WordNetByteWriter}.  Since every offset is
+     * known before any synset is written, a pointer whose type is not a {@link
+     * Relation}, such as a pertainym, always holds the new offset of it's
+     * target.  Earlier versions could write such a pointer with the offset
+     * it's target had before the save.
+     *
+     * @throws IllegalStateException if a journal is open, since the journal
+     *         refers to the offsets being replaced.  Use {@link #compact}
+     *         instead.
      */
     public void saveWordNet(String newDictPath) throws IOException {
+        if (journal != null)
+            throw new IllegalStateException(
+                    "Use compact to save a dictionary with an open journal");
+
         int[] requiredSize = new int[POS_TAGS.length];
         int[] numNodes = new int[POS_TAGS.length];
         int[] numRelations = new int[POS_TAGS.length];
 
-        // Precompute the known size of each synset that does not involve the
-        // lemmas, relations, or gloss.
-        int sizePerSynset = 0;
-        // Space after offset.
-        sizePerSynset += 1;
-        // Lex file name + space.
-        sizePerSynset += 3;
-        // POS tag + space.
-        sizePerSynset += 2;
-        // Number of lemmas + space.
-        sizePerSynset += 3;
-        // Number of relations + space.
-        sizePerSynset += 3;
-        // Pipe separator for gloss + space.
-        sizePerSynset += 2;
-        // Newline.
-        sizePerSynset += 1;
-
-        // Precompute the size required for each relation that does not include
-        // the offset size.
-        int sizePerRelation = 0;
-        // Add a byte for a space.
-        sizePerRelation += 1;
-        // Add a byte for the relation type and a space.
-        //sizePerRelation += 2;
-        // Add a byte for the part of speech tag and a space.
-        sizePerRelation += 2;
-        // Add 4 bytes for the lemma index and 1 for a space.
-        sizePerRelation += 5;
-
-        // Precompute the size required for each verb frame.
-        int sizePerVerbFrame = 0;
-        //Add a byte for the + and for a space.
-        sizePerVerbFrame += 2;
-        // Add two bytes for the frame id and one for a space.
-        sizePerVerbFrame += 3;
-        // Add two bytes for the lemma id and one for a space.
-        sizePerVerbFrame += 3;
-
-        Map<Synset, Integer> synsetSizes = new HashMap<Synset, Integer>();
-
         // Compute the number of nodes, total number of relations stemming from
         // each node, and the total synset size for each part of speech,
         for (Map.Entry<String, Synset[][]> entry : 
                 lemmaPosOffsetMap.entrySet()) {
             Synset[][] lemmaSynsets = entry.getValue();
             for (int pos = 0; pos < POS_TAGS.length; ++pos) {
+                boolean isVerb = POS_TAGS[pos].equals("v");
                 for (Synset synset : lemmaSynsets[pos]) {
                     numNodes[pos]++;
                     numRelations[pos] += synset.getNumRelations();
-
-                    int relationSize = 0;
-                    for (String relationType : synset.getKnownRelationTypes()) {
-                        int typeSize = 
-                            relationType.toString().getBytes(UTF8).length + 1;
-                        int numRelationsPerType = 
-                            synset.getRelations(relationType).size();
-                        relationSize += numRelationsPerType * typeSize;
-                        relationSize += numRelationsPerType * sizePerRelation;
-                    }
-
-                    // Count up the size required for storing the lemmas.
-                    int lemmaSize = 0;
-                    for (Lemma lemma : synset.getLemmas()) {
-                        // Get the number of bytes need to store this lemma in
-                        // utf-8 format.
-                        lemmaSize += lemma.getLemmaName().getBytes(UTF8).length;
-
-                        // Include 2 spaces and a single byte integer.
-                        lemmaSize += 3;
-                    }
-
-                    // Get the number of bytes needed to store the complete
-                    // gloss.
-                    int glossSize = synset.getGloss().getBytes(UTF8).length;
-
-                    // Compute any part of speech specific information.
-                    int extraSize = 0;
-                    if (POS_TAGS[pos].equals("v")) {
-                        // Add 3 bytes, one for a space and two for a two byte
-                        // integer.
-                        extraSize += 3;
-
-                        // Get the frame information.  For each frame pointer,
-                        // add in the bytes needed to represent the frame
-                        // assignment.
-                        int[] frameIds = synset.getFrameIds();
-                        int[] lemmaIds = synset.getLemmaIds();
-                        if (frameIds != null && lemmaIds != null)
-                            extraSize += lemmaIds.length * sizePerVerbFrame;
-                    }
-
-                    // Compute the number of bytes needed to represent this
-                    // synset, minus any offset information.
-                    int synsetSize = sizePerSynset + relationSize +
-                                     lemmaSize + glossSize + extraSize + 1;
-                    synsetSizes.put(synset, synsetSize);
-                    requiredSize[pos] += synsetSize;
+                    requiredSize[pos] += synsetSize(synset, isVerb);
                 }
             }
         }
@@ -370,56 +348,33 @@ public class WordNetCorpusReader implements OntologyReader {
                 finalOffsetSize = offsetSize[pos];
         }
 
-        // Write out the data files for each part of speech.  This is done by
-        // first iterating through each synset for a given part of speech,
-        // giving it an offset, and then giving an offset to each of it's
-        // related synsets.  Once all of it's related synsetse has an offset,
-        // they are written to their respective part of speech files.
+        // Assign an offset to every synset.  This is done by first iterating
+        // through each synset for a given part of speech, giving it an offset,
+        // and then giving an offset to each of it's related synsets.  Synsets
+        // are recorded in the order they will appear in their part of speech's
+        // data file, which is also the order of their offsets.
         int[] dataFileSize = new int[POS_TAGS.length];
         Set<Synset> writtenSynsets = new HashSet<Synset>();
-
-        // Add output streams for each part of speech.
-        List<BufferedOutputStream> dataOutputStreams =
-            new ArrayList<BufferedOutputStream>(POS_TAGS.length);
-        List<BufferedOutputStream> indexOutputStreams =
-            new ArrayList<BufferedOutputStream>(POS_TAGS.length);
+        List<List<Synset>> dataOrder = new ArrayList<List<Synset>>();
         List<PrintWriter> senseMappingWriters =
             new ArrayList<PrintWriter>(POS_TAGS.length);
         for (int pos = 0; pos < POS_TAGS.length; ++pos) {
-            if (FILE_EXTENSIONS[pos].length() != 0) {
-                dataOutputStreams.add(new BufferedOutputStream(
-                            new FileOutputStream(
-                                newDictPath + "/data." + FILE_EXTENSIONS[pos])));
-                indexOutputStreams.add(new BufferedOutputStream(
-                            new FileOutputStream(
-                                newDictPath + "/index." + FILE_EXTENSIONS[pos])));
-                senseMappingWriters.add(new PrintWriter(
-                            newDictPath + "/senseMap." + FILE_EXTENSIONS[pos]));
-            }
-            else    {
-                dataOutputStreams.add(null);
-                indexOutputStreams.add(null);
-                senseMappingWriters.add(null);
-            }
+            dataOrder.add(new ArrayList<Synset>());
+            senseMappingWriters.add((FILE_EXTENSIONS[pos].length() != 0)
+                    ? new PrintWriter(
+                        newDictPath + "/senseMap." + FILE_EXTENSIONS[pos])
+                    : null);
         }
 
- 
-        // Create an array that will store the sense keys lines.  The sense key
-        // lines will be written to "index.sense" in alphabetical order after
-        // all sense keys have been generated.
-        List<String> senseKeys = new ArrayList<String>();
-
         Set<String> lemmaKeys = new TreeSet<String>(lemmaPosOffsetMap.keySet());
 
-        SynsetWriter synsetWriter = new WordNetSynsetWriter(finalOffsetSize);
-
         // Iterate through each synset for a given part of speech.
         for (String lemmaKey : lemmaKeys) {
             Synset[][] lemmaSynsets = lemmaPosOffsetMap.get(lemmaKey);
             for (int posIndex = 0; posIndex < POS_TAGS.length; ++posIndex) {
                 for (Synset synset : lemmaSynsets[posIndex]) {
 
-                    // Ignore synsets that have already been written to disk.
+                    // Ignore synsets that have already been given an offset.
                     if (writtenSynsets.contains(synset))
                         continue;
 
@@ -427,21 +382,14 @@ public class WordNetCorpusReader implements OntologyReader {
                     // starting from the current synset.
                     Queue<Synset> toWriteSynsets = new LinkedList<Synset>();
 
-                    int pos = posIndex;
-                    // Remap all sat adjectives to use the adjective data.
-                    if (pos == PartsOfSpeech.ADJECTIVE_SAT.ordinal())
-                        pos = PartsOfSpeech.ADJECTIVE.ordinal();
-
+                    int pos = dataPos(posIndex);
                     if (synset.getId() != 0)
                         senseMappingWriters.get(pos).printf(
                                 "%d %d\n", synset.getId(), dataFileSize[pos]);
 
-                    // Setup the offset size for this synset, give it an offset,
-                    // and compute the number of bytes needed to represent the
-                    // synset.
-                    synset.setId(dataFileSize[pos]);
-                    dataFileSize[pos] += synsetSizes.get(synset) + 
-                        (synset.getNumRelations() + 1) * finalOffsetSize;
+                    // Give the synset an offset and reserve the bytes needed
+                    // to represent it.
+                    assignOffset(synset, pos, dataFileSize);
 
                     // Mark this synset as the first to be written.
                     writtenSynsets.add(synset);
@@ -452,39 +400,18 @@ public class WordNetCorpusReader implements OntologyReader {
                     while (!toWriteSynsets.isEmpty()) {
                         Synset s = toWriteSynsets.remove();
 
-                        // Remap the adjective sat part of speech to the
-                        // adjective data.
-                        PartsOfSpeech p = s.getPartOfSpeech();
-                        if (p == PartsOfSpeech.ADJECTIVE_SAT)
-                            p = PartsOfSpeech.ADJECTIVE;
-                        int synsetPos = p.ordinal();
-
-                        // Add the related synsets to the synsets we want to
-                        // write.    We have to assign offsets for each of the
-                        // related synsets.
+                        // Give offsets to the related synsets we want to
+                        // write.
                         for (Relation r : Relation.values()) {
-                            for (Synset relatedSynset : s.getRelations(r)) {
+                            for (Synset related : s.getRelations(r)) {
                                 // Skip any synsets that have already been
                                 // processed.
-                                if (writtenSynsets.contains(relatedSynset))
+                                if (writtenSynsets.contains(related))
                                     continue;
-                                Synset related = (Synset) relatedSynset;
-
-                                // Remap the adjective sat part of speech to the
-                                // adjective data.
-                                PartsOfSpeech rp = related.getPartOfSpeech();
-                                if (rp == PartsOfSpeech.ADJECTIVE_SAT)
-                                    rp = PartsOfSpeech.ADJECTIVE;
-                                int relatedPos = rp.ordinal();
-
-                                // Setup the offset size and offset value, and
-                                // then compute the number of bytes needed to
-                                // write this synset.
-                                related.setId(dataFileSize[relatedPos]);
-                                dataFileSize[relatedPos] += 
-                                    synsetSizes.get(related) +
-                                    (related.getNumRelations() + 1) *
-                                    finalOffsetSize;
+
+                                int relatedPos = dataPos(
+                                        related.getPartOfSpeech().ordinal());
+                                assignOffset(related, relatedPos, dataFileSize);
 
                                 // Add the synset to the set of written synsets
                                 // and queue it up for writing.
@@ -493,89 +420,227 @@ public class WordNetCorpusReader implements OntologyReader {
                             }
                         }
 
-                        // Actually write the synset to the correct data file.
-                        String t = synsetWriter.serializeSynset(s);
-                        byte[] bytes = t.getBytes(UTF8);
-                        dataOutputStreams.get(
-                                synsetPos).write(bytes, 0, bytes.length);
-
-                        // Store the sense key line for this synset.
-                        senseKeys.add(synsetWriter.serializeSynsetKey(s));
+                        // Record where the synset belongs in the data files.
+                        dataOrder.get(dataPos(
+                                    s.getPartOfSpeech().ordinal())).add(s);
                     }
                 }
             }
         }
 
+        for (PrintWriter senseMappingWriter : senseMappingWriters)
+            if (senseMappingWriter != null)
+                senseMappingWriter.close();
+
+        // The offset maps now refer to the offsets in the saved files.
+        for (int pos = 0; pos < POS_TAGS.length; ++pos) {
+            Map<Integer, Synset> offsetToSynset =
+                new HashMap<Integer, Synset>();
+            for (Synset synset : dataOrder.get(pos))
+                offsetToSynset.put(synset.getId(), synset);
+            posOffsetToSynsetMap.set(pos, offsetToSynset);
+        }
+        posOffsetToSynsetMap.set(
+                PartsOfSpeech.ADJECTIVE_SAT.ordinal(),
+                posOffsetToSynsetMap.get(PartsOfSpeech.ADJECTIVE.ordinal()));
+
+        // Now that every offset is known, write the data and index file for
+        // each part of speech in parallel.  Each data task returns the sense
+        // key lines for the synsets it wrote.
+        List<Callable<List<String>>> tasks =
+            new ArrayList<Callable<List<String>>>();
+        for (int pos = 0; pos < POS_TAGS.length; ++pos) {
+            if (FILE_EXTENSIONS[pos].length() == 0)
+                continue;
+            final int filePos = pos;
+            final List<Synset> synsets = dataOrder.get(pos);
+            final String dataFile =
+                newDictPath + "/data." + FILE_EXTENSIONS[pos];
+            final String indexFile =
+                newDictPath + "/index." + FILE_EXTENSIONS[pos];
+            tasks.add(new Callable<List<String>>() {
+                public List<String> call() throws IOException {
+                    return writeData(dataFile, synsets);
+                }
+            });
+            tasks.add(new Callable<List<String>>() {
+                public List<String> call() throws IOException {
+                    writeIndex(indexFile, filePos);
+                    return Collections.emptyList();
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+                    tasks.size(), Runtime.getRuntime().availableProcessors()));
+        List<String> senseKeys = new ArrayList<String>();
+        try {
+            for (List<String> keys : runAll(executor, tasks))
+                senseKeys.addAll(keys);
+        } finally {
+            executor.shutdown();
+        }
+
         // Write out the sorted sense key values to index.sense.
         Collections.sort(senseKeys);
         PrintWriter writer = new PrintWriter(newDictPath + "/index.sense");
         for (String senseLine : senseKeys)
             writer.println(senseLine);
         writer.close();
+    }
 
-        // Next, write out the index files.  This should be relatively easy
-        // since it's just a mapping from each lemma to it's possible synsets.
-        // All of this is in the lemmaPosOffsetMap.
-        String offsetFormat = "%0" + finalOffsetSize + "d ";
-        for (Map.Entry<String, Synset[][]> entry :
-                lemmaPosOffsetMap.entrySet()) {
-            String lemma = entry.getKey();
-            Synset[][] posSynsets = entry.getValue();
-            for (int posIndex = 0; posIndex < posSynsets.length; ++posIndex) {
-                Synset[] synsets = posSynsets[posIndex];
-                // Ignore parts of speech that have no synsets for this lemma.
-                if (synsets.length == 0)
-                    continue;
-
-                int pos = posIndex;
-                StringBuilder sb = new StringBuilder();
-
-                // Write out the lemma, pos tag, and number of senses.
-                sb.append(lemma).append(" ");
-                sb.append(POS_TAGS[pos]).append(" ");
-                sb.append(synsets.length).append(" ");
-
-                // Write out the number of pointers that all senses have and
-                // then each of the pointers.
-                Set<String> pointers = new HashSet<String>();
-                // Compute the set of pointers for all synsets.
-                for (Synset synset : synsets)
-                    pointers.addAll(synset.getKnownRelationTypes());
-
-                // Write the set of pointers.
-                sb.append(pointers.size()).append(" ");
-                for (String pointerType : pointers)
-                    sb.append(pointerType).append(" ");
-
-                // Rewrite the number of senses.
-                sb.append(synsets.length).append(" ");
-                // Write a 0 for the number of ordered senses.
-                sb.append("0 ");
-
-                // Write out the offset for each synset matching this lemma and
-                // part of speech.
-                for (Synset synset : synsets)
-                    sb.append(String.format(offsetFormat, synset.getId()));
-                sb.append("\n");
-
-                // Write out the line to the appropriate file in utf-8 format.
-                byte[] bytes = sb.toString().getBytes(UTF8);
-                if (pos == PartsOfSpeech.ADJECTIVE_SAT.ordinal())
-                    pos = PartsOfSpeech.ADJECTIVE.ordinal();
-                indexOutputStreams.get(pos).write(bytes, 0, bytes.length);
+    /**
+     * Sets the offset of {@code synset} to the current size of the data file
+     * for {@code pos} and then reserves space for the synset in that file.
+     */
+    private void assignOffset(Synset synset, int pos, int[] dataFileSize) {
+        synset.setId(dataFileSize[pos]);
+        dataFileSize[pos] += synsetSize(
+                synset, synset.getPartOfSpeech() == PartsOfSpeech.VERB) +
+            (synset.getNumRelations() + 1) * finalOffsetSize;
+    }
+
+    /**
+     * Writes the data line for each {@link Synset} in {@code synsets} to
+     * {@code dataFile} and returns their sense key lines.
+     */
+    private List<String> writeData(String dataFile, List<Synset> synsets)
+            throws IOException {
+        List<String> senseKeys = new ArrayList<String>(synsets.size());
+        FileOutputStream out = new FileOutputStream(dataFile);
+        try {
+            WordNetByteWriter writer = new WordNetByteWriter(
+                    out.getChannel(), finalOffsetSize);
+            for (Synset synset : synsets) {
+                writer.writeSynset(synset);
+                senseKeys.add(writer.synsetKey(synset));
             }
+            writer.flush();
+        } finally {
+            out.close();
         }
+        return senseKeys;
+    }
 
-        // Close the index and data output streams.
-        for (int pos = 0; pos < POS_TAGS.length; ++pos) {
-            if (indexOutputStreams.get(pos) == null)
-                continue;
-            indexOutputStreams.get(pos).close();
-            dataOutputStreams.get(pos).close();
-            senseMappingWriters.get(pos).close();
+    /**
+     * Writes the index line for every lemma with a {@link Synset} stored in
+     * the data file for {@code filePos} to {@code indexFile}.
+     */
+    private void writeIndex(String indexFile, int filePos) throws IOException {
+        FileOutputStream out = new FileOutputStream(indexFile);
+        try {
+            WordNetByteWriter writer = new WordNetByteWriter(
+                    out.getChannel(), finalOffsetSize);
+            for (Map.Entry<String, Synset[][]> entry :
+                    lemmaPosOffsetMap.entrySet()) {
+                Synset[][] posSynsets = entry.getValue();
+                for (int pos = 0; pos < posSynsets.length; ++pos) {
+                    // Ignore parts of speech that have no synsets for this
+                    // lemma or that belong to a different file.
+                    if (posSynsets[pos].length == 0 || dataPos(pos) != filePos)
+                        continue;
+                    writer.writeIndexLine(
+                            entry.getKey(), POS_TAGS[pos], posSynsets[pos]);
+                }
+            }
+            writer.flush();
+        } finally {
+            out.close();
         }
     }
 
+    /**
+     * Returns the part of speech whose data file holds synsets with the part
+     * of speech {@code pos}.  Satellite adjectives are stored with the
+     * adjectives.
+     */
+    private static int dataPos(int pos) {
+        return (pos == PartsOfSpeech.ADJECTIVE_SAT.ordinal())
+            ? PartsOfSpeech.ADJECTIVE.ordinal()
+            : pos;
+    }
+
+    /**
+     * Returns the number of bytes reserved for {@code synset} in a data file,
+     * not counting it's offset or the offsets of it's related synsets.
+     * {@code isVerb} should be true if the verb frames must be included.
+     */
+    private static int synsetSize(Synset synset, boolean isVerb) {
+        int relationSize = 0;
+        for (String relationType : synset.getKnownRelationTypes()) {
+            int numRelationsPerType = synset.getRelations(relationType).size();
+            int typeSize = utf8Length(relationType) + 1;
+            relationSize += numRelationsPerType * typeSize;
+            relationSize += numRelationsPerType * SIZE_PER_RELATION;
+        }
+
+        // Count up the size required for storing the lemmas, including 2
+        // spaces and a single byte integer for each one.
+        int lemmaSize = 0;
+        for (Lemma lemma : synset.getLemmas())
+            lemmaSize += utf8Length(lemma.getLemmaName()) + 3;
+
+        // Compute any part of speech specific information.
+        int extraSize = 0;
+        if (isVerb) {
+            // Add 3 bytes, one for a space and two for a two byte integer.
+            extraSize += 3;
+
+            // For each frame pointer, add in the bytes needed to represent the
+            // frame assignment.
+            int[] frameIds = synset.getFrameIds();
+            int[] lemmaIds = synset.getLemmaIds();
+            if (frameIds != null && lemmaIds != null)
+                extraSize += lemmaIds.length * SIZE_PER_VERB_FRAME;
+        }
+
+        return SIZE_PER_SYNSET + relationSize + lemmaSize +
+               utf8Length(synset.getGloss()) + extraSize + 1;
+    }
+
+    /**
+     * Returns the number of bytes in the utf-8 encoding of {@code s} without
+     * encoding it.  Unpaired surrogates are counted as a single byte since
+     * they are replaced when encoded.
+     */
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (c < 0x80)
+                length += 1;
+            else if (c < 0x800)
+                length += 2;
+            else if (Character.isHighSurrogate(c) &&
+                     i + 1 < s.length() &&
+                     Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (c >= Character.MIN_SURROGATE &&
+                       c <= Character.MAX_SURROGATE)
+                length += 1;
+            else
+                length += 3;
+        }
+        return length;
+    }
+
+    /**
+     * Saves the WordNet dictionary as a single binary snapshot in {@code
+     * snapshotFile}.  The snapshot holds every {@link Synset}, lemma mapping,
+     * and morphological exception currently known to this reader in the
+     * format described by {@link WordNetSnapshot}, which can be memory mapped
+     * by a {@link MappedOntologyReader} without any parsing.  Unlike {@link
+     * #saveWordNet}, the offsets of the {@link Synset}s are not modified.
+     */
+    public void saveSnapshot(String snapshotFile) throws IOException {
+        int[] posDepths = new int[POS_TAGS.length];
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            posDepths[pos.ordinal()] = getMaxDepth(pos);
+        WordNetSnapshot.write(snapshotFile, lemmaPosOffsetMap,
+                              posExceptionMap, posDepths);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -589,51 +654,90 @@ public class WordNetCorpusReader implements OntologyReader {
     public void addSynset(Synset synset, int index) {
         int pos = synset.getPartOfSpeech().ordinal();
 
-        Set<String> seenLemmas = new HashSet<String>();
-
-        for (Lemma lemma : synset.getLemmas()) {
-            String lemmaName = lemma.getLemmaName().toLowerCase();
-            if (seenLemmas.contains(lemmaName))
-                continue;
-            seenLemmas.add(lemmaName);
-
+        // Find the distinct lemma names of the synset and check that the
+        // index is valid for each of them before making any change.
+        Set<String> lemmaNames = new LinkedHashSet<String>();
+        for (Lemma lemma : synset.getLemmas())
+            lemmaNames.add(lemma.getLemmaName().toLowerCase());
+        for (String lemmaName : lemmaNames) {
             Synset[][] lemmaSynsets = lemmaPosOffsetMap.get(lemmaName);
-
-            // Add the lemma if it does not already have a mapping.
-            if (lemmaSynsets == null) {
-                lemmaSynsets = new Synset[POS_TAGS.length][];
-                for (int i = 0; i < POS_TAGS.length; ++i)
-                    lemmaSynsets[i] = new Synset[0];
-                lemmaPosOffsetMap.put(lemmaName, lemmaSynsets);
-            }
-
-            // Check that the index is valid.
-            if (index > lemmaSynsets[pos].length || index < -1)
+            int numSynsets = (lemmaSynsets == null)
+                ? 0
+                : lemmaSynsets[pos].length;
+            if (index > numSynsets || index < -1)
                 throw new IllegalArgumentException(
                         "Cannot add " + synset.getName() + " to lemma " + 
                         lemmaName + " at position " + index + 
                         " .    The index is out of bounds.");
+        }
 
-            // If the index was not originally set, put the term at the end of
-            // the list.
-            if (index == -1 || index > lemmaSynsets[pos].length)
-                index = lemmaSynsets[pos].length;
-
-            // Copy the old synset's for this part of speech and add the new
-            // synset at the end of the list.
-            Synset[] newPosSynsets = new Synset[lemmaSynsets[pos].length +1];
-            System.arraycopy(lemmaSynsets[pos], 0, newPosSynsets, 0, index);
-            newPosSynsets[index] = synset;
-            System.arraycopy(lemmaSynsets[pos], index, newPosSynsets, index+1, 
-                             lemmaSynsets[pos].length - index);
+        boolean applied = false;
+        beginJournal();
+        try {
+            if (journal != null)
+                journal.addSynset(synset, index);
+
+            for (String lemmaName : lemmaNames) {
+                Synset[][] lemmaSynsets = lemmaPosOffsetMap.get(lemmaName);
+
+                // Add the lemma if it does not already have a mapping.
+                if (lemmaSynsets == null) {
+                    lemmaSynsets = new Synset[POS_TAGS.length][];
+                    for (int i = 0; i < POS_TAGS.length; ++i)
+                        lemmaSynsets[i] = new Synset[0];
+                    lemmaPosOffsetMap.put(lemmaName, lemmaSynsets);
+                }
 
-            lemmaSynsets[pos] = newPosSynsets;
+                // If the index was not originally set, put the term at the
+                // end of the list.
+                int insertAt = (index == -1) ? lemmaSynsets[pos].length : index;
+
+                // Copy the old synset's for this part of speech and add the
+                // new synset at the requested position.
+                Synset[] newPosSynsets =
+                    new Synset[lemmaSynsets[pos].length +1];
+                System.arraycopy(lemmaSynsets[pos], 0,
+                                 newPosSynsets, 0, insertAt);
+                newPosSynsets[insertAt] = synset;
+                System.arraycopy(lemmaSynsets[pos], insertAt,
+                                 newPosSynsets, insertAt+1, 
+                                 lemmaSynsets[pos].length - insertAt);
+
+                lemmaSynsets[pos] = newPosSynsets;
+            }
+            morphyCache.clear();
+            AncestorIndex.hierarchyChanged();
+            applied = true;
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            endJournal(applied);
         }
     }
+
     /**
      * {@inheritDoc}
      */
     public void removeSynset(Synset synset) {
+        boolean applied = false;
+        beginJournal();
+        try {
+            if (journal != null)
+                journal.removeSynset(synset);
+            removeFromLemmas(synset);
+            applied = true;
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            endJournal(applied);
+        }
+    }
+
+    /**
+     * Removes {@code synset} from each of it's lemma mappings and removes the
+     * reflexive relations that point to it.
+     */
+    private void removeFromLemmas(Synset synset) {
         int pos = synset.getPartOfSpeech().ordinal();
 
         Set<String> seenLemmas = new HashSet<String>();
@@ -679,6 +783,8 @@ public class WordNetCorpusReader implements OntologyReader {
             }
             lemmaSynsets[pos] = newPosSynsets;
         }
+        morphyCache.clear();
+        AncestorIndex.hierarchyChanged();
     }
 
     /**
@@ -690,6 +796,25 @@ public class WordNetCorpusReader implements OntologyReader {
                     "Cannot replace a synset with another synset having a " +
                     "different part of speech.");
 
+        boolean applied = false;
+        beginJournal();
+        try {
+            if (journal != null)
+                journal.replaceSynset(synset, replacement);
+            replaceInLemmas(synset, replacement);
+            applied = true;
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            endJournal(applied);
+        }
+    }
+
+    /**
+     * Replaces {@code synset} with {@code replacement} in each of the lemma
+     * mappings of {@code synset}.
+     */
+    private void replaceInLemmas(Synset synset, Synset replacement) {
         // Create the set of lemmas that the replacement synset knows about.
         // This will be used to determine when the replacement synset is in the
         // same lemma mapping as the old synset.
@@ -749,6 +874,121 @@ public class WordNetCorpusReader implements OntologyReader {
                 }
             }
         }
+        morphyCache.clear();
+        AncestorIndex.hierarchyChanged();
+    }
+
+    /**
+     * Merges {@code other} into {@code synset}, as done by {@link
+     * Synset#merge(Synset)}.  The merge is recorded in the journal if one is
+     * open and {@code synset} is a {@link BaseSynset}.
+     */
+    public void mergeSynsets(Synset synset, Synset other) {
+        morphyCache.clear();
+        synset.merge(other);
+    }
+
+    /**
+     * Starts a modification in the journal, if one is open.
+     */
+    private void beginJournal() {
+        if (journal != null)
+            journal.begin();
+    }
+
+    /**
+     * Ends the modification started by {@link #beginJournal}, recording it
+     * only if it was {@code applied}.
+     */
+    private void endJournal(boolean applied) {
+        if (journal == null)
+            return;
+        try {
+            journal.end(applied);
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        }
+    }
+
+    /**
+     * Applies the modifications stored in {@code journalFile} to this
+     * dictionary and then records every later modification made through this
+     * reader, or made directly to a {@link BaseSynset}, in the same file.
+     * Only one journal may be open at a time.  The journal must have been
+     * recorded against the dictionary files this reader was loaded from.  A
+     * new journal is created if {@code journalFile} does not exist.
+     *
+     * @throws IllegalStateException if a journal is already open, by this or
+     *         any other reader
+     */
+    public void openJournal(String journalFile) {
+        if (journal != null)
+            throw new IllegalStateException(
+                    "A journal is already open: " + journal.getJournalFile());
+        BaseSynset.ChangeListener listener = BaseSynset.setChangeListener(null);
+        BaseSynset.setChangeListener(listener);
+        if (listener != null)
+            throw new IllegalStateException(
+                    "Another reader has a journal open");
+
+        WordNetJournal newJournal = new WordNetJournal(
+                journalFile, posOffsetToSynsetMap);
+        try {
+            newJournal.open(this);
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        }
+        journal = newJournal;
+        BaseSynset.setChangeListener(journal);
+    }
+
+    /**
+     * Stops recording modifications and closes the journal, if one is open.
+     */
+    public void closeJournal() {
+        if (journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            BaseSynset.setChangeListener(null);
+            journal = null;
+        }
+    }
+
+    /**
+     * Folds the current dictionary, including every journaled modification,
+     * into a new dictionary in {@code newDictPath} and starts a new, empty,
+     * journal in {@code newJournalFile} for that dictionary, replacing any
+     * existing file.  Along with the files written by {@link #saveWordNet},
+     * the lexicographer names, verb frames, and morphological exceptions are
+     * copied so that the new dictionary can be loaded on it's own.
+     */
+    public void compact(String newDictPath, String newJournalFile)
+            throws IOException {
+        closeJournal();
+        saveWordNet(newDictPath);
+
+        List<String> unchangedFiles = new ArrayList<String>();
+        unchangedFiles.add("lexnames");
+        unchangedFiles.add("frames.vrb");
+        for (String extension : FILE_EXTENSIONS)
+            if (extension.length() != 0)
+                unchangedFiles.add(extension + ".exc");
+        for (String filename : unchangedFiles) {
+            BufferedReader br = getReader(filename);
+            PrintWriter writer = new PrintWriter(
+                    newDictPath + "/" + filename, "utf-8");
+            for (String line = null; (line = br.readLine()) != null; )
+                writer.print(line + "\n");
+            writer.close();
+            br.close();
+        }
+
+        new File(newJournalFile).delete();
+        openJournal(newJournalFile);
     }
 
     /**
@@ -790,11 +1030,42 @@ public class WordNetCorpusReader implements OntologyReader {
      */
     public static WordNetCorpusReader initialize(String dictPath,
                                                  boolean readFromJar) {
+        return initialize(dictPath, readFromJar, false);
+    }
+
+    /**
+     * Returns a singleton instance of the {@link WordNetCorpusReader}, as
+     * described in {@link #initialize(String, boolean)}.  If {@code
+     * parallelLoad} is true and the reader has not already been created, the
+     * index, exception, and data files for each part of speech are parsed on
+     * separate threads.  The resulting reader is identical to one loaded
+     * sequentially.
+     */
+    public static WordNetCorpusReader initialize(String dictPath,
+                                                 boolean readFromJar,
+                                                 boolean parallelLoad) {
         if (corpusReader == null)
-            corpusReader = new WordNetCorpusReader(dictPath, readFromJar);
+            corpusReader = new WordNetCorpusReader(
+                    dictPath, readFromJar, parallelLoad);
         return corpusReader;
     }
 
+    /**
+     * Returns a singleton instance of the {@link WordNetCorpusReader} for the
+     * dictionary in {@code dictPath} with the modifications stored in {@code
+     * journalFile} applied.  Every later modification is appended to the
+     * journal, as described in {@link #openJournal}.  If the reader has
+     * already been created, the journal is only opened if no other journal
+     * is open.
+     */
+    public static WordNetCorpusReader initialize(String dictPath,
+                                                 String journalFile) {
+        WordNetCorpusReader reader = initialize(dictPath);
+        if (reader.journal == null)
+            reader.openJournal(journalFile);
+        return reader;
+    }
+
     /**
      * Returns the initialzied instance of the {@link WordNetCorpusReader}.
      */
@@ -821,6 +1092,13 @@ public class WordNetCorpusReader implements OntologyReader {
         if (lemmaSynsets != null && lemmaSynsets[pos.ordinal()].length > 0)
             return lemmaSynsets[pos.ordinal()];
 
+        // Reuse the result of any earlier morphological lookup for this form.
+        // The cached array is shared, so callers are given a copy.
+        String key = POS_TAGS[pos.ordinal()] + " " + lemma;
+        Synset[] synsets = morphyCache.get(key);
+        if (synsets != null)
+            return synsets.clone();
+
         // Find the Synsets for each morphological variation.
         List<Synset> allSynsets = new ArrayList<Synset>();
         Iterator<String> formIter = morphy(lemma, pos);
@@ -830,7 +1108,9 @@ public class WordNetCorpusReader implements OntologyReader {
             if (lemmaSynsets != null && lemmaSynsets[pos.ordinal()].length > 0)
                 allSynsets.addAll(Arrays.asList(lemmaSynsets[pos.ordinal()]));
         }
-        return allSynsets.toArray(new Synset[allSynsets.size()]);
+        synsets = allSynsets.toArray(new Synset[allSynsets.size()]);
+        morphyCache.put(key, synsets);
+        return synsets.clone();
     }
 
     /**
@@ -876,21 +1156,37 @@ public class WordNetCorpusReader implements OntologyReader {
         return posOffsetToSynsetMap.get(pos.ordinal()).get(offset);
     }
 
-    public void saveInformationContent(Map<Synset, Integer> contentMap,
-                                       String filename) {
-        if (finalOffsetSize == 0)
-            throw new IllegalArgumentException(
-                    "The synset hierarchy must be saved before the " +
-                    "information content can be saved");
+    /**
+     * Returns the morphological exceptions for the given part of speech.
+     */
+    /* package private */ Map<String, String> getExceptions(PartsOfSpeech pos) {
+        return posExceptionMap.get(pos.ordinal());
+    }
 
+    /**
+     * Saves the content count of each {@link Synset} in {@code contentMap} to
+     * {@code filename} in the format read by {@link
+     * FileBasedInformationContent} and {@link ArrayInformationContent}: a
+     * header line followed by one line per {@link Synset} holding it's
+     * offset, part of speech, and count.  The current offset of each {@link
+     * Synset} is used, so the counts match the dictionary written by the last
+     * call to {@link #saveWordNet}, or the loaded dictionary if it has not
+     * been saved.
+     */
+    public void saveInformationContent(
+            Map<Synset, ? extends Number> contentMap, String filename) {
+        // Offsets in the distributed WordNet dictionaries use 8 digits.
+        int offsetSize = (finalOffsetSize == 0) ? 8 : finalOffsetSize;
         try {
             PrintWriter writer = new PrintWriter(filename);
-            String contentFormat = "%0" + finalOffsetSize + "d%s %d\n";
-            for (Map.Entry<Synset, Integer> content : contentMap.entrySet()) {
+            writer.print("wnver::c-cat\n");
+            String contentFormat = "%0" + offsetSize + "d%s %d\n";
+            for (Map.Entry<Synset, ? extends Number> content :
+                    contentMap.entrySet()) {
                 writer.printf(contentFormat,
-                                            content.getKey().getId(),
-                                            content.getKey().getPartOfSpeech(),
-                                            content.getValue());
+                              content.getKey().getId(),
+                              content.getKey().getPartOfSpeech(),
+                              content.getValue().longValue());
             }
             writer.close();
         } catch (IOException ioe) {
@@ -899,9 +1195,12 @@ public class WordNetCorpusReader implements OntologyReader {
     }
 
     /**
-     * Creates a new {@link WordNetCorpusReader}.
+     * Creates a new {@link WordNetCorpusReader}.  If {@code parallelLoad} is
+     * true, each part of speech is loaded on a separate thread.
      */
-    private WordNetCorpusReader(String dictPath, boolean readFromJar) {
+    /* package private */ WordNetCorpusReader(String dictPath,
+                                              boolean readFromJar,
+                                              boolean parallelLoad) {
         // Store the values that specify how dictionary files will be read.
         this.dictPath = dictPath;
         this.readFromJar = readFromJar;
@@ -909,31 +1208,62 @@ public class WordNetCorpusReader implements OntologyReader {
 
         // Initialzie basic data structures.
         lemmaPosOffsetMap = new HashMap<String, Synset[][]>();
+        morphyCache = new ConcurrentLruCache<String, Synset[]>(
+                MORPHY_CACHE_SIZE);
         posExceptionMap = new ArrayList<Map<String, String>>();
         verbFrames = new ArrayList<String>();
         posOffsetToSynsetMap = new ArrayList<Map<Integer, Synset>>(
                 POS_TAGS.length);
-        for (int i = 0; i < POS_TAGS.length; ++i)
+        for (int i = 0; i < POS_TAGS.length; ++i) {
             posExceptionMap.add(new HashMap<String, String>());
+            posOffsetToSynsetMap.add(new HashMap<Integer, Synset>());
+        }
+
+        // Each part of speech with it's own files is loaded by a separate task
+        // when loading in parallel.
+        ExecutorService executor = (parallelLoad)
+            ? Executors.newFixedThreadPool(Math.min(
+                        FILE_EXTENSIONS.length - 1,
+                        Runtime.getRuntime().availableProcessors()))
+            : null;
 
         try {
             LOG.info("parsing lexicographer names");
             lexNames = parseLexNames();
 
             LOG.info("loading lemma offsets");
-            loadLemmaPosOffsetMap();
+            loadLemmaPosOffsetMap(executor);
              
             LOG.info("loading verb frames");
             loadVerbFrames();
 
             LOG.info("loading exception map");
-            loadExceptionMap();
+            loadExceptionMap(executor);
 
             LOG.info("loading synset tree");
-            loadSynsetTree();
+            loadSynsetTree(executor);
         } catch (IOException ioe) {
             throw new IOError(ioe);
-        } 
+        } finally {
+            if (executor != null)
+                executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs {@code tasks} with {@code executor}, or in the calling thread if
+     * {@code executor} is {@code null}, and returns their results in order.
+     */
+    private static <T> List<T> runAll(ExecutorService executor,
+                                      List<Callable<T>> tasks)
+            throws IOException {
+        try {
+            return ExecutorUtil.runAll(executor, tasks);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof IOException)
+                throw (IOException) ee.getCause();
+            throw new IllegalStateException(ee.getCause());
+        }
     }
 
     /**
@@ -961,65 +1291,36 @@ public class WordNetCorpusReader implements OntologyReader {
 
     /**
      * Loads the lemma, part of speech to {@link Synset} map.  This also returns
-     * a mapping from offset values to the relevant {@link Synset}s.
+     * a mapping from offset values to the relevant {@link Synset}s.  Each
+     * index file is parsed by a separate task and the lemma mappings from
+     * every part of speech are then merged in order.
      */
-    private void loadLemmaPosOffsetMap() throws IOException {
+    private void loadLemmaPosOffsetMap(ExecutorService executor)
+            throws IOException {
         // Evaluate the index for for each part of speech.
-        for (String suffix : FILE_EXTENSIONS) {
-            // Initialize the part of speech to Synset map.
-            Map<Integer, Synset> offsetToSynset =
-                new HashMap<Integer, Synset>();
-            posOffsetToSynsetMap.add(offsetToSynset);
-
+        List<PartsOfSpeech> posTags = new ArrayList<PartsOfSpeech>();
+        List<Callable<Map<String, Synset[]>>> tasks =
+            new ArrayList<Callable<Map<String, Synset[]>>>();
+        for (int pos = 0; pos < FILE_EXTENSIONS.length; ++pos) {
             // Skip parts of speech that do not have an index file.
-            if (suffix.equals(""))
+            if (FILE_EXTENSIONS[pos].equals(""))
                 continue;
-
-            // Read each line in the index file.
-            BufferedReader br = getReader("index." + suffix);
-            for (String line = null; (line = br.readLine()) != null; ) {
-                // Skip lines that begin with a space, these are for the
-                // license.
-                if (line.startsWith(" "))
-                    continue;
-
-                // parse the line into individual tokens according to
-                // whitespace.
-                int index = 0;
-                String[] tokens = line.split("\\s+");
-
-                // Extract the lemma and part of speech.
-                String lemma = tokens[index++];
-                String pos = tokens[index++];
-                PartsOfSpeech posTag = POS_MAP.get(pos);
-
-                // Extract the number of synsets for this lemma.
-                int numSynsets = Integer.parseInt(tokens[index++]);
-
-                // Skip the pointers.  These will be parsed in the data file.
-                int numPointers = Integer.parseInt(tokens[index++]);
-                index += numPointers;
-
-                // Skip the number of senses.
-                index++;
-                // Skip the number of senses ranked according to frequency.
-                index++;
-
-                // Get the offset values.  These correspond to the possible
-                // Synsets for the given lemma.  For each offset, get the Synset
-                // from the offset to synset map, if it exists, or create a new
-                // Synset for the offset.
-                String[] offsets = Arrays.copyOfRange(tokens, index,
-                        tokens.length);
-                Synset[] synsets = new Synset[offsets.length];
-                for (int s = 0; s < offsets.length; ++s) {
-                    int offset = Integer.parseInt(offsets[s]);
-                    synsets[s] = offsetToSynset.get(offset);
-                    if (synsets[s] == null) {
-                        synsets[s] = new BaseSynset(offset, posTag);
-                        offsetToSynset.put(offset, synsets[s]);
-                    }
+            final int posIndex = pos;
+            posTags.add(PartsOfSpeech.values()[pos]);
+            tasks.add(new Callable<Map<String, Synset[]>>() {
+                public Map<String, Synset[]> call() throws IOException {
+                    return loadIndex(posIndex);
                 }
+            });
+        }
+
+        List<Map<String, Synset[]>> posLemmaSynsets = runAll(executor, tasks);
+        for (int p = 0; p < posTags.size(); ++p) {
+            PartsOfSpeech posTag = posTags.get(p);
+            for (Map.Entry<String, Synset[]> entry :
+                    posLemmaSynsets.get(p).entrySet()) {
+                String lemma = entry.getKey();
+                Synset[] synsets = entry.getValue();
 
                 // Store the synsets for this lemma in the lemma, part of speech
                 // to synset map.
@@ -1038,7 +1339,6 @@ public class WordNetCorpusReader implements OntologyReader {
                     posToOffsets[PartsOfSpeech.ADJECTIVE_SAT.ordinal()] = 
                         synsets;
             }
-
         }
 
         // The adjective satalite part of speech does not have an index file but
@@ -1051,22 +1351,88 @@ public class WordNetCorpusReader implements OntologyReader {
     }
 
     /**
-     * Loads the morphological exception map.
+     * Parses the index file for the part of speech with ordinal {@code pos}.
+     * The {@link Synset} for every offset is created and stored in the offset
+     * map for {@code pos}, and the {@link Synset}s for each lemma are returned
+     * in the order they are listed.
+     */
+    private Map<String, Synset[]> loadIndex(int pos) throws IOException {
+        Map<Integer, Synset> offsetToSynset = posOffsetToSynsetMap.get(pos);
+        Map<String, Synset[]> lemmaSynsets =
+            new LinkedHashMap<String, Synset[]>();
+
+        // Read each line in the index file.
+        BufferedReader br = getReader("index." + FILE_EXTENSIONS[pos]);
+        for (String line = null; (line = br.readLine()) != null; ) {
+            // Skip lines that begin with a space, these are for the
+            // license.
+            if (line.startsWith(" "))
+                continue;
+
+            // parse the line into individual tokens according to
+            // whitespace.
+            int index = 0;
+            String[] tokens = line.split("\\s+");
+
+            // Extract the lemma and part of speech.
+            String lemma = tokens[index++];
+            PartsOfSpeech posTag = POS_MAP.get(tokens[index++]);
+
+            // Extract the number of synsets for this lemma.
+            int numSynsets = Integer.parseInt(tokens[index++]);
+
+            // Skip the pointers.  These will be parsed in the data file.
+            int numPointers = Integer.parseInt(tokens[index++]);
+            index += numPointers;
+
+            // Skip the number of senses.
+            index++;
+            // Skip the number of senses ranked according to frequency.
+            index++;
+
+            // Get the offset values.  These correspond to the possible
+            // Synsets for the given lemma.  For each offset, get the Synset
+            // from the offset to synset map, if it exists, or create a new
+            // Synset for the offset.
+            String[] offsets = Arrays.copyOfRange(tokens, index,
+                    tokens.length);
+            Synset[] synsets = new Synset[offsets.length];
+            for (int s = 0; s < offsets.length; ++s) {
+                int offset = Integer.parseInt(offsets[s]);
+                synsets[s] = offsetToSynset.get(offset);
+                if (synsets[s] == null) {
+                    synsets[s] = new BaseSynset(offset, posTag);
+                    offsetToSynset.put(offset, synsets[s]);
+                }
+            }
+
+            // Store the synsets for this lemma.
+            lemmaSynsets.put(lemma, synsets);
+        }
+        return lemmaSynsets;
+    }
+
+    /**
+     * Loads the morphological exception map, parsing the exceptions for each
+     * part of speech in a separate task.
      */
-    private void loadExceptionMap() throws IOException {
+    private void loadExceptionMap(ExecutorService executor)
+            throws IOException {
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
         for (int pos = 0; pos < FILE_EXTENSIONS.length; pos++) {
             // Skip any parts of speech that do not have an exception.
             if (FILE_EXTENSIONS[pos].equals(""))
                 continue;
 
-            // Exceptions are stored as "fullTerm morphedTerm".
-            Map<String, String> exceptionMap = posExceptionMap.get(pos);
-            BufferedReader br = getReader(FILE_EXTENSIONS[pos] + ".exc");
-            for (String line = null; (line = br.readLine()) != null; ) {
-                String[] exception = line.split("\\s+");
-                exceptionMap.put(exception[0], exception[1]);
-            }
+            final int posIndex = pos;
+            tasks.add(new Callable<Object>() {
+                public Object call() throws IOException {
+                    loadExceptions(posIndex);
+                    return null;
+                }
+            });
         }
+        runAll(executor, tasks);
         // Make a copy of the exceptions for the adjective satalite parts of
         // speech.
         posExceptionMap.set(PartsOfSpeech.ADJECTIVE_SAT.ordinal(), 
@@ -1074,183 +1440,56 @@ public class WordNetCorpusReader implements OntologyReader {
                                 PartsOfSpeech.ADJECTIVE.ordinal())); 
     }
 
+    /**
+     * Loads the morphological exceptions for the part of speech with ordinal
+     * {@code pos}.
+     */
+    private void loadExceptions(int pos) throws IOException {
+        // Exceptions are stored as "fullTerm morphedTerm".
+        Map<String, String> exceptionMap = posExceptionMap.get(pos);
+        BufferedReader br = getReader(FILE_EXTENSIONS[pos] + ".exc");
+        for (String line = null; (line = br.readLine()) != null; ) {
+            String[] exception = line.split("\\s+");
+            exceptionMap.put(exception[0], exception[1]);
+        }
+    }
+
     /**
      * Loads the entire {@link Synset} tree into memory by parsing the data
      * files and filling in the existing {@link Synset}s that were created while
      * loading the index files.
      */
-    private void loadSynsetTree() throws IOException {
-        // Read the data file for each part of speech.
+    private void loadSynsetTree(ExecutorService executor) throws IOException {
+        // Read the data file for each part of speech.  Relations may point to
+        // synsets of any part of speech, but every synset was created while
+        // loading the index files, so each data file can be parsed
+        // independently.
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
         for (int pos = 0; pos < FILE_EXTENSIONS.length; pos++) {
             // Skip parts of speech that do not have data files.
             if (FILE_EXTENSIONS[pos].length() == 0)
                 continue;
 
-            // Get the offset to synset map for this part of speech.
-            Map<Integer, Synset> offsetToSynsetMap = 
-                posOffsetToSynsetMap.get(pos);
-
-            // Read each line in the data file.  Each line will contain the
-            // synset offset, related lemmas, a set of relational links, a
-            // gloss, and for verbs, a set of verb frames.
-            BufferedReader br = getReader("data." + FILE_EXTENSIONS[pos]);
-            for (String line = null; (line = br.readLine()) != null; ) {
-                if (line.startsWith(" "))
-                    continue;
-
-                // The data columns and gloss information are separated by a
-                // pipe.
-                String[] columnAndGloss = line.split("\\|");
-
-                // Extract the lemma terms for the synset and relational links
-                // by examining the columns prior to the gloss.
-                int index = 0;
-                String[] columns = columnAndGloss[0].split("\\s+");
-
-                // Get the synset corresponding to this offset.
-                int offset = Integer.parseInt(columns[index++]);
-                Synset synset = offsetToSynsetMap.get(offset);
-                if (synset == null) {
-                    throw new IllegalArgumentException(
-                            "A synset offset was missing from the index file " +
-                            "for line: " + line + " \n, which generated " +
-                            "offset: " + offset);
+            final int posIndex = pos;
+            tasks.add(new Callable<Object>() {
+                public Object call() throws IOException {
+                    loadData(posIndex);
+                    return null;
                 }
-
-                // Extract the gloss.  Glosses contain both examples and
-                // definitions.  Examples start with quotes and definitions do
-                // not.
-                String gloss = columnAndGloss[1].trim();
-                StringBuilder defBuilder = new StringBuilder();
-                for (String glossPart : gloss.split(";")) {
-                    glossPart = glossPart.trim();
-                    if (glossPart.startsWith("\""))
-                        synset.addExample(glossPart.replace('"', ' ').trim());
-                    else
-                        defBuilder.append(glossPart).append("; ");
-                }
-                gloss = defBuilder.toString();
-
-                // In WordNet-2.1, some adjectives lack a definition.  In these
-                // cases, simply save an empty defition, otherwise save a copy
-                // of the definition that lacks the final ";" character.
-                if (gloss.length() < 2)
-                    synset.setDefinition("");
-                else 
-                    synset.setDefinition(gloss.substring(0, gloss.length() - 2));
-
-                // Extract the lexicographer file name and part of speech.
-                int lexNameIndex = Integer.parseInt(columns[index++]);
-                String lexName = lexNames[lexNameIndex];
-                String posTag = columns[index++];
-
-                // Extract the lemmas that are attached to this synset.
-                int numLemmas = Integer.parseInt(columns[index++], 16);
-                BaseLemma[] lemmas = new BaseLemma[numLemmas];
-                for (int l = 0; l < numLemmas; ++l) {
-                    // Lemmas sometimes have syntactic markers in the form of
-                    // (pos).  Extract this additional marker and keep it
-                    // separate from the base name.
-                    String lemmaName = columns[index++];
-                    String[] lemmaAndMarker = lemmaName.split("\\(");
-                    lemmaName = lemmaAndMarker[0];
-                    String marker = (lemmaAndMarker.length == 1)
-                        ? ""
-                        : lemmaAndMarker[1].replaceAll("[\\(\\)]", "");
-
-                    // Create a new lemma object that maps to this synset.
-                    int lexId = Integer.parseInt(columns[index++], 16);
-                    lemmas[l] = new BaseLemma(synset, lemmaName, lexName, 
-                                              lexNameIndex, lexId, marker);
-                }
-
-                // Extract the relations that this synset has with other
-                // synsets.  Add in a relational link to the Synset graph
-                // connectring this synset to other specified synsets.
-                int numPointers = Integer.parseInt(columns[index++]);
-                for (int p = 0; p < numPointers; ++p) {
-                    String symbol = columns[index++].intern();
-
-                    // Get the pointed to synset based on it's offset and part
-                    // of speech.
-                    int pointerOffset = Integer.parseInt(columns[index++]);
-                    int pointerPos = POS_MAP.get(columns[index++]).ordinal();
-                    Synset pointerSynset =
-                        posOffsetToSynsetMap.get(pointerPos).get(pointerOffset);
-
-                    // Get the lemma id for this pointed to synset.  Add a
-                    // related link if the lemmaId is nonzero.
-                    String lemmaId = columns[index++];
-                    if (lemmaId.equals("0000"))
-                        synset.addRelation(symbol, pointerSynset);
-                    else {
-                        // When the lemma id is non zero it is a derivationally
-                        // related lemma.  Since not all lemmas have been added
-                        // to their Synsets yet, just add in a link based on the
-                        // Synset and the lemma index that corresponds to the
-                        // related form.
-                        int sourceIndex = Integer.parseInt(
-                                lemmaId.substring(0, 2), 16);
-                        int targetIndex = Integer.parseInt(
-                                lemmaId.substring(2), 16);
-                        synset.addRelation(symbol, pointerSynset);
-                        synset.addDerivationallyRelatedForm(
-                                pointerSynset, new SimpleRelatedForm(
-                                    sourceIndex, targetIndex));
-                    }
-                }
-
-                // Read off the verb frames if we are parsing the verb data.
-                if (POS_TAGS[pos].equals("v")) {
-                    int frameCount = Integer.parseInt(columns[index++]);
-                    int[] frameIds = new int[frameCount];
-                    int[] lemmaIds = new int[frameCount];
-                    for (int f = 0; f < frameCount; ++f) {
-                        // Read off the +.
-                        index++;
-
-                        // Store the frame number.
-                        int frameNumber = Integer.parseInt(columns[index++]);
-                        frameIds[f] = frameNumber;
-
-                        // Get the frame format of this verb.
-                        String frame = verbFrames.get(frameNumber-1);
-
-                        // Embed the specified lemmas into the verb frame and
-                        // attach it to each lemma object.  A lemma number of 0
-                        // signifies that all lemmas should be embedded in the
-                        // frame.
-                        int lemmaNumber = Integer.parseInt(columns[index++], 16);
-                        lemmaIds[f] = lemmaNumber;
-                        if (lemmaNumber == 0) {
-                            // Embed every lemma into the frame.
-                            for (BaseLemma lemma : lemmas)
-                                lemma.addFrameString(String.format(
-                                            frame, lemma.getLemmaName()));
-                        }
-                        else
-                            // Embed only the specified lemma into the frame.
-                            lemmas[lemmaNumber-1].addFrameString(String.format(
-                                        frame, lemmas[lemmaNumber-1].getLemmaName()));
-                    }
-                    synset.setFrameInfo(frameIds, lemmaIds);
-                }
-
-                // Add in lemma keys for each of the lemmas.
-                for (BaseLemma lemma : lemmas) {
-                    lemma.setKey(String.format("%s%%%d:%02d:%02d::",
-                                 lemma.getLemmaName(), pos+1, 
-                                 lemma.getLexNameIndex(),
-                                 lemma.getLexicalId()).toLowerCase());
-                    synset.addLemma(lemma);
-                }
-            }
+            });
         }
+        runAll(executor, tasks);
 
         BufferedReader senseReader = getReader("index.sense");
         for (String line = null; (line = senseReader.readLine()) != null; ) {
             String[] tokens = line.split("\\s");
             String[] lemmaAndLexSense = tokens[0].split("%");
+
+            // Synsets added after loading are saved without a sense key if
+            // none was assigned to them.
+            if (lemmaAndLexSense.length < 2)
+                continue;
+
             String[] lexSense = lemmaAndLexSense[1].split(":");
             int posIndex = Integer.parseInt(lexSense[0]) - 1;
             Map<Integer, Synset> offsetToSynsetMap = posOffsetToSynsetMap.get(
@@ -1265,6 +1504,173 @@ public class WordNetCorpusReader implements OntologyReader {
         }
     }
 
+    /**
+     * Parses the data file for the part of speech with ordinal {@code pos},
+     * filling in the {@link Synset}s created while loading the index files.
+     * Only {@link Synset}s of this part of speech are modified.
+     */
+    private void loadData(int pos) throws IOException {
+        // Get the offset to synset map for this part of speech.
+        Map<Integer, Synset> offsetToSynsetMap = 
+            posOffsetToSynsetMap.get(pos);
+
+        // Read each line in the data file.  Each line will contain the
+        // synset offset, related lemmas, a set of relational links, a
+        // gloss, and for verbs, a set of verb frames.
+        BufferedReader br = getReader("data." + FILE_EXTENSIONS[pos]);
+        for (String line = null; (line = br.readLine()) != null; ) {
+            if (line.startsWith(" "))
+                continue;
+
+            // The data columns and gloss information are separated by a
+            // pipe.
+            String[] columnAndGloss = line.split("\\|");
+
+            // Extract the lemma terms for the synset and relational links
+            // by examining the columns prior to the gloss.
+            int index = 0;
+            String[] columns = columnAndGloss[0].split("\\s+");
+
+            // Get the synset corresponding to this offset.
+            int offset = Integer.parseInt(columns[index++]);
+            Synset synset = offsetToSynsetMap.get(offset);
+            if (synset == null) {
+                throw new IllegalArgumentException(
+                        "A synset offset was missing from the index file " +
+                        "for line: " + line + " \n, which generated " +
+                        "offset: " + offset);
+            }
+
+            // Extract the gloss.  Glosses contain both examples and
+            // definitions.  Examples start with quotes and definitions do
+            // not.
+            String gloss = columnAndGloss[1].trim();
+            StringBuilder defBuilder = new StringBuilder();
+            for (String glossPart : gloss.split(";")) {
+                glossPart = glossPart.trim();
+                if (glossPart.startsWith("\""))
+                    synset.addExample(glossPart.replace('"', ' ').trim());
+                else
+                    defBuilder.append(glossPart).append("; ");
+            }
+            gloss = defBuilder.toString();
+
+            // In WordNet-2.1, some adjectives lack a definition.  In these
+            // cases, simply save an empty defition, otherwise save a copy
+            // of the definition that lacks the final ";" character.
+            if (gloss.length() < 2)
+                synset.setDefinition("");
+            else 
+                synset.setDefinition(gloss.substring(0, gloss.length() - 2));
+
+            // Extract the lexicographer file name and part of speech.
+            int lexNameIndex = Integer.parseInt(columns[index++]);
+            String lexName = lexNames[lexNameIndex];
+            String posTag = columns[index++];
+
+            // Extract the lemmas that are attached to this synset.
+            int numLemmas = Integer.parseInt(columns[index++], 16);
+            BaseLemma[] lemmas = new BaseLemma[numLemmas];
+            for (int l = 0; l < numLemmas; ++l) {
+                // Lemmas sometimes have syntactic markers in the form of
+                // (pos).  Extract this additional marker and keep it
+                // separate from the base name.
+                String lemmaName = columns[index++];
+                String[] lemmaAndMarker = lemmaName.split("\\(");
+                lemmaName = lemmaAndMarker[0];
+                String marker = (lemmaAndMarker.length == 1)
+                    ? ""
+                    : lemmaAndMarker[1].replaceAll("[\\(\\)]", "");
+
+                // Create a new lemma object that maps to this synset.
+                int lexId = Integer.parseInt(columns[index++], 16);
+                lemmas[l] = new BaseLemma(synset, lemmaName, lexName, 
+                                          lexNameIndex, lexId, marker);
+            }
+
+            // Extract the relations that this synset has with other
+            // synsets.  Add in a relational link to the Synset graph
+            // connectring this synset to other specified synsets.
+            int numPointers = Integer.parseInt(columns[index++]);
+            for (int p = 0; p < numPointers; ++p) {
+                String symbol = columns[index++].intern();
+
+                // Get the pointed to synset based on it's offset and part
+                // of speech.
+                int pointerOffset = Integer.parseInt(columns[index++]);
+                int pointerPos = POS_MAP.get(columns[index++]).ordinal();
+                Synset pointerSynset =
+                    posOffsetToSynsetMap.get(pointerPos).get(pointerOffset);
+
+                // Get the lemma id for this pointed to synset.  Add a
+                // related link if the lemmaId is nonzero.
+                String lemmaId = columns[index++];
+                if (lemmaId.equals("0000"))
+                    synset.addRelation(symbol, pointerSynset);
+                else {
+                    // When the lemma id is non zero it is a derivationally
+                    // related lemma.  Since not all lemmas have been added
+                    // to their Synsets yet, just add in a link based on the
+                    // Synset and the lemma index that corresponds to the
+                    // related form.
+                    int sourceIndex = Integer.parseInt(
+                            lemmaId.substring(0, 2), 16);
+                    int targetIndex = Integer.parseInt(
+                            lemmaId.substring(2), 16);
+                    synset.addRelation(symbol, pointerSynset);
+                    synset.addDerivationallyRelatedForm(
+                            pointerSynset, new SimpleRelatedForm(
+                                sourceIndex, targetIndex));
+                }
+            }
+
+            // Read off the verb frames if we are parsing the verb data.
+            if (POS_TAGS[pos].equals("v")) {
+                int frameCount = Integer.parseInt(columns[index++]);
+                int[] frameIds = new int[frameCount];
+                int[] lemmaIds = new int[frameCount];
+                for (int f = 0; f < frameCount; ++f) {
+                    // Read off the +.
+                    index++;
+
+                    // Store the frame number.
+                    int frameNumber = Integer.parseInt(columns[index++]);
+                    frameIds[f] = frameNumber;
+
+                    // Get the frame format of this verb.
+                    String frame = verbFrames.get(frameNumber-1);
+
+                    // Embed the specified lemmas into the verb frame and
+                    // attach it to each lemma object.  A lemma number of 0
+                    // signifies that all lemmas should be embedded in the
+                    // frame.
+                    int lemmaNumber = Integer.parseInt(columns[index++], 16);
+                    lemmaIds[f] = lemmaNumber;
+                    if (lemmaNumber == 0) {
+                        // Embed every lemma into the frame.
+                        for (BaseLemma lemma : lemmas)
+                            lemma.addFrameString(String.format(
+                                        frame, lemma.getLemmaName()));
+                    }
+                    else
+                        // Embed only the specified lemma into the frame.
+                        lemmas[lemmaNumber-1].addFrameString(String.format(
+                                    frame, lemmas[lemmaNumber-1].getLemmaName()));
+                }
+                synset.setFrameInfo(frameIds, lemmaIds);
+            }
+
+            // Add in lemma keys for each of the lemmas.
+            for (BaseLemma lemma : lemmas) {
+                lemma.setKey(String.format("%s%%%d:%02d:%02d::",
+                             lemma.getLemmaName(), pos+1, 
+                             lemma.getLexNameIndex(),
+                             lemma.getLexicalId()).toLowerCase());
+                synset.addLemma(lemma);
+            }
+        }
+    }
+
     /**
      * Returns a {@link BufferedReader} for the requested {@code filename}.
      * {@code dictPath} is used as the base path for all files.  If {@code
@@ -1299,7 +1705,7 @@ public class WordNetCorpusReader implements OntologyReader {
      * form in order.  A variant is returned for each rule that applies to the
      * base form.  This {@link Iterator} ends when no more rules are applicable.
      */
-    private class FormIterator implements Iterator<String> {
+    static class FormIterator implements Iterator<String> {
         private String form;
         private String suffix;
         private String[][] posReplacements;
@@ -0,0 +1,858 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOError;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * An append only journal of the modifications made to a WordNet dictionary.
+ * Each call to {@link OntologyReader#addSynset(Synset, int)}, {@link
+ * OntologyReader#removeSynset(Synset)}, {@link
+ * OntologyReader#replaceSynset(Synset, Synset)}, {@link Synset#merge(Synset)},
+ * and each added or removed relation is stored as a compact binary record.
+ * While a journal is open, it receives every change made to a {@link
+ * BaseSynset}, so relations added directly to a {@link Synset} of the
+ * dictionary are recorded as well.
+ * Replaying the journal over the dictionary it was recorded against
+ * reproduces the modified dictionary, so a job that makes a few changes only
+ * has to write those changes instead of the entire dictionary.  Journals are
+ * used through {@link WordNetCorpusReader#initialize(String, String)} and
+ * folded into a new dictionary with {@link WordNetCorpusReader#compact}.
+ *
+ * </p>
+ *
+ * A journal starts with the {@link #MAGIC} number and the format {@link
+ * #VERSION}.  Every record is then a record type byte, the number of bytes in
+ * the record body, and the body.  {@link Synset}s from the base dictionary
+ * are referred to by their part of speech and offset.  Any other {@link
+ * Synset} is written in full by a {@code CREATE} record, followed by a record
+ * for each of it's relations, the first time it is referred to, and is then
+ * referred to by the number of {@code CREATE} records before it.
+ *
+ * </p>
+ *
+ * Every modification is recorded the same way: all of it's records are built
+ * before the modification is made, so that new {@link Synset}s are written as
+ * they were before the change, and are appended to the journal only once the
+ * modification succeeds.  If the modification fails, it's records are
+ * discarded.  Modifications made while another is in progress, such as the
+ * relations removed by {@link OntologyReader#removeSynset(Synset)}, are not
+ * recorded since replaying the outer modification repeats them.  When a
+ * modification needs more than one record, the records are wrapped in a
+ * single {@code OPERATION} record.  Since each record is written with a
+ * single call, a crash can at most leave a partial record at the end of the
+ * journal, which is discarded, along with the rest of it's modification,
+ * when the journal is next opened.
+ *
+ * </p>
+ *
+ * Attributes and derivationally related forms of new {@link Synset}s are not
+ * recorded, just as they are not saved by {@link
+ * WordNetCorpusReader#saveWordNet(String)}.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.  A modification holds a lock from it's
+ * outermost {@link #begin} until the matching {@link #end}, so modifications
+ * made on different threads are recorded one at a time.  Since every change
+ * to any {@link BaseSynset} is announced to an open journal, this includes
+ * changes to {@link Synset}s outside of the dictionary, which are never
+ * recorded but wait for any modification in progress on another thread.
+ *
+ * @author Keith Stevens
+ */
+public class WordNetJournal implements BaseSynset.ChangeListener {
+
+    /**
+     * The magic number that starts every journal file.
+     */
+    public static final int MAGIC = 0x574E4A31;
+
+    /**
+     * The current version of the journal format.
+     */
+    public static final int VERSION = 1;
+
+    static final byte CREATE = 1;
+    static final byte ADD_SYNSET = 2;
+    static final byte REMOVE_SYNSET = 3;
+    static final byte REPLACE_SYNSET = 4;
+    static final byte MERGE = 5;
+    static final byte ADD_RELATION = 6;
+    static final byte REMOVE_RELATION = 7;
+    static final byte OPERATION = 8;
+
+    /**
+     * The number of bytes in the journal header.
+     */
+    static final int HEADER_SIZE = 8;
+
+    private static final byte BASE_SYNSET = 0;
+    private static final byte JOURNAL_SYNSET = 1;
+
+    private static final String UTF8 = "utf-8";
+
+    /**
+     * The path of the journal file.
+     */
+    private final String journalFile;
+
+    /**
+     * The mapping from an offset to it's {@link Synset} in the base
+     * dictionary for each part of speech.
+     */
+    private final List<Map<Integer, Synset>> baseSynsets;
+
+    /**
+     * The number assigned to each {@link Synset} created by the journal.
+     */
+    private final Map<Synset, Integer> journalIds;
+
+    /**
+     * The {@link Synset}s created by the journal, in order.
+     */
+    private final List<Synset> journalSynsets;
+
+    /**
+     * The lock held by the thread making a modification, from the outermost
+     * call to {@link #begin} until the matching call to {@link #end}.  It's
+     * hold count is the number of modifications in progress on that thread,
+     * including those started while another modification was in progress.
+     * Once the journal is open, the synsets created by the journal, the
+     * pending records, and the journal stream are only used while holding
+     * this lock.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * The body of the record being written.
+     */
+    private final ByteArrayOutputStream recordBytes;
+
+    /**
+     * A stream writing to {@code recordBytes}.
+     */
+    private final DataOutputStream record;
+
+    /**
+     * The complete records of the modification in progress.
+     */
+    private final ByteArrayOutputStream pending;
+
+    /**
+     * The number of records in {@code pending}.
+     */
+    private int numPending;
+
+    /**
+     * The number of {@link Synset}s created by the journal before the
+     * modification in progress started.
+     */
+    private int numCommittedSynsets;
+
+    /**
+     * The stream appending to the journal, or {@code null} until the journal
+     * has been opened.
+     */
+    private FileOutputStream out;
+
+    /**
+     * Creates a new {@link WordNetJournal} stored in {@code journalFile} for
+     * the dictionary whose {@link Synset}s are found through {@code
+     * baseSynsets}.  The journal must be opened with {@link #open} before any
+     * modification can be recorded.
+     */
+    WordNetJournal(String journalFile,
+                   List<Map<Integer, Synset>> baseSynsets) {
+        this.journalFile = journalFile;
+        this.baseSynsets = baseSynsets;
+        this.journalIds = new IdentityHashMap<Synset, Integer>();
+        this.journalSynsets = new ArrayList<Synset>();
+        this.lock = new ReentrantLock();
+        this.recordBytes = new ByteArrayOutputStream();
+        this.record = new DataOutputStream(recordBytes);
+        this.pending = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Applies every modification stored in the journal to {@code reader},
+     * discards any partial record at the end of the journal, and then opens
+     * the journal so that new modifications are appended to it.  A new,
+     * empty, journal is created if the file does not exist.
+     *
+     * @throws IllegalArgumentException if the file is not a journal of a
+     *         supported version
+     */
+    void open(OntologyReader reader) throws IOException {
+        File file = new File(journalFile);
+        if (!file.exists() || file.length() == 0) {
+            out = new FileOutputStream(file);
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream headerStream = new DataOutputStream(header);
+            headerStream.writeInt(MAGIC);
+            headerStream.writeInt(VERSION);
+            out.write(header.toByteArray());
+            out.flush();
+            return;
+        }
+        if (file.length() < HEADER_SIZE)
+            throw new IllegalArgumentException(
+                    journalFile + " is too short to be a WordNet journal");
+
+        long validLength = replay(file, reader);
+        if (validLength < file.length()) {
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            raf.setLength(validLength);
+            raf.close();
+        }
+        out = new FileOutputStream(file, true);
+    }
+
+    /**
+     * Applies the records in {@code file} to {@code reader} and returns the
+     * number of bytes in the file up to the end of the last complete record.
+     */
+    private long replay(File file, OntologyReader reader) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC)
+                throw new IllegalArgumentException(
+                        journalFile + " is not a WordNet journal");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IllegalArgumentException(
+                        "Unsupported journal version: " + version);
+
+            long validLength = HEADER_SIZE;
+            while (true) {
+                byte type;
+                byte[] body;
+                try {
+                    type = in.readByte();
+                    body = new byte[in.readInt()];
+                    in.readFully(body);
+                } catch (EOFException eofe) {
+                    return validLength;
+                }
+                apply(type, body, reader);
+                validLength += 5 + body.length;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Applies a single record of the given {@code type}, whose body is {@code
+     * body}, to {@code reader}.
+     */
+    private void apply(byte type, byte[] body, OntologyReader reader)
+            throws IOException {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(body));
+        if (type != OPERATION) {
+            apply(type, in, reader);
+            return;
+        }
+
+        // An operation holds the complete records of one modification.
+        while (in.available() > 0) {
+            byte recordType = in.readByte();
+            byte[] recordBody = new byte[in.readInt()];
+            in.readFully(recordBody);
+            apply(recordType, recordBody, reader);
+        }
+    }
+
+    /**
+     * Applies a single record of the given {@code type} to {@code reader}.
+     */
+    private void apply(byte type, DataInputStream in, OntologyReader reader)
+            throws IOException {
+        switch (type) {
+            case CREATE:
+                Synset synset = readSynset(in);
+                journalIds.put(synset, journalSynsets.size());
+                journalSynsets.add(synset);
+                break;
+            case ADD_SYNSET:
+                reader.addSynset(readReference(in), in.readInt());
+                break;
+            case REMOVE_SYNSET:
+                reader.removeSynset(readReference(in));
+                break;
+            case REPLACE_SYNSET:
+                reader.replaceSynset(readReference(in), readReference(in));
+                break;
+            case MERGE:
+                readReference(in).merge(readReference(in));
+                break;
+            case ADD_RELATION:
+                readReference(in).addRelation(
+                        readString(in), readReference(in));
+                break;
+            case REMOVE_RELATION:
+                readReference(in).removeRelation(
+                        readString(in), readReference(in));
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Records that {@code synset} is added to the dictionary at {@code index}.
+     */
+    public void addSynset(Synset synset, int index) throws IOException {
+        begin();
+        boolean recorded = false;
+        try {
+            reference(synset);
+            startRecord();
+            writeReference(synset);
+            record.writeInt(index);
+            endRecord(ADD_SYNSET);
+            recorded = true;
+        } finally {
+            end(recorded);
+        }
+    }
+
+    /**
+     * Records that {@code synset} is removed from the dictionary.
+     */
+    public void removeSynset(Synset synset) throws IOException {
+        begin();
+        boolean recorded = false;
+        try {
+            reference(synset);
+            startRecord();
+            writeReference(synset);
+            endRecord(REMOVE_SYNSET);
+            recorded = true;
+        } finally {
+            end(recorded);
+        }
+    }
+
+    /**
+     * Records that {@code synset} is replaced by {@code replacement}.
+     */
+    public void replaceSynset(Synset synset, Synset replacement)
+            throws IOException {
+        begin();
+        boolean recorded = false;
+        try {
+            reference(synset);
+            reference(replacement);
+            startRecord();
+            writeReference(synset);
+            writeReference(replacement);
+            endRecord(REPLACE_SYNSET);
+            recorded = true;
+        } finally {
+            end(recorded);
+        }
+    }
+
+    /**
+     * Records that {@code other} is merged into {@code synset}.
+     */
+    public void merge(Synset synset, Synset other) throws IOException {
+        begin();
+        boolean recorded = false;
+        try {
+            reference(synset);
+            reference(other);
+            startRecord();
+            writeReference(synset);
+            writeReference(other);
+            endRecord(MERGE);
+            recorded = true;
+        } finally {
+            end(recorded);
+        }
+    }
+
+    /**
+     * Records that a {@code relation} link from {@code synset} to {@code
+     * related} is added.
+     */
+    public void addRelation(Synset synset, String relation, Synset related)
+            throws IOException {
+        begin();
+        boolean recorded = false;
+        try {
+            reference(synset);
+            reference(related);
+            writeRelation(ADD_RELATION, synset, relation, related);
+            recorded = true;
+        } finally {
+            end(recorded);
+        }
+    }
+
+    /**
+     * Records that the {@code relation} link from {@code synset} to {@code
+     * related} is removed.
+     */
+    public void removeRelation(Synset synset, String relation, Synset related)
+            throws IOException {
+        begin();
+        boolean recorded = false;
+        try {
+            reference(synset);
+            reference(related);
+            writeRelation(REMOVE_RELATION, synset, relation, related);
+            recorded = true;
+        } finally {
+            end(recorded);
+        }
+    }
+
+    /**
+     * Starts a modification.  Every record made before the matching call to
+     * {@link #end} is held back until then.  If a modification is already in
+     * progress on this thread, the new modification is part of it.  If one is
+     * in progress on another thread, this waits for it to end.
+     */
+    public void begin() {
+        lock.lock();
+        if (isOutermost())
+            numCommittedSynsets = journalSynsets.size();
+    }
+
+    /**
+     * Ends the modification started by the latest call to {@link #begin}.  If
+     * it is the outermost modification, it's records are appended to the
+     * journal when {@code applied} is true, and are discarded otherwise.
+     *
+     * @throws IllegalStateException if no modification is in progress on
+     *         this thread
+     */
+    public void end(boolean applied) throws IOException {
+        if (!lock.isHeldByCurrentThread())
+            throw new IllegalStateException("No modification is in progress");
+        try {
+            if (!isOutermost())
+                return;
+
+            byte[] records = pending.toByteArray();
+            int numRecords = numPending;
+            pending.reset();
+            numPending = 0;
+
+            if (!applied) {
+                // Forget the synsets that were created for the failed
+                // modification, they will be written again if needed.
+                while (journalSynsets.size() > numCommittedSynsets)
+                    journalIds.remove(
+                            journalSynsets.remove(journalSynsets.size() - 1));
+                return;
+            }
+
+            if (numRecords == 0)
+                return;
+            if (out == null)
+                throw new IllegalStateException("The journal is not open");
+            out.write((numRecords == 1) ? records : frame(OPERATION, records));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void addingRelation(BaseSynset synset,
+                               String relation,
+                               Synset related) {
+        begin();
+        boolean recorded = false;
+        try {
+            if (isOutermost() && isKnown(synset)) {
+                reference(related);
+                writeRelation(ADD_RELATION, synset, relation, related);
+            }
+            recorded = true;
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            if (!recorded)
+                abort();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void removingRelation(BaseSynset synset,
+                                 String relation,
+                                 Synset related) {
+        begin();
+        boolean recorded = false;
+        try {
+            if (isOutermost() && isKnown(synset)) {
+                reference(related);
+                writeRelation(REMOVE_RELATION, synset, relation, related);
+            }
+            recorded = true;
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            if (!recorded)
+                abort();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void merging(BaseSynset synset, Synset other) {
+        begin();
+        boolean recorded = false;
+        try {
+            if (isOutermost() && (isKnown(synset) || isKnown(other))) {
+                reference(synset);
+                reference(other);
+                startRecord();
+                writeReference(synset);
+                writeReference(other);
+                endRecord(MERGE);
+            }
+            recorded = true;
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        } finally {
+            if (!recorded)
+                abort();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void changed(boolean applied) {
+        try {
+            end(applied);
+        } catch (IOException ioe) {
+            throw new IOError(ioe);
+        }
+    }
+
+    /**
+     * Ends the current modification without recording it.
+     */
+    private void abort() {
+        try {
+            end(false);
+        } catch (IOException ioe) {
+            // Discarding records never writes to the journal.
+            throw new IOError(ioe);
+        }
+    }
+
+    /**
+     * Returns true if the modification started by the calling thread is not
+     * part of another modification.
+     */
+    private boolean isOutermost() {
+        return lock.getHoldCount() == 1;
+    }
+
+    /**
+     * Returns true if {@code synset} is in the base dictionary or has been
+     * written to the journal.
+     */
+    private boolean isKnown(Synset synset) {
+        return isBase(synset) || journalIds.containsKey(synset);
+    }
+
+    /**
+     * Closes the journal file.  No further modifications can be recorded.
+     */
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (out != null)
+                out.close();
+            out = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the path of the journal file.
+     */
+    public String getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Ensures that {@code synset} can be referred to by later records,
+     * writing a {@code CREATE} record and a record for each of it's relations
+     * if it is neither in the base dictionary nor already in the journal.
+     */
+    private void reference(Synset synset) throws IOException {
+        if (isBase(synset) || journalIds.containsKey(synset))
+            return;
+
+        journalIds.put(synset, journalSynsets.size());
+        journalSynsets.add(synset);
+        startRecord();
+        writeSynset(synset);
+        endRecord(CREATE);
+
+        for (String relation : synset.getKnownRelationTypes()) {
+            for (Synset related : synset.getRelations(relation)) {
+                reference(related);
+                writeRelation(ADD_RELATION, synset, relation, related);
+            }
+        }
+    }
+
+    /**
+     * Returns true if {@code synset} is the base dictionary {@link Synset}
+     * with it's part of speech and offset.
+     */
+    private boolean isBase(Synset synset) {
+        return baseSynsets.get(basePos(synset)).get(synset.getId()) == synset;
+    }
+
+    /**
+     * Returns the part of speech used to look up {@code synset} in the base
+     * dictionary.  Satellite adjectives share the offsets of adjectives.
+     */
+    private static int basePos(Synset synset) {
+        PartsOfSpeech pos = synset.getPartOfSpeech();
+        return (pos == PartsOfSpeech.ADJECTIVE_SAT)
+            ? PartsOfSpeech.ADJECTIVE.ordinal()
+            : pos.ordinal();
+    }
+
+    /**
+     * Writes a relation record of the given {@code type}.
+     */
+    private void writeRelation(byte type,
+                               Synset synset,
+                               String relation,
+                               Synset related) throws IOException {
+        startRecord();
+        writeReference(synset);
+        writeString(relation);
+        writeReference(related);
+        endRecord(type);
+    }
+
+    /**
+     * Starts a new record body.
+     */
+    private void startRecord() {
+        recordBytes.reset();
+    }
+
+    /**
+     * Adds the current record body to the records of the modification in
+     * progress as a record of the given {@code type}.
+     */
+    private void endRecord(byte type) throws IOException {
+        record.flush();
+        pending.write(frame(type, recordBytes.toByteArray()));
+        numPending++;
+    }
+
+    /**
+     * Returns a record of the given {@code type} with {@code body}.
+     */
+    private static byte[] frame(byte type, byte[] body) {
+        byte[] bytes = new byte[5 + body.length];
+        bytes[0] = type;
+        bytes[1] = (byte) (body.length >>> 24);
+        bytes[2] = (byte) (body.length >>> 16);
+        bytes[3] = (byte) (body.length >>> 8);
+        bytes[4] = (byte) body.length;
+        System.arraycopy(body, 0, bytes, 5, body.length);
+        return bytes;
+    }
+
+    /**
+     * Writes a reference to {@code synset}, which must already be known to
+     * the journal.
+     */
+    private void writeReference(Synset synset) throws IOException {
+        Integer journalId = journalIds.get(synset);
+        if (journalId != null) {
+            record.writeByte(JOURNAL_SYNSET);
+            record.writeInt(journalId);
+        } else {
+            record.writeByte(BASE_SYNSET);
+            record.writeByte(basePos(synset));
+            record.writeInt(synset.getId());
+        }
+    }
+
+    /**
+     * Reads a reference to a known {@link Synset}.
+     */
+    private Synset readReference(DataInputStream in) throws IOException {
+        Synset synset = (in.readByte() == JOURNAL_SYNSET)
+            ? journalSynsets.get(in.readInt())
+            : baseSynsets.get(in.readByte()).get(in.readInt());
+        if (synset == null)
+            throw new IllegalArgumentException(
+                    journalFile + " refers to a synset that is not in the " +
+                    "base dictionary");
+        return synset;
+    }
+
+    /**
+     * Writes the part of speech, offset, sense information, gloss, lemmas,
+     * and verb frames of {@code synset}.
+     */
+    private void writeSynset(Synset synset) throws IOException {
+        record.writeByte(synset.getPartOfSpeech().ordinal());
+        record.writeInt(synset.getId());
+        writeString(synset.getSenseKey());
+        record.writeInt(synset.getSenseNumber());
+        writeString(synset.getDefinition());
+
+        List<String> examples = synset.getExamples();
+        record.writeInt(examples.size());
+        for (String example : examples)
+            writeString(example);
+
+        List<Lemma> lemmas = synset.getLemmas();
+        record.writeInt(lemmas.size());
+        for (Lemma lemma : lemmas) {
+            writeString(lemma.getLemmaName());
+            writeString(lemma.getLexicographerName());
+            record.writeInt(lemma.getLexNameIndex());
+            record.writeInt(lemma.getLexicalId());
+            writeString(lemma.getKey());
+        }
+
+        int[] frameIds = synset.getFrameIds();
+        int[] lemmaIds = synset.getLemmaIds();
+        if (frameIds == null || lemmaIds == null) {
+            record.writeInt(-1);
+        } else {
+            record.writeInt(frameIds.length);
+            for (int i = 0; i < frameIds.length; ++i) {
+                record.writeInt(frameIds[i]);
+                record.writeInt(lemmaIds[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a {@link Synset} written by {@link #writeSynset}.
+     */
+    private Synset readSynset(DataInputStream in) throws IOException {
+        PartsOfSpeech pos = PartsOfSpeech.values()[in.readByte()];
+        BaseSynset synset = new BaseSynset(in.readInt(), pos);
+        String senseKey = readString(in);
+        if (senseKey != null)
+            synset.setSenseKey(senseKey);
+        synset.setSenseNumber(in.readInt());
+        String definition = readString(in);
+        if (definition != null)
+            synset.setDefinition(definition);
+
+        int numExamples = in.readInt();
+        for (int i = 0; i < numExamples; ++i)
+            synset.addExample(readString(in));
+
+        int numLemmas = in.readInt();
+        for (int i = 0; i < numLemmas; ++i) {
+            BaseLemma lemma = new BaseLemma(
+                    synset, readString(in), readString(in),
+                    in.readInt(), in.readInt(), "");
+            String key = readString(in);
+            if (key != null)
+                lemma.setKey(key);
+            synset.addLemma(lemma);
+        }
+
+        int numFrames = in.readInt();
+        if (numFrames >= 0) {
+            int[] frameIds = new int[numFrames];
+            int[] lemmaIds = new int[numFrames];
+            for (int i = 0; i < numFrames; ++i) {
+                frameIds[i] = in.readInt();
+                lemmaIds[i] = in.readInt();
+            }
+            synset.setFrameInfo(frameIds, lemmaIds);
+        }
+        return synset;
+    }
+
+    /**
+     * Writes {@code s} as it's length in utf-8 bytes followed by the bytes.
+     * {@code null} is written as a length of -1.
+     */
+    private void writeString(String s) throws IOException {
+        if (s == null) {
+            record.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(UTF8);
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+}
@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved.
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.Charset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+
+/**
+ * The binary snapshot format for a WordNet dictionary.  A snapshot holds every
+ * {@link Synset}, {@link Lemma}, relation, gloss, and morphological exception
+ * known to a {@link WordNetCorpusReader} as a series of flat integer tables so
+ * that the file can be memory mapped and queried directly by a {@link
+ * MappedOntologyReader}, without any parsing.  Snapshots are created with
+ * {@link WordNetCorpusReader#saveSnapshot(String)}.
+ *
+ * </p>
+ *
+ * A snapshot starts with a header of {@link #HEADER_SIZE} integers: the magic
+ * number, the format version, the number of {@link Synset}s, the number of
+ * relation types, the number of indexed lemmas, the maximum depth for each
+ * {@link PartsOfSpeech}, and then the byte position of each section, followed
+ * by the total file length.  Each section is a table of big endian integers,
+ * except for the string data, which is a single block of utf-8 bytes:
+ *
+ * <ul>
+ * <li> {@code STRING_OFFSETS}: the byte position of each string in the
+ *      string data, followed by the end of the string data.</li>
+ * <li> {@code STRING_DATA}: the utf-8 bytes for every string.</li>
+ * <li> {@code RELATION_TYPES}: the string id for each relation label.</li>
+ * <li> {@code SYNSETS}: {@link #SYNSET_RECORD} integers per {@link
+ *      Synset}.</li>
+ * <li> {@code EXAMPLES}: the string id of each example sentence.</li>
+ * <li> {@code LEMMAS}: {@link #LEMMA_RECORD} integers per {@link
+ *      Lemma}.</li>
+ * <li> {@code FRAMES}: pairs of verb frame ids and lemma ids.</li>
+ * <li> {@code RELATIONS}: {@link #RELATION_RECORD} integers per relational
+ *      link, grouped by source {@link Synset} and then by relation type.</li>
+ * <li> {@code INDEX_SLOTS}: an open addressing hash table over lemmas.  Each
+ *      slot holds one plus an index entry number, or 0 if empty.</li>
+ * <li> {@code INDEX_ENTRIES}: {@link #INDEX_RECORD} integers per lemma: the
+ *      lemma's string id and a start and count into {@code INDEX_POOL} for
+ *      each {@link PartsOfSpeech}.</li>
+ * <li> {@code INDEX_POOL}: the ordered {@link Synset} ids for each lemma.</li>
+ * <li> {@code EXCEPTION_SLOTS}: an open addressing hash table over the
+ *      morphological exceptions.</li>
+ * <li> {@code EXCEPTION_ENTRIES}: {@link #EXCEPTION_RECORD} integers per
+ *      exception: the part of speech, the exceptional form and the base
+ *      form.</li>
+ * </ul>
+ *
+ * @author Keith Stevens
+ */
+public class WordNetSnapshot {
+
+    /**
+     * The magic number that starts every snapshot file.
+     */
+    public static final int MAGIC = 0x574E5331;
+
+    /**
+     * The current version of the snapshot format.
+     */
+    public static final int VERSION = 1;
+
+    static final int STRING_OFFSETS = 0;
+    static final int STRING_DATA = 1;
+    static final int RELATION_TYPES = 2;
+    static final int SYNSETS = 3;
+    static final int EXAMPLES = 4;
+    static final int LEMMAS = 5;
+    static final int FRAMES = 6;
+    static final int RELATIONS = 7;
+    static final int INDEX_SLOTS = 8;
+    static final int INDEX_ENTRIES = 9;
+    static final int INDEX_POOL = 10;
+    static final int EXCEPTION_SLOTS = 11;
+    static final int EXCEPTION_ENTRIES = 12;
+
+    /**
+     * The number of sections in a snapshot.
+     */
+    static final int NUM_SECTIONS = 13;
+
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 1;
+    static final int HEADER_NUM_SYNSETS = 2;
+    static final int HEADER_NUM_RELATION_TYPES = 3;
+    static final int HEADER_NUM_INDEX_ENTRIES = 4;
+    static final int HEADER_MAX_DEPTHS = 5;
+    static final int HEADER_SECTIONS =
+        HEADER_MAX_DEPTHS + PartsOfSpeech.values().length;
+
+    /**
+     * The number of integers in the header.
+     */
+    static final int HEADER_SIZE = HEADER_SECTIONS + NUM_SECTIONS + 1;
+
+    static final int SYNSET_POS = 0;
+    static final int SYNSET_ID = 1;
+    static final int SYNSET_SENSE_NUMBER = 2;
+    static final int SYNSET_SENSE_KEY = 3;
+    static final int SYNSET_DEFINITION = 4;
+    static final int SYNSET_EXAMPLE_START = 5;
+    static final int SYNSET_EXAMPLE_COUNT = 6;
+    static final int SYNSET_LEMMA_START = 7;
+    static final int SYNSET_LEMMA_COUNT = 8;
+    static final int SYNSET_FRAME_START = 9;
+    static final int SYNSET_FRAME_COUNT = 10;
+    static final int SYNSET_RELATION_START = 11;
+    static final int SYNSET_RELATION_COUNT = 12;
+    static final int SYNSET_MIN_DEPTH = 13;
+    static final int SYNSET_MAX_DEPTH = 14;
+
+    /**
+     * The number of integers used to store each {@link Synset}.
+     */
+    static final int SYNSET_RECORD = 15;
+
+    static final int LEMMA_NAME = 0;
+    static final int LEMMA_LEX_NAME = 1;
+    static final int LEMMA_LEX_NAME_INDEX = 2;
+    static final int LEMMA_LEXICAL_ID = 3;
+    static final int LEMMA_KEY = 4;
+
+    /**
+     * The number of integers used to store each {@link Lemma}.
+     */
+    static final int LEMMA_RECORD = 5;
+
+    static final int RELATION_TYPE = 0;
+    static final int RELATION_TARGET = 1;
+    static final int RELATION_FORM = 2;
+
+    /**
+     * The number of integers used to store each relational link.
+     */
+    static final int RELATION_RECORD = 3;
+
+    /**
+     * The number of integers used to store each indexed lemma.
+     */
+    static final int INDEX_RECORD = 1 + 2 * PartsOfSpeech.values().length;
+
+    /**
+     * The number of integers used to store each morphological exception.
+     */
+    static final int EXCEPTION_RECORD = 3;
+
+    /**
+     * The character set used for every string.
+     */
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Uninstantiable.
+     */
+    private WordNetSnapshot() {
+    }
+
+    /**
+     * Returns the FNV-1a hash of {@code bytes}, mixed with {@code salt}.  This
+     * is the hash used for both lemma and exception tables.
+     */
+    static int hash(byte[] bytes, int salt) {
+        int h = 0x811C9DC5 ^ salt;
+        for (byte b : bytes) {
+            h ^= (b & 0xff);
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the number of slots used for a hash table holding {@code size}
+     * entries.  This is always a power of two and at least twice {@code size}.
+     */
+    static int tableSize(int size) {
+        int capacity = 2;
+        while (capacity < 2 * size)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Writes a snapshot of the {@link Synset}s mapped by {@code lemmaMap} to
+     * {@code filename}.  Every {@link Synset} reachable from the mapped {@link
+     * Synset}s through any relation is included.  {@code exceptions} holds the
+     * morphological exceptions for each part of speech and {@code maxDepths}
+     * holds the deepest hierarchy for each part of speech.
+     */
+    static void write(String filename,
+                      Map<String, Synset[][]> lemmaMap,
+                      List<Map<String, String>> exceptions,
+                      int[] maxDepths) throws IOException {
+        // Assign an id to every synset.  Lemmas are visited in sorted order so
+        // that the same dictionary always produces the same snapshot.
+        List<String> lemmaKeys = new ArrayList<String>(
+                new TreeSet<String>(lemmaMap.keySet()));
+        Map<Synset, Integer> synsetIds = new HashMap<Synset, Integer>();
+        List<Synset> synsets = new ArrayList<Synset>();
+        Queue<Synset> toVisit = new LinkedList<Synset>();
+        for (String lemma : lemmaKeys)
+            for (Synset[] posSynsets : lemmaMap.get(lemma))
+                for (Synset synset : posSynsets)
+                    addSynset(synset, synsetIds, synsets, toVisit);
+        while (!toVisit.isEmpty())
+            for (Synset related : toVisit.remove().allRelations())
+                addSynset(related, synsetIds, synsets, toVisit);
+
+        // Collect the relation labels in a fixed order.
+        TreeSet<String> labels = new TreeSet<String>();
+        for (Synset synset : synsets)
+            labels.addAll(synset.getKnownRelationTypes());
+        Map<String, Integer> labelIds = new HashMap<String, Integer>();
+        StringTable strings = new StringTable();
+        Section relationTypes = new Section();
+        for (String label : labels) {
+            labelIds.put(label, labelIds.size());
+            relationTypes.writeInt(strings.id(label));
+        }
+
+        // Precompute the depths for each synset so that readers do not have
+        // to walk the hierarchy.
+        int[] minDepths = new int[synsets.size()];
+        int[] maxDepthsPerSynset = new int[synsets.size()];
+        Arrays.fill(minDepths, -1);
+        Arrays.fill(maxDepthsPerSynset, -1);
+        for (int i = 0; i < synsets.size(); ++i)
+            computeDepths(i, synsets, synsetIds, minDepths, maxDepthsPerSynset);
+
+        // Write out the synset, example, lemma, frame, and relation tables.
+        Section synsetTable = new Section();
+        Section exampleTable = new Section();
+        Section lemmaTable = new Section();
+        Section frameTable = new Section();
+        Section relationTable = new Section();
+        int numExamples = 0;
+        int numLemmas = 0;
+        int numFrames = 0;
+        int numRelations = 0;
+        for (int i = 0; i < synsets.size(); ++i) {
+            Synset synset = synsets.get(i);
+            synsetTable.writeInt(synset.getPartOfSpeech().ordinal());
+            synsetTable.writeInt(synset.getId());
+            synsetTable.writeInt(synset.getSenseNumber());
+            synsetTable.writeInt(strings.id(synset.getSenseKey()));
+            synsetTable.writeInt(strings.id(synset.getDefinition()));
+
+            List<String> examples = synset.getExamples();
+            synsetTable.writeInt(numExamples);
+            synsetTable.writeInt(examples.size());
+            for (String example : examples)
+                exampleTable.writeInt(strings.id(example));
+            numExamples += examples.size();
+
+            List<Lemma> lemmas = synset.getLemmas();
+            synsetTable.writeInt(numLemmas);
+            synsetTable.writeInt(lemmas.size());
+            for (Lemma lemma : lemmas) {
+                lemmaTable.writeInt(strings.id(lemma.getLemmaName()));
+                lemmaTable.writeInt(strings.id(lemma.getLexicographerName()));
+                lemmaTable.writeInt(lemma.getLexNameIndex());
+                lemmaTable.writeInt(lemma.getLexicalId());
+                lemmaTable.writeInt(strings.id(lemma.getKey()));
+            }
+            numLemmas += lemmas.size();
+
+            int[] frameIds = synset.getFrameIds();
+            int[] lemmaIds = synset.getLemmaIds();
+            int frameCount = (frameIds == null || lemmaIds == null)
+                ? 0
+                : Math.min(frameIds.length, lemmaIds.length);
+            synsetTable.writeInt(numFrames);
+            synsetTable.writeInt(frameCount);
+            for (int f = 0; f < frameCount; ++f) {
+                frameTable.writeInt(frameIds[f]);
+                frameTable.writeInt(lemmaIds[f]);
+            }
+            numFrames += frameCount;
+
+            // Group the relations by type so that readers can find every
+            // relation of a single type in a contiguous block.
+            int relationCount = 0;
+            for (String label : new TreeSet<String>(
+                        synset.getKnownRelationTypes())) {
+                for (Synset related : synset.getRelations(label)) {
+                    if (related == null)
+                        continue;
+                    RelatedForm form =
+                        synset.getDerivationallyRelatedForm(related);
+                    relationTable.writeInt(labelIds.get(label));
+                    relationTable.writeInt(synsetIds.get(related));
+                    relationTable.writeInt((form == null)
+                        ? -1
+                        : (form.sourceIndex() << 16) | form.otherIndex());
+                    relationCount++;
+                }
+            }
+            synsetTable.writeInt(numRelations);
+            synsetTable.writeInt(relationCount);
+            numRelations += relationCount;
+
+            synsetTable.writeInt(minDepths[i]);
+            synsetTable.writeInt(maxDepthsPerSynset[i]);
+        }
+
+        // Write out the lemma index.  Each lemma has an ordered list of
+        // synsets for each part of speech.
+        Section indexEntries = new Section();
+        Section indexPool = new Section();
+        int[] indexSlots = new int[tableSize(lemmaKeys.size())];
+        int poolSize = 0;
+        for (int e = 0; e < lemmaKeys.size(); ++e) {
+            String lemma = lemmaKeys.get(e);
+            indexEntries.writeInt(strings.id(lemma));
+            for (Synset[] posSynsets : lemmaMap.get(lemma)) {
+                indexEntries.writeInt(poolSize);
+                indexEntries.writeInt(posSynsets.length);
+                for (Synset synset : posSynsets)
+                    indexPool.writeInt(synsetIds.get(synset));
+                poolSize += posSynsets.length;
+            }
+            insert(indexSlots, hash(lemma.getBytes(UTF8), 0), e);
+        }
+
+        // Write out the morphological exceptions for every part of speech.
+        Section exceptionEntries = new Section();
+        List<String[]> allExceptions = new ArrayList<String[]>();
+        for (int pos = 0; pos < exceptions.size(); ++pos)
+            for (Map.Entry<String, String> exception :
+                    exceptions.get(pos).entrySet())
+                allExceptions.add(new String[] {
+                    Integer.toString(pos), exception.getKey(),
+                    exception.getValue()});
+        int[] exceptionSlots = new int[tableSize(allExceptions.size())];
+        for (int e = 0; e < allExceptions.size(); ++e) {
+            String[] exception = allExceptions.get(e);
+            int pos = Integer.parseInt(exception[0]);
+            exceptionEntries.writeInt(pos);
+            exceptionEntries.writeInt(strings.id(exception[1]));
+            exceptionEntries.writeInt(strings.id(exception[2]));
+            insert(exceptionSlots, hash(exception[1].getBytes(UTF8), pos), e);
+        }
+
+        // Lay out the sections, with every section after the string data
+        // aligned to four bytes.
+        Section[] sections = new Section[NUM_SECTIONS];
+        sections[STRING_OFFSETS] = strings.offsets();
+        sections[STRING_DATA] = strings.data();
+        sections[RELATION_TYPES] = relationTypes;
+        sections[SYNSETS] = synsetTable;
+        sections[EXAMPLES] = exampleTable;
+        sections[LEMMAS] = lemmaTable;
+        sections[FRAMES] = frameTable;
+        sections[RELATIONS] = relationTable;
+        sections[INDEX_SLOTS] = new Section(indexSlots);
+        sections[INDEX_ENTRIES] = indexEntries;
+        sections[INDEX_POOL] = indexPool;
+        sections[EXCEPTION_SLOTS] = new Section(exceptionSlots);
+        sections[EXCEPTION_ENTRIES] = exceptionEntries;
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(filename)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(synsets.size());
+        out.writeInt(labels.size());
+        out.writeInt(lemmaKeys.size());
+        for (int pos = 0; pos < PartsOfSpeech.values().length; ++pos)
+            out.writeInt(maxDepths[pos]);
+        int position = HEADER_SIZE * 4;
+        for (Section section : sections) {
+            out.writeInt(position);
+            position += section.paddedSize();
+        }
+        out.writeInt(position);
+        for (Section section : sections)
+            section.writeTo(out);
+        out.close();
+    }
+
+    /**
+     * Assigns an id to {@code synset} if it does not already have one and
+     * queues it so that it's related {@link Synset}s will also be assigned
+     * ids.
+     */
+    private static void addSynset(Synset synset,
+                                  Map<Synset, Integer> synsetIds,
+                                  List<Synset> synsets,
+                                  Queue<Synset> toVisit) {
+        if (synset == null || synsetIds.containsKey(synset))
+            return;
+        synsetIds.put(synset, synsets.size());
+        synsets.add(synset);
+        toVisit.offer(synset);
+    }
+
+    /**
+     * Computes the minimum and maximum depth of the {@link Synset} with id
+     * {@code id} based on the depths of it's parents.  A {@link Synset} that
+     * is part of a hypernym cycle is given the depths known when the cycle is
+     * found.
+     */
+    private static void computeDepths(int id,
+                                      List<Synset> synsets,
+                                      Map<Synset, Integer> synsetIds,
+                                      int[] minDepths,
+                                      int[] maxDepths) {
+        if (maxDepths[id] > -1)
+            return;
+
+        // Mark this synset as visited so that cycles terminate.
+        maxDepths[id] = 0;
+        minDepths[id] = 0;
+
+        int bestMax = -1;
+        int bestMin = Integer.MAX_VALUE;
+        for (Synset parent : synsets.get(id).getParents()) {
+            Integer parentId = synsetIds.get(parent);
+            if (parentId == null)
+                continue;
+            computeDepths(parentId, synsets, synsetIds, minDepths, maxDepths);
+            bestMax = Math.max(bestMax, maxDepths[parentId]);
+            bestMin = Math.min(bestMin, minDepths[parentId]);
+        }
+        maxDepths[id] = 1 + bestMax;
+        minDepths[id] = (bestMin == Integer.MAX_VALUE) ? 0 : 1 + bestMin;
+    }
+
+    /**
+     * Inserts {@code entry} into the open addressing table {@code slots} using
+     * linear probing.
+     */
+    private static void insert(int[] slots, int hash, int entry) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0)
+            slot = (slot + 1) & mask;
+        slots[slot] = entry + 1;
+    }
+
+    /**
+     * A block of big endian integers or bytes that forms a single section of
+     * the snapshot.
+     */
+    private static class Section {
+
+        private final ByteArrayOutputStream bytes;
+
+        private final DataOutputStream out;
+
+        public Section() {
+            bytes = new ByteArrayOutputStream();
+            out = new DataOutputStream(bytes);
+        }
+
+        public Section(int[] values) throws IOException {
+            this();
+            for (int value : values)
+                writeInt(value);
+        }
+
+        public void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        public void write(byte[] data) throws IOException {
+            out.write(data);
+        }
+
+        public int size() {
+            return bytes.size();
+        }
+
+        public int paddedSize() {
+            return (size() + 3) & ~3;
+        }
+
+        public void writeTo(DataOutputStream stream) throws IOException {
+            bytes.writeTo(stream);
+            for (int i = size(); i < paddedSize(); ++i)
+                stream.write(0);
+        }
+    }
+
+    /**
+     * A pool of unique strings stored as utf-8 bytes.
+     */
+    private static class StringTable {
+
+        private final Map<String, Integer> ids;
+
+        private final Section offsets;
+
+        private final Section data;
+
+        public StringTable() {
+            ids = new HashMap<String, Integer>();
+            offsets = new Section();
+            data = new Section();
+        }
+
+        /**
+         * Returns the id for {@code value}, adding it to the pool if needed.
+         * {@code null} values are stored as the empty string.
+         */
+        public int id(String value) throws IOException {
+            if (value == null)
+                value = "";
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                ids.put(value, id);
+                offsets.writeInt(data.size());
+                data.write(value.getBytes(UTF8));
+            }
+            return id;
+        }
+
+        public Section offsets() throws IOException {
+            offsets.writeInt(data.size());
+            return offsets;
+        }
+
+        public Section data() {
+            return data;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import gov.llnl.ontology.mains.BuilderScorer;
 
 import gov.llnl.ontology.wordnet.BaseLemma;
 import gov.llnl.ontology.wordnet.BaseSynset;
+import gov.llnl.ontology.wordnet.OverlayOntologyReader;
 import gov.llnl.ontology.wordnet.Synset;
 import gov.llnl.ontology.wordnet.SynsetRelations;
 import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
@@ -107,11 +108,14 @@ public class DepthFirstBnBWordNetBuilder implements WordNetBuilder {
         Deque<Synset> addList = new LinkedList<Synset>();
         List<Synset> finalList = new ArrayList<Synset>(termsToAdd.size());
 
-        // Do the search with nothing added.
-        addTerm(wordnet, seen, addList, finalList, Integer.MAX_VALUE, 0, scorer);
+        // Do the search with nothing added.  Each branch of the search adds
+        // synsets to its own overlay of wordnet, so wordnet itself is never
+        // modified.
+        addTerm(new OverlayOntologyReader(wordnet), seen, addList, finalList,
+                Integer.MAX_VALUE, 0, scorer);
     }
 
-    private double addTerm(OntologyReader wordnet, 
+    private double addTerm(OverlayOntologyReader wordnet, 
                            Set<TermToAdd> seen, 
                            Deque<Synset> addList,
                            List<Synset> finalList,
@@ -137,7 +141,8 @@ public class DepthFirstBnBWordNetBuilder implements WordNetBuilder {
             // Find the best attachment point for the given word based.
             Duple<Synset,Double> bestAttachment = 
                 SynsetRelations.bestAttachmentPointWithError(
-                        termToAdd.parents, termToAdd.parentScores, .95);
+                        wordnet, termToAdd.parents, termToAdd.parentScores,
+                        .95);
 
             // Compute the cost of this attachment, i.e how likely that it is
             // wrong and how likely that the other attachments are wrong.
@@ -157,20 +162,17 @@ public class DepthFirstBnBWordNetBuilder implements WordNetBuilder {
                                              "", 0, 0, "n"));
             newSynset.addRelation(Relation.HYPERNYM, bestAttachment.x);
 
-            // Add this synset.
-            wordnet.addSynset(newSynset);
+            // Add this synset to a fork of the current tree.
+            OverlayOntologyReader branch = wordnet.fork();
+            branch.addSynset(newSynset);
             seen.add(termToAdd);
             addList.push(newSynset);
 
             // Recursively try to add the rest of the synsets.
-            newCost = addTerm(wordnet, seen, addList, 
+            newCost = addTerm(branch, seen, addList, 
                               finalList, maxCost, newCost, scorer);
-
-            // Remove the synset from the tree so that the next call does not
-            // observe this addition.
             addList.pop();
             seen.remove(termToAdd);
-            wordnet.removeSynset(newSynset);
 
             // Update the best cost found so far.
             maxCost = Math.min(newCost, maxCost);
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2011, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The S-Space package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.GlossTokens;
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A {@link WordSenseDisambiguation} implementation that only uses an
+ * expensive algorithm for the words that cheaper tests can not settle.  Each
+ * content word passes through the following stages, stopping at the first
+ * one that selects a sense:
+ *
+ * <ol>
+ *   <li> {@link Stage#MONOSEMOUS}: words with a single sense are given that
+ *   sense. </li>
+ *
+ *   <li> {@link Stage#OVERLAP}: each sense is scored by the overlap between
+ *   it's gloss and the glosses of every sense of the other content words in
+ *   the sentence, as done by {@link LeskWordSenseDisambiguation}.  If the
+ *   best sense beats the second best sense by at least the minimum margin,
+ *   measured as a fraction of the best score, the best sense is selected.
+ *   </li>
+ *
+ *   <li> {@link Stage#ESCALATED}: the remaining words are disambiguated by
+ *   the expensive {@link WordSenseDisambiguation} algorithm. </li>
+ * </ol>
+ *
+ * If the expensive algorithm is a {@link SelectiveWordSenseDisambiguation},
+ * it is only asked to disambiguate the escalated words.  Otherwise it
+ * disambiguates every sentence holding an escalated word, after which the
+ * senses selected by the cheaper stages are restored.  The number of words
+ * resolved by each stage is counted, which can be used to pick a margin that
+ * balances speed and accuracy.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe if the expensive algorithm is.
+ *
+ * @author Keith Stevens
+ */
+public class CascadingDisambiguation implements WordSenseDisambiguation {
+
+    /**
+     * The stages that can select a sense for a word.
+     */
+    public enum Stage {
+        MONOSEMOUS,
+        OVERLAP,
+        ESCALATED,
+    }
+
+    /**
+     * The default minimum margin between the two best overlap scores.
+     */
+    public static final double DEFAULT_MIN_MARGIN = .5;
+
+    /**
+     * The algorithm used for words that the cheaper stages can not settle.
+     */
+    private final WordSenseDisambiguation expensive;
+
+    /**
+     * The minimum margin between the two best overlap scores, as a fraction
+     * of the best score, for the overlap stage to select a sense.
+     */
+    private final double minMargin;
+
+    /**
+     * The number of words resolved by each {@link Stage}.
+     */
+    private final AtomicLong[] stageCounts;
+
+    private OntologyReader reader;
+
+    /**
+     * Creates a new {@link CascadingDisambiguation} that escalates words to
+     * {@code expensive} using the default minimum margin.
+     */
+    public CascadingDisambiguation(WordSenseDisambiguation expensive) {
+        this(expensive, DEFAULT_MIN_MARGIN);
+    }
+
+    /**
+     * Creates a new {@link CascadingDisambiguation} that escalates words to
+     * {@code expensive} when the two best overlap scores differ by less than
+     * {@code minMargin} times the best score.
+     *
+     * @throws IllegalArgumentException if {@code minMargin} is not between 0
+     *         and 1
+     */
+    public CascadingDisambiguation(WordSenseDisambiguation expensive,
+                                   double minMargin) {
+        if (minMargin < 0 || minMargin > 1)
+            throw new IllegalArgumentException(
+                    "The minimum margin must be between 0 and 1");
+        this.expensive = expensive;
+        this.minMargin = minMargin;
+        stageCounts = new AtomicLong[Stage.values().length];
+        for (int s = 0; s < stageCounts.length; ++s)
+            stageCounts[s] = new AtomicLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void setup(OntologyReader reader) {
+        this.reader = reader;
+        expensive.setup(reader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void disambiguate(List<Sentence> sentences) {
+        Set<Annotation> escalated = Collections.newSetFromMap(
+                new IdentityHashMap<Annotation, Boolean>());
+        List<Sentence> escalatedSentences = new ArrayList<Sentence>();
+        for (Sentence sentence : sentences)
+            if (resolveSentence(sentence, escalated))
+                escalatedSentences.add(sentence);
+
+        if (escalated.isEmpty())
+            return;
+        stageCounts[Stage.ESCALATED.ordinal()].addAndGet(escalated.size());
+
+        if (expensive instanceof SelectiveWordSenseDisambiguation) {
+            ((SelectiveWordSenseDisambiguation) expensive).disambiguate(
+                    sentences, escalated);
+            return;
+        }
+
+        // Remember the senses already selected in the sentences that will be
+        // disambiguated again, so that they can be restored afterwards.
+        Map<Annotation, String> resolved =
+            new IdentityHashMap<Annotation, String>();
+        for (Sentence sentence : escalatedSentences)
+            for (Annotation annot : sentence)
+                if (!escalated.contains(annot) &&
+                    AnnotationUtil.wordSense(annot) != null)
+                    resolved.put(annot, AnnotationUtil.wordSense(annot));
+
+        expensive.disambiguate(escalatedSentences);
+        for (Map.Entry<Annotation, String> e : resolved.entrySet())
+            AnnotationUtil.setWordSense(e.getKey(), e.getValue());
+    }
+
+    /**
+     * Selects a sense for each content word in {@code sentence} that the
+     * cheaper stages can settle and adds the others to {@code escalated}.
+     * Returns true if any word was escalated.
+     */
+    private boolean resolveSentence(Sentence sentence,
+                                    Set<Annotation> escalated) {
+        // Gather the senses of each content word.
+        List<Annotation> words = new ArrayList<Annotation>();
+        List<Synset[]> wordSenses = new ArrayList<Synset[]>();
+        for (Annotation annot : sentence) {
+            String pos = AnnotationUtil.pos(annot);
+            PartsOfSpeech synsetPos = (pos == null)
+                ? null
+                : AnnotationUtil.synsetPos(annot);
+            if (synsetPos == null)
+                continue;
+            Synset[] senses = reader.getSynsets(
+                    AnnotationUtil.word(annot), synsetPos);
+            if (senses == null || senses.length == 0)
+                continue;
+            words.add(annot);
+            wordSenses.add(senses);
+        }
+
+        // Count the number of glosses of the sentence's senses that hold
+        // each token.
+        Map<Integer, double[]> sentenceCounts =
+            new HashMap<Integer, double[]>();
+        for (Synset[] senses : wordSenses)
+            addGlossTokens(sentenceCounts, senses, 1);
+
+        boolean escalatedAny = false;
+        for (int w = 0; w < words.size(); ++w) {
+            Annotation word = words.get(w);
+            Synset[] senses = wordSenses.get(w);
+            if (senses.length == 1) {
+                AnnotationUtil.setWordSense(word, senses[0].getName());
+                stageCounts[Stage.MONOSEMOUS.ordinal()].incrementAndGet();
+                continue;
+            }
+
+            Synset best = selectByOverlap(senses, sentenceCounts);
+            if (best != null) {
+                AnnotationUtil.setWordSense(word, best.getName());
+                stageCounts[Stage.OVERLAP.ordinal()].incrementAndGet();
+                continue;
+            }
+
+            escalated.add(word);
+            escalatedAny = true;
+        }
+        return escalatedAny;
+    }
+
+    /**
+     * Returns the sense in {@code senses} whose gloss overlaps the most with
+     * the glosses of the other words in the sentence, or {@code null} if it
+     * does not beat the second best sense by the minimum margin.  {@code
+     * sentenceCounts} holds the token counts for every word in the sentence,
+     * including the word being disambiguated, whose own counts are left out
+     * of the context.  Each token of a sense's gloss, counting repeats,
+     * scores the number of context glosses that contain it.  Ties go to the
+     * earlier sense, which then does not beat the second best sense.
+     */
+    private Synset selectByOverlap(Synset[] senses,
+                                   Map<Integer, double[]> sentenceCounts) {
+        Map<Integer, double[]> ownCounts = new HashMap<Integer, double[]>();
+        addGlossTokens(ownCounts, senses, 1);
+
+        Synset best = null;
+        double bestScore = 0;
+        double secondScore = 0;
+        for (Synset sense : senses) {
+            double score = 0;
+            for (int token : GlossTokens.forSynset(sense).tokens()) {
+                double[] count = sentenceCounts.get(token);
+                if (count == null)
+                    continue;
+                double[] own = ownCounts.get(token);
+                score += count[0] - ((own == null) ? 0 : own[0]);
+            }
+
+            if (score > bestScore) {
+                secondScore = bestScore;
+                bestScore = score;
+                best = sense;
+            } else if (score > secondScore) {
+                secondScore = score;
+            }
+        }
+
+        if (best == null)
+            return null;
+        return (bestScore - secondScore >= minMargin * bestScore)
+            ? best
+            : null;
+    }
+
+    /**
+     * Adds {@code count} to each distinct token in the gloss of each sense
+     * in {@code senses}.
+     */
+    private static void addGlossTokens(Map<Integer, double[]> counts,
+                                       Synset[] senses,
+                                       double count) {
+        for (Synset sense : senses)
+            for (int token : GlossTokens.forSynset(sense).distinctTokens()) {
+                double[] tokenCount = counts.get(token);
+                if (tokenCount == null) {
+                    tokenCount = new double[1];
+                    counts.put(token, tokenCount);
+                }
+                tokenCount[0] += count;
+            }
+    }
+
+    /**
+     * Returns the number of words resolved by {@code stage}.
+     */
+    public long resolvedCount(Stage stage) {
+        return stageCounts[stage.ordinal()].get();
+    }
+
+    /**
+     * Returns the number of words resolved by each stage.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CascadingDisambiguation[");
+        for (Stage stage : Stage.values()) {
+            if (stage.ordinal() > 0)
+                sb.append(", ");
+            sb.append(stage.toString().toLowerCase()).append('=')
+              .append(resolvedCount(stage));
+        }
+        return sb.append(']').toString();
+    }
+}
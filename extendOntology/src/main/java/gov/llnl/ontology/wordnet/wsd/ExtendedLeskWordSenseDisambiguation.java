@@ -17,6 +17,22 @@ import gov.llnl.ontology.wordnet.OntologyReader;
 public class ExtendedLeskWordSenseDisambiguation 
         extends LeskWordSenseDisambiguation {
 
+    /**
+     * Creates a new {@link ExtendedLeskWordSenseDisambiguation} using the
+     * default window size.
+     */
+    public ExtendedLeskWordSenseDisambiguation() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new {@link ExtendedLeskWordSenseDisambiguation} that uses up
+     * to {@code windowSize} content words on each side of the focus word.
+     */
+    public ExtendedLeskWordSenseDisambiguation(int windowSize) {
+        super(windowSize);
+    }
+
     public void setup(OntologyReader reader) {
         this.reader = reader;
         this.sim = new ExtendedLeskSimilarity();
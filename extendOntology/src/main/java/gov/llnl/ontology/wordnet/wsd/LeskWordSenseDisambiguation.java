@@ -25,21 +25,19 @@ package gov.llnl.ontology.wordnet.wsd;
 
 import gov.llnl.ontology.text.Sentence;
 import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.BatchSynsetSimilarity;
+import gov.llnl.ontology.wordnet.GlossTokens;
 import gov.llnl.ontology.wordnet.LeskSimilarity;
 import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.PreparedSynsetSimilarity;
 import gov.llnl.ontology.wordnet.Synset;
-import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
 import gov.llnl.ontology.wordnet.SynsetSimilarity;
 
 import edu.stanford.nlp.pipeline.Annotation;
 
-import edu.ucla.sspace.util.CombinedIterator;
-
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 
 
 /**
@@ -48,6 +46,21 @@ import java.util.Queue;
  *
  * </p>
  *
+ * The score of a focus sense is the sum of it's {@link LeskSimilarity} with
+ * every sense of every context word, which is the overlap between the focus
+ * gloss and the bag of context gloss tokens, where each token is weighted by
+ * the number of context glosses containing it.  Rather than comparing every
+ * focus sense with every context sense, the gloss tokens of each focus sense
+ * are looked up in this bag.
+ *
+ * </p>
+ *
+ * The senses of each context word are looked up once, when it enters the
+ * window, and the bag of context gloss tokens is updated as the window slides
+ * rather than rebuilt for each focus word.
+ *
+ * </p>
+ *
  * This class <b>is</b> thread safe.
  *
  * @author Keith Stevens
@@ -58,22 +71,73 @@ public class LeskWordSenseDisambiguation extends SlidingWindowDisambiguation {
 
     protected SynsetSimilarity sim;
 
+    /**
+     * The {@link SlidingGlossWindow} for the sentences being disambiguated by
+     * each thread.
+     */
+    private final ThreadLocal<SlidingGlossWindow> windows;
+
+    /**
+     * Creates a new {@link LeskWordSenseDisambiguation} using the default
+     * window size.
+     */
+    public LeskWordSenseDisambiguation() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new {@link LeskWordSenseDisambiguation} that uses up to
+     * {@code windowSize} content words on each side of the focus word.
+     */
+    public LeskWordSenseDisambiguation(int windowSize) {
+        super(windowSize);
+        windows = new ThreadLocal<SlidingGlossWindow>();
+    }
+
     public void setup(OntologyReader reader) {
         this.reader = reader;
         this.sim = new LeskSimilarity();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public void disambiguate(List<Sentence> sentences,
+                             Set<Annotation> targets) {
+        windows.set(new SlidingGlossWindow(reader));
+        try {
+            super.disambiguate(sentences, targets);
+        } finally {
+            windows.remove();
+        }
+    }
+
     protected void processContext(Annotation focus,
                                   Queue<Annotation> prevWords,
                                   Queue<Annotation> nextWords) {
-        Synset[] focusSynsets = reader.getSynsets(
-                AnnotationUtil.word(focus), PartsOfSpeech.NOUN);
+        SlidingGlossWindow window = windows.get();
+        if (window == null)
+            window = new SlidingGlossWindow(reader);
+        window.slide(prevWords, focus, nextWords);
+
+        Synset[] focusSynsets = window.focusSenses();
+        if (focusSynsets.length == 0)
+            return;
+
         double[] synsetScores = new double[focusSynsets.length];
+        if (sim instanceof LeskSimilarity) {
+            computeScore(synsetScores, focusSynsets, window);
+        } else {
+            // Prepare each focus sense once for all of the context words.
+            PreparedSynsetSimilarity.Row[] focusRows =
+                new PreparedSynsetSimilarity.Row[focusSynsets.length];
+            for (int i = 0; i < focusSynsets.length; ++i)
+                focusRows[i] = BatchSynsetSimilarity.prepare(
+                        sim, focusSynsets[i]);
 
-        for (Annotation prev : prevWords)
-            computeScore(synsetScores, focusSynsets, prev);
-        for (Annotation next : nextWords)
-            computeScore(synsetScores, focusSynsets, next);
+            for (Synset[] others : window.contextSenses())
+                computeScore(synsetScores, focusRows, others);
+        }
 
         double maxScore = 0;
         int maxId = 0;
@@ -86,13 +150,25 @@ public class LeskWordSenseDisambiguation extends SlidingWindowDisambiguation {
         AnnotationUtil.setWordSense(focus, focusSynsets[maxId].getName());
     }
 
+    /**
+     * Adds the {@link LeskSimilarity} between each focus sense and every
+     * context sense to {@code synsetScores}.  Each token of a focus gloss,
+     * counting repeats, scores the number of context glosses containing it,
+     * which gives the same scores as comparing each pair of senses.
+     */
     private void computeScore(double[] synsetScores,
                               Synset[] focusSynsets,
-                              Annotation prev) {
-        Synset[] others = reader.getSynsets(
-                AnnotationUtil.word(prev), PartsOfSpeech.NOUN);
+                              SlidingGlossWindow window) {
         for (int i = 0; i < focusSynsets.length; ++i)
+            for (int token : GlossTokens.forSynset(focusSynsets[i]).tokens())
+                synsetScores[i] += window.contextCount(token);
+    }
+
+    private void computeScore(double[] synsetScores,
+                              PreparedSynsetSimilarity.Row[] focusRows,
+                              Synset[] others) {
+        for (int i = 0; i < focusRows.length; ++i)
             for (Synset other : others)
-                synsetScores[i] += sim.similarity(focusSynsets[i], other);
+                synsetScores[i] += focusRows[i].similarity(other);
     }
 }
@@ -24,13 +24,14 @@
 package gov.llnl.ontology.wordnet.wsd;
 
 import gov.llnl.ontology.util.AnnotationUtil;
-import gov.llnl.ontology.util.ExtendedList;
-import gov.llnl.ontology.util.ExtendedMap;
 import gov.llnl.ontology.wordnet.BaseSynset;
+import gov.llnl.ontology.wordnet.LocalPushPageRank;
 import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.PageRank;
+import gov.llnl.ontology.wordnet.PageRankSolver;
 import gov.llnl.ontology.wordnet.Synset;
 import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
-import gov.llnl.ontology.wordnet.SynsetPagerank;
+import gov.llnl.ontology.wordnet.TransitionMatrix;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -38,8 +39,8 @@ import com.google.common.collect.Sets;
 
 import edu.stanford.nlp.pipeline.Annotation;
 
-import edu.ucla.sspace.vector.CompactSparseVector;
 import edu.ucla.sspace.vector.SparseDoubleVector;
+import edu.ucla.sspace.vector.SparseHashDoubleVector;
 
 import java.util.Arrays;
 import java.util.List;
@@ -63,7 +64,17 @@ import java.util.Set;
  *
  * </p>
  *
- * This class <b>is</b> thread safe.
+ * The transition probabilities of WordNet are built once by {@link #setup}.
+ * Each context extends them with an overlay holding only the links of it's
+ * artificial term synsets, so no {@link Synset} is modified while
+ * disambiguating.  When the senses are ranked by a {@link
+ * LocalPushPageRank}, only the non zero source weights and scores are
+ * passed between them, so a context does no work proportional to the size of
+ * WordNet.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe once {@link #setup} has been called.
  *
  * @author Keith Stevens
  */
@@ -76,6 +87,44 @@ public class PersonalizedPageRankWSD extends SlidingWindowDisambiguation {
 
     private List<Synset> synsetList;
 
+    /**
+     * The transition probabilities of the base graph, which is shared by
+     * every context.
+     */
+    private TransitionMatrix baseMatrix;
+
+    /**
+     * The {@link PageRank} method used to rank the senses in each context.
+     */
+    private final PageRank pageRank;
+
+    /**
+     * Creates a new {@link PersonalizedPageRankWSD} that computes exact
+     * page rank scores with a {@link PageRankSolver}.
+     */
+    public PersonalizedPageRankWSD() {
+        this(new PageRankSolver());
+    }
+
+    /**
+     * Creates a new {@link PersonalizedPageRankWSD} that ranks senses with
+     * {@code pageRank}, such as a {@link LocalPushPageRank} when approximate
+     * scores are good enough.
+     */
+    public PersonalizedPageRankWSD(PageRank pageRank) {
+        this(pageRank, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new {@link PersonalizedPageRankWSD} that ranks senses with
+     * {@code pageRank} using up to {@code windowSize} content words on each
+     * side of the focus word.
+     */
+    public PersonalizedPageRankWSD(PageRank pageRank, int windowSize) {
+        super(windowSize);
+        this.pageRank = pageRank;
+    }
+
     public void setup(OntologyReader wordnet) {
         this.wordnet = wordnet;
 
@@ -84,55 +133,69 @@ public class PersonalizedPageRankWSD extends SlidingWindowDisambiguation {
         // synsets and a mapping from each synset to it's index in the list.
         synsetMap = Maps.newHashMap();
         synsetList = Lists.newArrayList();
-        int synsetIndex = 0;
-        for (String lemma : wordnet.wordnetTerms()) {
-            Synset[] synsets = wordnet.getSynsets(lemma);
-            for (int s = 0; s < synsets.length; ++s,++synsetIndex)
-                if (!synsetMap.containsKey(synsets[s])) {
-                    synsetMap.put(synsets[s], synsetIndex);
-                    synsetList.add(synsets[s]);
+        for (String lemma : wordnet.wordnetTerms())
+            for (Synset synset : wordnet.getSynsets(lemma))
+                if (!synsetMap.containsKey(synset)) {
+                    synsetMap.put(synset, synsetList.size());
+                    synsetList.add(synset);
                 }
-        }
-        SynsetPagerank.setupTransitionAttributes(synsetList, synsetMap);
+
+        // Build the transition probabilities of the base graph once.  Each
+        // context only adds the links of it's artificial synsets.
+        baseMatrix = new TransitionMatrix(synsetList, synsetMap);
     }
 
     protected void processContext(Annotation focus,
                                   Queue<Annotation> prevWords,
                                   Queue<Annotation> nextWords) {
-        Map<Synset, Integer> localMap = new ExtendedMap<Synset, Integer>(
-                synsetMap);
-        List<Synset> localList = new ExtendedList<Synset>(synsetList);
+        List<Synset> termSynsets = Lists.newArrayList();
 
         // Create an artificial synset for each word in the given sentence that
         // should be disambiguated. Start by adding the focus term itself.  If
         // that cannot be added, return and skip disambiguating this context.
-        if (addTermNode(localList, localMap, focus) == 0)
+        if (addTermNode(termSynsets, focus) == 0)
             return;
 
         // Add the artificial synsets for each of the context words.
         for (Annotation prev : prevWords)
-            addTermNode(localList, localMap, prev);
+            addTermNode(termSynsets, prev);
         for (Annotation next: nextWords)
-            addTermNode(localList, localMap, next);
-
-        // Place an even random surfer probability on each artificial synset.
-        double numTerms = localList.size() - synsetList.size();
-        SparseDoubleVector sourceWeights = new CompactSparseVector();
-        for (int i = synsetList.size(); i < localList.size(); ++i)
-            sourceWeights.set(i, 1d/numTerms);
-
-        // Run the page rank algorithm over the created graph.
-        SynsetPagerank.setupTransitionAttributes(localList, localMap);
-        SparseDoubleVector pageRanks = SynsetPagerank.computePageRank(
-                localList, sourceWeights, .85);
+            addTermNode(termSynsets, next);
+
+        // Extend the base graph with the artificial synsets, without
+        // modifying the base graph itself.
+        TransitionMatrix matrix = baseMatrix.withOverlay(
+                termSynsets, synsetMap);
+
+        // Place an even random surfer probability on each artificial synset
+        // and run the page rank algorithm over the created graph.
+        double numTerms = termSynsets.size();
+        SparseDoubleVector sparseRanks = null;
+        double[] pageRanks = null;
+        if (pageRank instanceof LocalPushPageRank) {
+            SparseDoubleVector sourceWeights =
+                new SparseHashDoubleVector(matrix.numNodes());
+            for (int i = synsetList.size(); i < matrix.numNodes(); ++i)
+                sourceWeights.set(i, 1d/numTerms);
+            sparseRanks = ((LocalPushPageRank) pageRank).computePageRank(
+                    matrix, sourceWeights, .85);
+        } else {
+            double[] sourceWeights = new double[matrix.numNodes()];
+            for (int i = synsetList.size(); i < sourceWeights.length; ++i)
+                sourceWeights[i] = 1d/numTerms;
+            pageRanks = pageRank.computePageRank(matrix, sourceWeights, .85);
+        }
 
         // Determine the best sense for the focus word. 
-        int focusIndex = synsetList.size();
         Synset maxSynset = null;
         double maxRank = 0;
-        for (Synset related : localList.get(focusIndex).getRelations(LINK)) {
-            int index = localMap.get(related);
-            double rank = pageRanks.get(index);
+        for (Synset related : termSynsets.get(0).getRelations(LINK)) {
+            Integer index = synsetMap.get(related);
+            if (index == null)
+                continue;
+            double rank = (pageRanks == null)
+                ? sparseRanks.get(index)
+                : pageRanks[index];
             if (maxRank <= rank) {
                 maxRank = rank;
                 maxSynset = related;
@@ -140,23 +203,22 @@ public class PersonalizedPageRankWSD extends SlidingWindowDisambiguation {
         }
 
         // Store the word sense annotation.
-        AnnotationUtil.setWordSense(focus, maxSynset.getName());
+        if (maxSynset != null)
+            AnnotationUtil.setWordSense(focus, maxSynset.getName());
     }
 
     /**
      * Adds a new artificial {@link Synset} corresponding to the word in {@code
      * word}.  This new {@link Synset} will be connected to each of it's
      * possible word senses via a fake "related" link.  Returns 1 if the word
-     * was added to {@code localMap} and 0 otherwise.
+     * was added to {@code termSynsets} and 0 otherwise.
      */
-    private int addTermNode(List<Synset> synsetList,
-                            Map<Synset, Integer> localMap, 
-                            Annotation word) {
+    private int addTermNode(List<Synset> termSynsets, Annotation word) {
         String token = AnnotationUtil.word(word);
 
         // Ignore words without senses in word net.
         Synset[] synsets = wordnet.getSynsets(token, PartsOfSpeech.NOUN);
-        if (synsets == null)
+        if (synsets == null || synsets.length == 0)
             return 0;
 
         // Create a link for each artificial synset to the word's possible
@@ -165,9 +227,8 @@ public class PersonalizedPageRankWSD extends SlidingWindowDisambiguation {
         for (Synset possibleSense : synsets)
             termSynset.addRelation(LINK, possibleSense);
 
-        // Add the word to the list of known synsets.
-        synsetList.add(termSynset);
-        localMap.put(termSynset, localMap.size());
+        // Add the word to the list of artificial synsets.
+        termSynsets.add(termSynset);
         return 1;
     }
 }
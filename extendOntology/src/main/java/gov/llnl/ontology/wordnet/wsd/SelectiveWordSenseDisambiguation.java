@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2011, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The S-Space package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.text.Sentence;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * A {@link WordSenseDisambiguation} algorithm that can limit it's work to a
+ * subset of the words in a document.  The remaining words still serve as
+ * context, but are not given a word sense tag.  This lets a cheaper algorithm
+ * handle the easy words and pass only the hard words on to this one, as done
+ * by {@link CascadingDisambiguation}.
+ *
+ * @author Keith Stevens
+ */
+public interface SelectiveWordSenseDisambiguation
+        extends WordSenseDisambiguation {
+
+    /**
+     * Disambiguates each word in {@code sentences} whose {@link Annotation} is
+     * in {@code targets}, which is compared by identity.  If {@code targets}
+     * is {@code null}, every word is disambiguated as in {@link
+     * #disambiguate(List)}.
+     */
+    void disambiguate(List<Sentence> sentences, Set<Annotation> targets);
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.TransitionMatrix;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+
+/**
+ * The subgraph of WordNet carved out for a single sentence, as built by a
+ * {@link SentenceGraphBuilder}.  Each {@link Synset} in the graph is a node
+ * numbered from zero, where the candidate senses of the sentence come first,
+ * and the links between nodes are undirected.  The links are stored as a
+ * compact adjacency list where the neighbors of node {@code i} are at
+ * positions {@code neighborStarts[i]} up to {@code neighborStarts[i+1]} of a
+ * single array.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe, as it can not be modified once built.
+ *
+ * @author Keith Stevens
+ */
+public class SentenceGraph {
+
+    /**
+     * The {@link Synset} of each node.
+     */
+    private final Synset[] synsets;
+
+    /**
+     * The node of each {@link Synset}.
+     */
+    private final Map<Synset, Integer> nodes;
+
+    /**
+     * The start of each node's neighbors in {@link #neighbors}.
+     */
+    private final int[] neighborStarts;
+
+    /**
+     * The neighbors of every node.
+     */
+    private final int[] neighbors;
+
+    /**
+     * Creates a new {@link SentenceGraph} with the given nodes and adjacency
+     * list.
+     */
+    SentenceGraph(Synset[] synsets, int[] neighborStarts, int[] neighbors) {
+        this.synsets = synsets;
+        this.neighborStarts = neighborStarts;
+        this.neighbors = neighbors;
+        nodes = new IdentityHashMap<Synset, Integer>();
+        for (int i = 0; i < synsets.length; ++i)
+            nodes.put(synsets[i], i);
+    }
+
+    /**
+     * Returns the number of nodes in the graph.
+     */
+    public int numNodes() {
+        return synsets.length;
+    }
+
+    /**
+     * Returns the number of undirected links in the graph.
+     */
+    public int numLinks() {
+        return neighbors.length / 2;
+    }
+
+    /**
+     * Returns the {@link Synset} for {@code node}.
+     */
+    public Synset synset(int node) {
+        return synsets[node];
+    }
+
+    /**
+     * Returns the node for {@code synset}, or -1 if it is not in the graph.
+     */
+    public int node(Synset synset) {
+        Integer node = nodes.get(synset);
+        return (node == null) ? -1 : node;
+    }
+
+    /**
+     * Returns the number of neighbors of {@code node}.
+     */
+    public int degree(int node) {
+        return neighborStarts[node + 1] - neighborStarts[node];
+    }
+
+    /**
+     * Returns the {@code i}th neighbor of {@code node}.
+     */
+    public int neighbor(int node, int i) {
+        return neighbors[neighborStarts[node] + i];
+    }
+
+    /**
+     * Returns a {@link TransitionMatrix} where each node links to each of
+     * it's neighbors with equal probability.
+     */
+    public TransitionMatrix transitionMatrix() {
+        return new TransitionMatrix(neighborStarts, neighbors);
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2010, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The C-Cat package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.Synset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Builds the {@link SentenceGraph} that connects the candidate senses of a
+ * sentence.  Every {@link Synset} reachable from the ontology's lemmas is
+ * given an int id when the builder is created, and the relations between
+ * them are stored as an undirected adjacency list over those ids.  For each
+ * pair of candidate senses, a bidirectional breadth first search finds a
+ * shortest path of at most {@code maxLength} links, growing the frontier of
+ * whichever side is smaller, and the {@link Synset}s and links along the path
+ * are added to the sentence graph.  Searching from both ends visits far fewer
+ * {@link Synset}s than a search from one end when the graph branches heavily,
+ * and recording a single shortest path per pair keeps the sentence graph
+ * small when a sentence has many ambiguous words.
+ *
+ * </p>
+ *
+ * Note that this differs from the depth first search that was used before,
+ * which added every path with at most five intermediate {@link Synset}s.
+ * Now a pair of senses joined by several paths only contributes the links of
+ * one shortest path, chosen by the order of the adjacency lists, so longer or
+ * equally short alternatives are left out of the graph.  Degree and PageRank
+ * scores over the graph can differ from those over the old graph as a
+ * result.
+ *
+ * </p>
+ *
+ * This class <b>is</b> thread safe.  Each thread reuses it's own visited
+ * markers between searches.
+ *
+ * @author Keith Stevens
+ */
+public class SentenceGraphBuilder {
+
+    /**
+     * The default maximum number of links in a path between two senses,
+     * which allows up to five {@link Synset}s between the two senses.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 6;
+
+    /**
+     * The {@link Synset} for each id.
+     */
+    private final List<Synset> synsets;
+
+    /**
+     * The id of each {@link Synset}.
+     */
+    private final Map<Synset, Integer> synsetIds;
+
+    /**
+     * The start of each {@link Synset}'s neighbors in {@link #neighbors}.
+     */
+    private final int[] neighborStarts;
+
+    /**
+     * The ids of every {@link Synset}'s neighbors.
+     */
+    private final int[] neighbors;
+
+    /**
+     * The maximum number of links in a path between two senses.
+     */
+    private final int maxLength;
+
+    /**
+     * The search state of each thread.
+     */
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * Creates a new {@link SentenceGraphBuilder} over the {@link Synset}s in
+     * {@code reader} that finds paths of at most {@link
+     * #DEFAULT_MAX_LENGTH} links.
+     */
+    public SentenceGraphBuilder(OntologyReader reader) {
+        this(reader, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates a new {@link SentenceGraphBuilder} over the {@link Synset}s in
+     * {@code reader} that finds paths of at most {@code maxLength} links.
+     *
+     * @throws IllegalArgumentException if {@code maxLength} is not positive
+     */
+    public SentenceGraphBuilder(OntologyReader reader, int maxLength) {
+        if (maxLength <= 0)
+            throw new IllegalArgumentException(
+                    "The maximum path length must be positive");
+        this.maxLength = maxLength;
+
+        // Number each synset for a lemma, followed by any other synset that
+        // can be reached through a relation.
+        synsets = new ArrayList<Synset>();
+        synsetIds = new HashMap<Synset, Integer>();
+        for (String lemma : reader.wordnetTerms())
+            for (Synset synset : reader.getSynsets(lemma))
+                addSynset(synset);
+
+        // Record each relation in both directions, packing the two ids into
+        // a single long so that sorting groups the neighbors of each synset.
+        long[] links = new long[16];
+        int numLinks = 0;
+        for (int id = 0; id < synsets.size(); ++id)
+            for (Synset related : synsets.get(id).allRelations()) {
+                int relatedId = addSynset(related);
+                if (relatedId == id)
+                    continue;
+                if (numLinks + 2 > links.length)
+                    links = Arrays.copyOf(links, 2 * links.length);
+                links[numLinks++] = ((long) id << 32) | relatedId;
+                links[numLinks++] = ((long) relatedId << 32) | id;
+            }
+        Arrays.sort(links, 0, numLinks);
+
+        neighborStarts = new int[synsets.size() + 1];
+        int[] linkTargets = new int[numLinks];
+        int numDistinct = 0;
+        for (int l = 0; l < numLinks; ++l) {
+            if (l > 0 && links[l] == links[l - 1])
+                continue;
+            neighborStarts[(int) (links[l] >>> 32) + 1]++;
+            linkTargets[numDistinct++] = (int) links[l];
+        }
+        for (int id = 0; id < synsets.size(); ++id)
+            neighborStarts[id + 1] += neighborStarts[id];
+        neighbors = Arrays.copyOf(linkTargets, numDistinct);
+
+        final int numSynsets = synsets.size();
+        searches = new ThreadLocal<Search>() {
+            protected Search initialValue() {
+                return new Search(numSynsets);
+            }
+        };
+    }
+
+    /**
+     * Returns the id of {@code synset}, giving it a new id if it does not
+     * have one.
+     */
+    private int addSynset(Synset synset) {
+        Integer id = synsetIds.get(synset);
+        if (id != null)
+            return id;
+        synsetIds.put(synset, synsets.size());
+        synsets.add(synset);
+        return synsets.size() - 1;
+    }
+
+    /**
+     * Returns the {@link SentenceGraph} connecting the {@link Synset}s in
+     * {@code senses}.  Each distinct sense is a node, numbered in the order
+     * of {@code senses}, even if it is not connected to any other sense.
+     */
+    public SentenceGraph build(Collection<? extends Synset> senses) {
+        Search search = searches.get();
+        search.nextGraph();
+
+        // Give each sense a node.  Senses the builder does not know about
+        // are kept in the graph but can not be connected.
+        List<Synset> nodeSynsets = new ArrayList<Synset>();
+        List<Integer> senseIds = new ArrayList<Integer>();
+        Map<Synset, Integer> unknownNodes = new HashMap<Synset, Integer>();
+        for (Synset sense : senses) {
+            Integer id = synsetIds.get(sense);
+            if (id == null) {
+                if (!unknownNodes.containsKey(sense)) {
+                    unknownNodes.put(sense, nodeSynsets.size());
+                    nodeSynsets.add(sense);
+                }
+            } else if (search.node(id) < 0) {
+                search.setNode(id, nodeSynsets.size());
+                nodeSynsets.add(sense);
+                senseIds.add(id);
+            }
+        }
+
+        // Find a shortest path between each pair of senses and link the
+        // nodes along it.
+        long[] links = new long[16];
+        int numLinks = 0;
+        for (int i = 0; i < senseIds.size(); ++i)
+            for (int j = i + 1; j < senseIds.size(); ++j) {
+                int[] path = search.shortestPath(
+                        senseIds.get(i), senseIds.get(j));
+                if (path == null)
+                    continue;
+                for (int p = 0; p < path.length; ++p)
+                    if (search.node(path[p]) < 0) {
+                        search.setNode(path[p], nodeSynsets.size());
+                        nodeSynsets.add(synsets.get(path[p]));
+                    }
+                for (int p = 1; p < path.length; ++p) {
+                    long node1 = search.node(path[p - 1]);
+                    long node2 = search.node(path[p]);
+                    if (numLinks + 2 > links.length)
+                        links = Arrays.copyOf(links, 2 * links.length);
+                    links[numLinks++] = (node1 << 32) | node2;
+                    links[numLinks++] = (node2 << 32) | node1;
+                }
+            }
+        Arrays.sort(links, 0, numLinks);
+
+        // Store the distinct links in a compact adjacency list.
+        int numNodes = nodeSynsets.size();
+        int[] starts = new int[numNodes + 1];
+        int[] linkTargets = new int[numLinks];
+        int numDistinct = 0;
+        for (int l = 0; l < numLinks; ++l) {
+            if (l > 0 && links[l] == links[l - 1])
+                continue;
+            starts[(int) (links[l] >>> 32) + 1]++;
+            linkTargets[numDistinct++] = (int) links[l];
+        }
+        for (int n = 0; n < numNodes; ++n)
+            starts[n + 1] += starts[n];
+
+        return new SentenceGraph(nodeSynsets.toArray(new Synset[numNodes]),
+                                 starts,
+                                 Arrays.copyOf(linkTargets, numDistinct));
+    }
+
+    /**
+     * The visited markers and frontiers used by a single thread.  Rather than
+     * clearing the markers before each search, each search uses a new stamp
+     * and a {@link Synset} counts as visited only if it's marker holds the
+     * current stamp.
+     */
+    private class Search {
+
+        /**
+         * The stamp of the last search from the first sense that visited
+         * each {@link Synset}.
+         */
+        private final int[] forwardStamps;
+
+        /**
+         * The stamp of the last search from the second sense that visited
+         * each {@link Synset}.
+         */
+        private final int[] backwardStamps;
+
+        /**
+         * The distance of each visited {@link Synset} from the first sense.
+         */
+        private final int[] forwardDistances;
+
+        /**
+         * The distance of each visited {@link Synset} from the second sense.
+         */
+        private final int[] backwardDistances;
+
+        /**
+         * The {@link Synset} from which each visited {@link Synset} was
+         * reached in the search from the first sense.
+         */
+        private final int[] forwardParents;
+
+        /**
+         * The {@link Synset} from which each visited {@link Synset} was
+         * reached in the search from the second sense.
+         */
+        private final int[] backwardParents;
+
+        /**
+         * The stamp of the last graph in which each {@link Synset} was given
+         * a node.
+         */
+        private final int[] nodeStamps;
+
+        /**
+         * The node of each {@link Synset} in the current graph.
+         */
+        private final int[] nodes;
+
+        private int searchStamp;
+
+        private int graphStamp;
+
+        private int[] forwardFrontier;
+
+        private int[] backwardFrontier;
+
+        private int[] nextFrontier;
+
+        public Search(int numSynsets) {
+            forwardStamps = new int[numSynsets];
+            backwardStamps = new int[numSynsets];
+            forwardDistances = new int[numSynsets];
+            backwardDistances = new int[numSynsets];
+            forwardParents = new int[numSynsets];
+            backwardParents = new int[numSynsets];
+            nodeStamps = new int[numSynsets];
+            nodes = new int[numSynsets];
+            forwardFrontier = new int[16];
+            backwardFrontier = new int[16];
+            nextFrontier = new int[16];
+        }
+
+        /**
+         * Forgets the nodes of the previous graph.
+         */
+        public void nextGraph() {
+            graphStamp++;
+        }
+
+        /**
+         * Returns the node of {@code id} in the current graph, or -1 if it
+         * has none.
+         */
+        public int node(int id) {
+            return (nodeStamps[id] == graphStamp) ? nodes[id] : -1;
+        }
+
+        /**
+         * Sets the node of {@code id} in the current graph.
+         */
+        public void setNode(int id, int node) {
+            nodeStamps[id] = graphStamp;
+            nodes[id] = node;
+        }
+
+        /**
+         * Returns the ids along a shortest path from {@code source} to {@code
+         * target} of at most {@link #maxLength} links, or {@code null} if
+         * there is no such path.
+         */
+        public int[] shortestPath(int source, int target) {
+            searchStamp++;
+            forwardStamps[source] = searchStamp;
+            forwardDistances[source] = 0;
+            forwardParents[source] = -1;
+            backwardStamps[target] = searchStamp;
+            backwardDistances[target] = 0;
+            backwardParents[target] = -1;
+            if (source == target)
+                return new int[] {source};
+
+            forwardFrontier[0] = source;
+            backwardFrontier[0] = target;
+            int forwardSize = 1;
+            int backwardSize = 1;
+            int forwardDepth = 0;
+            int backwardDepth = 0;
+            while (forwardSize > 0 && backwardSize > 0 &&
+                   forwardDepth + backwardDepth < maxLength) {
+                // Grow the smaller frontier by one level.  Every Synset met
+                // by both searches during this level lies on a path of the
+                // same or greater length, so keep the shortest.
+                boolean forward = forwardSize <= backwardSize;
+                int[] frontier = (forward) ? forwardFrontier : backwardFrontier;
+                int frontierSize = (forward) ? forwardSize : backwardSize;
+                int[] stamps = (forward) ? forwardStamps : backwardStamps;
+                int[] distances = (forward)
+                    ? forwardDistances
+                    : backwardDistances;
+                int[] parents = (forward) ? forwardParents : backwardParents;
+                int[] otherStamps = (forward) ? backwardStamps : forwardStamps;
+                int[] otherDistances = (forward)
+                    ? backwardDistances
+                    : forwardDistances;
+                int depth = (forward) ? forwardDepth : backwardDepth;
+
+                int meeting = -1;
+                int bestLength = maxLength + 1;
+                int nextSize = 0;
+                for (int f = 0; f < frontierSize; ++f) {
+                    int id = frontier[f];
+                    for (int n = neighborStarts[id];
+                             n < neighborStarts[id + 1]; ++n) {
+                        int neighbor = neighbors[n];
+                        if (stamps[neighbor] == searchStamp)
+                            continue;
+                        stamps[neighbor] = searchStamp;
+                        distances[neighbor] = depth + 1;
+                        parents[neighbor] = id;
+                        if (otherStamps[neighbor] == searchStamp) {
+                            int length =
+                                depth + 1 + otherDistances[neighbor];
+                            if (length < bestLength) {
+                                bestLength = length;
+                                meeting = neighbor;
+                            }
+                        }
+                        if (nextSize == nextFrontier.length)
+                            nextFrontier = Arrays.copyOf(
+                                    nextFrontier, 2 * nextSize);
+                        nextFrontier[nextSize++] = neighbor;
+                    }
+                }
+
+                if (meeting >= 0)
+                    return path(meeting, bestLength);
+
+                int[] swap = frontier;
+                if (forward) {
+                    forwardFrontier = nextFrontier;
+                    forwardSize = nextSize;
+                    forwardDepth++;
+                } else {
+                    backwardFrontier = nextFrontier;
+                    backwardSize = nextSize;
+                    backwardDepth++;
+                }
+                nextFrontier = swap;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the path of {@code length} links through {@code meeting}
+         * found by the last search.
+         */
+        private int[] path(int meeting, int length) {
+            int[] path = new int[length + 1];
+            int p = forwardDistances[meeting];
+            for (int id = meeting; id >= 0; id = forwardParents[id])
+                path[p--] = id;
+            p = forwardDistances[meeting];
+            for (int id = meeting; id >= 0; id = backwardParents[id])
+                path[p++] = id;
+            return path;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2011, Lawrence Livermore National Security, LLC. Produced at
+ * the Lawrence Livermore National Laboratory. Written by Keith Stevens,
+ * kstevens@cs.ucla.edu OCEC-10-073 All rights reserved. 
+ *
+ * This file is part of the C-Cat package and is covered under the terms and
+ * conditions therein.
+ *
+ * The S-Space package is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation and distributed hereunder to you.
+ *
+ * THIS SOFTWARE IS PROVIDED "AS IS" AND NO REPRESENTATIONS OR WARRANTIES,
+ * EXPRESS OR IMPLIED ARE MADE.  BY WAY OF EXAMPLE, BUT NOT LIMITATION, WE MAKE
+ * NO REPRESENTATIONS OR WARRANTIES OF MERCHANT- ABILITY OR FITNESS FOR ANY
+ * PARTICULAR PURPOSE OR THAT THE USE OF THE LICENSED SOFTWARE OR DOCUMENTATION
+ * WILL NOT INFRINGE ANY THIRD PARTY PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER
+ * RIGHTS.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.GlossTokens;
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+
+/**
+ * The words in the current context of a {@link SlidingWindowDisambiguation}
+ * along with their noun senses and the bag of gloss tokens from every context
+ * sense.  Since the window only moves by one word at a time, the senses of
+ * each word are looked up once when it enters the window and the bag is
+ * updated by adding the glosses of the words that enter the context and
+ * removing the glosses of the words that leave it, rather than rebuilding it
+ * for every focus word.
+ *
+ * </p>
+ *
+ * This class is <b>not</b> thread safe.  Each thread should use it's own
+ * {@link SlidingGlossWindow}.
+ *
+ * @author Keith Stevens
+ */
+class SlidingGlossWindow {
+
+    private final OntologyReader reader;
+
+    /**
+     * The words in the window, in document order.
+     */
+    private final Deque<Entry> entries;
+
+    /**
+     * The number of context glosses that contain each token.  Tokens that
+     * are in no context gloss are removed.
+     */
+    private final Map<Integer, int[]> tokenCounts;
+
+    /**
+     * The entry for the current focus word, whose glosses are not in the
+     * bag, or {@code null} if the focus word has left the window.
+     */
+    private Entry focus;
+
+    /**
+     * Creates a new empty {@link SlidingGlossWindow} that looks up senses
+     * with {@code reader}.
+     */
+    public SlidingGlossWindow(OntologyReader reader) {
+        this.reader = reader;
+        this.entries = new ArrayDeque<Entry>();
+        this.tokenCounts = new HashMap<Integer, int[]>();
+    }
+
+    /**
+     * Moves the window so that it holds {@code prevWords}, {@code focus}, and
+     * {@code nextWords}.  Words that are already in the window are kept, so
+     * moving the window by one word only looks up the senses of the single
+     * new word.  If the window does not overlap with it's previous position,
+     * it is rebuilt.
+     */
+    public void slide(Queue<Annotation> prevWords,
+                      Annotation focusWord,
+                      Queue<Annotation> nextWords) {
+        List<Annotation> window = new ArrayList<Annotation>(
+                prevWords.size() + 1 + nextWords.size());
+        window.addAll(prevWords);
+        int focusIndex = window.size();
+        window.add(focusWord);
+        window.addAll(nextWords);
+
+        // Drop the words that have left the window.
+        Annotation first = window.get(0);
+        while (!entries.isEmpty() && entries.peekFirst().word != first)
+            removeFirst();
+
+        // Keep the words that are still in the window, which must form a
+        // prefix of the new window.
+        int kept = 0;
+        Iterator<Entry> iter = entries.iterator();
+        while (iter.hasNext() && kept < window.size() &&
+               iter.next().word == window.get(kept))
+            kept++;
+        if (kept < entries.size()) {
+            clear();
+            kept = 0;
+        }
+
+        for (int i = kept; i < window.size(); ++i)
+            addLast(window.get(i));
+
+        // Move the old focus word into the context and take the new focus
+        // word out of it.
+        Entry newFocus = null;
+        iter = entries.iterator();
+        for (int i = 0; i <= focusIndex; ++i)
+            newFocus = iter.next();
+        if (focus != newFocus) {
+            if (focus != null)
+                addToContext(focus);
+            if (newFocus.inContext)
+                removeFromContext(newFocus);
+            focus = newFocus;
+        }
+    }
+
+    /**
+     * Returns the noun senses of the focus word.
+     */
+    public Synset[] focusSenses() {
+        return focus.senses;
+    }
+
+    /**
+     * Returns the noun senses of each context word.
+     */
+    public List<Synset[]> contextSenses() {
+        List<Synset[]> senses = new ArrayList<Synset[]>(entries.size());
+        for (Entry entry : entries)
+            if (entry.inContext)
+                senses.add(entry.senses);
+        return senses;
+    }
+
+    /**
+     * Returns the number of distinct tokens in the context glosses.
+     */
+    public int numContextTokens() {
+        return tokenCounts.size();
+    }
+
+    /**
+     * Returns the number of context glosses that contain {@code token}.
+     */
+    public int contextCount(int token) {
+        int[] count = tokenCounts.get(token);
+        return (count == null) ? 0 : count[0];
+    }
+
+    /**
+     * Stores each distinct token in the context glosses in {@code tokens} and
+     * the number of context glosses containing it in {@code weights}.  Both
+     * arrays must hold at least {@link #numContextTokens} values.
+     */
+    public void contextTokens(int[] tokens, double[] weights) {
+        int t = 0;
+        for (Map.Entry<Integer, int[]> e : tokenCounts.entrySet()) {
+            tokens[t] = e.getKey();
+            weights[t++] = e.getValue()[0];
+        }
+    }
+
+    /**
+     * Adds {@code word} to the end of the window and to the context.
+     */
+    private void addLast(Annotation word) {
+        Synset[] senses = reader.getSynsets(
+                AnnotationUtil.word(word), PartsOfSpeech.NOUN);
+        if (senses == null)
+            senses = new Synset[0];
+        int[][] glossTokens = new int[senses.length][];
+        for (int s = 0; s < senses.length; ++s)
+            glossTokens[s] = GlossTokens.forSynset(senses[s]).distinctTokens();
+
+        Entry entry = new Entry(word, senses, glossTokens);
+        entries.addLast(entry);
+        addToContext(entry);
+    }
+
+    /**
+     * Removes the first word in the window, and from the context if it is in
+     * the context.
+     */
+    private void removeFirst() {
+        Entry entry = entries.removeFirst();
+        if (entry.inContext)
+            removeFromContext(entry);
+        if (entry == focus)
+            focus = null;
+    }
+
+    /**
+     * Removes every word from the window.
+     */
+    private void clear() {
+        entries.clear();
+        tokenCounts.clear();
+        focus = null;
+    }
+
+    /**
+     * Adds the gloss tokens of {@code entry} to the bag.
+     */
+    private void addToContext(Entry entry) {
+        for (int[] glossTokens : entry.glossTokens)
+            for (int token : glossTokens) {
+                int[] count = tokenCounts.get(token);
+                if (count == null) {
+                    count = new int[1];
+                    tokenCounts.put(token, count);
+                }
+                count[0]++;
+            }
+        entry.inContext = true;
+    }
+
+    /**
+     * Removes the gloss tokens of {@code entry} from the bag.
+     */
+    private void removeFromContext(Entry entry) {
+        for (int[] glossTokens : entry.glossTokens)
+            for (int token : glossTokens) {
+                int[] count = tokenCounts.get(token);
+                if (--count[0] == 0)
+                    tokenCounts.remove(token);
+            }
+        entry.inContext = false;
+    }
+
+    /**
+     * A word in the window along with it's noun senses and their distinct
+     * gloss tokens.
+     */
+    private static class Entry {
+
+        private final Annotation word;
+
+        private final Synset[] senses;
+
+        private final int[][] glossTokens;
+
+        /**
+         * Set to true if the glosses of this word are in the bag.
+         */
+        private boolean inContext;
+
+        public Entry(Annotation word, Synset[] senses, int[][] glossTokens) {
+            this.word = word;
+            this.senses = senses;
+            this.glossTokens = glossTokens;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 
 
 /**
@@ -43,7 +44,8 @@ import java.util.Queue;
  * be disambiguated if it is for a noun, and the word is found in WordNet,
  * otherwise the focus word will be ignored.  Subclasses should implement {@link
  * processContext} to handle each sliding window context and update the focus
- * word {@link Annotation} with a word sense tag.
+ * word {@link Annotation} with a word sense tag.  Each window holds up to
+ * {@link #windowSize} content words before and after the focus word.
  *
  * </p>
  *
@@ -52,7 +54,45 @@ import java.util.Queue;
  * @author Keith Stevens
  */
 public abstract class SlidingWindowDisambiguation
-        implements WordSenseDisambiguation {
+        implements SelectiveWordSenseDisambiguation {
+
+    /**
+     * The default number of content words on each side of the focus word.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 10;
+
+    /**
+     * The number of content words on each side of the focus word.
+     */
+    private final int windowSize;
+
+    /**
+     * Creates a new {@link SlidingWindowDisambiguation} using the default
+     * window size.
+     */
+    public SlidingWindowDisambiguation() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates a new {@link SlidingWindowDisambiguation} that uses up to {@code
+     * windowSize} content words on each side of the focus word.
+     *
+     * @throws IllegalArgumentException if {@code windowSize} is not positive
+     */
+    public SlidingWindowDisambiguation(int windowSize) {
+        if (windowSize <= 0)
+            throw new IllegalArgumentException(
+                    "The window size must be positive");
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Returns the number of content words on each side of the focus word.
+     */
+    public int windowSize() {
+        return windowSize;
+    }
 
     /**
      * Processes the local context surrounded {@code focus}.  This should update
@@ -71,6 +111,14 @@ public abstract class SlidingWindowDisambiguation
      * {@inheritDoc}
      */
     public void disambiguate(List<Sentence> sentences) {
+        disambiguate(sentences, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void disambiguate(List<Sentence> sentences,
+                             Set<Annotation> targets) {
         List<Iterator<Annotation>> annotationIterators =
             new ArrayList<Iterator<Annotation>>();
         for (Sentence sent : sentences)
@@ -82,7 +130,7 @@ public abstract class SlidingWindowDisambiguation
         Queue<Annotation> prevWords = new ArrayDeque<Annotation>();
         Queue<Annotation> nextWords = new ArrayDeque<Annotation>();
 
-        while (annotIter.hasNext() && nextWords.size() < 10)
+        while (annotIter.hasNext() && nextWords.size() < windowSize)
             offer(annotIter.next(), nextWords);
 
         while (!nextWords.isEmpty()) {
@@ -91,10 +139,11 @@ public abstract class SlidingWindowDisambiguation
             if (annotIter.hasNext())
                 offer(annotIter.next(), nextWords);
             
-            processContext(focus, prevWords, nextWords);
+            if (targets == null || targets.contains(focus))
+                processContext(focus, prevWords, nextWords);
 
             prevWords.offer(focus);
-            if (prevWords.size() > 10)
+            if (prevWords.size() > windowSize)
                 prevWords.remove();
         }
     }
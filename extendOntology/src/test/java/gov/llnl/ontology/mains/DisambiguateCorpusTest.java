@@ -0,0 +1,181 @@
+package gov.llnl.ontology.mains;
+
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.wsd.WordSenseDisambiguation;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class DisambiguateCorpusTest {
+
+    private static String token(int index, String word, String pos) {
+        return index + "\t" + word + "\t_\t_\t" + pos;
+    }
+
+    private static DisambiguateCorpus.ConllReader makeReader(String... lines)
+            throws IOException {
+        File conllFile = File.createTempFile("corpus", ".conll");
+        conllFile.deleteOnExit();
+        PrintWriter writer = new PrintWriter(conllFile);
+        for (String line : lines)
+            writer.println(line);
+        writer.close();
+        return new DisambiguateCorpus.ConllReader(conllFile.getPath());
+    }
+
+    private static String[] words(Sentence sentence) {
+        List<String> words = new ArrayList<String>();
+        for (Annotation annot : sentence)
+            words.add(AnnotationUtil.word(annot));
+        return words.toArray(new String[words.size()]);
+    }
+
+    @Test public void testDocumentBoundaries() throws IOException {
+        DisambiguateCorpus.ConllReader reader = makeReader(
+                "-DOCSTART- -X- O O",
+                "",
+                token(1, "the", "DT"),
+                token(2, "cat", "NN"),
+                "",
+                "",
+                token(1, "dog", "NN"),
+                "-DOCSTART- -X- O O",
+                token(1, "bank", "NN"),
+                "   ",
+                token(1, "tree", "NN"));
+
+        DisambiguateCorpus.ConllDocument doc = reader.next();
+        assertEquals("-DOCSTART- -X- O O", doc.header());
+        assertEquals(2, doc.sentences().size());
+        assertArrayEquals(new String[] {"the", "cat"},
+                          words(doc.sentences().get(0)));
+        assertArrayEquals(new String[] {"dog"},
+                          words(doc.sentences().get(1)));
+        assertEquals(token(2, "cat", "NN"), doc.lines().get(0)[1]);
+
+        // A sentence ends at the next document even without a blank line,
+        // and at the end of the file.
+        doc = reader.next();
+        assertEquals("-DOCSTART- -X- O O", doc.header());
+        assertEquals(2, doc.sentences().size());
+        assertArrayEquals(new String[] {"bank"},
+                          words(doc.sentences().get(0)));
+        assertArrayEquals(new String[] {"tree"},
+                          words(doc.sentences().get(1)));
+
+        assertNull(reader.next());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test public void testNoDocumentStart() throws IOException {
+        DisambiguateCorpus.ConllReader reader = makeReader(
+                token(1, "cat", "NN"),
+                "",
+                token(1, "dog", "NN"),
+                "");
+
+        DisambiguateCorpus.ConllDocument doc = reader.next();
+        assertNull(doc.header());
+        assertEquals(2, doc.sentences().size());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test public void testEmptyCorpus() throws IOException {
+        DisambiguateCorpus.ConllReader reader = makeReader("", "");
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMalformedLine() throws IOException {
+        makeReader("1\tcat").next();
+    }
+
+    @Test public void testOutputOrder() throws Exception {
+        // Earlier documents take longer, so that they finish after later
+        // ones unless the output is kept in order.
+        int numDocuments = 12;
+        String[] lines = new String[2 * numDocuments];
+        StringBuilder expected = new StringBuilder();
+        for (int d = 0; d < numDocuments; ++d) {
+            String word = "w" + (numDocuments - d);
+            lines[2 * d] = "-DOCSTART- " + d;
+            lines[2 * d + 1] = token(1, word, "NN");
+            expected.append(lines[2 * d]).append('\n');
+            expected.append(lines[2 * d + 1]).append('\t')
+                    .append(word).append(".n.1\n\n");
+        }
+
+        int numThreads = 4;
+        BlockingQueue<WordSenseDisambiguation> wsdAlgs =
+            new ArrayBlockingQueue<WordSenseDisambiguation>(numThreads);
+        for (int i = 0; i < numThreads; ++i)
+            wsdAlgs.add(new SleepingDisambiguation());
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        StringWriter output = new StringWriter();
+        PrintWriter writer = new PrintWriter(output);
+
+        DisambiguateCorpus.DocumentPipeline pipeline =
+            new DisambiguateCorpus.DocumentPipeline(
+                    executor, wsdAlgs, 6, writer);
+        DisambiguateCorpus.ConllReader reader = makeReader(lines);
+        pipeline.disambiguate(reader);
+        pipeline.finish();
+        reader.close();
+        executor.shutdown();
+        writer.close();
+
+        assertEquals(expected.toString(),
+                     output.toString().replace(
+                         System.getProperty("line.separator"), "\n"));
+        assertEquals(numDocuments, pipeline.numDocuments());
+        assertEquals(numDocuments, pipeline.numSentences());
+        assertEquals(numThreads, wsdAlgs.size());
+    }
+
+    /**
+     * Gives each word the sense {@code word.n.1} after sleeping for five
+     * milliseconds times the number that follows the word's first letter.
+     */
+    private static class SleepingDisambiguation
+            implements WordSenseDisambiguation {
+
+        public void setup(OntologyReader reader) {
+        }
+
+        public void disambiguate(List<Sentence> sentences) {
+            for (Sentence sentence : sentences)
+                for (Annotation annot : sentence) {
+                    String word = AnnotationUtil.word(annot);
+                    try {
+                        Thread.sleep(5 * Integer.parseInt(word.substring(1)));
+                    } catch (InterruptedException ie) {
+                        throw new IllegalStateException(ie);
+                    }
+                    AnnotationUtil.setWordSense(annot, word + ".n.1");
+                }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+
+
+package gov.llnl.ontology.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class CompressedBitSetTest {
+
+    @Test public void testContains() {
+        CompressedBitSet bits = CompressedBitSet.of(3, 70, 64, 3, 100000);
+        assertEquals(4, bits.cardinality());
+        assertEquals(3, bits.numWords());
+        assertTrue(bits.contains(3));
+        assertTrue(bits.contains(64));
+        assertTrue(bits.contains(70));
+        assertTrue(bits.contains(100000));
+        assertFalse(bits.contains(4));
+        assertFalse(bits.contains(65));
+        assertFalse(bits.contains(-1));
+        assertFalse(CompressedBitSet.EMPTY.contains(0));
+    }
+
+    @Test public void testUnion() {
+        CompressedBitSet bits = CompressedBitSet.of(1, 200).union(
+                CompressedBitSet.of(2, 500));
+        assertEquals(4, bits.cardinality());
+        assertTrue(bits.contains(1));
+        assertTrue(bits.contains(2));
+        assertTrue(bits.contains(200));
+        assertTrue(bits.contains(500));
+        assertSame(bits, bits.union(CompressedBitSet.EMPTY));
+    }
+
+    @Test public void testIntersects() {
+        CompressedBitSet bits = CompressedBitSet.of(1, 200);
+        assertTrue(bits.intersects(CompressedBitSet.of(200, 300)));
+        assertFalse(bits.intersects(CompressedBitSet.of(2, 201)));
+        assertFalse(bits.intersects(CompressedBitSet.EMPTY));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeBit() {
+        CompressedBitSet.of(-3);
+    }
+}
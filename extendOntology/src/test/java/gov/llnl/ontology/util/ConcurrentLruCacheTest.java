@@ -0,0 +1,60 @@
+package gov.llnl.ontology.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class ConcurrentLruCacheTest {
+
+    @Test public void testLoader() {
+        ConcurrentLruCache<String, Integer> cache =
+            new ConcurrentLruCache<String, Integer>(10);
+        ConcurrentLruCache.Loader<String, Integer> loader =
+            new ConcurrentLruCache.Loader<String, Integer>() {
+                public Integer load(String key) {
+                    return key.length();
+                }
+            };
+        assertEquals(3, cache.get("cat", loader).intValue());
+        assertEquals(3, cache.get("cat", loader).intValue());
+        assertEquals(5, cache.get("horse", loader).intValue());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(1 / 3.0, cache.hitRate(), .0001);
+        assertEquals(2, cache.size());
+    }
+
+    @Test public void testEviction() {
+        ConcurrentLruCache<Integer, Integer> cache =
+            new ConcurrentLruCache<Integer, Integer>(2, 1);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        assertEquals(1, cache.get(1).intValue());
+        cache.put(3, 3);
+        assertEquals(1, cache.evictionCount());
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2));
+        assertEquals(1, cache.get(1).intValue());
+        assertEquals(3, cache.get(3).intValue());
+    }
+
+    @Test public void testClear() {
+        ConcurrentLruCache<Integer, Integer> cache =
+            new ConcurrentLruCache<Integer, Integer>(100);
+        for (int i = 0; i < 50; ++i)
+            cache.put(i, i);
+        assertEquals(50, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new ConcurrentLruCache<Integer, Integer>(0);
+    }
+}
@@ -0,0 +1,142 @@
+
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import edu.ucla.sspace.util.Pair;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class AncestorIndexTest {
+
+    private static Synset makeSynset(String lemma) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "", 0, 0, ""));
+        return synset;
+    }
+
+    private static void link(Synset child, Synset parent) {
+        child.addRelation(Relation.HYPERNYM, parent);
+        parent.addRelation(Relation.HYPONYM, child);
+    }
+
+    @Test public void testPathDistances() {
+        // entity -> animal -> feline -> cat, and entity -> pet -> cat.
+        Synset entity = makeSynset("entity");
+        Synset animal = makeSynset("animal");
+        Synset feline = makeSynset("feline");
+        Synset pet = makeSynset("pet");
+        Synset cat = makeSynset("cat");
+        Synset dog = makeSynset("dog");
+        link(animal, entity);
+        link(feline, animal);
+        link(pet, entity);
+        link(cat, feline);
+        link(cat, pet);
+        link(dog, pet);
+
+        AncestorIndex index = new AncestorIndex();
+        assertEquals(2, index.pathDistance(cat, entity, false));
+        assertEquals(3, index.pathDistance(cat, entity, true));
+        assertEquals(2, index.pathDistance(cat, dog, false));
+        assertEquals(5, index.pathDistance(cat, dog, true));
+        assertEquals(0, index.pathDistance(cat, cat, false));
+
+        Pair<Integer> distances =
+            index.closestCommonAncestorDistances(cat, dog);
+        assertEquals(1, distances.x.intValue());
+        assertEquals(1, distances.y.intValue());
+
+        assertEquals(Arrays.asList(pet),
+                     index.lowestCommonHypernyms(cat, dog));
+        assertEquals(Arrays.asList(feline),
+                     index.lowestCommonHypernyms(cat, feline));
+    }
+
+    @Test public void testDisconnected() {
+        Synset cat = makeSynset("cat");
+        Synset rock = makeSynset("rock");
+        AncestorIndex index = new AncestorIndex();
+        assertEquals(-1, index.pathDistance(cat, rock, false));
+        assertEquals(0, index.pathDistance(cat, rock, true));
+        assertNull(index.closestCommonAncestorDistances(cat, rock));
+        assertEquals(0, index.lowestCommonHypernyms(cat, rock).size());
+    }
+
+    @Test public void testHierarchyChanges() {
+        Synset animal = makeSynset("animal");
+        Synset cat = makeSynset("cat");
+        Synset rock = makeSynset("rock");
+        link(cat, animal);
+
+        AncestorIndex index = new AncestorIndex();
+        assertEquals(-1, index.pathDistance(cat, rock, false));
+
+        link(rock, animal);
+        assertEquals(2, index.pathDistance(cat, rock, false));
+
+        cat.removeRelation(Relation.HYPERNYM, animal);
+        assertEquals(-1, index.pathDistance(cat, rock, false));
+    }
+
+    @Test public void testCycle() {
+        Synset a = makeSynset("a");
+        Synset b = makeSynset("b");
+        Synset c = makeSynset("c");
+        link(a, b);
+        link(b, a);
+        link(c, a);
+
+        AncestorIndex index = new AncestorIndex();
+        assertEquals(1, index.pathDistance(c, a, false));
+        assertEquals(2, index.pathDistance(c, b, false));
+        assertEquals(
+                SynsetRelations.parentDistances(c, true).get(b).intValue(),
+                index.pathDistance(c, b, true));
+    }
+
+    @Test public void testUnrelatedChangesKeepEntries() {
+        Synset animal = makeSynset("animal");
+        Synset cat = makeSynset("cat");
+        Synset dog = makeSynset("dog");
+        link(cat, animal);
+        link(dog, animal);
+
+        AncestorIndex index = new AncestorIndex();
+        assertEquals(2, index.pathDistance(cat, dog, false));
+        int size = index.size();
+
+        // Modifying a separate hierarchy should not discard any entries.
+        Synset rock = makeSynset("rock");
+        Synset mineral = makeSynset("mineral");
+        link(rock, mineral);
+        assertEquals(2, index.pathDistance(cat, dog, false));
+        assertEquals(size, index.size());
+    }
+
+    @Test public void testMaxEntries() {
+        Synset root = makeSynset("root");
+        AncestorIndex index = new AncestorIndex(4);
+        for (int i = 0; i < 20; ++i) {
+            Synset child = makeSynset("child" + i);
+            link(child, root);
+            assertEquals(1, index.pathDistance(child, root, false));
+            assertTrue(index.size() <= 4 + 2);
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidMaxEntries() {
+        new AncestorIndex(0);
+    }
+}
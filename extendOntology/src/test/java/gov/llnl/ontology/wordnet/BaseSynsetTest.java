@@ -296,6 +296,48 @@ public class BaseSynsetTest {
         assertTrue(synset == parentPaths.get(1).get(2));
     }
 
+    @Test public void testCachedParentPaths() {
+        BaseSynset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        Synset root = new BaseSynset(PartsOfSpeech.NOUN);
+        Synset parent1 = new BaseSynset(PartsOfSpeech.NOUN);
+        Synset parent2 = new BaseSynset(PartsOfSpeech.NOUN);
+
+        synset.addRelation(Relation.HYPERNYM, parent1);
+        parent1.addRelation(Relation.HYPERNYM, root);
+
+        List<List<Synset>> parentPaths = synset.getParentPaths();
+        assertEquals(1, parentPaths.size());
+        assertSame(parentPaths, synset.getParentPaths());
+
+        Iterator<List<Synset>> pathIter = synset.parentPathIterator();
+        assertEquals(parentPaths.get(0), pathIter.next());
+        assertFalse(pathIter.hasNext());
+
+        // Adding a hypernym anywhere in the hierarchy should invalidate the
+        // cached paths.
+        synset.addRelation(Relation.HYPERNYM, parent2);
+        parent2.addRelation(Relation.HYPERNYM, root);
+        parentPaths = synset.getParentPaths();
+        assertEquals(2, parentPaths.size());
+        for (List<Synset> path : parentPaths) {
+            assertEquals(3, path.size());
+            assertSame(root, path.get(0));
+            assertSame(synset, path.get(2));
+        }
+
+        // Parent1 is now a root, so one path should be shorter.
+        parent1.removeRelation(Relation.HYPERNYM, root);
+        parentPaths = synset.getParentPaths();
+        assertEquals(2, parentPaths.size());
+        assertEquals(5, parentPaths.get(0).size() + parentPaths.get(1).size());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testParentPathsAreReadOnly() {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.getParentPaths().get(0).add(synset);
+    }
+
     @Test public void testAttribute() {
         Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
 
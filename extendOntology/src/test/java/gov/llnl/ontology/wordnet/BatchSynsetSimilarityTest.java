@@ -0,0 +1,125 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class BatchSynsetSimilarityTest {
+
+    private static Synset makeSynset(String definition) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.setDefinition(definition);
+        return synset;
+    }
+
+    private static void link(Synset child, Synset parent) {
+        child.addRelation(Relation.HYPERNYM, parent);
+        parent.addRelation(Relation.HYPONYM, child);
+    }
+
+    private static Synset[] makeHierarchy(int size) {
+        Random random = new Random(1);
+        String[] words = {"a", "small", "large", "cat", "dog", "animal"};
+        Synset[] synsets = new Synset[size];
+        for (int i = 0; i < size; ++i) {
+            StringBuilder definition = new StringBuilder();
+            for (int w = 0; w < 5; ++w)
+                definition.append(words[random.nextInt(words.length)])
+                          .append(" ");
+            synsets[i] = makeSynset(definition.toString());
+            if (i > 0)
+                link(synsets[i], synsets[random.nextInt(i)]);
+        }
+        return synsets;
+    }
+
+    private static void assertMatches(SynsetSimilarity sim,
+                                      Synset[] rows,
+                                      Synset[] columns,
+                                      double[][] scores) {
+        assertEquals(rows.length, scores.length);
+        for (int i = 0; i < rows.length; ++i)
+            for (int j = 0; j < columns.length; ++j)
+                assertEquals(sim.similarity(rows[i], columns[j]),
+                             scores[i][j], .0001);
+    }
+
+    @Test public void testSimilarities() {
+        Synset[] synsets = makeHierarchy(10);
+        SynsetSimilarity sim = new LeskSimilarity();
+        double[] scores = new BatchSynsetSimilarity(sim).similarities(
+                synsets[0], synsets);
+        for (int i = 0; i < synsets.length; ++i)
+            assertEquals(sim.similarity(synsets[0], synsets[i]),
+                         scores[i], .0001);
+    }
+
+    @Test public void testParallelMatrix() throws Exception {
+        Synset[] synsets = makeHierarchy(60);
+        Synset[] columns = Arrays.copyOf(synsets, 20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (SynsetSimilarity sim : new SynsetSimilarity[] {
+                    new PathSimilarity(), new ExtendedLeskSimilarity()}) {
+                BatchSynsetSimilarity batch =
+                    new BatchSynsetSimilarity(sim, executor);
+                assertMatches(sim, synsets, columns,
+                              batch.similarityMatrix(synsets, columns));
+                assertMatches(sim, synsets, synsets, batch.allPairs(synsets));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test public void testSymmetricAllPairs() {
+        Synset[] synsets = makeHierarchy(30);
+        SynsetSimilarity sim = new PathSimilarity();
+        double[][] scores =
+            new BatchSynsetSimilarity(sim).allPairs(synsets, true);
+        assertMatches(sim, synsets, synsets, scores);
+    }
+
+    @Test public void testPreparedMatrix() {
+        Synset[] synsets = makeHierarchy(30);
+        Synset[] columns = Arrays.copyOf(synsets, 10);
+        SynsetSimilarity sim = new LeskSimilarity();
+        BatchSynsetSimilarity batch = new BatchSynsetSimilarity(sim);
+        assertMatches(sim, synsets, columns,
+                      batch.similarityMatrix(synsets, columns));
+        sim = new ExtendedLeskSimilarity();
+        batch = new BatchSynsetSimilarity(sim);
+        assertMatches(sim, synsets, synsets, batch.allPairs(synsets));
+    }
+
+    @Test public void testColumnsPreparedOnce() {
+        final Map<Synset, Integer> prepared = new HashMap<Synset, Integer>();
+        SynsetSimilarity sim = new LeskSimilarity() {
+            public Column prepareColumn(Synset synset) {
+                Integer count = prepared.get(synset);
+                prepared.put(synset, (count == null) ? 1 : count + 1);
+                return super.prepareColumn(synset);
+            }
+        };
+        Synset[] synsets = makeHierarchy(40);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new BatchSynsetSimilarity(sim, executor).allPairs(synsets);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(synsets.length, prepared.size());
+        for (Integer count : prepared.values())
+            assertEquals(1, count.intValue());
+    }
+}
@@ -0,0 +1,66 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class CachedSynsetSimilarityTest {
+
+    private static class CountingSimilarity implements SynsetSimilarity {
+
+        int numCalls = 0;
+
+        public double similarity(Synset synset1, Synset synset2) {
+            numCalls++;
+            return (synset1 == synset2) ? 1 : .5;
+        }
+    }
+
+    @Test public void testSymmetricCache() {
+        Synset s1 = new BaseSynset(PartsOfSpeech.NOUN);
+        Synset s2 = new BaseSynset(PartsOfSpeech.NOUN);
+        CountingSimilarity base = new CountingSimilarity();
+        CachedSynsetSimilarity sim =
+            new CachedSynsetSimilarity(base, 10, true);
+
+        assertEquals(.5, sim.similarity(s1, s2), .0001);
+        assertEquals(.5, sim.similarity(s2, s1), .0001);
+        assertEquals(1, sim.similarity(s1, s1), .0001);
+        assertEquals(2, base.numCalls);
+        assertEquals(1, sim.hitCount());
+        assertEquals(2, sim.missCount());
+        assertEquals(2, sim.size());
+    }
+
+    @Test public void testAsymmetricCache() {
+        Synset s1 = new BaseSynset(PartsOfSpeech.NOUN);
+        Synset s2 = new BaseSynset(PartsOfSpeech.NOUN);
+        CountingSimilarity base = new CountingSimilarity();
+        CachedSynsetSimilarity sim = new CachedSynsetSimilarity(base, 10);
+
+        sim.similarity(s1, s2);
+        sim.similarity(s2, s1);
+        sim.similarity(s1, s2);
+        assertEquals(2, base.numCalls);
+        assertEquals(1, sim.hitCount());
+    }
+
+    @Test public void testHierarchyChange() {
+        Synset s1 = new BaseSynset(PartsOfSpeech.NOUN);
+        Synset s2 = new BaseSynset(PartsOfSpeech.NOUN);
+        CountingSimilarity base = new CountingSimilarity();
+        CachedSynsetSimilarity sim = new CachedSynsetSimilarity(base, 10);
+
+        sim.similarity(s1, s2);
+        s1.addRelation(Relation.HYPERNYM, s2);
+        sim.similarity(s1, s2);
+        assertEquals(2, base.numCalls);
+    }
+}
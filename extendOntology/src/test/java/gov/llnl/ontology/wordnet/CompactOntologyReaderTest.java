@@ -0,0 +1,130 @@
+
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class CompactOntologyReaderTest {
+
+    private static Synset makeSynset(String lemma, int senseNumber) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "noun.animal", 5, 0, ""));
+        synset.setSenseNumber(senseNumber);
+        synset.setDefinition("a " + lemma);
+        synset.addExample("the " + lemma + " sat");
+        return synset;
+    }
+
+    private static void link(Synset child, Synset parent) {
+        child.addRelation(Relation.HYPERNYM, parent);
+        parent.addRelation(Relation.HYPONYM, child);
+    }
+
+    private static CompactOntologyReader makeReader() {
+        Synset animal = makeSynset("animal", 1);
+        Synset feline = makeSynset("feline", 1);
+        Synset pet = makeSynset("pet", 1);
+        final Synset cat = makeSynset("cat", 1);
+        final Synset cat2 = makeSynset("cat", 2);
+        link(feline, animal);
+        link(pet, animal);
+        link(cat, feline);
+        link(cat, pet);
+        cat.addDerivationallyRelatedForm(pet, new SimpleRelatedForm(1, 2));
+
+        // Only cat is directly mapped, the rest of the graph must be found by
+        // following relations.
+        OntologyReader base = new OntologyReaderAdaptor(
+                new UnsupportedOntologyReader()) {
+            public Set<String> wordnetTerms() {
+                return Collections.singleton("cat");
+            }
+
+            public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+                return (lemma.equals("cat") && pos == PartsOfSpeech.NOUN)
+                    ? new Synset[] {cat, cat2}
+                    : new Synset[0];
+            }
+        };
+        return new CompactOntologyReader(base);
+    }
+
+    @Test public void testLemmaLookup() {
+        CompactOntologyReader reader = makeReader();
+        assertEquals(5, reader.numSynsets());
+        assertEquals(1, reader.wordnetTerms().size());
+        assertEquals(2, reader.getSynsets("cat", PartsOfSpeech.NOUN).length);
+        assertEquals(2, reader.getSynsets("cats", PartsOfSpeech.NOUN).length);
+        assertEquals(0, reader.getSynsets("cat", PartsOfSpeech.VERB).length);
+        assertEquals(0, reader.getSynsets("animal", PartsOfSpeech.NOUN).length);
+
+        Synset cat = reader.getSynset("cat.n.2");
+        assertEquals("cat.n.2", cat.getName());
+        assertSame(cat, reader.getSynset("cat", PartsOfSpeech.NOUN, 2));
+        assertSame(cat, reader.getSynset(reader.indexOf(cat)));
+        assertNull(reader.getSynset("cat", PartsOfSpeech.NOUN, 3));
+        assertEquals(2, reader.getMaxDepth(PartsOfSpeech.NOUN));
+    }
+
+    @Test public void testSynsetContents() {
+        CompactOntologyReader reader = makeReader();
+        Synset cat = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        assertEquals("a cat", cat.getDefinition());
+        assertEquals(Arrays.asList("the cat sat"), cat.getExamples());
+        assertEquals(1, cat.getLemmas().size());
+        assertEquals("noun.animal",
+                     cat.getLemmas().get(0).getLexicographerName());
+        assertSame(cat, cat.getLemmas().get(0).getSynset());
+    }
+
+    @Test public void testRelations() {
+        CompactOntologyReader reader = makeReader();
+        Synset cat = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        Set<Synset> parents = cat.getParents();
+        assertEquals(2, parents.size());
+        assertEquals(0, cat.getChildren().size());
+        assertEquals(2, cat.getNumRelations());
+
+        Synset animal = null;
+        Synset pet = null;
+        for (Synset parent : parents) {
+            if (parent.getName().equals("pet.n.1"))
+                pet = parent;
+            animal = parent.getParents().iterator().next();
+        }
+        assertEquals("animal.n.1", animal.getName());
+        assertEquals(2, animal.getChildren().size());
+        assertTrue(animal.getChildren().contains(pet));
+        assertFalse(parents.contains(animal));
+
+        RelatedForm form = cat.getDerivationallyRelatedForm(pet);
+        assertEquals(1, form.sourceIndex());
+        assertEquals(2, form.otherIndex());
+        assertNull(cat.getDerivationallyRelatedForm(animal));
+
+        List<List<Synset>> paths = cat.getParentPaths();
+        assertEquals(2, paths.size());
+        for (List<Synset> path : paths)
+            assertSame(animal, path.get(0));
+        assertEquals(2, cat.getMaxDepth());
+        assertEquals(2, cat.getMinDepth());
+        assertEquals(0, animal.getMaxDepth());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddRelation() {
+        Synset cat = makeReader().getSynset("cat", PartsOfSpeech.NOUN, 1);
+        cat.addRelation(Relation.HYPERNYM, cat);
+    }
+}
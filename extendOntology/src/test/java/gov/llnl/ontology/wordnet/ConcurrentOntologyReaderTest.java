@@ -0,0 +1,144 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class ConcurrentOntologyReaderTest {
+
+    private static Synset makeSynset(String lemma) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "", 0, 0, ""));
+        synset.setSenseNumber(1);
+        return synset;
+    }
+
+    /**
+     * A minimal mutable reader that maps each lemma to its synsets.
+     */
+    private static class MutableReader extends OntologyReaderAdaptor {
+
+        Map<String, Synset> synsets = new HashMap<String, Synset>();
+
+        public MutableReader() {
+            super(new UnsupportedOntologyReader());
+        }
+
+        public void addSynset(Synset synset) {
+            synsets.put(synset.getLemmas().get(0).getLemmaName(), synset);
+        }
+
+        public Set<String> wordnetTerms() {
+            return synsets.keySet();
+        }
+
+        public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+            Synset synset = synsets.get(lemma);
+            return (synset == null || pos != PartsOfSpeech.NOUN)
+                ? new Synset[0]
+                : new Synset[] {synset};
+        }
+    }
+
+    private static ConcurrentOntologyReader.Update addChild(
+            final String parent, final String child) {
+        return new ConcurrentOntologyReader.Update() {
+            public void apply(OntologyReader writer) {
+                Synset parentSynset =
+                    writer.getSynsets(parent, PartsOfSpeech.NOUN)[0];
+                Synset childSynset = makeSynset(child);
+                childSynset.addRelation(Relation.HYPERNYM, parentSynset);
+                parentSynset.addRelation(Relation.HYPONYM, childSynset);
+                writer.addSynset(childSynset);
+            }
+        };
+    }
+
+    @Test public void testSnapshotIsolation() {
+        MutableReader writer = new MutableReader();
+        writer.addSynset(makeSynset("animal"));
+        ConcurrentOntologyReader reader = new ConcurrentOntologyReader(writer);
+        CompactOntologyReader before = reader.snapshot();
+        assertEquals(0, reader.version());
+
+        reader.submit(addChild("animal", "cat"));
+        reader.submit(addChild("cat", "kitten"));
+        assertEquals(0, reader.getSynsets("cat", PartsOfSpeech.NOUN).length);
+
+        reader.publish();
+        assertEquals(1, reader.version());
+        Synset kitten = reader.getSynsets("kitten", PartsOfSpeech.NOUN)[0];
+        assertEquals(2, kitten.getMaxDepth());
+        assertEquals(3, reader.wordnetTerms().size());
+
+        // The earlier snapshot is unchanged.
+        assertEquals(1, before.wordnetTerms().size());
+        assertEquals(0, before.getSynsets("cat", PartsOfSpeech.NOUN).length);
+
+        // Publishing without changes keeps the current snapshot.
+        CompactOntologyReader after = reader.snapshot();
+        reader.publish();
+        assertSame(after, reader.snapshot());
+    }
+
+    @Test public void testFailedUpdate() {
+        MutableReader writer = new MutableReader();
+        writer.addSynset(makeSynset("animal"));
+        ConcurrentOntologyReader reader = new ConcurrentOntologyReader(writer);
+        reader.submit(addChild("animal", "cat"));
+        try {
+            reader.update(addChild("dog", "puppy"));
+            fail("Expected the update to fail");
+        } catch (ArrayIndexOutOfBoundsException e) {
+        }
+
+        // Nothing from the failed batch is published.
+        assertEquals(0, reader.version());
+        assertEquals(0, reader.getSynsets("cat", PartsOfSpeech.NOUN).length);
+        assertTrue(reader.isFailed());
+        try {
+            reader.update(addChild("animal", "dog"));
+            fail("Expected updates to be rejected after a failure");
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(0, reader.version());
+        assertEquals(1, reader.wordnetTerms().size());
+    }
+
+    @Test public void testBatchSize() {
+        MutableReader writer = new MutableReader();
+        writer.addSynset(makeSynset("animal"));
+        ConcurrentOntologyReader reader =
+            new ConcurrentOntologyReader(writer, 2);
+        reader.submit(addChild("animal", "cat"));
+        assertEquals(0, reader.version());
+        reader.submit(addChild("animal", "dog"));
+        assertEquals(1, reader.version());
+        assertEquals(3, reader.wordnetTerms().size());
+        reader.submit(addChild("cat", "kitten"));
+        assertEquals(1, reader.version());
+        reader.publish();
+        assertEquals(2, reader.version());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidBatchSize() {
+        new ConcurrentOntologyReader(new MutableReader(), 0);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testDirectModification() {
+        MutableReader writer = new MutableReader();
+        writer.addSynset(makeSynset("animal"));
+        new ConcurrentOntologyReader(writer).addSynset(makeSynset("cat"));
+    }
+}
@@ -0,0 +1,107 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class GlossIndexTest {
+
+    private static Synset makeSynset(String definition) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.setDefinition(definition);
+        return synset;
+    }
+
+    private static Map<String, Double> bag(String... words) {
+        Map<String, Double> bag = new HashMap<String, Double>();
+        for (String word : words) {
+            Double count = bag.get(word);
+            bag.put(word, (count == null) ? 1 : count + 1);
+        }
+        return bag;
+    }
+
+    @Test public void testOverlap() {
+        Synset pet = makeSynset("fluffy cute pet pet");
+        Synset machine = makeSynset("fluffy machine");
+        Synset color = makeSynset("a color");
+        GlossIndex index = new GlossIndex(Arrays.asList(pet, machine, color));
+        assertEquals(3, index.size());
+
+        List<GlossIndex.ScoredSynset> top = index.topSynsets(
+                bag("pet", "fluffy", "unseen"), null, 5,
+                GlossIndex.Measure.OVERLAP);
+        assertEquals(2, top.size());
+        assertSame(pet, top.get(0).synset());
+        assertEquals(3, top.get(0).score(), .0001);
+        assertSame(machine, top.get(1).synset());
+        assertEquals(1, top.get(1).score(), .0001);
+
+        top = index.topSynsets(bag("pet", "fluffy"), null, 1,
+                               GlossIndex.Measure.OVERLAP);
+        assertEquals(1, top.size());
+        assertSame(pet, top.get(0).synset());
+    }
+
+    @Test public void testCandidates() {
+        Synset pet = makeSynset("fluffy cute pet");
+        Synset machine = makeSynset("fluffy machine");
+        Synset unindexed = makeSynset("machine machine");
+        GlossIndex index = new GlossIndex(Arrays.asList(pet, machine));
+
+        List<GlossIndex.ScoredSynset> top = index.topSynsets(
+                bag("machine"), Arrays.asList(unindexed, machine, pet), 5,
+                GlossIndex.Measure.OVERLAP);
+        assertEquals(2, top.size());
+        assertSame(unindexed, top.get(0).synset());
+        assertEquals(2, top.get(0).score(), .0001);
+        assertSame(machine, top.get(1).synset());
+    }
+
+    @Test public void testCosine() {
+        Synset pet = makeSynset("fluffy pet");
+        Synset machine = makeSynset("fluffy machine");
+        GlossIndex index = new GlossIndex(Arrays.asList(pet, machine));
+
+        List<GlossIndex.ScoredSynset> top = index.topSynsets(
+                bag("fluffy", "pet"), null, 2, GlossIndex.Measure.COSINE);
+        assertSame(pet, top.get(0).synset());
+        assertEquals(1, top.get(0).score(), .0001);
+        assertEquals(.5, top.get(1).score(), .0001);
+    }
+
+    @Test public void testVocabulary() {
+        // The vocabulary word must not be in any gloss tokenized by another
+        // test, so that it only gets an id when this index is built.
+        Synset pet = makeSynset("glossIndexVocabularyWord pet");
+        GlossIndex index = new GlossIndex(
+                Arrays.asList(pet),
+                new HashSet<String>(Arrays.asList(
+                        "glossIndexVocabularyWord")));
+        List<GlossIndex.ScoredSynset> top = index.topSynsets(
+                bag("glossIndexVocabularyWord"), null, 1,
+                GlossIndex.Measure.COSINE);
+        assertEquals(1, top.size());
+        assertEquals(1, top.get(0).score(), .0001);
+        assertTrue(index.topSynsets(bag("pet"), null, 1,
+                                    GlossIndex.Measure.OVERLAP).isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidK() {
+        GlossIndex index = new GlossIndex(Arrays.asList(makeSynset("a")));
+        index.topSynsets(bag("a"), null, 0, GlossIndex.Measure.OVERLAP);
+    }
+}
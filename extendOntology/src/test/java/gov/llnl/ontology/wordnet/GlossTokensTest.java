@@ -0,0 +1,68 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class GlossTokensTest {
+
+    private static Synset makeSynset(String definition) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.setDefinition(definition);
+        return synset;
+    }
+
+    @Test public void testOverlap() {
+        GlossTokens gloss1 = GlossTokens.forSynset(
+                makeSynset("the cat has a brown bag"));
+        GlossTokens gloss2 = GlossTokens.forSynset(
+                makeSynset("bag dog was cat blah bag"));
+        assertEquals(2, gloss1.overlap(gloss2));
+        assertEquals(3, gloss1.overlapExp(gloss2));
+    }
+
+    @Test public void testOverlapExpSequence() {
+        GlossTokens gloss1 = GlossTokens.forSynset(
+                makeSynset("the cat has chicken bag the"));
+        GlossTokens gloss2 = GlossTokens.forSynset(
+                makeSynset("the dog was blarg chicken bag"));
+        assertEquals(7, gloss1.overlapExp(gloss2));
+    }
+
+    @Test public void testSharedIds() {
+        int[] tokens1 = GlossTokens.forSynset(
+                makeSynset("a brown  bag")).tokens();
+        int[] tokens2 = GlossTokens.forSynset(
+                makeSynset("bag brown")).tokens();
+        assertEquals(3, tokens1.length);
+        assertEquals(tokens1[2], tokens2[0]);
+        assertEquals(tokens1[1], tokens2[1]);
+    }
+
+    @Test public void testCacheRefresh() {
+        Synset synset = makeSynset("a brown bag");
+        GlossTokens gloss = GlossTokens.forSynset(synset);
+        assertSame(gloss, GlossTokens.forSynset(synset));
+
+        synset.setDefinition("a brown cat");
+        GlossTokens changed = GlossTokens.forSynset(synset);
+        assertNotSame(gloss, changed);
+        assertTrue(changed.contains(GlossTokens.findTokenId("cat")));
+        assertFalse(changed.contains(GlossTokens.findTokenId("bag")));
+    }
+
+    @Test public void testOnlyGlossTokensInterned() {
+        GlossTokens.forSynset(makeSynset("a striped feline"));
+        int numTokens = GlossTokens.numTokens();
+        assertTrue(GlossTokens.findTokenId("striped") >= 0);
+        assertEquals(-1, GlossTokens.findTokenId("neverInAnyGlossToken"));
+        assertEquals(-1, GlossTokens.findTokenId("neverInAnyGlossToken"));
+        assertEquals(numTokens, GlossTokens.numTokens());
+    }
+}
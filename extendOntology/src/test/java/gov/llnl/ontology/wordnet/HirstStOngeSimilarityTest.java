@@ -0,0 +1,222 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class HirstStOngeSimilarityTest {
+
+    private static final double C = 8;
+
+    private static final Relation[] UP_RELATION = {
+        Relation.HYPERNYM, Relation.MEMBER_MERONYM,
+        Relation.SUBSTANCE_MERONYM, Relation.PART_MERONYM
+    };
+
+    private static final Relation[] DOWN_RELATION = {
+        Relation.HYPONYM, Relation.MEMBER_HOLONYM, Relation.SUBSTANCE_HOLONYM,
+        Relation.PART_HOLONYM, Relation.CAUSE, Relation.ENTAILMENT
+    };
+
+    private static final Relation[] SIDE_RELATION = {
+        Relation.ALSO_SEE, Relation.ATTRIBUTE,
+        Relation.ANTONYM, Relation.SIMILAR_TO
+    };
+
+    private static Synset[] makeSynsets(int numSynsets) {
+        Synset[] synsets = new Synset[numSynsets];
+        for (int i = 0; i < numSynsets; ++i)
+            synsets[i] = new BaseSynset(i, PartsOfSpeech.NOUN);
+        return synsets;
+    }
+
+    /**
+     * Returns a small graph with upward, downward, and side paths, including
+     * a cycle and paths longer than the maximum length.
+     */
+    private static Synset[] makeGraph() {
+        Synset[] s = makeSynsets(10);
+        s[0].addRelation(Relation.HYPERNYM, s[1]);
+        s[1].addRelation(Relation.HYPONYM, s[2]);
+        s[0].addRelation(Relation.ALSO_SEE, s[3]);
+        s[3].addRelation(Relation.HYPONYM, s[4]);
+        s[1].addRelation(Relation.SIMILAR_TO, s[5]);
+        s[5].addRelation(Relation.PART_HOLONYM, s[6]);
+        s[2].addRelation(Relation.ANTONYM, s[7]);
+        s[7].addRelation(Relation.HYPERNYM, s[0]);
+        s[1].addRelation(Relation.PART_MERONYM, s[8]);
+        s[8].addRelation(Relation.HYPERNYM, s[9]);
+        s[9].addRelation(Relation.CAUSE, s[2]);
+        s[6].addRelation(Relation.ENTAILMENT, s[4]);
+        s[4].addRelation(Relation.ATTRIBUTE, s[7]);
+        return s;
+    }
+
+    @Test public void testKnownPaths() {
+        Synset[] s = makeGraph();
+        SynsetSimilarity sim = new HirstStOngeSimilarity();
+        // Up then down: two links and one change.
+        assertEquals(5 / C, sim.similarity(s[0], s[2]), .0001);
+        // Side then down: two links and one change.
+        assertEquals(5 / C, sim.similarity(s[0], s[4]), .0001);
+        // Down then side: two links and one change.
+        assertEquals(5 / C, sim.similarity(s[1], s[7]), .0001);
+        // Up, side, down: three links and two changes.
+        assertEquals(3 / C, sim.similarity(s[0], s[6]), .0001);
+        // No valid path leads back up from a downward link.
+        assertEquals(0, sim.similarity(s[3], s[0]), .0001);
+    }
+
+    @Test public void testMatchesRecursiveScoring() {
+        Synset[] s = makeGraph();
+        SynsetSimilarity sim = new HirstStOngeSimilarity();
+        for (Synset synset1 : s)
+            for (Synset synset2 : s)
+                assertEquals(recursiveSimilarity(synset1, synset2),
+                             sim.similarity(synset1, synset2), .0001);
+    }
+
+    @Test public void testMatchesRecursiveScoringOnRandomGraphs() {
+        Relation[][] directions = {UP_RELATION, DOWN_RELATION, SIDE_RELATION};
+        SynsetSimilarity sim = new HirstStOngeSimilarity();
+        Random random = new Random(5);
+        for (int trial = 0; trial < 20; ++trial) {
+            Synset[] s = makeSynsets(12);
+            for (int e = 0; e < 30; ++e) {
+                Relation[] direction = directions[random.nextInt(3)];
+                s[random.nextInt(s.length)].addRelation(
+                        direction[random.nextInt(direction.length)],
+                        s[random.nextInt(s.length)]);
+            }
+
+            for (Synset synset1 : s)
+                for (Synset synset2 : s)
+                    assertEquals(recursiveSimilarity(synset1, synset2),
+                                 sim.similarity(synset1, synset2), .0001);
+        }
+    }
+
+    /**
+     * The original recursive scoring, which explores every valid path.
+     */
+    private static double recursiveSimilarity(Synset synset1, Synset synset2) {
+        double bestScore = 0;
+        for (Relation relation : UP_RELATION)
+            for (Synset related : synset1.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState1(1, 0, related, synset2));
+
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : synset1.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState3(1, 0, related, synset2));
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : synset1.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState2(1, 0, related, synset2));
+        return bestScore / C;
+    }
+
+    private static double hsoState1(int depth, int dirChange,
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : UP_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState1(depth, dirChange, related, dest));
+
+        dirChange++;
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState2(depth, dirChange, related, dest));
+        return bestScore;
+    }
+
+    private static double hsoState2(int depth, int dirChange,
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState2(depth, dirChange, related, dest));
+
+        dirChange++;
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+        return bestScore;
+    }
+
+    private static double hsoState3(int depth, int dirChange,
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+
+        dirChange++;
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState5(depth, dirChange, related, dest));
+        return bestScore;
+    }
+
+    private static double hsoState4(int depth, int dirChange,
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : DOWN_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState4(depth, dirChange, related, dest));
+        return bestScore;
+    }
+
+    private static double hsoState5(int depth, int dirChange,
+                                    Synset src, Synset dest) {
+        double bestScore = (src.equals(dest)) ? C - depth - dirChange : 0;
+        depth++;
+        if (depth > 5)
+            return Math.max(bestScore, 0);
+
+        for (Relation relation : SIDE_RELATION)
+            for (Synset related : src.getRelations(relation))
+                bestScore = Math.max(
+                        bestScore, hsoState5(depth, dirChange, related, dest));
+        return bestScore;
+    }
+}
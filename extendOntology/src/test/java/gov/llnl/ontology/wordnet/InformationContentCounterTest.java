@@ -0,0 +1,142 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class InformationContentCounterTest {
+
+    private static final String[][] SYNSET_DATA = {
+        {"cat.n.1", "a small feline"},
+        {"dog.n.1", "a loyal canine"},
+        {"animal.n.1", "a living thing"},
+        {"entity.n.1", "any thing at all"},
+    };
+
+    private GenericMockReader makeReader() {
+        GenericMockReader reader = new GenericMockReader(SYNSET_DATA);
+        connect(reader, "cat.n.1", "animal.n.1");
+        connect(reader, "dog.n.1", "animal.n.1");
+        connect(reader, "animal.n.1", "entity.n.1");
+        // A second path from cat to entity should not count cat twice.
+        connect(reader, "cat.n.1", "entity.n.1");
+        return reader;
+    }
+
+    private static void connect(GenericMockReader reader,
+                                String child,
+                                String parent) {
+        reader.getSynset(child).addRelation(
+                Relation.HYPERNYM, reader.getSynset(parent));
+        reader.getSynset(parent).addRelation(
+                Relation.HYPONYM, reader.getSynset(child));
+    }
+
+    @Test public void testPropagation() {
+        GenericMockReader reader = makeReader();
+        InformationContentCounter counter =
+            new InformationContentCounter(reader);
+        counter.addCount("cat", PartsOfSpeech.NOUN, 2);
+        counter.addCount("dog", null, 1);
+        counter.addCount("dog", null, 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Map<Synset, Long> counts = counter.synsetCounts(executor, 3);
+        executor.shutdown();
+
+        assertEquals(2, counter.numLemmas());
+        assertEquals(4, counts.size());
+        assertEquals(2, counts.get(reader.getSynset("cat.n.1")).longValue());
+        assertEquals(3, counts.get(reader.getSynset("dog.n.1")).longValue());
+        assertEquals(5,
+                     counts.get(reader.getSynset("animal.n.1")).longValue());
+        assertEquals(5,
+                     counts.get(reader.getSynset("entity.n.1")).longValue());
+        assertEquals(counts, counter.synsetCounts(null, 1));
+    }
+
+    @Test public void testArrayInformationContent() {
+        Synset root = new BaseSynset(30, PartsOfSpeech.NOUN);
+        Synset leaf = new BaseSynset(10, PartsOfSpeech.NOUN);
+        Synset adj = new BaseSynset(20, PartsOfSpeech.ADJECTIVE_SAT);
+        Map<Synset, Long> counts = new HashMap<Synset, Long>();
+        counts.put(root, 4L);
+        counts.put(leaf, 1L);
+        counts.put(adj, 2L);
+
+        InformationContent ic = new ArrayInformationContent(counts);
+        assertEquals(4, ic.contentForSynset(root), .0001);
+        assertEquals(1, ic.contentForSynset(leaf), .0001);
+        assertEquals(5, ic.contentForPartOfSpeech(PartsOfSpeech.NOUN), .0001);
+        assertEquals(-Math.log(.2), ic.informationContent(leaf), .0001);
+        assertEquals(2, ic.contentForSynset(adj), .0001);
+        assertEquals(-1, ic.contentForSynset(
+                    new BaseSynset(10, PartsOfSpeech.VERB)), .0001);
+        assertEquals(-1, ic.informationContent(
+                    new BaseSynset(11, PartsOfSpeech.NOUN)), .0001);
+    }
+
+    @Test public void testSatelliteAdjectiveTotals() {
+        Synset head = new BaseSynset(40, PartsOfSpeech.ADJECTIVE);
+        Synset satellite = new BaseSynset(20, PartsOfSpeech.ADJECTIVE_SAT);
+        Map<Synset, Long> counts = new HashMap<Synset, Long>();
+        counts.put(head, 6L);
+        counts.put(satellite, 2L);
+
+        // Satellites share the adjective offsets but keep their own total.
+        InformationContent ic = new ArrayInformationContent(counts);
+        assertEquals(6, ic.contentForPartOfSpeech(PartsOfSpeech.ADJECTIVE),
+                     .0001);
+        assertEquals(2, ic.contentForPartOfSpeech(
+                    PartsOfSpeech.ADJECTIVE_SAT), .0001);
+        assertEquals(0, ic.informationContent(head), .0001);
+        assertEquals(0, ic.informationContent(satellite), .0001);
+        assertEquals(2, ic.contentForSynset(
+                    new BaseSynset(20, PartsOfSpeech.ADJECTIVE)), .0001);
+        assertEquals(-Math.log(2/6.0), ic.informationContent(
+                    new BaseSynset(20, PartsOfSpeech.ADJECTIVE)), .0001);
+    }
+
+    @Test public void testSatelliteAdjectiveFile() throws IOException {
+        File icFile = File.createTempFile("icCounts", ".dat");
+        icFile.deleteOnExit();
+        PrintWriter writer = new PrintWriter(icFile);
+        writer.println("wnver::test");
+        writer.println("40a 6");
+        writer.println("20s 2");
+        writer.println("10n 1");
+        writer.close();
+
+        InformationContent ic =
+            new ArrayInformationContent(icFile.getPath());
+        assertEquals(6, ic.contentForPartOfSpeech(PartsOfSpeech.ADJECTIVE),
+                     .0001);
+        assertEquals(2, ic.contentForPartOfSpeech(
+                    PartsOfSpeech.ADJECTIVE_SAT), .0001);
+        assertEquals(1, ic.contentForPartOfSpeech(PartsOfSpeech.NOUN), .0001);
+        assertEquals(2, ic.contentForSynset(
+                    new BaseSynset(20, PartsOfSpeech.ADJECTIVE_SAT)), .0001);
+        assertEquals(0, ic.informationContent(
+                    new BaseSynset(20, PartsOfSpeech.ADJECTIVE_SAT)), .0001);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidNumTasks() {
+        new InformationContentCounter(makeReader()).synsetCounts(null, 0);
+    }
+}
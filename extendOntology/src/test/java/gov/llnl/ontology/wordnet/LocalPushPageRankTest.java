@@ -0,0 +1,99 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import edu.ucla.sspace.vector.SparseDoubleVector;
+import edu.ucla.sspace.vector.SparseHashDoubleVector;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class LocalPushPageRankTest {
+
+    public static final int[][] LINKS = {
+        {0, 1}, {1, 0}, {1, 2}, {2, 1}, {2, 3}, {3, 0}, {4, 2}, {4, 3},
+    };
+
+    private TransitionMatrix makeMatrix() {
+        List<Synset> synsets = new ArrayList<Synset>();
+        Map<Synset, Integer> synsetMap = new HashMap<Synset, Integer>();
+        for (int i = 0; i < 6; ++i) {
+            Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+            synsetMap.put(synset, i);
+            synsets.add(synset);
+        }
+        for (int[] link : LINKS)
+            synsets.get(link[0]).addRelation("r", synsets.get(link[1]));
+        return new TransitionMatrix(synsets, synsetMap);
+    }
+
+    @Test public void testApproximation() {
+        TransitionMatrix matrix = makeMatrix();
+        double[] sources = {0, 0, 0, 0, 1, 0};
+        double[] expected = new PageRankSolver(200, 1e-12).computePageRank(
+                matrix, sources, .85);
+        double[] ranks = new LocalPushPageRank(1e-8).computePageRank(
+                matrix, sources, .85);
+
+        assertEquals(0, ranks[5], 0);
+        for (int i = 0; i < ranks.length; ++i) {
+            assertTrue(ranks[i] <= expected[i] + 1e-12);
+            assertEquals(expected[i], ranks[i], .00001);
+        }
+    }
+
+    @Test public void testSparseSources() {
+        TransitionMatrix matrix = makeMatrix();
+        double[] sources = {0, .5, 0, 0, .5, 0};
+        SparseDoubleVector sparseSources = new SparseHashDoubleVector(6);
+        sparseSources.set(1, .5);
+        sparseSources.set(4, .5);
+
+        LocalPushPageRank pageRank = new LocalPushPageRank(1e-8);
+        double[] expected = pageRank.computePageRank(matrix, sources, .85);
+        SparseDoubleVector ranks = pageRank.computePageRank(
+                matrix, sparseSources, .85);
+        assertEquals(6, ranks.length());
+        for (int i = 0; i < expected.length; ++i)
+            assertEquals(expected[i], ranks.get(i), 0);
+        assertEquals(5, ranks.getNonZeroIndices().length);
+    }
+
+    @Test public void testReusedWorkspace() {
+        TransitionMatrix matrix = makeMatrix();
+        double[] sources1 = {1, 0, 0, 0, 0, 0};
+        double[] sources2 = {0, 0, 0, 0, 1, 0};
+
+        // Each call must start from a clean workspace, no matter what the
+        // previous call on the same thread touched.
+        LocalPushPageRank pageRank = new LocalPushPageRank(1e-8);
+        double[] first = pageRank.computePageRank(matrix, sources1, .85);
+        double[] second = pageRank.computePageRank(matrix, sources2, .85);
+        double[] again = pageRank.computePageRank(matrix, sources1, .85);
+        double[] fresh = new LocalPushPageRank(1e-8).computePageRank(
+                matrix, sources2, .85);
+        assertArrayEquals(first, again, 0);
+        assertArrayEquals(fresh, second, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidSparseSources() {
+        new LocalPushPageRank().computePageRank(
+                makeMatrix(), new SparseHashDoubleVector(2), .85);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidEpsilon() {
+        new LocalPushPageRank(0);
+    }
+}
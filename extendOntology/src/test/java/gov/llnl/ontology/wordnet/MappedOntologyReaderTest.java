@@ -0,0 +1,163 @@
+
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import java.util.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class MappedOntologyReaderTest {
+
+    private static Synset makeSynset(String lemma, int senseNumber) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "noun.animal", 5, 0, ""));
+        synset.setSenseNumber(senseNumber);
+        synset.setDefinition("a " + lemma);
+        synset.addExample("the " + lemma + " sat");
+        return synset;
+    }
+
+    private static void link(Synset child, Synset parent) {
+        child.addRelation(Relation.HYPERNYM, parent);
+        parent.addRelation(Relation.HYPONYM, child);
+    }
+
+    private static MappedOntologyReader makeReader() throws Exception {
+        Synset animal = makeSynset("animal", 1);
+        Synset feline = makeSynset("feline", 1);
+        Synset pet = makeSynset("pet", 1);
+        Synset cat = makeSynset("cat", 1);
+        Synset cat2 = makeSynset("cat", 2);
+        link(feline, animal);
+        link(pet, animal);
+        link(cat, feline);
+        link(cat, pet);
+
+        Map<String, Synset[][]> lemmaMap = new HashMap<String, Synset[][]>();
+        for (Synset synset : new Synset[] {animal, feline, pet, cat, cat2}) {
+            String lemma = synset.getLemmas().get(0).getLemmaName();
+            Synset[][] posSynsets = lemmaMap.get(lemma);
+            if (posSynsets == null) {
+                posSynsets = new Synset[PartsOfSpeech.values().length][0];
+                lemmaMap.put(lemma, posSynsets);
+            }
+            Synset[] nouns = Arrays.copyOf(
+                    posSynsets[0], posSynsets[0].length + 1);
+            nouns[nouns.length - 1] = synset;
+            posSynsets[0] = nouns;
+        }
+
+        List<Map<String, String>> exceptions =
+            new ArrayList<Map<String, String>>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            exceptions.add(new HashMap<String, String>());
+        exceptions.get(0).put("kitties", "cat");
+
+        File snapshot = File.createTempFile("snapshot", ".bin");
+        snapshot.deleteOnExit();
+        WordNetSnapshot.write(snapshot.getPath(), lemmaMap, exceptions,
+                              new int[] {2, 0, 0, 0, 0});
+        return new MappedOntologyReader(snapshot.getPath());
+    }
+
+    @Test public void testLemmaLookup() throws Exception {
+        OntologyReader reader = makeReader();
+        assertEquals(4, reader.wordnetTerms().size());
+        assertEquals(2, reader.getSynsets("cat", PartsOfSpeech.NOUN).length);
+        assertEquals(0, reader.getSynsets("cat", PartsOfSpeech.VERB).length);
+        assertEquals(0, reader.getSynsets("dog", PartsOfSpeech.NOUN).length);
+
+        Synset cat = reader.getSynset("cat.n.2");
+        assertEquals("cat.n.2", cat.getName());
+        assertSame(cat, reader.getSynset("cat", PartsOfSpeech.NOUN, 2));
+        assertNull(reader.getSynset("cat", PartsOfSpeech.NOUN, 3));
+        assertEquals(2, reader.getMaxDepth(PartsOfSpeech.NOUN));
+    }
+
+    @Test public void testMorphy() throws Exception {
+        OntologyReader reader = makeReader();
+        Synset[] synsets = reader.getSynsets("cats", PartsOfSpeech.NOUN);
+        assertEquals(2, synsets.length);
+        assertEquals("cat.n.1", synsets[0].getName());
+
+        Iterator<String> forms = reader.morphy("kitties", PartsOfSpeech.NOUN);
+        assertEquals("cat", forms.next());
+    }
+
+    @Test public void testSynsetContents() throws Exception {
+        OntologyReader reader = makeReader();
+        Synset cat = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        assertEquals("a cat", cat.getDefinition());
+        assertEquals(1, cat.getExamples().size());
+        assertEquals("the cat sat", cat.getExamples().get(0));
+        assertEquals(1, cat.getLemmas().size());
+        assertEquals("noun.animal",
+                     cat.getLemmas().get(0).getLexicographerName());
+        assertEquals(PartsOfSpeech.NOUN, cat.getPartOfSpeech());
+    }
+
+    @Test public void testRelations() throws Exception {
+        OntologyReader reader = makeReader();
+        Synset cat = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        Synset animal = reader.getSynset("animal", PartsOfSpeech.NOUN, 1);
+
+        Set<Synset> parents = cat.getParents();
+        assertEquals(2, parents.size());
+        assertTrue(parents.contains(
+                    reader.getSynset("feline", PartsOfSpeech.NOUN, 1)));
+        assertTrue(parents.contains(
+                    reader.getSynset("pet", PartsOfSpeech.NOUN, 1)));
+        assertFalse(parents.contains(animal));
+        assertEquals(2, animal.getChildren().size());
+        assertEquals(0, cat.getChildren().size());
+        assertEquals(2, cat.getNumRelations());
+
+        List<List<Synset>> paths = cat.getParentPaths();
+        assertEquals(2, paths.size());
+        for (List<Synset> path : paths) {
+            assertSame(animal, path.get(0));
+            assertSame(cat, path.get(2));
+        }
+        assertEquals(2, cat.getMaxDepth());
+        assertEquals(2, cat.getMinDepth());
+        assertEquals(0, animal.getMaxDepth());
+    }
+
+    @Test public void testAttributes() throws Exception {
+        OntologyReader reader = makeReader();
+        Synset cat = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        Attribute<Integer> attribute = new Attribute<Integer>() {
+            public void merge(Attribute<Integer> other) {
+            }
+            public Integer object() {
+                return 1;
+            }
+        };
+        cat.setAttribute("count", attribute);
+        assertSame(attribute, reader.getSynset("cat.n.1").getAttribute("count"));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddRelation() throws Exception {
+        OntologyReader reader = makeReader();
+        Synset cat = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        cat.addRelation(Relation.HYPERNYM, cat);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveSynset() throws Exception {
+        OntologyReader reader = makeReader();
+        reader.removeSynset(reader.getSynset("cat", PartsOfSpeech.NOUN, 1));
+    }
+}
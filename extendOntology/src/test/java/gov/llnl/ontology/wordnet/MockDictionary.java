@@ -0,0 +1,75 @@
+package gov.llnl.ontology.wordnet;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+
+/**
+ * Writes a WordNet dictionary with a handful of synsets for each part of
+ * speech.
+ */
+public class MockDictionary {
+
+    private static final String[][] DICTIONARY = {
+        {"lexnames",
+         "00\tadj.all\t3\n01\tadv.all\t4\n02\tnoun.animal\t1\n" +
+         "03\tverb.motion\t2\n"},
+        {"frames.vrb", "1 Something ----s\n2 Somebody ----s\n"},
+        {"index.noun",
+         "  1 A small dictionary used for testing.\n" +
+         "animal n 1 1 ~ 1 0 00000100\n" +
+         "cat n 2 1 @ 2 0 00000200 00000300\n" +
+         "goose n 1 1 @ 1 0 00000400\n" +
+         "dog n 1 1 @ 1 0 00000500\n"},
+        {"data.noun",
+         "  1 A small dictionary used for testing.\n" +
+         "00000100 02 n 01 animal 0 003 ~ 00000200 n 0000 " +
+         "~ 00000400 n 0000 ~ 00000500 n 0000 | a living creature\n" +
+         "00000200 02 n 01 cat 0 001 @ 00000100 n 0000 " +
+         "| a small feline; \"the cat sat\"\n" +
+         "00000300 02 n 01 cat 1 000 | a spiteful woman\n" +
+         "00000400 02 n 01 goose 0 001 @ 00000100 n 0000 " +
+         "| a web footed bird\n" +
+         "00000500 02 n 01 dog 0 001 @ 00000100 n 0000 " +
+         "| a domestic canine\n"},
+        {"noun.exc", "geese goose\n"},
+        {"index.verb", "run v 1 0 1 0 00000100\n"},
+        {"data.verb", "00000100 03 v 01 run 0 000 01 + 02 00 | move fast\n"},
+        {"verb.exc", "ran run\n"},
+        {"index.adj", "big a 1 0 1 0 00000100\n"},
+        {"data.adj", "00000100 00 a 01 big 0 000 | large in size\n"},
+        {"adj.exc", "bigger big\n"},
+        {"index.adv", "fast r 1 0 1 0 00000100\n"},
+        {"data.adv", "00000100 01 r 01 fast 0 000 | quickly\n"},
+        {"adv.exc", "faster fast\n"},
+        {"index.sense",
+         "animal%1:02:00:: 00000100 1 0\n" +
+         "cat%1:02:00:: 00000200 1 0\n" +
+         "cat%1:02:01:: 00000300 2 0\n" +
+         "dog%1:02:00:: 00000500 1 0\n" +
+         "goose%1:02:00:: 00000400 1 0\n" +
+         "run%2:03:00:: 00000100 1 0\n" +
+         "big%3:00:00:: 00000100 1 0\n" +
+         "fast%4:01:00:: 00000100 1 0\n"},
+    };
+
+    /**
+     * Writes a small WordNet dictionary to a new temporary directory and
+     * returns the directory.
+     */
+    public static String write() throws IOException {
+        File dictDir = File.createTempFile("dict", "");
+        dictDir.delete();
+        dictDir.mkdir();
+        dictDir.deleteOnExit();
+        for (String[] file : DICTIONARY) {
+            File dictFile = new File(dictDir, file[0]);
+            dictFile.deleteOnExit();
+            FileWriter writer = new FileWriter(dictFile);
+            writer.write(file[1]);
+            writer.close();
+        }
+        return dictDir.getPath();
+    }
+}
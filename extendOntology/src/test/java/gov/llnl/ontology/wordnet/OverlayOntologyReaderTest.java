@@ -0,0 +1,113 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class OverlayOntologyReaderTest {
+
+    private static Synset makeSynset(String lemma) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "", 0, 0, ""));
+        return synset;
+    }
+
+    private static OntologyReader makeBase(final Synset... synsets) {
+        return new OntologyReaderAdaptor(new UnsupportedOntologyReader()) {
+            public Iterator<String> morphy(String form, PartsOfSpeech pos) {
+                return Collections.<String>emptyList().iterator();
+            }
+
+            public Set<String> wordnetTerms() {
+                Set<String> terms = new HashSet<String>();
+                for (Synset synset : synsets)
+                    terms.add(synset.getLemmas().get(0).getLemmaName());
+                return terms;
+            }
+
+            public Set<String> wordnetTerms(PartsOfSpeech pos) {
+                return wordnetTerms();
+            }
+
+            public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+                List<Synset> found = new ArrayList<Synset>();
+                for (Synset synset : synsets)
+                    if (lemma.equals(synset.getLemmas().get(0).getLemmaName()))
+                        found.add(synset);
+                return found.toArray(new Synset[0]);
+            }
+
+            public int getMaxDepth(PartsOfSpeech pos) {
+                return 0;
+            }
+        };
+    }
+
+    @Test public void testForkIsolation() {
+        Synset animal = makeSynset("animal");
+        OntologyReader base = makeBase(animal);
+        OverlayOntologyReader overlay = new OverlayOntologyReader(base);
+
+        Synset cat = makeSynset("cat");
+        cat.addRelation(Relation.HYPERNYM, animal);
+        overlay.addSynset(cat);
+        OverlayOntologyReader fork = overlay.fork();
+
+        Synset cat2 = makeSynset("cat");
+        fork.addSynset(cat2, 0);
+        Synset dog = makeSynset("dog");
+        overlay.addSynset(dog);
+
+        assertEquals(0, base.getSynsets("cat", PartsOfSpeech.NOUN).length);
+        assertEquals(Arrays.asList(cat), Arrays.asList(
+                    overlay.getSynsets("cat", PartsOfSpeech.NOUN)));
+        assertEquals(Arrays.asList(cat2, cat), Arrays.asList(
+                    fork.getSynsets("cat", PartsOfSpeech.NOUN)));
+        assertSame(cat2, fork.getSynset("cat", PartsOfSpeech.NOUN, 1));
+        assertEquals(1, overlay.getSynsets("dog", PartsOfSpeech.NOUN).length);
+        assertEquals(0, fork.getSynsets("dog", PartsOfSpeech.NOUN).length);
+        assertTrue(fork.wordnetTerms().contains("cat"));
+        assertFalse(fork.wordnetTerms().contains("dog"));
+        assertEquals(1, fork.getMaxDepth(PartsOfSpeech.NOUN));
+
+        fork.discard();
+        assertEquals(1, fork.getSynsets("cat", PartsOfSpeech.NOUN).length);
+        overlay.discard();
+        assertTrue(overlay.isEmpty());
+        assertEquals(0, overlay.getSynsets("cat", PartsOfSpeech.NOUN).length);
+    }
+
+    @Test public void testRemoveAndReplace() {
+        Synset animal = makeSynset("animal");
+        Synset animal2 = makeSynset("animal");
+        OntologyReader base = makeBase(animal, animal2);
+        OverlayOntologyReader overlay = new OverlayOntologyReader(base);
+
+        overlay.removeSynset(animal);
+        assertEquals(Arrays.asList(animal2), Arrays.asList(
+                    overlay.getSynsets("animal", PartsOfSpeech.NOUN)));
+        assertEquals(2, base.getSynsets("animal", PartsOfSpeech.NOUN).length);
+
+        Synset beast = makeSynset("beast");
+        overlay.replaceSynset(animal2, beast);
+        assertEquals(Arrays.asList(beast), Arrays.asList(
+                    overlay.getSynsets("animal", PartsOfSpeech.NOUN)));
+        assertFalse(overlay.wordnetTerms(PartsOfSpeech.NOUN).contains("beast"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidIndex() {
+        OverlayOntologyReader overlay =
+            new OverlayOntologyReader(makeBase(makeSynset("animal")));
+        overlay.addSynset(makeSynset("animal"), 3);
+    }
+}
@@ -0,0 +1,86 @@
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class PageRankSolverTest {
+
+    private List<Synset> synsets;
+
+    private Map<Synset, Integer> synsetMap;
+
+    private void makeGraph(int numNodes, int[][] links) {
+        synsets = new ArrayList<Synset>();
+        synsetMap = new HashMap<Synset, Integer>();
+        for (int i = 0; i < numNodes; ++i) {
+            Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+            synsetMap.put(synset, i);
+            synsets.add(synset);
+        }
+        for (int[] link : links)
+            synsets.get(link[0]).addRelation("r", synsets.get(link[1]));
+    }
+
+    @Test public void testCycle() {
+        makeGraph(3, new int[][] {{0, 1}, {1, 2}, {2, 0}});
+        TransitionMatrix matrix = new TransitionMatrix(synsets, synsetMap);
+        assertEquals(3, matrix.numLinks());
+
+        double[] sources = {1/3d, 1/3d, 1/3d};
+        double[] ranks = new PageRankSolver().computePageRank(
+                matrix, sources, .85);
+        for (double rank : ranks)
+            assertEquals(1/3d, rank, .000001);
+    }
+
+    @Test public void testUnlinkedSource() {
+        makeGraph(3, new int[][] {{0, 1}, {1, 2}, {2, 1}});
+        TransitionMatrix matrix = new TransitionMatrix(synsets, synsetMap);
+
+        double[] sources = {1, 0, 0};
+        double[] ranks = new PageRankSolver(200, 1e-12).computePageRank(
+                matrix, sources, .85);
+        assertEquals(.15, ranks[0], .000001);
+        assertEquals(.1275 / (1 - .85 * .85), ranks[1], .000001);
+        assertEquals(.85 * ranks[1], ranks[2], .000001);
+    }
+
+    @Test public void testOverlay() {
+        makeGraph(4, new int[][] {{0, 1}, {1, 2}, {2, 0}, {3, 0}, {3, 2}});
+        TransitionMatrix fullMatrix = new TransitionMatrix(synsets, synsetMap);
+        List<Synset> extraSynsets = synsets.subList(3, 4);
+        synsetMap.remove(synsets.get(3));
+        TransitionMatrix base = new TransitionMatrix(
+                synsets.subList(0, 3), synsetMap);
+        TransitionMatrix overlay = base.withOverlay(extraSynsets, synsetMap);
+        assertEquals(3, base.numNodes());
+        assertEquals(4, overlay.numNodes());
+        assertEquals(5, overlay.numLinks());
+
+        double[] sources = {0, 0, 0, 1};
+        PageRankSolver solver = new PageRankSolver();
+        double[] expected = solver.computePageRank(fullMatrix, sources, .85);
+        double[] ranks = solver.computePageRank(overlay, sources, .85);
+        for (int i = 0; i < expected.length; ++i)
+            assertEquals(expected[i], ranks[i], .000001);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMismatchedSources() {
+        makeGraph(3, new int[][] {{0, 1}});
+        TransitionMatrix matrix = new TransitionMatrix(synsets, synsetMap);
+        new PageRankSolver().computePageRank(matrix, new double[2], .85);
+    }
+}
@@ -0,0 +1,89 @@
+
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class SubsumptionIndexTest {
+
+    private static Synset makeSynset(String lemma) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "", 0, 0, ""));
+        return synset;
+    }
+
+    private static void link(Synset child, Synset parent) {
+        child.addRelation(Relation.HYPERNYM, parent);
+        parent.addRelation(Relation.HYPONYM, child);
+    }
+
+    private static OntologyReader makeReader(final Synset... synsets) {
+        return new OntologyReaderAdaptor(new UnsupportedOntologyReader()) {
+            public Set<String> wordnetTerms() {
+                Set<String> terms = new HashSet<String>();
+                for (Synset synset : synsets)
+                    terms.add(synset.getLemmas().get(0).getLemmaName());
+                return terms;
+            }
+
+            public Synset[] getSynsets(String lemma, PartsOfSpeech pos) {
+                List<Synset> found = new ArrayList<Synset>();
+                for (Synset synset : synsets)
+                    if (pos == PartsOfSpeech.NOUN && lemma.equals(
+                            synset.getLemmas().get(0).getLemmaName()))
+                        found.add(synset);
+                return found.toArray(new Synset[0]);
+            }
+        };
+    }
+
+    @Test public void testSubsumption() {
+        Synset entity = makeSynset("entity");
+        Synset animal = makeSynset("animal");
+        Synset pet = makeSynset("pet");
+        Synset cat = makeSynset("cat");
+        Synset rock = makeSynset("rock");
+        link(animal, entity);
+        link(cat, animal);
+        link(cat, pet);
+
+        // Entity is only reachable through the hypernyms of animal.
+        SubsumptionIndex index = new SubsumptionIndex(
+                makeReader(cat, animal, pet, rock));
+        assertEquals(5, index.numSynsets());
+        assertTrue(index.isAncestor(entity, cat));
+        assertTrue(index.isAncestor(pet, cat));
+        assertFalse(index.isAncestor(cat, entity));
+        assertFalse(index.isAncestor(cat, cat));
+        assertFalse(index.shareAncestor(pet, animal));
+        assertTrue(index.shareAncestor(cat, entity));
+        assertFalse(index.shareAncestor(cat, rock));
+
+        assertTrue(index.hasKnownHypernym(
+                    new Synset[] {cat}, new Synset[] {rock, entity}));
+        assertFalse(index.hasKnownHypernym(
+                    new Synset[] {animal}, new Synset[] {pet}));
+        assertFalse(index.hasKnownHypernym(
+                    new Synset[] {cat, animal}, new Synset[] {animal}));
+    }
+
+    @Test public void testIsCurrent() {
+        Synset animal = makeSynset("animal");
+        Synset cat = makeSynset("cat");
+        SubsumptionIndex index = new SubsumptionIndex(makeReader(cat, animal));
+        assertTrue(index.isCurrent());
+        link(cat, animal);
+        assertFalse(index.isCurrent());
+    }
+}
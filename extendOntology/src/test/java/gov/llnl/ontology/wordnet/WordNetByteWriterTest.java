@@ -0,0 +1,404 @@
+
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class WordNetByteWriterTest {
+
+    @Test public void testMatchesSynsetWriter() throws Exception {
+        BaseSynset verb = new BaseSynset(PartsOfSpeech.VERB);
+        verb.addLemma(new BaseLemma(
+                    verb, "caf\u00e9", "verb.motion", 38, 1, ""));
+        verb.addLemma(new BaseLemma(verb, "run", "verb.motion", 38, 12, ""));
+        verb.setDefinition("move fast \u00e9");
+        verb.addExample("he ran");
+        verb.setFrameInfo(new int[] {2, 8}, new int[] {1, 0});
+        verb.setId(1234);
+
+        BaseSynset noun = new BaseSynset(PartsOfSpeech.NOUN);
+        noun.addLemma(new BaseLemma(noun, "race", "noun.act", 4, 0, ""));
+        noun.setDefinition("a contest of speed");
+        noun.setId(98765);
+        verb.addRelation(Relation.HYPERNYM, noun);
+        verb.addRelation("-1", noun);
+
+        WordNetSynsetWriter expected = new WordNetSynsetWriter(6);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WordNetByteWriter writer = new WordNetByteWriter(
+                Channels.newChannel(out), 6, 8);
+        writer.writeSynset(verb);
+        writer.writeSynset(noun);
+        writer.flush();
+
+        String lines = expected.serializeSynset(verb) +
+                       expected.serializeSynset(noun);
+        assertEquals(lines, new String(out.toByteArray(), "utf-8"));
+        assertEquals(out.size(), writer.position());
+        assertEquals(expected.serializeSynsetKey(verb),
+                     writer.synsetKey(verb));
+    }
+
+    /**
+     * The files written by {@link WordNetCorpusReader#saveWordNet}.
+     */
+    private static final String[] SAVED_FILES = {
+        "data.noun", "data.verb", "data.adj", "data.adv",
+        "index.noun", "index.verb", "index.adj", "index.adv", "index.sense",
+        "senseMap.noun", "senseMap.verb", "senseMap.adj", "senseMap.adv",
+    };
+
+    /**
+     * Returns a dictionary from {@link MockDictionary} with an adverb whose
+     * pertainym pointer refers to an adjective.  Since {@code aloud} sorts
+     * before {@code loud}, the adverb is saved before the adjective is given
+     * it's new offset.
+     */
+    private static String writeDictionary() throws IOException {
+        String dictPath = MockDictionary.write();
+        writeFile(dictPath, "index.adj",
+                  "big a 1 0 1 0 00000100\n" +
+                  "loud a 1 0 1 0 00000200\n");
+        writeFile(dictPath, "data.adj",
+                  "00000100 00 a 01 big 0 000 | large in size\n" +
+                  "00000200 00 a 01 loud 0 000 | characterized by noise\n");
+        writeFile(dictPath, "index.adv",
+                  "aloud r 1 1 \\ 1 0 00000200\n" +
+                  "fast r 1 0 1 0 00000100\n");
+        writeFile(dictPath, "data.adv",
+                  "00000100 01 r 01 fast 0 000 | quickly\n" +
+                  "00000200 01 r 01 aloud 0 001 \\ 00000200 a 0101 " +
+                  "| with a loud voice\n");
+        return dictPath;
+    }
+
+    private static void writeFile(String dir, String name, String contents)
+            throws IOException {
+        FileWriter writer = new FileWriter(new File(dir, name));
+        writer.write(contents);
+        writer.close();
+    }
+
+    private static String makeDirectory() throws IOException {
+        File dir = File.createTempFile("savedDict", "");
+        dir.delete();
+        dir.mkdir();
+        dir.deleteOnExit();
+        for (String name : SAVED_FILES)
+            new File(dir, name).deleteOnExit();
+        return dir.getPath();
+    }
+
+    private static byte[] readFile(String dir, String name)
+            throws IOException {
+        RandomAccessFile file = new RandomAccessFile(new File(dir, name), "r");
+        byte[] bytes = new byte[(int) file.length()];
+        file.readFully(bytes);
+        file.close();
+        return bytes;
+    }
+
+    @Test public void testSaveMatchesSynsetWriter() throws Exception {
+        // Both writers save the same reader, since the order in which related
+        // synsets are visited differs between readers.  The offsets assigned
+        // by the first save are undone before the second.
+        WordNetCorpusReader reader =
+            new WordNetCorpusReader(writeDictionary(), false, false);
+        Synset aloud = reader.getSynsets("aloud", PartsOfSpeech.ADVERB)[0];
+        Synset loud = reader.getSynsets("loud", PartsOfSpeech.ADJECTIVE)[0];
+        int staleOffset = loud.getId();
+        Map<Synset, Integer> offsets = new HashMap<Synset, Integer>();
+        List<Set<String>> posLemmas = posLemmas(reader);
+        for (String lemma : reader.wordnetTerms())
+            for (Synset[] synsets : lemmaSynsets(reader, posLemmas, lemma))
+                for (Synset synset : synsets)
+                    offsets.put(synset, synset.getId());
+
+        String oldPath = makeDirectory();
+        String newPath = makeDirectory();
+        saveWithSynsetWriter(reader, oldPath);
+        int newOffset = loud.getId();
+        for (Map.Entry<Synset, Integer> e : offsets.entrySet())
+            e.getKey().setId(e.getValue());
+        reader.saveWordNet(newPath);
+
+        for (String name : SAVED_FILES) {
+            if (name.equals("data.adv"))
+                continue;
+            assertEquals(name, new String(readFile(oldPath, name), "utf-8"),
+                         new String(readFile(newPath, name), "utf-8"));
+        }
+
+        // Both writers give every synset the same offset, but the old writer
+        // wrote the pertainym pointer from aloud with loud's offset from
+        // before the save, since loud had not been given it's new offset yet.
+        assertEquals(loud, aloud.getRelations("\\").iterator().next());
+        assertEquals(newOffset, loud.getId());
+        assertTrue(staleOffset != newOffset);
+
+        String oldAdverbs = new String(readFile(oldPath, "data.adv"), "utf-8");
+        String newAdverbs = new String(readFile(newPath, "data.adv"), "utf-8");
+        String format = "\\ %0" + offsetWidth(newAdverbs) + "d a";
+        String stalePointer = String.format(format, staleOffset);
+        String newPointer = String.format(format, newOffset);
+        assertTrue(oldAdverbs.contains(stalePointer));
+        assertTrue(newAdverbs.contains(newPointer));
+        assertEquals(oldAdverbs.replace(stalePointer, newPointer), newAdverbs);
+    }
+
+    /**
+     * Returns the number of digits used for each offset in {@code data}.
+     */
+    private static int offsetWidth(String data) {
+        return data.indexOf(' ');
+    }
+
+    /**
+     * Returns the lemmas with a {@link Synset} for each part of speech.
+     */
+    private static List<Set<String>> posLemmas(WordNetCorpusReader reader) {
+        List<Set<String>> posLemmas = new ArrayList<Set<String>>();
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            posLemmas.add(reader.wordnetTerms(pos));
+        return posLemmas;
+    }
+
+    /**
+     * Returns the {@link Synset}s stored for each part of speech of {@code
+     * lemma}, without any morphological lookup.
+     */
+    private static Synset[][] lemmaSynsets(WordNetCorpusReader reader,
+                                           List<Set<String>> posLemmas,
+                                           String lemma) {
+        Synset[][] synsets = new Synset[PartsOfSpeech.values().length][];
+        for (PartsOfSpeech pos : PartsOfSpeech.values())
+            synsets[pos.ordinal()] = (posLemmas.get(pos.ordinal()).contains(
+                        lemma))
+                ? reader.getSynsets(lemma, pos)
+                : new Synset[0];
+        return synsets;
+    }
+
+    /**
+     * The original {@link WordNetCorpusReader#saveWordNet}, which serialized
+     * each synset with a {@link WordNetSynsetWriter} while offsets were still
+     * being assigned.
+     */
+    private static void saveWithSynsetWriter(WordNetCorpusReader reader,
+                                             String newDictPath)
+            throws IOException {
+        String[] posTags = WordNetCorpusReader.POS_TAGS;
+        String[] extensions = WordNetCorpusReader.FILE_EXTENSIONS;
+        List<Set<String>> posLemmas = posLemmas(reader);
+
+        int sizePerSynset = 1 + 3 + 2 + 3 + 3 + 2 + 1;
+        int sizePerRelation = 1 + 2 + 5;
+        int sizePerVerbFrame = 2 + 3 + 3;
+
+        int[] requiredSize = new int[posTags.length];
+        int[] numNodes = new int[posTags.length];
+        int[] numRelations = new int[posTags.length];
+        Map<Synset, Integer> synsetSizes = new HashMap<Synset, Integer>();
+        for (String lemma : reader.wordnetTerms()) {
+            Synset[][] lemmaSynsets = lemmaSynsets(reader, posLemmas, lemma);
+            for (int pos = 0; pos < posTags.length; ++pos) {
+                for (Synset synset : lemmaSynsets[pos]) {
+                    numNodes[pos]++;
+                    numRelations[pos] += synset.getNumRelations();
+
+                    int relationSize = 0;
+                    for (String type : synset.getKnownRelationTypes()) {
+                        int typeSize = type.getBytes("utf-8").length + 1;
+                        int numType = synset.getRelations(type).size();
+                        relationSize += numType * typeSize;
+                        relationSize += numType * sizePerRelation;
+                    }
+
+                    int lemmaSize = 0;
+                    for (Lemma l : synset.getLemmas())
+                        lemmaSize += l.getLemmaName().getBytes("utf-8").length
+                                     + 3;
+
+                    int glossSize = synset.getGloss().getBytes("utf-8").length;
+
+                    int extraSize = 0;
+                    if (posTags[pos].equals("v")) {
+                        extraSize += 3;
+                        int[] frameIds = synset.getFrameIds();
+                        int[] lemmaIds = synset.getLemmaIds();
+                        if (frameIds != null && lemmaIds != null)
+                            extraSize += lemmaIds.length * sizePerVerbFrame;
+                    }
+
+                    int synsetSize = sizePerSynset + relationSize +
+                                     lemmaSize + glossSize + extraSize + 1;
+                    synsetSizes.put(synset, synsetSize);
+                    requiredSize[pos] += synsetSize;
+                }
+            }
+        }
+
+        int finalOffsetSize = 0;
+        for (int pos = 0; pos < posTags.length; ++pos) {
+            int bytesPerOffset = Integer.toString(requiredSize[pos]).length();
+            while (true) {
+                int totalBytes = requiredSize[pos] +
+                                 bytesPerOffset * numNodes[pos] +
+                                 bytesPerOffset * numRelations[pos];
+                if (Integer.toString(totalBytes).length() == bytesPerOffset)
+                    break;
+                bytesPerOffset++;
+            }
+            finalOffsetSize = Math.max(finalOffsetSize, bytesPerOffset);
+        }
+
+        int[] dataFileSize = new int[posTags.length];
+        Set<Synset> writtenSynsets = new HashSet<Synset>();
+        List<BufferedOutputStream> dataStreams =
+            new ArrayList<BufferedOutputStream>();
+        List<BufferedOutputStream> indexStreams =
+            new ArrayList<BufferedOutputStream>();
+        List<PrintWriter> senseMappingWriters = new ArrayList<PrintWriter>();
+        for (int pos = 0; pos < posTags.length; ++pos) {
+            if (extensions[pos].length() == 0) {
+                dataStreams.add(null);
+                indexStreams.add(null);
+                senseMappingWriters.add(null);
+                continue;
+            }
+            dataStreams.add(new BufferedOutputStream(new FileOutputStream(
+                            newDictPath + "/data." + extensions[pos])));
+            indexStreams.add(new BufferedOutputStream(new FileOutputStream(
+                            newDictPath + "/index." + extensions[pos])));
+            senseMappingWriters.add(new PrintWriter(
+                        newDictPath + "/senseMap." + extensions[pos]));
+        }
+
+        List<String> senseKeys = new ArrayList<String>();
+        SynsetWriter synsetWriter = new WordNetSynsetWriter(finalOffsetSize);
+        for (String lemma : new TreeSet<String>(reader.wordnetTerms())) {
+            Synset[][] lemmaSynsets = lemmaSynsets(reader, posLemmas, lemma);
+            for (int posIndex = 0; posIndex < posTags.length; ++posIndex) {
+                for (Synset synset : lemmaSynsets[posIndex]) {
+                    if (writtenSynsets.contains(synset))
+                        continue;
+
+                    int pos = dataPos(PartsOfSpeech.values()[posIndex]);
+                    if (synset.getId() != 0)
+                        senseMappingWriters.get(pos).printf(
+                                "%d %d\n", synset.getId(), dataFileSize[pos]);
+                    synset.setId(dataFileSize[pos]);
+                    dataFileSize[pos] += synsetSizes.get(synset) +
+                        (synset.getNumRelations() + 1) * finalOffsetSize;
+
+                    Queue<Synset> toWrite = new LinkedList<Synset>();
+                    writtenSynsets.add(synset);
+                    toWrite.offer(synset);
+                    while (!toWrite.isEmpty()) {
+                        Synset s = toWrite.remove();
+                        for (Relation r : Relation.values()) {
+                            for (Synset related : s.getRelations(r)) {
+                                if (writtenSynsets.contains(related))
+                                    continue;
+                                int relatedPos = dataPos(
+                                        related.getPartOfSpeech());
+                                related.setId(dataFileSize[relatedPos]);
+                                dataFileSize[relatedPos] +=
+                                    synsetSizes.get(related) +
+                                    (related.getNumRelations() + 1) *
+                                    finalOffsetSize;
+                                toWrite.offer(related);
+                                writtenSynsets.add(related);
+                            }
+                        }
+
+                        byte[] bytes = synsetWriter.serializeSynset(s)
+                            .getBytes("utf-8");
+                        dataStreams.get(dataPos(s.getPartOfSpeech())).write(
+                                bytes, 0, bytes.length);
+                        senseKeys.add(synsetWriter.serializeSynsetKey(s));
+                    }
+                }
+            }
+        }
+
+        Collections.sort(senseKeys);
+        PrintWriter writer = new PrintWriter(newDictPath + "/index.sense");
+        for (String senseLine : senseKeys)
+            writer.println(senseLine);
+        writer.close();
+
+        String offsetFormat = "%0" + finalOffsetSize + "d ";
+        for (String lemma : reader.wordnetTerms()) {
+            Synset[][] posSynsets = lemmaSynsets(reader, posLemmas, lemma);
+            for (int pos = 0; pos < posSynsets.length; ++pos) {
+                Synset[] synsets = posSynsets[pos];
+                if (synsets.length == 0)
+                    continue;
+
+                StringBuilder sb = new StringBuilder();
+                sb.append(lemma).append(" ");
+                sb.append(posTags[pos]).append(" ");
+                sb.append(synsets.length).append(" ");
+                Set<String> pointers = new HashSet<String>();
+                for (Synset synset : synsets)
+                    pointers.addAll(synset.getKnownRelationTypes());
+                sb.append(pointers.size()).append(" ");
+                for (String pointerType : pointers)
+                    sb.append(pointerType).append(" ");
+                sb.append(synsets.length).append(" ");
+                sb.append("0 ");
+                for (Synset synset : synsets)
+                    sb.append(String.format(offsetFormat, synset.getId()));
+                sb.append("\n");
+
+                byte[] bytes = sb.toString().getBytes("utf-8");
+                indexStreams.get(dataPos(PartsOfSpeech.values()[pos])).write(
+                        bytes, 0, bytes.length);
+            }
+        }
+
+        for (int pos = 0; pos < posTags.length; ++pos) {
+            if (indexStreams.get(pos) == null)
+                continue;
+            indexStreams.get(pos).close();
+            dataStreams.get(pos).close();
+            senseMappingWriters.get(pos).close();
+        }
+    }
+
+    private static int dataPos(PartsOfSpeech pos) {
+        return (pos == PartsOfSpeech.ADJECTIVE_SAT)
+            ? PartsOfSpeech.ADJECTIVE.ordinal()
+            : pos.ordinal();
+    }
+}
@@ -1,5 +1,3 @@
-
-
 package gov.llnl.ontology.wordnet;
 
 import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
@@ -9,12 +7,20 @@ import org.junit.Test;
 
 import static org.junit.Assert.*;
 
+import java.util.*;
+
 
 /**
  * @author Keith Stevens
  */
 public class WordNetCorpusReaderTest {
 
+    private static Synset makeSynset(String lemma) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "", 0, 0, ""));
+        return synset;
+    }
+
     @Test public void testSynsetMerge() {
         OntologyReader reader = WordNetCorpusReader.initialize("data/dict/");
 
@@ -23,4 +29,101 @@ public class WordNetCorpusReaderTest {
         first.merge(second);
         System.out.println(first.getParentPaths());
     }
+
+    @Test public void testMorphyCache() throws Exception {
+        WordNetCorpusReader reader = new WordNetCorpusReader(
+                MockDictionary.write(), false, false);
+        Synset cat1 = reader.getSynset("cat", PartsOfSpeech.NOUN, 1);
+        Synset cat2 = reader.getSynset("cat", PartsOfSpeech.NOUN, 2);
+
+        Synset[] cats = reader.getSynsets("cats", PartsOfSpeech.NOUN);
+        assertEquals(Arrays.asList(cat1, cat2), Arrays.asList(cats));
+        assertEquals(1, reader.getSynsets("geese", PartsOfSpeech.NOUN).length);
+        assertEquals(0, reader.getSynsets("zebras", PartsOfSpeech.NOUN).length);
+
+        // Cache hits return an equal copy that callers may modify.
+        cats[0] = null;
+        Synset[] cached = reader.getSynsets("cats", PartsOfSpeech.NOUN);
+        assertNotSame(cats, cached);
+        assertEquals(Arrays.asList(cat1, cat2), Arrays.asList(cached));
+
+        // Adding a synset invalidates the cached forms.
+        Synset cat3 = makeSynset("cat");
+        reader.addSynset(cat3);
+        assertEquals(Arrays.asList(cat1, cat2, cat3), Arrays.asList(
+                    reader.getSynsets("cats", PartsOfSpeech.NOUN)));
+
+        Synset zebra = makeSynset("zebra");
+        reader.addSynset(zebra);
+        assertEquals(Arrays.asList(zebra), Arrays.asList(
+                    reader.getSynsets("zebras", PartsOfSpeech.NOUN)));
+
+        // So does removing a synset.
+        reader.removeSynset(cat2);
+        assertEquals(Arrays.asList(cat1, cat3), Arrays.asList(
+                    reader.getSynsets("cats", PartsOfSpeech.NOUN)));
+
+        // And replacing one.
+        Synset kitty = makeSynset("kitty");
+        reader.replaceSynset(cat1, kitty);
+        assertEquals(Arrays.asList(kitty, cat3), Arrays.asList(
+                    reader.getSynsets("cats", PartsOfSpeech.NOUN)));
+    }
+
+    /**
+     * Returns a description of every value stored for {@code synset}.
+     */
+    private static String describe(Synset synset) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(synset.getName()).append(" ").append(synset.getSenseKey())
+          .append(" ").append(synset.getSenseNumber())
+          .append(" ").append(synset.getDefinition())
+          .append(" ").append(synset.getExamples())
+          .append(" ").append(Arrays.toString(synset.getFrameIds()));
+        for (Lemma lemma : synset.getLemmas())
+            sb.append(" ").append(lemma.getLemmaName())
+              .append(" ").append(lemma.getKey());
+        for (String relation : new TreeSet<String>(
+                    synset.getKnownRelationTypes())) {
+            Set<String> related = new TreeSet<String>();
+            for (Synset other : synset.getRelations(relation))
+                related.add(other.getName());
+            sb.append(" ").append(relation).append(related);
+        }
+        return sb.toString();
+    }
+
+    @Test public void testParallelLoad() throws Exception {
+        String dictPath = MockDictionary.write();
+        WordNetCorpusReader sequential =
+            new WordNetCorpusReader(dictPath, false, false);
+        WordNetCorpusReader parallel =
+            new WordNetCorpusReader(dictPath, false, true);
+
+        assertEquals(sequential.wordnetTerms(), parallel.wordnetTerms());
+        int numSynsets = 0;
+        for (PartsOfSpeech pos : PartsOfSpeech.values()) {
+            assertEquals(sequential.wordnetTerms(pos),
+                         parallel.wordnetTerms(pos));
+            assertEquals(sequential.getMaxDepth(pos),
+                         parallel.getMaxDepth(pos));
+            for (String lemma : sequential.wordnetTerms(pos)) {
+                Synset[] expected = sequential.getSynsets(lemma, pos);
+                Synset[] actual = parallel.getSynsets(lemma, pos);
+                assertEquals(expected.length, actual.length);
+                for (int i = 0; i < expected.length; ++i)
+                    assertEquals(describe(expected[i]), describe(actual[i]));
+                numSynsets += expected.length;
+            }
+        }
+        assertEquals(9, numSynsets);
+
+        // The exception lists are loaded by separate tasks as well.
+        assertEquals(Arrays.asList(sequential.getSynsets("geese")),
+                     Arrays.asList(sequential.getSynsets("goose")));
+        assertEquals(describe(sequential.getSynsets("ran")[0]),
+                     describe(parallel.getSynsets("ran")[0]));
+        assertEquals(describe(sequential.getSynsets("bigger")[0]),
+                     describe(parallel.getSynsets("bigger")[0]));
+    }
 }
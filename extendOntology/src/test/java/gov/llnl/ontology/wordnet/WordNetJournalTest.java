@@ -0,0 +1,357 @@
+
+
+package gov.llnl.ontology.wordnet;
+
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.Synset.Relation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class WordNetJournalTest {
+
+    private static List<Map<Integer, Synset>> makeBase() {
+        List<Map<Integer, Synset>> base = new ArrayList<Map<Integer, Synset>>();
+        for (int i = 0; i < PartsOfSpeech.values().length; ++i)
+            base.add(new HashMap<Integer, Synset>());
+        Map<Integer, Synset> nouns = base.get(PartsOfSpeech.NOUN.ordinal());
+        nouns.put(10, new BaseSynset(10, PartsOfSpeech.NOUN));
+        nouns.put(20, new BaseSynset(20, PartsOfSpeech.NOUN));
+        return base;
+    }
+
+    private static Synset noun(List<Map<Integer, Synset>> base, int offset) {
+        return base.get(PartsOfSpeech.NOUN.ordinal()).get(offset);
+    }
+
+    private static class AddingReader extends OntologyReaderAdaptor {
+
+        List<Synset> added = new ArrayList<Synset>();
+
+        public AddingReader() {
+            super(new UnsupportedOntologyReader());
+        }
+
+        public void addSynset(Synset synset, int index) {
+            added.add(synset);
+        }
+    }
+
+    private File record() throws Exception {
+        File file = File.createTempFile("journal", ".wnj");
+        file.delete();
+        file.deleteOnExit();
+
+        List<Map<Integer, Synset>> base = makeBase();
+        WordNetJournal journal = new WordNetJournal(file.getPath(), base);
+        journal.open(new AddingReader());
+
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, "cat", "noun.animal", 5, 0, ""));
+        synset.setDefinition("a small feline");
+        synset.addRelation(Relation.HYPERNYM, noun(base, 10));
+        journal.addSynset(synset, -1);
+        journal.addRelation(noun(base, 20), "~", synset);
+        journal.close();
+        return file;
+    }
+
+    @Test public void testReplay() throws Exception {
+        File file = record();
+
+        List<Map<Integer, Synset>> base = makeBase();
+        AddingReader reader = new AddingReader();
+        new WordNetJournal(file.getPath(), base).open(reader);
+
+        assertEquals(1, reader.added.size());
+        Synset synset = reader.added.get(0);
+        assertEquals("cat", synset.getLemmas().get(0).getLemmaName());
+        assertEquals("a small feline", synset.getDefinition());
+        assertTrue(synset.getParents().contains(noun(base, 10)));
+        assertTrue(noun(base, 20).getRelations("~").contains(synset));
+    }
+
+    @Test public void testPartialRecord() throws Exception {
+        File file = record();
+        long length = file.length();
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write(new byte[] {WordNetJournal.ADD_RELATION, 0, 0, 0, 40, 1});
+        out.close();
+
+        AddingReader reader = new AddingReader();
+        new WordNetJournal(file.getPath(), makeBase()).open(reader);
+        assertEquals(1, reader.added.size());
+        assertEquals(length, file.length());
+    }
+
+    private static File newJournalFile() throws Exception {
+        File file = File.createTempFile("journal", ".wnj");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void truncate(File file, long length) throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(length);
+        raf.close();
+    }
+
+    private static Synset makeSynset(String lemma, Synset parent) {
+        Synset synset = new BaseSynset(PartsOfSpeech.NOUN);
+        synset.addLemma(new BaseLemma(synset, lemma, "noun.animal", 2, 0, ""));
+        synset.setDefinition("a new " + lemma);
+        synset.addRelation(Relation.HYPERNYM, parent);
+        return synset;
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTruncatedHeader() throws Exception {
+        File file = record();
+        truncate(file, WordNetJournal.HEADER_SIZE - 3);
+        new WordNetJournal(file.getPath(), makeBase()).open(new AddingReader());
+    }
+
+    @Test public void testTruncatedOperation() throws Exception {
+        File file = newJournalFile();
+        List<Map<Integer, Synset>> base = makeBase();
+        WordNetJournal journal = new WordNetJournal(file.getPath(), base);
+        journal.open(new AddingReader());
+        journal.addSynset(makeSynset("cat", noun(base, 10)), -1);
+        journal.close();
+
+        // The new synset, it's relation, and the addition are written as a
+        // single record, so cutting the record discards all of them.
+        truncate(file, file.length() - 3);
+        AddingReader reader = new AddingReader();
+        journal = new WordNetJournal(file.getPath(), makeBase());
+        journal.open(reader);
+        assertEquals(0, reader.added.size());
+        assertEquals(WordNetJournal.HEADER_SIZE, file.length());
+
+        // New records are written after the last complete record.
+        journal.addSynset(makeSynset("dog", noun(base, 10)), -1);
+        journal.close();
+        reader = new AddingReader();
+        new WordNetJournal(file.getPath(), makeBase()).open(reader);
+        assertEquals(1, reader.added.size());
+        assertEquals("dog", reader.added.get(0).getLemmas().get(0)
+                                                  .getLemmaName());
+    }
+
+    @Test public void testAbortedOperation() throws Exception {
+        File file = newJournalFile();
+        List<Map<Integer, Synset>> base = makeBase();
+        WordNetJournal journal = new WordNetJournal(file.getPath(), base);
+        journal.open(new AddingReader());
+
+        Synset cat = makeSynset("cat", noun(base, 10));
+        journal.begin();
+        journal.addSynset(cat, -1);
+        journal.end(false);
+        assertEquals(WordNetJournal.HEADER_SIZE, file.length());
+
+        Synset dog = makeSynset("dog", noun(base, 10));
+        journal.begin();
+        journal.addSynset(dog, -1);
+        journal.addRelation(noun(base, 20), "~", dog);
+        journal.end(true);
+        journal.close();
+
+        base = makeBase();
+        AddingReader reader = new AddingReader();
+        new WordNetJournal(file.getPath(), base).open(reader);
+        assertEquals(1, reader.added.size());
+        Synset replayed = reader.added.get(0);
+        assertEquals("dog", replayed.getLemmas().get(0).getLemmaName());
+        assertTrue(noun(base, 20).getRelations("~").contains(replayed));
+    }
+
+    @Test public void testReaderModifications() throws Exception {
+        String dictPath = MockDictionary.write();
+        File file = newJournalFile();
+        WordNetCorpusReader reader =
+            new WordNetCorpusReader(dictPath, false, false);
+        reader.openJournal(file.getPath());
+        try {
+            Synset animal = reader.getSynset("animal.n.1");
+            Synset dog = reader.getSynset("dog.n.1");
+            Synset goose = reader.getSynset("goose.n.1");
+
+            // A failed addition changes nothing and is not recorded.
+            Synset cat = makeSynset("cat", animal);
+            long length = file.length();
+            try {
+                reader.addSynset(cat, 5);
+                fail("Expected an invalid index to be rejected");
+            } catch (IllegalArgumentException iae) {
+            }
+            assertEquals(2, reader.getSynsets(
+                        "cat", PartsOfSpeech.NOUN).length);
+            assertEquals(length, file.length());
+
+            // Relations changed directly on a synset are recorded.
+            reader.addSynset(cat, 0);
+            animal.addRelation(Relation.HYPONYM, cat);
+            dog.addRelation("=", goose);
+            goose.removeRelation(Relation.HYPERNYM, animal);
+        } finally {
+            reader.closeJournal();
+        }
+
+        reader = new WordNetCorpusReader(dictPath, false, false);
+        reader.openJournal(file.getPath());
+        try {
+            Synset animal = reader.getSynset("animal.n.1");
+            Synset cat = reader.getSynset("cat.n.1");
+            assertEquals("a new cat", cat.getDefinition());
+            assertEquals(3, reader.getSynsets(
+                        "cat", PartsOfSpeech.NOUN).length);
+            assertTrue(cat.getParents().contains(animal));
+            assertTrue(animal.getRelations(Relation.HYPONYM).contains(cat));
+            assertTrue(reader.getSynset("dog.n.1").getRelations("=").contains(
+                        reader.getSynset("goose.n.1")));
+            assertTrue(reader.getSynset("goose.n.1").getParents().isEmpty());
+        } finally {
+            reader.closeJournal();
+        }
+    }
+
+    @Test public void testUnrelatedConcurrentChanges() throws Exception {
+        String dictPath = MockDictionary.write();
+        File file = newJournalFile();
+        WordNetCorpusReader reader =
+            new WordNetCorpusReader(dictPath, false, false);
+        reader.openJournal(file.getPath());
+
+        // Another thread keeps changing synsets that are not in the
+        // dictionary while relations are added to the dictionary.
+        final AtomicBoolean done = new AtomicBoolean();
+        final Throwable[] failure = new Throwable[1];
+        Thread scratch = new Thread() {
+            public void run() {
+                try {
+                    Synset parent = new BaseSynset(PartsOfSpeech.NOUN);
+                    while (!done.get()) {
+                        Synset child = new BaseSynset(PartsOfSpeech.NOUN);
+                        child.addRelation(Relation.HYPERNYM, parent);
+                        child.removeRelation(Relation.HYPERNYM, parent);
+                    }
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        };
+
+        int numRelations = 500;
+        try {
+            scratch.start();
+            Synset dog = reader.getSynset("dog.n.1");
+            Synset goose = reader.getSynset("goose.n.1");
+            for (int i = 0; i < numRelations; ++i)
+                dog.addRelation("r" + i, goose);
+        } finally {
+            done.set(true);
+            scratch.join();
+            reader.closeJournal();
+        }
+        assertNull(failure[0]);
+
+        reader = new WordNetCorpusReader(dictPath, false, false);
+        reader.openJournal(file.getPath());
+        try {
+            Synset dog = reader.getSynset("dog.n.1");
+            Synset goose = reader.getSynset("goose.n.1");
+            for (int i = 0; i < numRelations; ++i)
+                assertTrue(dog.getRelations("r" + i).contains(goose));
+            assertEquals(numRelations + 1, dog.getNumRelations());
+        } finally {
+            reader.closeJournal();
+        }
+    }
+
+    private static String newDirectory() throws Exception {
+        File dir = File.createTempFile("compacted", "");
+        dir.delete();
+        dir.mkdir();
+        dir.deleteOnExit();
+        return dir.getPath();
+    }
+
+    private static void deleteOnExit(String dir) {
+        for (File file : new File(dir).listFiles())
+            file.deleteOnExit();
+    }
+
+    @Test public void testCompact() throws Exception {
+        String dictPath = MockDictionary.write();
+        File file = newJournalFile();
+        File compactedFile = newJournalFile();
+        String compactedPath = newDirectory();
+
+        WordNetCorpusReader reader =
+            new WordNetCorpusReader(dictPath, false, false);
+        reader.openJournal(file.getPath());
+        try {
+            Synset animal = reader.getSynset("animal.n.1");
+            Synset lion = makeSynset("lion", animal);
+            reader.addSynset(lion);
+            animal.addRelation(Relation.HYPONYM, lion);
+
+            reader.compact(compactedPath, compactedFile.getPath());
+            deleteOnExit(compactedPath);
+            assertTrue(file.length() > WordNetJournal.HEADER_SIZE);
+            assertEquals(WordNetJournal.HEADER_SIZE, compactedFile.length());
+
+            // Modifications after compacting go to the new journal and refer
+            // to the new dictionary.
+            reader.getSynset("dog.n.1").addRelation(
+                    "=", reader.getSynset("lion.n.1"));
+            assertTrue(compactedFile.length() > WordNetJournal.HEADER_SIZE);
+        } finally {
+            reader.closeJournal();
+        }
+
+        // The compacted dictionary holds every journaled modification and can
+        // be loaded on it's own.
+        for (String name : new String[] {"lexnames", "frames.vrb", "noun.exc",
+                                         "verb.exc", "adj.exc", "adv.exc"})
+            assertTrue(name, new File(compactedPath, name).exists());
+        reader = new WordNetCorpusReader(compactedPath, false, false);
+        Synset animal = reader.getSynset("animal.n.1");
+        Synset lion = reader.getSynset("lion.n.1");
+        assertEquals("a new lion", lion.getDefinition());
+        assertTrue(lion.getParents().contains(animal));
+        assertTrue(animal.getRelations(Relation.HYPONYM).contains(lion));
+        assertFalse(reader.getSynset("dog.n.1").getRelations("=").contains(
+                    lion));
+        assertEquals(1, reader.getSynsets("geese", PartsOfSpeech.NOUN).length);
+        assertEquals(1, reader.getSynsets("ran", PartsOfSpeech.VERB).length);
+
+        // Replaying the new journal over the compacted dictionary gives the
+        // modifications made after compacting.
+        reader = new WordNetCorpusReader(compactedPath, false, false);
+        reader.openJournal(compactedFile.getPath());
+        try {
+            assertTrue(reader.getSynset("dog.n.1").getRelations("=").contains(
+                        reader.getSynset("lion.n.1")));
+        } finally {
+            reader.closeJournal();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.GenericMockReader;
+import gov.llnl.ontology.wordnet.OntologyReader;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class CascadingDisambiguationTest {
+
+    public static final String[][] SYNSET_DATA =
+    {
+        { "cat.n.1", "fluffy pet", "N" },
+        { "cat.n.2", "metal machine", "N" },
+        { "dog.n.1", "fluffy pet animal", "N" },
+        { "dog.n.2", "lazy person", "N" },
+        { "tree.n.1", "tall plant", "N" },
+        { "bank.n.1", "river side", "N" },
+        { "bank.n.2", "money place", "N" },
+    };
+
+    private static List<Sentence> getSentences(String... tokens) {
+        Sentence sent = new Sentence(0, 1, tokens.length);
+        for (int i = 0; i < tokens.length; ++i) {
+            Annotation annot = new Annotation(tokens[i]);
+            AnnotationUtil.setPos(annot, "N");
+            sent.addAnnotation(i, annot);
+        }
+        return Collections.singletonList(sent);
+    }
+
+    @Test public void testEscalation() {
+        MockSelectiveDisambiguation expensive =
+            new MockSelectiveDisambiguation();
+        CascadingDisambiguation wsdAlg = new CascadingDisambiguation(
+                expensive);
+        wsdAlg.setup(new GenericMockReader(SYNSET_DATA));
+
+        List<Sentence> sentences = getSentences("cat", "dog", "tree", "bank");
+        wsdAlg.disambiguate(sentences);
+
+        Annotation[] words = new Annotation[4];
+        int w = 0;
+        for (Annotation annot : sentences.get(0))
+            words[w++] = annot;
+        assertEquals("cat.n.1", AnnotationUtil.wordSense(words[0]));
+        assertEquals("dog.n.1", AnnotationUtil.wordSense(words[1]));
+        assertEquals("tree.n.1", AnnotationUtil.wordSense(words[2]));
+        assertEquals("expensive", AnnotationUtil.wordSense(words[3]));
+
+        assertEquals(1, expensive.targets.size());
+        assertTrue(expensive.targets.contains(words[3]));
+        assertEquals(1, wsdAlg.resolvedCount(
+                    CascadingDisambiguation.Stage.MONOSEMOUS));
+        assertEquals(2, wsdAlg.resolvedCount(
+                    CascadingDisambiguation.Stage.OVERLAP));
+        assertEquals(1, wsdAlg.resolvedCount(
+                    CascadingDisambiguation.Stage.ESCALATED));
+    }
+
+    @Test public void testNonSelectiveEscalation() {
+        MockDisambiguation expensive = new MockDisambiguation();
+        CascadingDisambiguation wsdAlg = new CascadingDisambiguation(
+                expensive);
+        wsdAlg.setup(new GenericMockReader(SYNSET_DATA));
+
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        sentences.addAll(getSentences("cat", "dog", "tree", "bank"));
+        sentences.addAll(getSentences("tree"));
+        wsdAlg.disambiguate(sentences);
+
+        // Only the sentence with an escalated word is disambiguated again,
+        // and the senses from the cheaper stages are restored afterwards.
+        assertEquals(1, expensive.sentences.size());
+        assertSame(sentences.get(0), expensive.sentences.get(0));
+
+        Annotation[] words = new Annotation[4];
+        int w = 0;
+        for (Annotation annot : sentences.get(0))
+            words[w++] = annot;
+        assertEquals("cat.n.1", AnnotationUtil.wordSense(words[0]));
+        assertEquals("dog.n.1", AnnotationUtil.wordSense(words[1]));
+        assertEquals("tree.n.1", AnnotationUtil.wordSense(words[2]));
+        assertEquals("expensive", AnnotationUtil.wordSense(words[3]));
+        for (Annotation annot : sentences.get(1))
+            assertEquals("tree.n.1", AnnotationUtil.wordSense(annot));
+        assertEquals(1, wsdAlg.resolvedCount(
+                    CascadingDisambiguation.Stage.ESCALATED));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidMargin() {
+        new CascadingDisambiguation(new MockSelectiveDisambiguation(), 2);
+    }
+
+    /**
+     * Gives every word the same sense and records the sentences it is asked
+     * to disambiguate.
+     */
+    private static class MockDisambiguation
+            implements WordSenseDisambiguation {
+
+        List<Sentence> sentences = new ArrayList<Sentence>();
+
+        public void setup(OntologyReader reader) {
+        }
+
+        public void disambiguate(List<Sentence> sentences) {
+            this.sentences.addAll(sentences);
+            for (Sentence sentence : sentences)
+                for (Annotation annot : sentence)
+                    AnnotationUtil.setWordSense(annot, "expensive");
+        }
+    }
+
+    /**
+     * Records the words it is asked to disambiguate.
+     */
+    private static class MockSelectiveDisambiguation
+            implements SelectiveWordSenseDisambiguation {
+
+        Set<Annotation> targets;
+
+        public void setup(OntologyReader reader) {
+        }
+
+        public void disambiguate(List<Sentence> sentences) {
+            disambiguate(sentences, null);
+        }
+
+        public void disambiguate(List<Sentence> sentences,
+                                 Set<Annotation> targets) {
+            this.targets = targets;
+            for (Annotation annot : targets)
+                AnnotationUtil.setWordSense(annot, "expensive");
+        }
+    }
+}
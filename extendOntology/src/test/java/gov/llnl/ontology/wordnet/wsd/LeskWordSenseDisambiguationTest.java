@@ -69,4 +69,9 @@ public class LeskWordSenseDisambiguationTest {
         }
         assertTrue(foundCat);
     }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidWindowSize() {
+        new LeskWordSenseDisambiguation(0);
+    }
 }
@@ -3,6 +3,7 @@ package gov.llnl.ontology.wordnet.wsd;
 import gov.llnl.ontology.text.Sentence;
 import gov.llnl.ontology.util.AnnotationUtil;
 import gov.llnl.ontology.wordnet.LinkedMockReader;
+import gov.llnl.ontology.wordnet.LocalPushPageRank;
 
 import edu.stanford.nlp.pipeline.Annotation;
 
@@ -11,6 +12,7 @@ import org.junit.Test;
 
 import static org.junit.Assert.*;
 
+import java.util.Iterator;
 import java.util.List;
 
 
@@ -63,4 +65,26 @@ public class PersonalizedPageRankWSDTest
         }
         assertTrue(foundCat);
     }
+
+    @Test public void testLocalPushDisambiguation() {
+        LinkedMockReader reader = new LinkedMockReader(SYNSET_DATA);
+        for (String[] synsetLink : SYNSET_LINKS)
+            reader.connectSynsets(synsetLink[0], synsetLink[1], "r");
+
+        WordSenseDisambiguation exact = new PersonalizedPageRankWSD();
+        exact.setup(reader);
+        List<Sentence> expected = getSentences(TEST_SENTENCE, TEST_POS);
+        exact.disambiguate(expected);
+
+        WordSenseDisambiguation approximate = new PersonalizedPageRankWSD(
+                new LocalPushPageRank(1e-10));
+        approximate.setup(reader);
+        List<Sentence> sentences = getSentences(TEST_SENTENCE, TEST_POS);
+        approximate.disambiguate(sentences);
+
+        Iterator<Annotation> expectedWords = expected.get(0).iterator();
+        for (Annotation word : sentences.get(0))
+            assertEquals(AnnotationUtil.wordSense(expectedWords.next()),
+                         AnnotationUtil.wordSense(word));
+    }
 }
@@ -0,0 +1,156 @@
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.wordnet.LinkedMockReader;
+import gov.llnl.ontology.wordnet.Synset;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class SentenceGraphBuilderTest {
+
+    public static final String[][] SYNSET_DATA =
+    {
+        { "cat.n.1", "a pet", "N" },
+        { "pet.n.1", "an animal", "N" },
+        { "animal.n.1", "a being", "N" },
+        { "dog.n.1", "a pet", "N" },
+        { "chicken.n.1", "a bird", "N" },
+    };
+
+    public static final String[][] SYNSET_LINKS =
+    {
+        { "cat.n.1", "pet.n.1" },
+        { "pet.n.1", "animal.n.1" },
+        { "animal.n.1", "dog.n.1" },
+        { "cat.n.1", "dog.n.1" },
+    };
+
+    private LinkedMockReader makeReader() {
+        LinkedMockReader reader = new LinkedMockReader(SYNSET_DATA);
+        for (String[] synsetLink : SYNSET_LINKS)
+            reader.connectSynsets(synsetLink[0], synsetLink[1], "r");
+        return reader;
+    }
+
+    @Test public void testShortestPath() {
+        LinkedMockReader reader = makeReader();
+        Synset cat = reader.getSynset("cat.n.1");
+        Synset animal = reader.getSynset("animal.n.1");
+        Synset chicken = reader.getSynset("chicken.n.1");
+
+        SentenceGraph graph = new SentenceGraphBuilder(reader).build(
+                Arrays.asList(cat, animal, chicken));
+        assertEquals(0, graph.node(cat));
+        assertEquals(1, graph.node(animal));
+        assertEquals(2, graph.node(chicken));
+        assertEquals(4, graph.numNodes());
+        assertEquals(2, graph.numLinks());
+        assertEquals(1, graph.degree(graph.node(cat)));
+        assertEquals(0, graph.degree(graph.node(chicken)));
+
+        int middle = graph.neighbor(graph.node(cat), 0);
+        assertEquals(2, graph.degree(middle));
+        Synset middleSynset = graph.synset(middle);
+        assertTrue(middleSynset == reader.getSynset("dog.n.1") ||
+                   middleSynset == reader.getSynset("pet.n.1"));
+    }
+
+    /**
+     * A graph where a and b are joined by a path of two links and another of
+     * three links, b and c are joined by a path of exactly six links, and c
+     * and e are only joined by a path of seven links.
+     */
+    public static final String[][] PATH_LINKS =
+    {
+        { "a.n.1", "x.n.1" },
+        { "x.n.1", "b.n.1" },
+        { "a.n.1", "y.n.1" },
+        { "y.n.1", "y.n.2" },
+        { "y.n.2", "b.n.1" },
+        { "b.n.1", "p.n.1" },
+        { "p.n.1", "p.n.2" },
+        { "p.n.2", "p.n.3" },
+        { "p.n.3", "p.n.4" },
+        { "p.n.4", "p.n.5" },
+        { "p.n.5", "c.n.1" },
+        { "c.n.1", "q.n.1" },
+        { "q.n.1", "q.n.2" },
+        { "q.n.2", "q.n.3" },
+        { "q.n.3", "q.n.4" },
+        { "q.n.4", "q.n.5" },
+        { "q.n.5", "q.n.6" },
+        { "q.n.6", "e.n.1" },
+    };
+
+    @Test public void testOneShortestPathPerPair() {
+        Set<String> names = new HashSet<String>();
+        for (String[] link : PATH_LINKS)
+            names.addAll(Arrays.asList(link));
+        String[][] synsetData = new String[names.size()][];
+        int i = 0;
+        for (String name : names)
+            synsetData[i++] = new String[] {name, "a gloss", "N"};
+        LinkedMockReader reader = new LinkedMockReader(synsetData);
+        for (String[] link : PATH_LINKS)
+            reader.connectSynsets(link[0], link[1], "r");
+
+        SentenceGraph graph = new SentenceGraphBuilder(reader).build(
+                Arrays.asList(reader.getSynset("a.n.1"),
+                              reader.getSynset("b.n.1"),
+                              reader.getSynset("c.n.1"),
+                              reader.getSynset("e.n.1")));
+
+        // Only the shorter path from a to b is kept, the six link path from
+        // b to c is kept, and nothing joins c to e.
+        Set<String> expected = new HashSet<String>(Arrays.asList(
+                    "a.n.1 x.n.1", "b.n.1 x.n.1",
+                    "b.n.1 p.n.1", "p.n.1 p.n.2", "p.n.2 p.n.3",
+                    "p.n.3 p.n.4", "p.n.4 p.n.5", "c.n.1 p.n.5"));
+        assertEquals(expected, links(graph));
+        assertEquals(10, graph.numNodes());
+        assertEquals(8, graph.numLinks());
+        assertEquals(0, graph.degree(graph.node(reader.getSynset("e.n.1"))));
+    }
+
+    /**
+     * Returns each link in {@code graph} as the names of it's two {@link
+     * Synset}s, in sorted order.
+     */
+    private static Set<String> links(SentenceGraph graph) {
+        Set<String> links = new HashSet<String>();
+        for (int node = 0; node < graph.numNodes(); ++node)
+            for (int i = 0; i < graph.degree(node); ++i) {
+                String name1 = graph.synset(node).getName();
+                String name2 = graph.synset(graph.neighbor(node, i)).getName();
+                links.add((name1.compareTo(name2) < 0)
+                        ? name1 + " " + name2
+                        : name2 + " " + name1);
+            }
+        return links;
+    }
+
+    @Test public void testMaxLength() {
+        LinkedMockReader reader = makeReader();
+        Synset cat = reader.getSynset("cat.n.1");
+        Synset animal = reader.getSynset("animal.n.1");
+
+        SentenceGraph graph = new SentenceGraphBuilder(reader, 1).build(
+                Arrays.asList(cat, animal));
+        assertEquals(2, graph.numNodes());
+        assertEquals(0, graph.numLinks());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidMaxLength() {
+        new SentenceGraphBuilder(makeReader(), 0);
+    }
+}
@@ -0,0 +1,312 @@
+package gov.llnl.ontology.wordnet.wsd;
+
+import gov.llnl.ontology.text.Sentence;
+import gov.llnl.ontology.util.AnnotationUtil;
+import gov.llnl.ontology.wordnet.GenericMockReader;
+import gov.llnl.ontology.wordnet.GlossTokens;
+import gov.llnl.ontology.wordnet.LeskSimilarity;
+import gov.llnl.ontology.wordnet.OntologyReader;
+import gov.llnl.ontology.wordnet.Synset;
+import gov.llnl.ontology.wordnet.Synset.PartsOfSpeech;
+import gov.llnl.ontology.wordnet.SynsetSimilarity;
+
+import edu.stanford.nlp.pipeline.Annotation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+
+/**
+ * @author Keith Stevens
+ */
+public class SlidingGlossWindowTest {
+
+    private static final int[] WINDOW_SIZES = {1, 2, 3, 5, 10};
+
+    private static final String[] POS_TAGS = {"NN", "VB", "JJ", "RB"};
+
+    /**
+     * Returns synset data for twelve lemmas with zero to three senses each,
+     * whose glosses are drawn from a small vocabulary so that they often
+     * share tokens and sometimes repeat them.
+     */
+    private static String[][] makeSynsetData(Random random) {
+        List<String[]> synsetData = new ArrayList<String[]>();
+        for (int w = 0; w < 12; ++w) {
+            int numSenses = random.nextInt(4);
+            for (int s = 1; s <= numSenses; ++s) {
+                StringBuilder gloss = new StringBuilder("g0");
+                int length = 1 + random.nextInt(6);
+                for (int t = 0; t < length; ++t)
+                    gloss.append(" g").append(random.nextInt(15));
+                synsetData.add(new String[] {
+                    "w" + w + ".n." + s, gloss.toString(), "N"});
+            }
+        }
+        return synsetData.toArray(new String[synsetData.size()][]);
+    }
+
+    /**
+     * Returns three sentences of random words, some of which have no senses
+     * or repeat within a window.  A few words are not content words.
+     */
+    private static List<Sentence> makeSentences(Random random) {
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        for (int i = 0; i < 3; ++i) {
+            int length = 10 + random.nextInt(10);
+            Sentence sentence = new Sentence(0, 1, length);
+            for (int j = 0; j < length; ++j) {
+                Annotation annot = new Annotation("w" + random.nextInt(14));
+                AnnotationUtil.setPos(annot, (random.nextInt(20) == 0)
+                        ? "DT"
+                        : POS_TAGS[random.nextInt(POS_TAGS.length)]);
+                sentence.addAnnotation(j, annot);
+            }
+            sentences.add(sentence);
+        }
+        return sentences;
+    }
+
+    /**
+     * Returns every word in {@code sentences} with probability {@code
+     * probability}.
+     */
+    private static Set<Annotation> makeTargets(List<Sentence> sentences,
+                                               double probability,
+                                               Random random) {
+        Set<Annotation> targets = new HashSet<Annotation>();
+        for (Sentence sentence : sentences)
+            for (Annotation annot : sentence)
+                if (random.nextDouble() < probability)
+                    targets.add(annot);
+        return targets;
+    }
+
+    private static Synset[] senses(OntologyReader reader, Annotation word) {
+        Synset[] senses = reader.getSynsets(
+                AnnotationUtil.word(word), PartsOfSpeech.NOUN);
+        return (senses == null) ? new Synset[0] : senses;
+    }
+
+    /**
+     * Returns the number of context glosses containing each token, counted
+     * directly from the senses of {@code prevWords} and {@code nextWords}.
+     */
+    private static Map<Integer, Integer> countContext(
+            OntologyReader reader,
+            Queue<Annotation> prevWords,
+            Queue<Annotation> nextWords) {
+        List<Annotation> context = new ArrayList<Annotation>(prevWords);
+        context.addAll(nextWords);
+        Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+        for (Annotation word : context)
+            for (Synset sense : senses(reader, word)) {
+                GlossTokens gloss = GlossTokens.forSynset(sense);
+                for (int token : gloss.distinctTokens()) {
+                    Integer count = counts.get(token);
+                    counts.put(token, (count == null) ? 1 : count + 1);
+                }
+            }
+        return counts;
+    }
+
+    /**
+     * Returns the bag of context gloss tokens held by {@code window}.
+     */
+    private static Map<Integer, Integer> bag(SlidingGlossWindow window) {
+        int[] tokens = new int[window.numContextTokens()];
+        double[] weights = new double[tokens.length];
+        window.contextTokens(tokens, weights);
+        Map<Integer, Integer> bag = new HashMap<Integer, Integer>();
+        for (int t = 0; t < tokens.length; ++t) {
+            assertEquals(weights[t], window.contextCount(tokens[t]), 0);
+            bag.put(tokens[t], (int) weights[t]);
+        }
+        return bag;
+    }
+
+    /**
+     * Runs a {@link CheckedWindowDisambiguation} over random sentences for
+     * every window size in {@link #WINDOW_SIZES}, disambiguating each word
+     * with probability {@code probability}.
+     */
+    private static void checkWindows(double probability) {
+        Random random = new Random(11);
+        int numChecked = 0;
+        for (int trial = 0; trial < 10; ++trial) {
+            OntologyReader reader = new GenericMockReader(
+                    makeSynsetData(random));
+            List<Sentence> sentences = makeSentences(random);
+            Set<Annotation> targets = (probability < 1)
+                ? makeTargets(sentences, probability, random)
+                : null;
+            for (int windowSize : WINDOW_SIZES) {
+                CheckedWindowDisambiguation wsdAlg =
+                    new CheckedWindowDisambiguation(windowSize);
+                wsdAlg.setup(reader);
+                wsdAlg.disambiguate(sentences, targets);
+                numChecked += wsdAlg.numChecked;
+            }
+        }
+        assertTrue(numChecked > 0);
+    }
+
+    @Test public void testSlideByOneWord() {
+        checkWindows(1);
+    }
+
+    @Test public void testJumpPastSkippedTargets() {
+        checkWindows(.3);
+    }
+
+    @Test public void testJumpPastWholeWindow() {
+        checkWindows(.05);
+    }
+
+    @Test public void testLeskMatchesPairwiseScoring() {
+        Random random = new Random(13);
+        for (int trial = 0; trial < 20; ++trial) {
+            OntologyReader reader = new GenericMockReader(
+                    makeSynsetData(random));
+            long seed = random.nextLong();
+            for (int windowSize : WINDOW_SIZES) {
+                for (double probability : new double[] {1, .3}) {
+                    List<Sentence> expected = makeSentences(new Random(seed));
+                    List<Sentence> actual = makeSentences(new Random(seed));
+                    Set<Annotation> expectedTargets = null;
+                    Set<Annotation> actualTargets = null;
+                    if (probability < 1) {
+                        expectedTargets = makeTargets(
+                                expected, probability, new Random(seed));
+                        actualTargets = makeTargets(
+                                actual, probability, new Random(seed));
+                    }
+
+                    PairwiseLesk pairwise = new PairwiseLesk(windowSize);
+                    pairwise.setup(reader);
+                    pairwise.disambiguate(expected, expectedTargets);
+
+                    LeskWordSenseDisambiguation lesk =
+                        new LeskWordSenseDisambiguation(windowSize);
+                    lesk.setup(reader);
+                    lesk.disambiguate(actual, actualTargets);
+
+                    assertEquals(senses(expected), senses(actual));
+                }
+            }
+        }
+    }
+
+    private static List<String> senses(List<Sentence> sentences) {
+        List<String> senses = new ArrayList<String>();
+        for (Sentence sentence : sentences)
+            for (Annotation annot : sentence)
+                senses.add(AnnotationUtil.wordSense(annot));
+        return senses;
+    }
+
+    /**
+     * Slides a {@link SlidingGlossWindow} across each context and checks it
+     * against a freshly built {@link SlidingGlossWindow} and against the
+     * senses of the context words.
+     */
+    private static class CheckedWindowDisambiguation
+            extends SlidingWindowDisambiguation {
+
+        private OntologyReader reader;
+
+        private SlidingGlossWindow window;
+
+        private int numChecked;
+
+        public CheckedWindowDisambiguation(int windowSize) {
+            super(windowSize);
+        }
+
+        public void setup(OntologyReader reader) {
+            this.reader = reader;
+            this.window = new SlidingGlossWindow(reader);
+        }
+
+        protected void processContext(Annotation focus,
+                                      Queue<Annotation> prevWords,
+                                      Queue<Annotation> nextWords) {
+            window.slide(prevWords, focus, nextWords);
+            SlidingGlossWindow fresh = new SlidingGlossWindow(reader);
+            fresh.slide(prevWords, focus, nextWords);
+
+            Map<Integer, Integer> expected =
+                countContext(reader, prevWords, nextWords);
+            assertEquals(expected, bag(fresh));
+            assertEquals(expected, bag(window));
+            assertEquals(expected.size(), window.numContextTokens());
+
+            assertArrayEquals(senses(reader, focus), window.focusSenses());
+            List<Synset[]> contextSenses = window.contextSenses();
+            assertEquals(prevWords.size() + nextWords.size(),
+                         contextSenses.size());
+            int i = 0;
+            for (Annotation word : prevWords)
+                assertArrayEquals(senses(reader, word), contextSenses.get(i++));
+            for (Annotation word : nextWords)
+                assertArrayEquals(senses(reader, word), contextSenses.get(i++));
+            numChecked++;
+        }
+    }
+
+    /**
+     * The original Lesk scoring, which sums the {@link LeskSimilarity} between
+     * each focus sense and every sense of every context word.
+     */
+    private static class PairwiseLesk extends SlidingWindowDisambiguation {
+
+        private final SynsetSimilarity sim = new LeskSimilarity();
+
+        private OntologyReader reader;
+
+        public PairwiseLesk(int windowSize) {
+            super(windowSize);
+        }
+
+        public void setup(OntologyReader reader) {
+            this.reader = reader;
+        }
+
+        protected void processContext(Annotation focus,
+                                      Queue<Annotation> prevWords,
+                                      Queue<Annotation> nextWords) {
+            Synset[] focusSynsets = senses(reader, focus);
+            if (focusSynsets.length == 0)
+                return;
+
+            List<Annotation> context = new ArrayList<Annotation>(prevWords);
+            context.addAll(nextWords);
+            double[] synsetScores = new double[focusSynsets.length];
+            for (Annotation word : context)
+                for (Synset other : senses(reader, word))
+                    for (int i = 0; i < focusSynsets.length; ++i)
+                        synsetScores[i] += sim.similarity(
+                                focusSynsets[i], other);
+
+            double maxScore = 0;
+            int maxId = 0;
+            for (int i = 0; i < synsetScores.length; ++i)
+                if (synsetScores[i] > maxScore) {
+                    maxScore = synsetScores[i];
+                    maxId = i;
+                }
+
+            AnnotationUtil.setWordSense(focus, focusSynsets[maxId].getName());
+        }
+    }
+}